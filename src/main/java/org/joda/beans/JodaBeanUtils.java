@@ -15,6 +15,7 @@
  */
 package org.joda.beans;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Array;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.ParameterizedType;
@@ -82,6 +83,14 @@ public final class JodaBeanUtils {
      * The cache of meta-beans.
      */
     private static final StringConvert converter = new StringConvert();
+    /**
+     * The cache of resolved generic type arguments, keyed by property, with one entry per target type.
+     * The arrays are copied on write, allowing lookup without locking.
+     * The entries only refer weakly to classes, allowing class unloading,
+     * while the meta-properties are held strongly, as the meta-beans are cached above.
+     */
+    private static final ConcurrentHashMap<MetaProperty<?>, GenericTypes[]> genericTypes =
+            new ConcurrentHashMap<MetaProperty<?>, GenericTypes[]>();
 
     /**
      * Restricted constructor.
@@ -638,8 +647,7 @@ public final class JodaBeanUtils {
      * @return the collection content type generic parameters, empty if unable to determine, no nulls
      */
     public static List<Class<?>> collectionTypeTypes(MetaProperty<?> prop, Class<?> targetClass) {
-        Type type = extractType(targetClass, prop, 1, 0);
-        return extractTypeClasses(targetClass, type);
+        return extractTypeClasses(targetClass, prop, 1, 0);
     }
 
     /**
@@ -700,8 +708,7 @@ public final class JodaBeanUtils {
      * @return the map value type generic parameters, empty if unable to determine, no nulls
      */
     public static List<Class<?>> mapValueTypeTypes(MetaProperty<?> prop, Class<?> targetClass) {
-        Type type = extractType(targetClass, prop, 2, 1);
-        return extractTypeClasses(targetClass, type);
+        return extractTypeClasses(targetClass, prop, 2, 1);
     }
 
     /**
@@ -714,25 +721,76 @@ public final class JodaBeanUtils {
      * @return the type, null if unable to determine or type has no generic parameters
      */
     public static Class<?> extractTypeClass(MetaProperty<?> prop, Class<?> targetClass, int size, int index) {
-        return eraseToClass(extractType(targetClass, prop, size, index));
+        GenericTypes types = genericTypes(targetClass, prop, size, false);
+        if (types == null) {
+            return null;
+        }
+        Class<?> cls = types.typeClass(index);
+        if (cls == null && types.isCleared()) {
+            cls = genericTypes(targetClass, prop, size, true).typeClass(index);
+        }
+        return cls;
+    }
+
+    private static List<Class<?>> extractTypeClasses(Class<?> targetClass, MetaProperty<?> prop, int size, int index) {
+        GenericTypes types = genericTypes(targetClass, prop, size, false);
+        if (types == null) {
+            return new ArrayList<Class<?>>();
+        }
+        List<Class<?>> classes = types.typeClasses(index);
+        if (classes.contains(null)) {
+            classes = genericTypes(targetClass, prop, size, true).typeClasses(index);
+        }
+        return classes;
     }
 
-    private static Type extractType(Class<?> targetClass, MetaProperty<?> prop, int size, int index) {
+    // finds the resolved type arguments of the property, null if not a parameterized type with the expected size
+    // the result is cached, as resolving type variables is slow and is needed for every bean serialized
+    // the cache is read without locking, with cleared classes only checked for by the caller on a null result
+    private static GenericTypes genericTypes(Class<?> targetClass, MetaProperty<?> prop, int size, boolean refresh) {
         Type genType = prop.propertyGenericType();
-        if (genType instanceof ParameterizedType) {
-            ParameterizedType pt = (ParameterizedType) genType;
-            Type[] types = pt.getActualTypeArguments();
-            if (types.length == size) {
-                Type type = types[index];
-                if (type instanceof TypeVariable) {
-                    type = resolveGenerics(targetClass, (TypeVariable<?>) type);
+        if (genType instanceof ParameterizedType == false) {
+            return null;
+        }
+        GenericTypes types = (refresh ? null : findGenericTypes(targetClass, prop));
+        if (types == null) {
+            types = new GenericTypes(targetClass, (ParameterizedType) genType);
+            cacheGenericTypes(prop, types);
+        }
+        return (types.size() == size ? types : null);
+    }
+
+    private static GenericTypes findGenericTypes(Class<?> targetClass, MetaProperty<?> prop) {
+        GenericTypes[] cached = genericTypes.get(prop);
+        if (cached != null) {
+            for (GenericTypes types : cached) {
+                if (types.target.get() == targetClass) {
+                    return types;
                 }
-                return type;
             }
         }
         return null;
     }
 
+    // copies the array on write, replacing any entry for the same target and dropping unloaded targets
+    private static void cacheGenericTypes(MetaProperty<?> prop, GenericTypes types) {
+        Class<?> targetClass = types.target.get();
+        synchronized (genericTypes) {
+            GenericTypes[] cached = genericTypes.get(prop);
+            List<GenericTypes> updated = new ArrayList<GenericTypes>();
+            if (cached != null) {
+                for (GenericTypes existing : cached) {
+                    Class<?> existingTarget = existing.target.get();
+                    if (existingTarget != null && existingTarget != targetClass) {
+                        updated.add(existing);
+                    }
+                }
+            }
+            updated.add(types);
+            genericTypes.put(prop, updated.toArray(new GenericTypes[updated.size()]));
+        }
+    }
+
     private static List<Class<?>> extractTypeClasses(Class<?> targetClass, Type type) {
         List<Class<?>> result = new ArrayList<Class<?>>();
         if (type != null) {
@@ -913,6 +971,74 @@ public final class JodaBeanUtils {
         return Collections.reverseOrder(new Comp(query));
     }
 
+    //-------------------------------------------------------------------------
+    /**
+     * The type arguments of a parameterized property type, resolved against a target type.
+     * The classes are held weakly, so that the cache does not prevent class unloading.
+     */
+    private static final class GenericTypes {
+        private final WeakReference<Class<?>> target;
+        private final List<WeakReference<Class<?>>> classes;
+        private final List<List<WeakReference<Class<?>>>> typeClasses;
+
+        private GenericTypes(Class<?> targetClass, ParameterizedType genType) {
+            target = new WeakReference<Class<?>>(targetClass);
+            Type[] types = genType.getActualTypeArguments();
+            classes = new ArrayList<WeakReference<Class<?>>>(types.length);
+            typeClasses = new ArrayList<List<WeakReference<Class<?>>>>(types.length);
+            for (int i = 0; i < types.length; i++) {
+                Type type = types[i];
+                if (type instanceof TypeVariable) {
+                    type = resolveGenerics(targetClass, (TypeVariable<?>) type);
+                }
+                classes.add(reference(eraseToClass(type)));
+                List<WeakReference<Class<?>>> refs = new ArrayList<WeakReference<Class<?>>>();
+                for (Class<?> cls : extractTypeClasses(targetClass, type)) {
+                    refs.add(reference(cls));
+                }
+                typeClasses.add(refs);
+            }
+        }
+
+        private static WeakReference<Class<?>> reference(Class<?> cls) {
+            return (cls != null ? new WeakReference<Class<?>>(cls) : null);
+        }
+
+        private int size() {
+            return classes.size();
+        }
+
+        private Class<?> typeClass(int index) {
+            WeakReference<Class<?>> ref = classes.get(index);
+            return (ref != null ? ref.get() : null);
+        }
+
+        private List<Class<?>> typeClasses(int index) {
+            List<WeakReference<Class<?>>> refs = typeClasses.get(index);
+            List<Class<?>> result = new ArrayList<Class<?>>(refs.size());
+            for (WeakReference<Class<?>> ref : refs) {
+                result.add(ref.get());
+            }
+            return result;
+        }
+
+        // true if any class has been unloaded, in which case the types must be resolved again
+        private boolean isCleared() {
+            for (int i = 0; i < classes.size(); i++) {
+                WeakReference<Class<?>> ref = classes.get(i);
+                if (ref != null && ref.get() == null) {
+                    return true;
+                }
+                for (WeakReference<Class<?>> typeRef : typeClasses.get(i)) {
+                    if (typeRef.get() == null) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
     //-------------------------------------------------------------------------
     /**
      * Compare for BeanQuery.
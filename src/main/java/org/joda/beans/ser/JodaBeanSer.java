@@ -16,6 +16,7 @@
 package org.joda.beans.ser;
 
 import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.ser.bin.JodaBeanBinFormat;
 import org.joda.beans.ser.bin.JodaBeanBinReader;
 import org.joda.beans.ser.bin.JodaBeanBinWriter;
 import org.joda.beans.ser.json.JodaBeanJsonReader;
@@ -38,12 +39,12 @@ public final class JodaBeanSer {
      * Obtains the singleton compact instance.
      */
     public static final JodaBeanSer COMPACT = new JodaBeanSer("", "", StringConvert.create(),
-            SerIteratorFactory.INSTANCE, true, SerDeserializers.INSTANCE);
+            SerIteratorFactory.INSTANCE, true, SerDeserializers.INSTANCE, SerTypeAliases.EMPTY);
     /**
      * Obtains the singleton pretty-printing instance.
      */
     public static final JodaBeanSer PRETTY = new JodaBeanSer(" ", "\n", StringConvert.create(),
-            SerIteratorFactory.INSTANCE, true, SerDeserializers.INSTANCE);
+            SerIteratorFactory.INSTANCE, true, SerDeserializers.INSTANCE, SerTypeAliases.EMPTY);
 
     /**
      * The indent to use.
@@ -69,6 +70,10 @@ public final class JodaBeanSer {
      * The deserializers.
      */
     private final SerDeserializers deserializers;
+    /**
+     * The type aliases.
+     */
+    private final SerTypeAliases typeAliases;
 
     /**
      * Creates an instance.
@@ -79,15 +84,18 @@ public final class JodaBeanSer {
      * @param iteratorFactory  the iterator factory, not null
      * @param shortTypes  whether to use short types
      * @param deserializers  the deserializers to use, not null
+     * @param typeAliases  the type aliases to use, not null
      */
     private JodaBeanSer(String indent, String newLine, StringConvert converter,
-                SerIteratorFactory iteratorFactory, boolean shortTypes, SerDeserializers deserializers) {
+                SerIteratorFactory iteratorFactory, boolean shortTypes, SerDeserializers deserializers,
+                SerTypeAliases typeAliases) {
         this.indent = indent;
         this.newLine = newLine;
         this.converter = converter;
         this.iteratorFactory = iteratorFactory;
         this.shortTypes = shortTypes;
         this.deserializers = deserializers;
+        this.typeAliases = typeAliases;
     }
 
     //-----------------------------------------------------------------------
@@ -108,7 +116,7 @@ public final class JodaBeanSer {
      */
     public JodaBeanSer withIndent(String indent) {
         JodaBeanUtils.notNull(indent, "indent");
-        return new JodaBeanSer(indent, newLine, converter, iteratorFactory, shortTypes, deserializers);
+        return new JodaBeanSer(indent, newLine, converter, iteratorFactory, shortTypes, deserializers, typeAliases);
     }
 
     /**
@@ -128,7 +136,7 @@ public final class JodaBeanSer {
      */
     public JodaBeanSer withNewLine(String newLine) {
         JodaBeanUtils.notNull(newLine, "newLine");
-        return new JodaBeanSer(indent, newLine, converter, iteratorFactory, shortTypes, deserializers);
+        return new JodaBeanSer(indent, newLine, converter, iteratorFactory, shortTypes, deserializers, typeAliases);
     }
 
     /**
@@ -152,7 +160,7 @@ public final class JodaBeanSer {
      */
     public JodaBeanSer withConverter(StringConvert converter) {
         JodaBeanUtils.notNull(converter, "converter");
-        return new JodaBeanSer(indent, newLine, converter, iteratorFactory, shortTypes, deserializers);
+        return new JodaBeanSer(indent, newLine, converter, iteratorFactory, shortTypes, deserializers, typeAliases);
     }
 
     /**
@@ -172,7 +180,7 @@ public final class JodaBeanSer {
      */
     public JodaBeanSer withIteratorFactory(SerIteratorFactory iteratorFactory) {
         JodaBeanUtils.notNull(converter, "converter");
-        return new JodaBeanSer(indent, newLine, converter, iteratorFactory, shortTypes, deserializers);
+        return new JodaBeanSer(indent, newLine, converter, iteratorFactory, shortTypes, deserializers, typeAliases);
     }
 
     /**
@@ -191,7 +199,7 @@ public final class JodaBeanSer {
      * @return a copy of this object with the short types flag changed, not null
      */
     public JodaBeanSer withShortTypes(boolean shortTypes) {
-        return new JodaBeanSer(indent, newLine, converter, iteratorFactory, shortTypes, deserializers);
+        return new JodaBeanSer(indent, newLine, converter, iteratorFactory, shortTypes, deserializers, typeAliases);
     }
 
     /**
@@ -215,14 +223,39 @@ public final class JodaBeanSer {
      */
     public JodaBeanSer withDeserializers(SerDeserializers deserializers) {
         JodaBeanUtils.notNull(deserializers, "deserializers");
-        return new JodaBeanSer(indent, newLine, converter, iteratorFactory, shortTypes, deserializers);
+        return new JodaBeanSer(indent, newLine, converter, iteratorFactory, shortTypes, deserializers, typeAliases);
+    }
+
+    /**
+     * Gets the type aliases.
+     * <p>
+     * The alias of a type is written in place of the class name.
+     * 
+     * @return the type aliases, not null
+     */
+    public SerTypeAliases getTypeAliases() {
+        return typeAliases;
+    }
+
+    /**
+     * Returns a copy of this serializer with the specified type aliases.
+     * <p>
+     * The alias of a type is written in place of the class name.
+     * The data must be read using the same aliases.
+     * 
+     * @param typeAliases  the type aliases, not null
+     * @return a copy of this object with the type aliases changed, not null
+     */
+    public JodaBeanSer withTypeAliases(SerTypeAliases typeAliases) {
+        JodaBeanUtils.notNull(typeAliases, "typeAliases");
+        return new JodaBeanSer(indent, newLine, converter, iteratorFactory, shortTypes, deserializers, typeAliases);
     }
 
     //-----------------------------------------------------------------------
     /**
      * Creates a binary writer.
      * <p>
-     * A new instance of the writer must be created for each message.
+     * The writer may be reused for many messages, but must not be shared between threads.
      * 
      * @return the binary writer, not null
      */
@@ -230,6 +263,18 @@ public final class JodaBeanSer {
         return new JodaBeanBinWriter(this);
     }
 
+    /**
+     * Creates a binary writer using the specified format.
+     * <p>
+     * The writer may be reused for many messages, but must not be shared between threads.
+     * 
+     * @param format  the format to write, not null
+     * @return the binary writer, not null
+     */
+    public JodaBeanBinWriter binWriter(JodaBeanBinFormat format) {
+        return new JodaBeanBinWriter(this, format);
+    }
+
     /**
      * Creates a binary reader.
      * <p>
@@ -241,11 +286,23 @@ public final class JodaBeanSer {
         return new JodaBeanBinReader(this);
     }
 
+    /**
+     * Creates a binary reader that only reads the properties in the projection.
+     * <p>
+     * A new instance of the reader must be created for each message.
+     * 
+     * @param projection  the projection defining the properties to read, not null
+     * @return the binary reader, not null
+     */
+    public JodaBeanBinReader binReader(SerProjection projection) {
+        return new JodaBeanBinReader(this, projection);
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Creates an XML writer.
      * <p>
-     * A new instance of the writer must be created for each message.
+     * The writer may be reused for many messages, but must not be shared between threads.
      * 
      * @return the XML writer, not null
      */
@@ -264,11 +321,23 @@ public final class JodaBeanSer {
         return new JodaBeanXmlReader(this);
     }
 
+    /**
+     * Creates an XML reader that only reads the properties in the projection.
+     * <p>
+     * A new instance of the reader must be created for each message.
+     * 
+     * @param projection  the projection defining the properties to read, not null
+     * @return the XML reader, not null
+     */
+    public JodaBeanXmlReader xmlReader(SerProjection projection) {
+        return new JodaBeanXmlReader(this, projection);
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Creates a JSON writer.
      * <p>
-     * A new instance of the writer must be created for each message.
+     * The writer may be reused for many messages, but must not be shared between threads.
      * 
      * @return the JSON writer, not null
      */
@@ -287,6 +356,18 @@ public final class JodaBeanSer {
         return new JodaBeanJsonReader(this);
     }
 
+    /**
+     * Creates a JSON reader that only reads the properties in the projection.
+     * <p>
+     * A new instance of the reader must be created for each message.
+     * 
+     * @param projection  the projection defining the properties to read, not null
+     * @return the JSON reader, not null
+     */
+    public JodaBeanJsonReader jsonReader(SerProjection projection) {
+        return new JodaBeanJsonReader(this, projection);
+    }
+
     //-----------------------------------------------------------------------
     @Override
     public String toString() {
@@ -0,0 +1,38 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+/**
+ * A callback that receives each bean as it is deserialized.
+ * <p>
+ * This is used by the incremental readers, which are fed data as it arrives
+ * and emit each bean once the data for it is complete.
+ *
+ * @param <T>  the type of the bean
+ * @author Stephen Colebourne
+ */
+public interface SerBeanConsumer<T> {
+
+    /**
+     * Receives a bean that has been deserialized.
+     * <p>
+     * This is called on the thread that fed the data that completed the bean.
+     *
+     * @param bean  the bean, not null
+     */
+    void accept(T bean);
+
+}
@@ -0,0 +1,182 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.joda.beans.Bean;
+import org.joda.beans.DynamicMetaBean;
+import org.joda.beans.MetaBean;
+import org.joda.beans.MetaProperty;
+
+/**
+ * The serializable properties of a type of bean, resolved once for use when writing.
+ * <p>
+ * Writing a bean requires the properties that are serializable, in order, together with
+ * the type that each is declared as, unwrapping any optional property.
+ * A plan holds this information in flat arrays, avoiding the need to check the style
+ * and resolve the generic type of each property every time a bean is written.
+ * <p>
+ * Plans are obtained using {@link #of(Bean)}, which caches them by meta-bean.
+ * This is intended for use by the serialization formats, not by applications.
+ * <p>
+ * This class is immutable and thread-safe.
+ *
+ * @author Stephen Colebourne
+ */
+public final class SerBeanPlan {
+
+    /**
+     * The cache of plans, keyed by meta-bean.
+     */
+    private static final ConcurrentMap<MetaBean, SerBeanPlan> CACHE =
+            new ConcurrentHashMap<MetaBean, SerBeanPlan>();
+
+    /**
+     * The type of bean that the plan was resolved for.
+     */
+    private final Class<?> beanType;
+    /**
+     * The serializable properties, in the order of the meta-bean.
+     */
+    private final MetaProperty<?>[] properties;
+    /**
+     * The declared type of each property, unwrapping optional properties.
+     */
+    private final Class<?>[] types;
+    /**
+     * Whether each property is optional.
+     */
+    private final boolean[] optionals;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains the plan for writing the specified bean.
+     * <p>
+     * The plan is cached by meta-bean, except for a {@link DynamicMetaBean},
+     * as the properties of each instance may differ.
+     * The meta-bean is normally also held by the meta-bean registry, thus the cache
+     * does not retain any class that would not otherwise be retained.
+     *
+     * @param bean  the bean to be written, not null
+     * @return the plan, not null
+     */
+    public static SerBeanPlan of(Bean bean) {
+        MetaBean metaBean = bean.metaBean();
+        Class<?> beanType = bean.getClass();
+        if (metaBean instanceof DynamicMetaBean) {
+            return new SerBeanPlan(metaBean, beanType);
+        }
+        SerBeanPlan plan = CACHE.get(metaBean);
+        if (plan == null) {
+            plan = new SerBeanPlan(metaBean, beanType);
+            CACHE.putIfAbsent(metaBean, plan);
+        } else if (plan.beanType != beanType) {
+            // a subclass sharing the meta-bean of its parent, which may resolve generics differently
+            return new SerBeanPlan(metaBean, beanType);
+        }
+        return plan;
+    }
+
+    /**
+     * Restricted constructor.
+     *
+     * @param metaBean  the meta-bean, not null
+     * @param beanType  the type of the bean, used to resolve generics, not null
+     */
+    private SerBeanPlan(MetaBean metaBean, Class<?> beanType) {
+        this.beanType = beanType;
+        MetaProperty<?>[] props = new MetaProperty<?>[metaBean.metaPropertyCount()];
+        int size = 0;
+        for (MetaProperty<?> prop : metaBean.metaPropertyIterable()) {
+            if (prop.style().isSerializable()) {
+                props[size++] = prop;
+            }
+        }
+        this.properties = (size == props.length ? props : Arrays.copyOf(props, size));
+        this.types = new Class<?>[size];
+        this.optionals = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            types[i] = SerOptional.extractType(properties[i], beanType);
+            optionals[i] = SerOptional.isOptional(properties[i].propertyType());
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the number of serializable properties.
+     *
+     * @return the number of properties
+     */
+    public int size() {
+        return properties.length;
+    }
+
+    /**
+     * Gets a serializable property.
+     *
+     * @param index  the index of the property, from zero to the size exclusive
+     * @return the meta-property, not null
+     */
+    public MetaProperty<?> getProperty(int index) {
+        return properties[index];
+    }
+
+    /**
+     * Gets the type that a property is declared as.
+     * <p>
+     * For an optional property, this is the type within the optional.
+     *
+     * @param index  the index of the property, from zero to the size exclusive
+     * @return the declared type, not null
+     */
+    public Class<?> getPropertyType(int index) {
+        return types[index];
+    }
+
+    /**
+     * Checks whether a property is optional.
+     *
+     * @param index  the index of the property, from zero to the size exclusive
+     * @return true if the property is optional
+     */
+    public boolean isOptional(int index) {
+        return optionals[index];
+    }
+
+    /**
+     * Gets the value of a property from a bean, unwrapping an optional property.
+     *
+     * @param index  the index of the property, from zero to the size exclusive
+     * @param bean  the bean, not null
+     * @return the value, null if null or an empty optional
+     */
+    public Object getValue(int index, Bean bean) {
+        if (optionals[index]) {
+            return SerOptional.extractValue(properties[index], bean);
+        }
+        return properties[index].get(bean);
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public String toString() {
+        return "SerBeanPlan" + Arrays.toString(properties);
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import org.joda.beans.BeanBuilder;
+import org.joda.beans.MetaBean;
+
+/**
+ * The deserializer for a type of bean, resolved once for use when reading.
+ * <p>
+ * Reading a bean requires the deserializer for the type and the meta-bean it finds.
+ * A handle holds both, avoiding the need to look them up every time a bean is read.
+ * The builder is stateful, so it is still created once per bean read.
+ * <p>
+ * Handles are obtained from {@link SerDeserializers#findHandle(Class)}, which caches them by type.
+ * <p>
+ * This class is immutable and thread-safe.
+ *
+ * @author Stephen Colebourne
+ */
+public final class SerDeserializerHandle {
+
+    /**
+     * The type of the bean.
+     */
+    private final Class<?> type;
+    /**
+     * The deserializer.
+     */
+    private final SerDeserializer deserializer;
+    /**
+     * The meta-bean, null if not a bean type.
+     */
+    private final MetaBean metaBean;
+
+    /**
+     * Creates an instance.
+     *
+     * @param type  the type of the bean, not null
+     * @param deserializer  the deserializer, not null
+     */
+    SerDeserializerHandle(Class<?> type, SerDeserializer deserializer) {
+        this.type = type;
+        this.deserializer = deserializer;
+        this.metaBean = deserializer.findMetaBean(type);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the type of the bean.
+     *
+     * @return the type, not null
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Gets the deserializer for the type.
+     *
+     * @return the deserializer, not null
+     */
+    public SerDeserializer getDeserializer() {
+        return deserializer;
+    }
+
+    /**
+     * Gets the meta-bean found by the deserializer.
+     *
+     * @return the meta-bean, null if not a bean type
+     */
+    public MetaBean getMetaBean() {
+        return metaBean;
+    }
+
+    /**
+     * Creates the stateful builder for a single bean being read.
+     *
+     * @return the builder, null if not interested in the parse progress
+     */
+    public BeanBuilder<?> createBuilder() {
+        return deserializer.createBuilder(type, metaBean);
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public String toString() {
+        return "SerDeserializerHandle[" + type.getName() + "]";
+    }
+
+}
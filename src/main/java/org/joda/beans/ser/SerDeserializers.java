@@ -18,6 +18,9 @@ package org.joda.beans.ser;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import org.joda.beans.DynamicBean;
+import org.joda.beans.JodaBeanUtils;
+
 /**
  * Manages a map of deserializers that assist with data migration.
  * <p>
@@ -27,6 +30,11 @@ import java.util.concurrent.ConcurrentMap;
  * Normally, it makes sense to customize the shared singleton instance, because
  * the classpath is static and fixed and the transformations are common.
  * <p>
+ * A deserializer registered using {@link #register(Class, SerDeserializer)} is only
+ * used for that exact type. A deserializer registered using
+ * {@link #registerHierarchy(Class, SerDeserializer)} is also used for all subclasses
+ * and implementations that do not have a more specific registration.
+ * <p>
  * Implementations must be thread-safe singletons.
  *
  * @author Stephen Colebourne
@@ -42,6 +50,22 @@ public final class SerDeserializers {
      * The deserializers.
      */
     private ConcurrentMap<Class<?>, SerDeserializer> deserializers = new ConcurrentHashMap<Class<?>, SerDeserializer>();
+    /**
+     * The deserializers that also apply to subtypes.
+     */
+    private final ConcurrentMap<Class<?>, SerDeserializer> hierarchyDeserializers = new ConcurrentHashMap<Class<?>, SerDeserializer>();
+    /**
+     * The cache of deserializers resolved from the hierarchy, keyed by the type being read.
+     */
+    private final ConcurrentMap<Class<?>, SerDeserializer> resolved = new ConcurrentHashMap<Class<?>, SerDeserializer>();
+    /**
+     * The generation of the hierarchy deserializers, incremented whenever they change.
+     */
+    private volatile int generation;
+    /**
+     * The cache of handles, keyed by the type being read.
+     */
+    private final ConcurrentMap<Class<?>, SerDeserializerHandle> handles = new ConcurrentHashMap<Class<?>, SerDeserializerHandle>();
 
     /**
      * Creates an instance.
@@ -52,6 +76,8 @@ public final class SerDeserializers {
     //-----------------------------------------------------------------------
     /**
      * Adds the deserializer to be used for the specified type.
+     * <p>
+     * The deserializer is only used for the exact type, not for subtypes.
      * 
      * @param type  the type, not null
      * @param deserializer  the deserializer, not null
@@ -62,8 +88,47 @@ public final class SerDeserializers {
         return this;
     }
 
+    /**
+     * Adds the deserializer to be used for the specified type and all its subtypes.
+     * <p>
+     * The deserializer is used for the type, its subclasses and, if the type is an interface,
+     * its implementations, unless a more specific deserializer has been registered.
+     * The deserializer must be able to handle every subtype, typically by using the
+     * meta-bean of the type being read.
+     * 
+     * @param type  the type, not null
+     * @param deserializer  the deserializer, not null
+     * @return this, for chaining, not null
+     */
+    public SerDeserializers registerHierarchy(Class<?> type, SerDeserializer deserializer) {
+        JodaBeanUtils.notNull(type, "type");
+        JodaBeanUtils.notNull(deserializer, "deserializer");
+        synchronized (hierarchyDeserializers) {
+            hierarchyDeserializers.put(type, deserializer);
+            clearResolved();
+        }
+        return this;
+    }
+
+    /**
+     * Removes the deserializer registered for the specified type and all its subtypes.
+     * 
+     * @param type  the type, not null
+     * @return this, for chaining, not null
+     */
+    public SerDeserializers unregisterHierarchy(Class<?> type) {
+        JodaBeanUtils.notNull(type, "type");
+        synchronized (hierarchyDeserializers) {
+            hierarchyDeserializers.remove(type);
+            clearResolved();
+        }
+        return this;
+    }
+
     /**
      * Gets the map of deserializers which can be modified.
+     * <p>
+     * The map contains the deserializers registered for an exact type.
      * 
      * @return the map of deserializers, not null
      */
@@ -75,6 +140,9 @@ public final class SerDeserializers {
     /**
      * Finds the deserializer for the specified type.
      * <p>
+     * A deserializer registered for the exact type is used if there is one.
+     * Otherwise, the hierarchy deserializers are searched, checking the superclasses
+     * nearest first, followed by the interfaces.
      * The {@code DefaultDeserializer} is used if one has not been registered.
      * 
      * @param type  the type, not null
@@ -83,11 +151,91 @@ public final class SerDeserializers {
     public SerDeserializer findDeserializer(Class<?> type) {
         SerDeserializer deser = deserializers.get(type);
         if (deser == null) {
-            deser = DefaultDeserializer.INSTANCE;
+            deser = findHierarchyDeserializer(type);
         }
         return deser;
     }
 
+    /**
+     * Finds the handle for reading the specified type.
+     * <p>
+     * The handle combines the deserializer from {@link #findDeserializer(Class)}
+     * with the meta-bean that it finds, allowing the meta-bean to be looked up once per type.
+     * A cached handle is only used while the deserializer found for the type is unchanged.
+     * Handles for a {@link DynamicBean} are not cached, as each has its own meta-bean.
+     * 
+     * @param type  the type, not null
+     * @return the handle, not null
+     */
+    public SerDeserializerHandle findHandle(Class<?> type) {
+        SerDeserializer deser = findDeserializer(type);
+        SerDeserializerHandle handle = handles.get(type);
+        if (handle == null || handle.getDeserializer() != deser) {
+            handle = new SerDeserializerHandle(type, deser);
+            // the meta-bean of a dynamic bean is specific to an instance
+            if (DynamicBean.class.isAssignableFrom(type) == false) {
+                handles.put(type, handle);
+            }
+        }
+        return handle;
+    }
+
+    // finds the deserializer from the hierarchy registrations, caching the result
+    private SerDeserializer findHierarchyDeserializer(Class<?> type) {
+        if (hierarchyDeserializers.isEmpty()) {
+            return DefaultDeserializer.INSTANCE;
+        }
+        int gen = generation;
+        SerDeserializer deser = resolved.get(type);
+        if (deser == null) {
+            deser = resolveDeserializer(type);
+            resolved.putIfAbsent(type, deser);
+            // the registrations changed while resolving, so the result may be stale
+            if (generation != gen) {
+                resolved.remove(type, deser);
+            }
+        }
+        return deser;
+    }
+
+    // searches the type hierarchy for a hierarchy deserializer
+    private SerDeserializer resolveDeserializer(Class<?> type) {
+        for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+            SerDeserializer deser = hierarchyDeserializers.get(cls);
+            if (deser != null) {
+                return deser;
+            }
+        }
+        for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+            SerDeserializer deser = resolveInterface(cls.getInterfaces());
+            if (deser != null) {
+                return deser;
+            }
+        }
+        return DefaultDeserializer.INSTANCE;
+    }
+
+    // searches interfaces, depth-first in declaration order
+    private SerDeserializer resolveInterface(Class<?>[] interfaces) {
+        for (Class<?> iface : interfaces) {
+            SerDeserializer deser = hierarchyDeserializers.get(iface);
+            if (deser == null) {
+                deser = resolveInterface(iface.getInterfaces());
+            }
+            if (deser != null) {
+                return deser;
+            }
+        }
+        return null;
+    }
+
+    // discards the resolved deserializers, called after the registrations change
+    // the generation is incremented before clearing, so a concurrent lookup detects the change
+    private void clearResolved() {
+        generation++;
+        resolved.clear();
+    }
+
     //-----------------------------------------------------------------------
     @Override
     public String toString() {
@@ -92,6 +92,16 @@ public class SerOptional {
         }
     }
 
+    /**
+     * Checks whether the type is an optional type.
+     * 
+     * @param type  the type to check, not null
+     * @return true if the type is an optional type
+     */
+    static boolean isOptional(Class<?> type) {
+        return OPTIONALS.containsKey(type);
+    }
+
     /**
      * Extracts the value of the property from a bean, unwrapping any optional.
      * 
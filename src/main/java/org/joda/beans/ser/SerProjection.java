@@ -0,0 +1,189 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.joda.beans.BeanQuery;
+import org.joda.beans.MetaProperty;
+import org.joda.beans.query.ChainedBeanQuery;
+
+/**
+ * A projection, defining the subset of properties to be read when deserializing.
+ * <p>
+ * A projection is formed from a set of meta-properties, each of which may be chained
+ * using {@link ChainedBeanQuery} to select a property of a nested bean.
+ * When reading, properties that are not in the projection are skipped without being parsed.
+ * The projection of a nested bean also applies to beans within collections and maps.
+ * <p>
+ * For example, a projection of {@code Person.meta().surname()} and
+ * {@code ChainedBeanQuery.of(Person.meta().mainAddress(), Address.meta().city())}
+ * reads the surname and the city of the main address, but no other properties.
+ * <p>
+ * The properties are matched by name within each level of the data.
+ * Any bean that is read must be valid without the skipped properties,
+ * as the builder of the bean is used in the normal way.
+ * <p>
+ * This class is immutable and thread-safe.
+ *
+ * @author Stephen Colebourne
+ */
+public final class SerProjection {
+
+    /**
+     * The included properties, keyed by name, with a null value if all nested properties are included.
+     */
+    private final Map<String, SerProjection> properties;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains a projection from a set of queries.
+     * <p>
+     * Each query must be a {@link MetaProperty} or a {@link ChainedBeanQuery} of meta-properties.
+     *
+     * @param queries  the queries defining the properties to include, not null
+     * @return the projection, not null
+     * @throws IllegalArgumentException if a query is not formed from meta-properties
+     */
+    public static SerProjection of(BeanQuery<?>... queries) {
+        if (queries == null) {
+            throw new NullPointerException("queries");
+        }
+        return of(Arrays.asList(queries));
+    }
+
+    /**
+     * Obtains a projection from a set of queries.
+     * <p>
+     * Each query must be a {@link MetaProperty} or a {@link ChainedBeanQuery} of meta-properties.
+     *
+     * @param queries  the queries defining the properties to include, not null
+     * @return the projection, not null
+     * @throws IllegalArgumentException if a query is not formed from meta-properties
+     */
+    public static SerProjection of(Iterable<? extends BeanQuery<?>> queries) {
+        if (queries == null) {
+            throw new NullPointerException("queries");
+        }
+        SerProjection projection = new SerProjection();
+        for (BeanQuery<?> query : queries) {
+            if (query == null) {
+                throw new NullPointerException("BeanQuery must not be null");
+            }
+            if (query instanceof ChainedBeanQuery) {
+                projection.add(((ChainedBeanQuery<?>) query).getChain(), 0);
+            } else {
+                projection.add(Collections.<BeanQuery<?>>singletonList(query), 0);
+            }
+        }
+        return projection;
+    }
+
+    /**
+     * Restricted constructor.
+     */
+    private SerProjection() {
+        this.properties = new LinkedHashMap<String, SerProjection>();
+    }
+
+    // adds the path of properties, only called during construction
+    private void add(List<BeanQuery<?>> path, int index) {
+        BeanQuery<?> query = path.get(index);
+        if (query instanceof MetaProperty == false) {
+            throw new IllegalArgumentException("Projection must be formed from meta-properties: " + query);
+        }
+        String name = ((MetaProperty<?>) query).name();
+        boolean last = (index == path.size() - 1);
+        if (properties.containsKey(name)) {
+            SerProjection child = properties.get(name);
+            if (child != null) {
+                if (last) {
+                    properties.put(name, null);
+                } else {
+                    child.add(path, index + 1);
+                }
+            }
+        } else if (last) {
+            properties.put(name, null);
+        } else {
+            SerProjection child = new SerProjection();
+            child.add(path, index + 1);
+            properties.put(name, child);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Checks if the projection includes the specified property.
+     *
+     * @param propertyName  the property name, not null
+     * @return true if the property is to be read
+     */
+    public boolean includes(String propertyName) {
+        return properties.containsKey(propertyName);
+    }
+
+    /**
+     * Gets the projection to apply to the value of the specified property.
+     * <p>
+     * A null result indicates that the whole value is to be read.
+     *
+     * @param propertyName  the property name, not null
+     * @return the projection of the nested properties, null if all are included
+     */
+    public SerProjection child(String propertyName) {
+        return properties.get(propertyName);
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj instanceof SerProjection) {
+            return properties.equals(((SerProjection) obj).properties);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return properties.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        buf.append('{');
+        for (Entry<String, SerProjection> entry : properties.entrySet()) {
+            if (buf.length() > 1) {
+                buf.append(", ");
+            }
+            buf.append(entry.getKey());
+            if (entry.getValue() != null) {
+                buf.append(entry.getValue());
+            }
+        }
+        return buf.append('}').toString();
+    }
+
+}
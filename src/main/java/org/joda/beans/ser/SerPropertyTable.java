@@ -0,0 +1,177 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.joda.beans.DynamicMetaBean;
+import org.joda.beans.MetaBean;
+import org.joda.beans.MetaProperty;
+
+/**
+ * A table of the meta-properties of a meta-bean, keyed by property name.
+ * <p>
+ * This is used by the text readers to match a property name to its meta-property
+ * directly from the characters of the input, without first creating a {@code String}.
+ * The table uses open addressing with a hash equal to {@link String#hashCode()}.
+ * <p>
+ * The table only contains the names of the properties themselves.
+ * A name that is not found, such as an alias or a deleted property, must be
+ * looked up using {@link SerDeserializer#findMetaProperty(Class, MetaBean, String)}.
+ * <p>
+ * This class is immutable and thread-safe.
+ *
+ * @author Stephen Colebourne
+ */
+public final class SerPropertyTable {
+
+    /**
+     * The cache of tables, keyed by meta-bean.
+     */
+    private static final ConcurrentMap<MetaBean, SerPropertyTable> CACHE =
+            new ConcurrentHashMap<MetaBean, SerPropertyTable>();
+
+    /**
+     * The property names, indexed by hash.
+     */
+    private final String[] names;
+    /**
+     * The meta-properties, indexed by hash.
+     */
+    private final MetaProperty<?>[] properties;
+    /**
+     * The mask to apply to the hash.
+     */
+    private final int mask;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains the table to use when deserializing with the specified deserializer.
+     * <p>
+     * A table is only available for the default deserializer, as any other deserializer
+     * may change the meaning of a property name. A table is not available for a
+     * {@link DynamicMetaBean}, as the properties are not known in advance.
+     *
+     * @param deser  the deserializer, not null
+     * @param metaBean  the meta-bean, may be null
+     * @return the table, null if the deserializer must be used to find each property
+     */
+    public static SerPropertyTable of(SerDeserializer deser, MetaBean metaBean) {
+        if (deser != DefaultDeserializer.INSTANCE || metaBean == null || metaBean instanceof DynamicMetaBean) {
+            return null;
+        }
+        SerPropertyTable table = CACHE.get(metaBean);
+        if (table == null) {
+            table = new SerPropertyTable(metaBean);
+            CACHE.putIfAbsent(metaBean, table);
+        }
+        return table;
+    }
+
+    /**
+     * Restricted constructor.
+     *
+     * @param metaBean  the meta-bean, not null
+     */
+    private SerPropertyTable(MetaBean metaBean) {
+        int size = 2;
+        while (size < metaBean.metaPropertyCount() * 2) {
+            size <<= 1;
+        }
+        this.names = new String[size];
+        this.properties = new MetaProperty<?>[size];
+        this.mask = size - 1;
+        for (MetaProperty<?> metaProp : metaBean.metaPropertyIterable()) {
+            int index = spread(metaProp.name().hashCode());
+            while (names[index] != null) {
+                index = (index + 1) & mask;
+            }
+            names[index] = metaProp.name();
+            properties[index] = metaProp;
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Finds the meta-property for a name held in an array of characters.
+     *
+     * @param chars  the characters, not null
+     * @param offset  the offset of the first character of the name
+     * @param length  the length of the name
+     * @return the meta-property, null if not found
+     */
+    public MetaProperty<?> find(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[offset + i];
+        }
+        int index = spread(hash);
+        String name;
+        while ((name = names[index]) != null) {
+            if (name.length() == length) {
+                int i = 0;
+                while (i < length && name.charAt(i) == chars[offset + i]) {
+                    i++;
+                }
+                if (i == length) {
+                    return properties[index];
+                }
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Finds the meta-property for a name.
+     *
+     * @param propertyName  the property name, not null
+     * @return the meta-property, null if not found
+     */
+    public MetaProperty<?> find(String propertyName) {
+        int index = spread(propertyName.hashCode());
+        String name;
+        while ((name = names[index]) != null) {
+            if (name.equals(propertyName)) {
+                return properties[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    // spreads the hash across the table
+    private int spread(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder("SerPropertyTable[");
+        for (String name : names) {
+            if (name != null) {
+                if (buf.length() > 17) {
+                    buf.append(", ");
+                }
+                buf.append(name);
+            }
+        }
+        return buf.append(']').toString();
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.joda.beans.JodaBeanUtils;
+
+/**
+ * A registry of short aliases for types, used in place of class names when serializing.
+ * <p>
+ * Serialized data includes the type of a value wherever it cannot be inferred from the
+ * declared type, such as a subclass of the declared bean type or a value of a property
+ * declared as {@code Object}. Normally, this is the class name, possibly shortened.
+ * When an alias is registered for a type, the alias is written instead, and is mapped
+ * back to the type when reading. The writer and reader must use the same aliases.
+ * <p>
+ * An alias must start with a lower-case letter and must not contain a dot,
+ * ensuring that it cannot be confused with a class name or a shortened class name.
+ * <p>
+ * The aliases are set using {@link JodaBeanSer#withTypeAliases(SerTypeAliases)}
+ * and apply to all the serialization formats.
+ * <p>
+ * This class is immutable and thread-safe.
+ *
+ * @author Stephen Colebourne
+ */
+public final class SerTypeAliases {
+
+    /**
+     * An empty registry, where no type has an alias.
+     */
+    public static final SerTypeAliases EMPTY = new SerTypeAliases(
+            Collections.<Class<?>, String>emptyMap(), Collections.<String, Class<?>>emptyMap());
+
+    /**
+     * The aliases, keyed by type.
+     */
+    private final Map<Class<?>, String> aliases;
+    /**
+     * The types, keyed by alias.
+     */
+    private final Map<String, Class<?>> types;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains a registry from a map of type to alias.
+     *
+     * @param aliases  the map of type to alias, not null
+     * @return the registry, not null
+     * @throws IllegalArgumentException if an alias is invalid or is used twice
+     */
+    public static SerTypeAliases of(Map<Class<?>, String> aliases) {
+        JodaBeanUtils.notNull(aliases, "aliases");
+        SerTypeAliases result = EMPTY;
+        for (Entry<Class<?>, String> entry : aliases.entrySet()) {
+            result = result.with(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Restricted constructor.
+     *
+     * @param aliases  the aliases, not null
+     * @param types  the types, not null
+     */
+    private SerTypeAliases(Map<Class<?>, String> aliases, Map<String, Class<?>> types) {
+        this.aliases = aliases;
+        this.types = types;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Returns a copy of this registry with an additional alias.
+     *
+     * @param type  the type, not null
+     * @param alias  the alias, not null
+     * @return a copy of this registry with the alias added, not null
+     * @throws IllegalArgumentException if the alias is invalid, or the type or alias is already registered
+     */
+    public SerTypeAliases with(Class<?> type, String alias) {
+        JodaBeanUtils.notNull(type, "type");
+        JodaBeanUtils.notNull(alias, "alias");
+        if (alias.length() == 0 || Character.isLowerCase(alias.charAt(0)) == false || alias.indexOf('.') >= 0) {
+            throw new IllegalArgumentException("Type alias must start with a lower-case letter and not contain a dot: " + alias);
+        }
+        if (aliases.containsKey(type)) {
+            throw new IllegalArgumentException("Type already has an alias: " + type.getName());
+        }
+        if (types.containsKey(alias)) {
+            throw new IllegalArgumentException("Type alias already registered: " + alias);
+        }
+        Map<Class<?>, String> newAliases = new LinkedHashMap<Class<?>, String>(aliases);
+        newAliases.put(type, alias);
+        Map<String, Class<?>> newTypes = new HashMap<String, Class<?>>(types);
+        newTypes.put(alias, type);
+        return new SerTypeAliases(Collections.unmodifiableMap(newAliases), Collections.unmodifiableMap(newTypes));
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the alias of a type.
+     *
+     * @param type  the type, not null
+     * @return the alias, null if the type has no alias
+     */
+    public String getAlias(Class<?> type) {
+        return aliases.get(type);
+    }
+
+    /**
+     * Gets the type of an alias.
+     *
+     * @param alias  the alias, not null
+     * @return the type, null if the alias is not registered
+     */
+    public Class<?> getType(String alias) {
+        return types.get(alias);
+    }
+
+    /**
+     * Gets the map of type to alias.
+     *
+     * @return the aliases, in the order they were added, not null
+     */
+    public Map<Class<?>, String> getAliases() {
+        return aliases;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj instanceof SerTypeAliases) {
+            return aliases.equals(((SerTypeAliases) obj).aliases);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return aliases.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "SerTypeAliases" + types;
+    }
+
+}
@@ -83,7 +83,7 @@ public final class SerTypeMapper {
     /**
      * Encodes a basic class.
      * <p>
-     * This handles known simple types, like String, Integer or File, and prefixing.
+     * This handles known simple types, like String, Integer or File, type aliases and prefixing.
      * It also allows a map of message specific shorter forms.
      * 
      * @param cls  the class to encode, not null
@@ -106,6 +106,11 @@ public final class SerTypeMapper {
                 cls = supr1;
             }
         }
+        // alias
+        result = settings.getTypeAliases().getAlias(cls);
+        if (result != null) {
+            return result;
+        }
         // calculate
         if (settings.isShortTypes()) {
             if (knownTypes != null) {
@@ -147,7 +152,7 @@ public final class SerTypeMapper {
      * Decodes a class.
      * <p>
      * This uses the context class loader.
-     * This handles known simple types, like String, Integer or File, and prefixing.
+     * This handles known simple types, like String, Integer or File, type aliases and prefixing.
      * It also allows a map of message specific shorter forms.
      * 
      * @param className  the class name, not null
@@ -163,6 +168,11 @@ public final class SerTypeMapper {
         if (result != null) {
             return result;
         }
+        // alias
+        result = settings.getTypeAliases().getType(className);
+        if (result != null) {
+            return result;
+        }
         // check cache
         if (knownTypes != null) {
             result = knownTypes.get(className);
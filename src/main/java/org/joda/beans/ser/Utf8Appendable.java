@@ -0,0 +1,190 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Appendable that encodes directly to UTF-8 bytes.
+ * <p>
+ * The bytes are encoded into a fixed-size buffer, which is written to the stream each time it fills.
+ * Pre-encoded bytes can also be written, avoiding the encoding step.
+ * An unpaired surrogate is encoded as '?', matching {@code String.getBytes}.
+ * <p>
+ * This is used by serialization implementations.
+ * This class contains mutable state and cannot be used from multiple threads.
+ *
+ * @author Stephen Colebourne
+ */
+public final class Utf8Appendable implements Appendable, Flushable {
+
+    /**
+     * The output stream.
+     */
+    private final OutputStream output;
+    /**
+     * The buffer.
+     */
+    private final byte[] buffer;
+    /**
+     * The number of bytes in the buffer.
+     */
+    private int count;
+    /**
+     * The high surrogate awaiting the low surrogate, zero if none.
+     */
+    private char highSurrogate;
+
+    /**
+     * Creates an instance.
+     *
+     * @param output  the output stream, not null
+     * @param buffer  the buffer to use, which may be reused once this instance is no longer used, not null
+     */
+    public Utf8Appendable(OutputStream output, byte[] buffer) {
+        this.output = output;
+        this.buffer = buffer;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        CharSequence str = (csq == null ? "null" : csq);
+        return append(str, 0, str.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        CharSequence str = (csq == null ? "null" : csq);
+        for (int i = start; i < end; i++) {
+            char ch = str.charAt(i);
+            if (ch < 0x80 && highSurrogate == 0) {
+                if (count == buffer.length) {
+                    flushBuffer();
+                }
+                buffer[count++] = (byte) ch;
+            } else {
+                encode(ch);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char ch) throws IOException {
+        if (ch < 0x80 && highSurrogate == 0) {
+            if (count == buffer.length) {
+                flushBuffer();
+            }
+            buffer[count++] = (byte) ch;
+        } else {
+            encode(ch);
+        }
+        return this;
+    }
+
+    /**
+     * Writes bytes that are already encoded in UTF-8.
+     *
+     * @param bytes  the encoded bytes, not null
+     * @throws IOException if an error occurs
+     */
+    public void appendEncoded(byte[] bytes) throws IOException {
+        unpairedSurrogate();
+        if (bytes.length > buffer.length - count) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                output.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    //-----------------------------------------------------------------------
+    // encodes a character that is not a simple ASCII character
+    private void encode(char ch) throws IOException {
+        if (highSurrogate != 0) {
+            if (Character.isLowSurrogate(ch)) {
+                int codePoint = Character.toCodePoint(highSurrogate, ch);
+                highSurrogate = 0;
+                ensureCapacity(4);
+                buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            unpairedSurrogate();
+        }
+        if (ch < 0x80) {
+            ensureCapacity(1);
+            buffer[count++] = (byte) ch;
+        } else if (ch < 0x800) {
+            ensureCapacity(2);
+            buffer[count++] = (byte) (0xC0 | (ch >> 6));
+            buffer[count++] = (byte) (0x80 | (ch & 0x3F));
+        } else if (Character.isHighSurrogate(ch)) {
+            highSurrogate = ch;
+        } else if (Character.isLowSurrogate(ch)) {
+            ensureCapacity(1);
+            buffer[count++] = '?';
+        } else {
+            ensureCapacity(3);
+            buffer[count++] = (byte) (0xE0 | (ch >> 12));
+            buffer[count++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (ch & 0x3F));
+        }
+    }
+
+    // writes a pending high surrogate that has no low surrogate
+    private void unpairedSurrogate() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            ensureCapacity(1);
+            buffer[count++] = '?';
+        }
+    }
+
+    private void ensureCapacity(int size) throws IOException {
+        if (count + size > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            output.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * Writes the buffered bytes to the stream and flushes it.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        unpairedSurrogate();
+        flushBuffer();
+        output.flush();
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Appendable that buffers characters for a {@code Writer}.
+ * <p>
+ * The characters are appended to a fixed-size buffer, which is written to the writer each time it fills.
+ * Unlike {@code BufferedWriter}, appending a character does not synchronize.
+ * <p>
+ * This is used by serialization implementations.
+ * This class contains mutable state and cannot be used from multiple threads.
+ *
+ * @author Stephen Colebourne
+ */
+public final class WriterAppendable implements Appendable, Flushable {
+
+    /**
+     * The writer.
+     */
+    private final Writer output;
+    /**
+     * The buffer.
+     */
+    private final char[] buffer;
+    /**
+     * The number of characters in the buffer.
+     */
+    private int count;
+
+    /**
+     * Creates an instance.
+     *
+     * @param output  the writer, not null
+     * @param buffer  the buffer to use, which may be reused once this instance is no longer used, not null
+     */
+    public WriterAppendable(Writer output, char[] buffer) {
+        this.output = output;
+        this.buffer = buffer;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        CharSequence str = (csq == null ? "null" : csq);
+        return append(str, 0, str.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        CharSequence str = (csq == null ? "null" : csq);
+        for (int i = start; i < end; i++) {
+            if (count == buffer.length) {
+                flushBuffer();
+            }
+            buffer[count++] = str.charAt(i);
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char ch) throws IOException {
+        if (count == buffer.length) {
+            flushBuffer();
+        }
+        buffer[count++] = ch;
+        return this;
+    }
+
+    //-----------------------------------------------------------------------
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            output.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * Writes the buffered characters to the writer and flushes it.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        output.flush();
+    }
+
+}
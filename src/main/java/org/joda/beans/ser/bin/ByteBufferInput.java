@@ -0,0 +1,324 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Provides {@code DataInput} over a {@code ByteBuffer}.
+ * <p>
+ * The buffer is read using absolute indices, which are tracked separately from the
+ * position of the buffer. As such, marking and resetting is simply the storage of an index.
+ * The buffer may be a heap buffer, a direct buffer or a {@code MappedByteBuffer}.
+ * <p>
+ * This class is an {@code InputStream} so that it can be used wherever
+ * a stream supporting mark and reset is required.
+ *
+ * @author Stephen Colebourne
+ */
+final class ByteBufferInput extends InputStream implements DataInput {
+
+    /**
+     * The buffer to read, always big-endian.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The current index.
+     */
+    private int index;
+    /**
+     * The limit index.
+     */
+    private final int limit;
+    /**
+     * The marked index.
+     */
+    private int markIndex;
+
+    /**
+     * Creates an instance.
+     * <p>
+     * The data is read from the position to the limit of the buffer.
+     * The state of the buffer is not altered.
+     *
+     * @param buffer  the buffer to read, not null
+     */
+    ByteBufferInput(ByteBuffer buffer) {
+        this.buffer = buffer.order() == ByteOrder.BIG_ENDIAN ? buffer : buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        this.index = buffer.position();
+        this.limit = buffer.limit();
+        this.markIndex = index;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the current index.
+     *
+     * @return the index
+     */
+    int index() {
+        return index;
+    }
+
+    /**
+     * Sets the current index.
+     *
+     * @param index  the index to move to
+     */
+    void index(int index) {
+        if (index < 0 || index > limit) {
+            throw new IllegalArgumentException("Invalid index: " + index);
+        }
+        this.index = index;
+    }
+
+    /**
+     * Gets the limit index.
+     *
+     * @return the limit
+     */
+    int limit() {
+        return limit;
+    }
+
+    /**
+     * Peeks at the byte at the current index, without consuming it.
+     *
+     * @return the byte
+     * @throws EOFException if the end of the buffer has been reached
+     */
+    byte peekByte() throws EOFException {
+        if (index >= limit) {
+            throw new EOFException();
+        }
+        return buffer.get(index);
+    }
+
+    private int ensure(int size) throws EOFException {
+        if (size > limit - index) {
+            throw new EOFException();
+        }
+        int current = index;
+        index += size;
+        return current;
+    }
+
+    /**
+     * Reads a view of the next bytes, without copying them.
+     * 
+     * @param size  the size in bytes
+     * @return the big-endian view of the bytes, not null
+     * @throws EOFException if the end of the buffer has been reached
+     */
+    ByteBuffer readSlice(int size) throws EOFException {
+        int start = ensure(size);
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(start + size).position(start);
+        return slice.slice().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Reads a string encoded in UTF-8.
+     * <p>
+     * The common ASCII case is decoded directly from the buffer without copying.
+     *
+     * @param size  the size in bytes
+     * @return the string, not null
+     * @throws EOFException if the end of the buffer has been reached
+     */
+    String readUtf8(int size) throws EOFException {
+        int start = ensure(size);
+        char[] chars = new char[size];
+        for (int i = 0; i < size; i++) {
+            byte b = buffer.get(start + i);
+            if (b >= 0) {
+                chars[i] = (char) b;
+            } else {
+                byte[] bytes = new byte[size];
+                for (int j = 0; j < size; j++) {
+                    bytes[j] = buffer.get(start + j);
+                }
+                return new String(bytes, MsgPack.UTF_8);
+            }
+        }
+        return new String(chars);
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public int read() {
+        if (index >= limit) {
+            return -1;
+        }
+        return buffer.get(index++) & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int available = limit - index;
+        if (available <= 0) {
+            return -1;
+        }
+        int size = Math.min(length, available);
+        readInto(bytes, offset, size);
+        return size;
+    }
+
+    @Override
+    public long skip(long n) {
+        int size = (int) Math.max(0, Math.min(n, limit - index));
+        index += size;
+        return size;
+    }
+
+    @Override
+    public int available() {
+        return limit - index;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void mark(int readLimit) {
+        markIndex = index;
+    }
+
+    @Override
+    public void reset() {
+        index = markIndex;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public void readFully(byte[] bytes) throws EOFException {
+        readFully(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void readFully(byte[] bytes, int offset, int length) throws EOFException {
+        if (length > limit - index) {
+            throw new EOFException();
+        }
+        readInto(bytes, offset, length);
+    }
+
+    private void readInto(byte[] bytes, int offset, int length) {
+        if (buffer.hasArray()) {
+            System.arraycopy(buffer.array(), buffer.arrayOffset() + index, bytes, offset, length);
+        } else {
+            ByteBuffer dup = buffer.duplicate();
+            dup.position(index);
+            dup.get(bytes, offset, length);
+        }
+        index += length;
+    }
+
+    @Override
+    public int skipBytes(int n) {
+        return (int) skip(n);
+    }
+
+    @Override
+    public boolean readBoolean() throws EOFException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws EOFException {
+        return buffer.get(ensure(1));
+    }
+
+    @Override
+    public int readUnsignedByte() throws EOFException {
+        return buffer.get(ensure(1)) & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws EOFException {
+        return buffer.getShort(ensure(2));
+    }
+
+    @Override
+    public int readUnsignedShort() throws EOFException {
+        return buffer.getShort(ensure(2)) & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws EOFException {
+        return buffer.getChar(ensure(2));
+    }
+
+    @Override
+    public int readInt() throws EOFException {
+        return buffer.getInt(ensure(4));
+    }
+
+    @Override
+    public long readLong() throws EOFException {
+        return buffer.getLong(ensure(8));
+    }
+
+    @Override
+    public float readFloat() throws EOFException {
+        return buffer.getFloat(ensure(4));
+    }
+
+    @Override
+    public double readDouble() throws EOFException {
+        return buffer.getDouble(ensure(8));
+    }
+
+    @Override
+    public String readLine() {
+        if (index >= limit) {
+            return null;
+        }
+        StringBuilder buf = new StringBuilder();
+        while (index < limit) {
+            int b = buffer.get(index++) & 0xFF;
+            if (b == '\n') {
+                break;
+            }
+            if (b == '\r') {
+                if (index < limit && buffer.get(index) == '\n') {
+                    index++;
+                }
+                break;
+            }
+            buf.append((char) b);
+        }
+        return buf.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+
+}
@@ -0,0 +1,295 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerTypeMapper;
+
+/**
+ * Provides the ability for many Joda-Beans to be read from a single binary container.
+ * <p>
+ * The container format is defined by {@link JodaBeanBinContainerWriter}.
+ * <p>
+ * When reading from a {@code ByteBuffer}, such as a {@code MappedByteBuffer}, the index
+ * at the end of the container is used to provide random access to each entry.
+ * When reading from an {@code InputStream}, the entries can only be iterated in order.
+ * In both cases, iteration is lazy, with each bean parsed as it is requested.
+ * <p>
+ * This class contains mutable state and cannot be used from multiple threads.
+ *
+ * @author Stephen Colebourne
+ */
+public class JodaBeanBinContainerReader {
+
+    /**
+     * The settings.
+     */
+    private final JodaBeanSer settings;
+    /**
+     * The bean reader, retaining the known types between entries.
+     */
+    private final JodaBeanBinReader reader;
+    /**
+     * The buffer input, null if reading a stream.
+     */
+    private final ByteBufferInput bufferInput;
+    /**
+     * The stream input, null if reading a buffer.
+     */
+    private final DataInputStream streamInput;
+    /**
+     * The index in the buffer of the start of the container.
+     */
+    private final int start;
+    /**
+     * The index in the buffer of the first entry.
+     */
+    private final int firstEntry;
+    /**
+     * The offsets of each entry, null until loaded.
+     */
+    private long[] offsets;
+
+    /**
+     * Creates an instance that reads from a buffer, supporting random access.
+     * <p>
+     * The container is read from the position to the limit of the buffer.
+     * The state of the buffer is not altered.
+     *
+     * @param settings  the settings, not null
+     * @param buffer  the buffer containing the whole container, not null
+     */
+    public JodaBeanBinContainerReader(final JodaBeanSer settings, final ByteBuffer buffer) {
+        if (settings == null) {
+            throw new NullPointerException("settings");
+        }
+        if (buffer == null) {
+            throw new NullPointerException("buffer");
+        }
+        this.settings = settings;
+        this.reader = new JodaBeanBinReader(settings, true);
+        this.bufferInput = new ByteBufferInput(buffer);
+        this.streamInput = null;
+        this.start = buffer.position();
+        reader.setInput(bufferInput);
+        readHeader(bufferInput);
+        this.firstEntry = bufferInput.index();
+    }
+
+    /**
+     * Creates an instance that reads from a stream, supporting only iteration.
+     * <p>
+     * The stream is buffered internally if it does not support mark and reset.
+     *
+     * @param settings  the settings, not null
+     * @param input  the input stream, not null
+     */
+    public JodaBeanBinContainerReader(final JodaBeanSer settings, final InputStream input) {
+        if (settings == null) {
+            throw new NullPointerException("settings");
+        }
+        if (input == null) {
+            throw new NullPointerException("input");
+        }
+        InputStream markable = (input.markSupported() ? input : new BufferedInputStream(input));
+        this.settings = settings;
+        this.reader = new JodaBeanBinReader(settings, true);
+        this.bufferInput = null;
+        this.streamInput = new DataInputStream(markable);
+        this.start = 0;
+        this.firstEntry = 0;
+        reader.setInput(streamInput);
+        readHeader(streamInput);
+    }
+
+    private static void readHeader(DataInput input) {
+        try {
+            if (input.readByte() != MsgPack.FIX_EXT_1 ||
+                    input.readByte() != MsgPack.JODA_TYPE_CONTAINER) {
+                throw new IllegalArgumentException("Invalid binary container: Header not found");
+            }
+            int version = input.readByte();
+            if (version != JodaBeanBinContainerWriter.VERSION) {
+                throw new IllegalArgumentException("Invalid binary container: Expected version 1, but was: " + version);
+            }
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Invalid binary container: Header not found", ex);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the number of entries in the container.
+     * <p>
+     * This requires the container to have been read from a buffer.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return loadIndex().length;
+    }
+
+    /**
+     * Reads the entry at the specified index.
+     * <p>
+     * This requires the container to have been read from a buffer.
+     * The index at the end of the container is used to locate the entry directly.
+     *
+     * @param <T>  the root type
+     * @param index  the zero-based index of the entry
+     * @param rootType  the root type, not null
+     * @return the bean, not null
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public <T> T read(int index, Class<T> rootType) {
+        long[] loaded = loadIndex();
+        if (index < 0 || index >= loaded.length) {
+            throw new IndexOutOfBoundsException("Invalid index: " + index + ", size: " + loaded.length);
+        }
+        bufferInput.index(start + (int) loaded[index]);
+        return readEntry(rootType);
+    }
+
+    /**
+     * Returns an iterator that lazily reads each entry in turn.
+     * <p>
+     * When reading from a stream, only one iterator should be used.
+     *
+     * @param <T>  the root type
+     * @param rootType  the root type, not null
+     * @return the iterator, not null
+     */
+    public <T> Iterator<T> iterator(final Class<T> rootType) {
+        return new Iterator<T>() {
+            private int nextIndex = firstEntry;
+
+            @Override
+            public boolean hasNext() {
+                if (bufferInput != null) {
+                    bufferInput.index(nextIndex);
+                }
+                return hasNextEntry();
+            }
+
+            @Override
+            public T next() {
+                if (hasNext() == false) {
+                    throw new NoSuchElementException();
+                }
+                T result = readEntry(rootType);
+                if (bufferInput != null) {
+                    nextIndex = bufferInput.index();
+                }
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    //-----------------------------------------------------------------------
+    // checks if the next object is an entry rather than the index
+    private boolean hasNextEntry() {
+        try {
+            int typeByte;
+            if (bufferInput != null) {
+                if (bufferInput.available() == 0) {
+                    return false;
+                }
+                typeByte = bufferInput.peekByte();
+            } else {
+                streamInput.mark(1);
+                typeByte = streamInput.read();
+                streamInput.reset();
+                if (typeByte < 0) {
+                    return false;
+                }
+                typeByte = (byte) typeByte;
+            }
+            return typeByte != MsgPack.FIX_EXT_1;
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // reads the entry at the current location
+    private <T> T readEntry(Class<T> rootType) {
+        try {
+            return reader.readEntry(rootType);
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    // loads the index, adding the type dictionary to the known types
+    private long[] loadIndex() {
+        if (offsets != null) {
+            return offsets;
+        }
+        if (bufferInput == null) {
+            throw new UnsupportedOperationException("Random access requires the container to be read from a ByteBuffer");
+        }
+        try {
+            bufferInput.index(bufferInput.limit() - JodaBeanBinContainerWriter.TRAILER_SIZE);
+            if (bufferInput.readByte() != MsgPack.FIX_EXT_8 ||
+                    bufferInput.readByte() != MsgPack.JODA_TYPE_CONTAINER) {
+                throw new IllegalArgumentException("Invalid binary container: Index not found");
+            }
+            bufferInput.index(start + (int) bufferInput.readLong());
+            if (bufferInput.readByte() != MsgPack.FIX_EXT_1 ||
+                    bufferInput.readByte() != MsgPack.JODA_TYPE_CONTAINER ||
+                    bufferInput.readByte() != JodaBeanBinContainerWriter.INDEX_MARKER) {
+                throw new IllegalArgumentException("Invalid binary container: Index not found");
+            }
+            Map<String, Class<?>> knownTypes = reader.getKnownTypes();
+            int dictionarySize = reader.acceptMap(bufferInput.readByte());
+            for (int i = 0; i < dictionarySize; i++) {
+                String shortName = reader.acceptString(bufferInput.readByte());
+                String fullName = reader.acceptString(bufferInput.readByte());
+                Class<?> type = SerTypeMapper.decodeType(fullName, settings, null, null);
+                knownTypes.put(fullName, type);
+                knownTypes.put(shortName, type);
+            }
+            int size = reader.acceptArray(bufferInput.readByte());
+            long[] loaded = new long[size];
+            for (int i = 0; i < size; i++) {
+                loaded[i] = reader.acceptLong(bufferInput.readByte());
+            }
+            offsets = loaded;
+            return loaded;
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Invalid binary container: " + ex.getMessage(), ex);
+        }
+    }
+
+}
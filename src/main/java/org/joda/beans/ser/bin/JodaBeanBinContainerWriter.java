@@ -0,0 +1,187 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.joda.beans.Bean;
+import org.joda.beans.ser.JodaBeanSer;
+
+/**
+ * Provides the ability for many Joda-Beans to be written to a single binary container.
+ * <p>
+ * This class contains mutable state and cannot be used from multiple threads.
+ * An instance writes a single container.
+ * <p>
+ * The container is a sequence of MessagePack objects.
+ * It starts with a header, which is a 'fixext1' of type 35 with the data being the container version (1).
+ * Each bean is then written as an entry, using the format of {@link JodaBeanBinWriter}, including the root type.
+ * The type names are shared by all the entries, so that a class name is only written in full
+ * the first time it is used within the container. The base package is not used.
+ * <p>
+ * When the container is finished, an index is written.
+ * The index starts with a 'fixext1' of type 35 with the data being zero.
+ * This is followed by a map of short type name to full type name, which is the
+ * dictionary of types that enables entries to be read independently.
+ * This is followed by an array of integers, the byte offset of each entry from the start of the container.
+ * Finally, a 'fixext8' of type 35 holds the byte offset of the index from the start of the container.
+ * Since the final 'fixext8' is always 10 bytes long, it can be found from the end of the data.
+ *
+ * @author Stephen Colebourne
+ */
+public class JodaBeanBinContainerWriter implements Closeable {
+
+    /**
+     * The container version.
+     */
+    static final int VERSION = 1;
+    /**
+     * The data of the 'fixext1' that marks the start of the index.
+     */
+    static final int INDEX_MARKER = 0;
+    /**
+     * The size of the trailer that holds the offset of the index.
+     */
+    static final int TRAILER_SIZE = 10;
+
+    /**
+     * The bean writer, retaining the known types between entries.
+     */
+    private final JodaBeanBinWriter writer;
+    /**
+     * The output, which buffers and counts the bytes written.
+     */
+    private final MsgPackOutput output;
+    /**
+     * The offsets of each entry.
+     */
+    private long[] offsets = new long[64];
+    /**
+     * The number of entries.
+     */
+    private int size;
+    /**
+     * Whether the container has been finished.
+     */
+    private boolean finished;
+
+    /**
+     * Creates an instance, writing the header of the container.
+     * <p>
+     * The output stream is buffered internally.
+     *
+     * @param settings  the settings to use, not null
+     * @param output  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    public JodaBeanBinContainerWriter(final JodaBeanSer settings, final OutputStream output) throws IOException {
+        if (settings == null) {
+            throw new NullPointerException("settings");
+        }
+        if (output == null) {
+            throw new NullPointerException("output");
+        }
+        this.writer = new JodaBeanBinWriter(settings, JodaBeanBinFormat.STANDARD, true);
+        this.output = new MsgPackOutput(output);
+        this.output.writeExtensionByte(MsgPack.JODA_TYPE_CONTAINER, VERSION);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Writes a bean as the next entry in the container.
+     *
+     * @param bean  the bean to output, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(final Bean bean) throws IOException {
+        if (bean == null) {
+            throw new NullPointerException("bean");
+        }
+        if (finished) {
+            throw new IllegalStateException("Container has been finished");
+        }
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+        }
+        offsets[size++] = output.size();
+        writer.writeEntry(bean, output);
+    }
+
+    /**
+     * Gets the number of entries written.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Finishes the container, writing the index and flushing the stream.
+     * <p>
+     * The underlying stream is not closed.
+     *
+     * @throws IOException if an error occurs
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        long indexOffset = output.size();
+        output.writeExtensionByte(MsgPack.JODA_TYPE_CONTAINER, INDEX_MARKER);
+        Map<String, String> dictionary = new TreeMap<String, String>();
+        for (Entry<Class<?>, String> entry : writer.getKnownTypes().entrySet()) {
+            String fullName = entry.getKey().getName();
+            if (entry.getValue().equals(fullName) == false) {
+                dictionary.put(entry.getValue(), fullName);
+            }
+        }
+        output.writeMapHeader(dictionary.size());
+        for (Entry<String, String> entry : dictionary.entrySet()) {
+            output.writeString(entry.getKey());
+            output.writeString(entry.getValue());
+        }
+        output.writeArrayHeader(size);
+        for (int i = 0; i < size; i++) {
+            output.writeLong(offsets[i]);
+        }
+        output.writeExtensionLong(MsgPack.JODA_TYPE_CONTAINER, indexOffset);
+        output.flush();
+    }
+
+    /**
+     * Finishes the container if necessary and closes the underlying stream.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            output.close();
+        }
+    }
+
+}
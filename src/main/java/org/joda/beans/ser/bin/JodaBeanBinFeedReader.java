@@ -0,0 +1,374 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerBeanConsumer;
+
+/**
+ * Provides the ability to read Joda-Beans from the binary format incrementally, as the data arrives.
+ * <p>
+ * This is a push-style reader, suitable for non-blocking network code.
+ * Chunks of bytes are fed to the reader as they are received.
+ * Each time the data for a message is complete, the bean is parsed and passed to the consumer.
+ * No method ever blocks waiting for data, and the state of a partially received message
+ * is retained between chunks.
+ * <p>
+ * The data is a sequence of messages, as written by {@link JodaBeanBinWriter}.
+ * The MessagePack structure of each message is tracked as the bytes are fed, without parsing.
+ * Only the bytes of an incomplete message are retained, and a message that is wholly
+ * within one chunk is parsed directly from that chunk.
+ * <p>
+ * In session mode, enabled by passing a {@link JodaBeanBinTypeDictionary}, the messages
+ * are read using a single {@link JodaBeanBinReader} in session mode.
+ * <p>
+ * This class contains mutable state and cannot be used from multiple threads.
+ *
+ * @param <T>  the root type of each bean
+ * @author Stephen Colebourne
+ */
+public class JodaBeanBinFeedReader<T> extends MsgPack {
+
+    /**
+     * Settings.
+     */
+    private final JodaBeanSer settings;
+    /**
+     * The reader used for all messages, null if a new reader is used for each message.
+     */
+    private final JodaBeanBinReader sessionReader;
+    /**
+     * The root type of each bean.
+     */
+    private final Class<T> rootType;
+    /**
+     * The consumer of the beans.
+     */
+    private final SerBeanConsumer<? super T> consumer;
+    /**
+     * The retained bytes of the incomplete message.
+     */
+    private byte[] buffer = new byte[256];
+    /**
+     * The number of retained bytes.
+     */
+    private int count;
+    /**
+     * Whether the scan is within a message.
+     */
+    private boolean inMessage;
+    /**
+     * The number of values in the message that have not yet been started.
+     */
+    private long pending;
+    /**
+     * The number of payload bytes of the current value still to be scanned.
+     */
+    private long skip;
+    /**
+     * The type byte of the current value, while its header is incomplete.
+     */
+    private int headerType;
+    /**
+     * The number of length bytes of the header of the current value still to be scanned.
+     */
+    private int headerRemaining;
+    /**
+     * The length read from the header of the current value.
+     */
+    private long headerValue;
+
+    /**
+     * Creates an instance.
+     *
+     * @param settings  the settings, not null
+     * @param rootType  the root type of each bean, not null
+     * @param consumer  the consumer of each bean that is read, not null
+     */
+    public JodaBeanBinFeedReader(JodaBeanSer settings, Class<T> rootType, SerBeanConsumer<? super T> consumer) {
+        JodaBeanUtils.notNull(settings, "settings");
+        JodaBeanUtils.notNull(rootType, "rootType");
+        JodaBeanUtils.notNull(consumer, "consumer");
+        this.settings = settings;
+        this.sessionReader = null;
+        this.rootType = rootType;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Creates an instance in session mode.
+     *
+     * @param settings  the settings, not null
+     * @param dictionary  the dictionary of types shared with the writer, not null
+     * @param rootType  the root type of each bean, not null
+     * @param consumer  the consumer of each bean that is read, not null
+     */
+    public JodaBeanBinFeedReader(
+            JodaBeanSer settings,
+            JodaBeanBinTypeDictionary dictionary,
+            Class<T> rootType,
+            SerBeanConsumer<? super T> consumer) {
+        JodaBeanUtils.notNull(settings, "settings");
+        JodaBeanUtils.notNull(dictionary, "dictionary");
+        JodaBeanUtils.notNull(rootType, "rootType");
+        JodaBeanUtils.notNull(consumer, "consumer");
+        this.settings = settings;
+        this.sessionReader = new JodaBeanBinReader(settings, dictionary);
+        this.rootType = rootType;
+        this.consumer = consumer;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Feeds a chunk of bytes to the reader.
+     * <p>
+     * Each message completed by the chunk is parsed and passed to the consumer before this method returns.
+     *
+     * @param bytes  the bytes, not null
+     * @throws IllegalArgumentException if the data is invalid
+     */
+    public void feed(byte[] bytes) {
+        JodaBeanUtils.notNull(bytes, "bytes");
+        feed(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Feeds a chunk of bytes to the reader.
+     * <p>
+     * Each message completed by the chunk is parsed and passed to the consumer before this method returns.
+     * The bytes are not retained once this method returns.
+     *
+     * @param bytes  the bytes, not null
+     * @param offset  the offset of the first byte
+     * @param length  the number of bytes
+     * @throws IllegalArgumentException if the data is invalid
+     */
+    public void feed(byte[] bytes, int offset, int length) {
+        JodaBeanUtils.notNull(bytes, "bytes");
+        int end = offset + length;
+        int index = offset;
+        while (index < end) {
+            int start = index;
+            if (inMessage == false) {
+                inMessage = true;
+                pending = 1;
+            }
+            index = scan(bytes, index, end);
+            if (pending == 0 && skip == 0 && headerRemaining == 0) {
+                // message complete, reset the state before parsing so that an error does not corrupt it
+                inMessage = false;
+                if (count == 0) {
+                    parse(bytes, start, index - start);
+                } else {
+                    append(bytes, start, index - start);
+                    int size = count;
+                    count = 0;
+                    parse(buffer, 0, size);
+                }
+            } else {
+                append(bytes, start, index - start);
+            }
+        }
+    }
+
+    /**
+     * Feeds a chunk of bytes to the reader.
+     * <p>
+     * Each message completed by the chunk is parsed and passed to the consumer before this method returns.
+     * The bytes from the position to the limit are fed, and the position is advanced to the limit.
+     *
+     * @param bytes  the bytes, not null
+     * @throws IllegalArgumentException if the data is invalid
+     */
+    public void feed(ByteBuffer bytes) {
+        JodaBeanUtils.notNull(bytes, "bytes");
+        if (bytes.hasArray()) {
+            int offset = bytes.arrayOffset() + bytes.position();
+            int length = bytes.remaining();
+            bytes.position(bytes.limit());
+            feed(bytes.array(), offset, length);
+        } else {
+            byte[] array = new byte[bytes.remaining()];
+            bytes.get(array);
+            feed(array, 0, array.length);
+        }
+    }
+
+    /**
+     * Checks that the data fed is complete, with no partially received message.
+     * <p>
+     * This is called when the input has ended.
+     *
+     * @throws IllegalArgumentException if a message has been partially received
+     */
+    public void finish() {
+        if (inMessage) {
+            throw new IllegalArgumentException("Invalid binary data: End of file");
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    // scans the bytes of a message, returning the index after the last byte of the message, or the end
+    private int scan(byte[] bytes, int index, int end) {
+        int i = index;
+        while (i < end) {
+            if (skip > 0) {
+                int size = (int) Math.min(skip, end - i);
+                i += size;
+                skip -= size;
+            } else if (headerRemaining > 0) {
+                headerValue = (headerValue << 8) | (bytes[i++] & 0xFF);
+                headerRemaining--;
+                if (headerRemaining == 0) {
+                    completeHeader();
+                }
+            } else if (pending > 0) {
+                startValue(bytes[i++]);
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    // starts a value, determining the size of its header, payload and children
+    private void startValue(int typeByte) {
+        pending--;
+        if (typeByte >= MIN_FIX_INT) {
+            return;  // positive or negative fixed int
+        }
+        if (typeByte <= MAX_FIX_MAP) {
+            pending += 2L * (typeByte - MIN_FIX_MAP);
+            return;
+        }
+        if (typeByte <= MAX_FIX_ARRAY) {
+            pending += typeByte - MIN_FIX_ARRAY;
+            return;
+        }
+        if (typeByte <= MAX_FIX_STR) {
+            skip = typeByte - MIN_FIX_STR;
+            return;
+        }
+        switch (typeByte) {
+            case NIL:
+            case FALSE:
+            case TRUE:
+                return;
+            case BIN_8:
+            case STR_8:
+            case EXT_8:
+                startHeader(typeByte, 1);
+                return;
+            case BIN_16:
+            case STR_16:
+            case EXT_16:
+            case ARRAY_16:
+            case MAP_16:
+                startHeader(typeByte, 2);
+                return;
+            case BIN_32:
+            case STR_32:
+            case EXT_32:
+            case ARRAY_32:
+            case MAP_32:
+                startHeader(typeByte, 4);
+                return;
+            case UINT_8:
+            case SINT_8:
+                skip = 1;
+                return;
+            case UINT_16:
+            case SINT_16:
+            case FIX_EXT_1:
+                skip = 2;
+                return;
+            case FIX_EXT_2:
+                skip = 3;
+                return;
+            case FLOAT_32:
+            case UINT_32:
+            case SINT_32:
+                skip = 4;
+                return;
+            case FIX_EXT_4:
+                skip = 5;
+                return;
+            case FLOAT_64:
+            case UINT_64:
+            case SINT_64:
+                skip = 8;
+                return;
+            case FIX_EXT_8:
+                skip = 9;
+                return;
+            case FIX_EXT_16:
+                skip = 17;
+                return;
+            default:
+                throw new IllegalArgumentException("Invalid binary data: Unexpected type byte: 0x" + toHex(typeByte));
+        }
+    }
+
+    // starts a header that has length bytes
+    private void startHeader(int typeByte, int size) {
+        headerType = typeByte;
+        headerRemaining = size;
+        headerValue = 0;
+    }
+
+    // completes a header once the length bytes have been scanned
+    private void completeHeader() {
+        switch (headerType) {
+            case EXT_8:
+            case EXT_16:
+            case EXT_32:
+                skip = headerValue + 1;  // extension type byte
+                break;
+            case ARRAY_16:
+            case ARRAY_32:
+                pending += headerValue;
+                break;
+            case MAP_16:
+            case MAP_32:
+                pending += 2 * headerValue;
+                break;
+            default:
+                skip = headerValue;
+                break;
+        }
+    }
+
+    // retains bytes of an incomplete message
+    private void append(byte[] bytes, int offset, int length) {
+        if (count + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + length));
+        }
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+
+    // parses a complete message
+    private void parse(byte[] bytes, int offset, int length) {
+        JodaBeanBinReader reader = (sessionReader != null ? sessionReader : new JodaBeanBinReader(settings));
+        T bean = reader.read(ByteBuffer.wrap(bytes, offset, length), rootType);
+        consumer.accept(bean);
+    }
+
+}
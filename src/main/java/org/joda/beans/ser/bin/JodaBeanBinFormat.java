@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+/**
+ * The formats of binary data that can be written.
+ * <p>
+ * The reader handles all formats automatically, as the version is written in the data.
+ *
+ * @author Stephen Colebourne
+ */
+public enum JodaBeanBinFormat {
+
+    /**
+     * The standard format, version 1.
+     * <p>
+     * Each bean is written as a map keyed by property name.
+     */
+    STANDARD(1),
+    /**
+     * The indexed format, version 2.
+     * <p>
+     * The property names of each type of bean are written once per message in a schema.
+     * Each bean is then written as a map keyed by the index of the property in the schema.
+     * This format is smaller and faster to read, particularly for beans with many properties.
+     */
+    INDEXED(2),
+    /**
+     * The referencing format, version 3.
+     * <p>
+     * This extends the indexed format, writing repeated immutable beans and strings once per message.
+     * Later occurrences are written as a reference to the first, and are read as the same instance.
+     * A bean is repeated if it is the same instance, whereas a string is repeated if it is equal.
+     * This format is smaller and uses less memory when read if the data has many repeated values.
+     */
+    REFERENCING(3);
+
+    /**
+     * The version written in the data.
+     */
+    private final int version;
+
+    /**
+     * Creates an instance.
+     *
+     * @param version  the version
+     */
+    private JodaBeanBinFormat(int version) {
+        this.version = version;
+    }
+
+    /**
+     * Gets the version written in the data.
+     *
+     * @return the version
+     */
+    int version() {
+        return version;
+    }
+
+}
@@ -15,12 +15,19 @@
  */
 package org.joda.beans.ser.bin;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedInputStream;
+import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.joda.beans.Bean;
 import org.joda.beans.BeanBuilder;
@@ -29,9 +36,11 @@ import org.joda.beans.MetaProperty;
 import org.joda.beans.ser.JodaBeanSer;
 import org.joda.beans.ser.SerCategory;
 import org.joda.beans.ser.SerDeserializer;
+import org.joda.beans.ser.SerDeserializerHandle;
 import org.joda.beans.ser.SerIterable;
 import org.joda.beans.ser.SerIteratorFactory;
 import org.joda.beans.ser.SerOptional;
+import org.joda.beans.ser.SerProjection;
 import org.joda.beans.ser.SerTypeMapper;
 
 /**
@@ -39,13 +48,33 @@ import org.joda.beans.ser.SerTypeMapper;
  * <p>
  * The binary format is defined by {@link JodaBeanBinWriter}.
  * <p>
+ * Data can be read from a {@code ByteBuffer}, including a {@code MappedByteBuffer}
+ * obtained from {@code FileChannel.map}. In this case, the data is parsed directly
+ * from the buffer without first being copied into a byte array.
+ * <p>
+ * A {@link SerProjection} may be specified to only read a subset of the properties.
+ * Properties outside the projection are skipped without being parsed.
+ * In the referencing format, a skipped property might define a bean that is referenced later,
+ * thus an immutable bean within a skipped property is parsed rather than skipped.
+ * <p>
+ * In session mode, enabled by passing a {@link JodaBeanBinTypeDictionary}, the numbering of
+ * type names is retained across messages, as described in {@link JodaBeanBinWriter}.
+ * The instance must then be used to read every message of the session in order,
+ * and must not be used to read from an {@code InputStream}, as the stream is closed.
+ * <p>
  * This class contains mutable state and cannot be used from multiple threads.
- * A new instance must be created for each message.
+ * Other than in session mode, a new instance must be created for each message.
  *
  * @author Stephen Colebourne
  */
 public class JodaBeanBinReader extends MsgPack {
 
+    /**
+     * The placeholder for a referenced bean that was skipped rather than parsed.
+     * This occurs when indexing a view, or when the type of the bean could not be found.
+     */
+    private static final Object UNPARSED = new Object();
+
     /**
      * Settings.
      */
@@ -53,7 +82,11 @@ public class JodaBeanBinReader extends MsgPack {
     /**
      * The reader.
      */
-    private DataInputStream input;
+    private DataInput input;
+    /**
+     * The reader, as a stream supporting mark and reset.
+     */
+    private InputStream markableInput;
     /**
      * The base package including the trailing dot.
      */
@@ -62,6 +95,55 @@ public class JodaBeanBinReader extends MsgPack {
      * The known types.
      */
     private Map<String, Class<?>> knownTypes = new HashMap<String, Class<?>>();
+    /**
+     * The schemas of each bean type, used by the indexed format.
+     */
+    private List<BeanSchema> schemas = new ArrayList<BeanSchema>();
+    /**
+     * The referenced beans and strings, used by the referencing format.
+     */
+    private List<Object> references = new ArrayList<Object>();
+    /**
+     * The version of the message being read.
+     */
+    private int version;
+    /**
+     * The schemas of the message being viewed, null if not a view.
+     */
+    private List<BeanSchema> viewSchemas;
+    /**
+     * The references of the message being viewed, null if not a view.
+     */
+    private List<Object> viewReferences;
+    /**
+     * The schemas used by the property of a view being skipped, null if not indexing a view.
+     */
+    private BitSet viewSchemaUses;
+    /**
+     * The references used by the property of a view being skipped, null if not indexing a view.
+     */
+    private BitSet viewReferenceUses;
+    /**
+     * Whether the reader is reading the entries of a container.
+     * The base package is not used and the known types are shared by all entries.
+     */
+    private final boolean container;
+    /**
+     * The projection to apply to the root bean, null to read all properties.
+     */
+    private final SerProjection rootProjection;
+    /**
+     * The projection to apply to the bean being parsed, null to read all properties.
+     */
+    private SerProjection projection;
+    /**
+     * The type names numbered in the session, null if not in session mode.
+     */
+    private final List<String> sessionTypes;
+    /**
+     * The set of type names numbered in the session, null if not in session mode.
+     */
+    private final Set<String> sessionTypeSet;
 
     /**
      * Creates an instance.
@@ -69,7 +151,57 @@ public class JodaBeanBinReader extends MsgPack {
      * @param settings  the settings, not null
      */
     public JodaBeanBinReader(final JodaBeanSer settings) {
+        this(settings, false);
+    }
+
+    /**
+     * Creates an instance that reads a subset of the properties.
+     * 
+     * @param settings  the settings, not null
+     * @param projection  the projection defining the properties to read, not null
+     */
+    public JodaBeanBinReader(final JodaBeanSer settings, final SerProjection projection) {
+        if (projection == null) {
+            throw new NullPointerException("projection");
+        }
+        this.settings = settings;
+        this.container = false;
+        this.rootProjection = projection;
+        this.sessionTypes = null;
+        this.sessionTypeSet = null;
+    }
+
+    /**
+     * Creates an instance in session mode.
+     * <p>
+     * The numbering of type names is retained across all the messages read.
+     * 
+     * @param settings  the settings, not null
+     * @param dictionary  the dictionary of types shared with the writer, not null
+     */
+    public JodaBeanBinReader(final JodaBeanSer settings, final JodaBeanBinTypeDictionary dictionary) {
+        if (dictionary == null) {
+            throw new NullPointerException("dictionary");
+        }
+        this.settings = settings;
+        this.container = false;
+        this.rootProjection = null;
+        this.sessionTypes = new ArrayList<String>(dictionary.getTypeNames());
+        this.sessionTypeSet = new HashSet<String>(sessionTypes);
+    }
+
+    /**
+     * Creates an instance.
+     * 
+     * @param settings  the settings, not null
+     * @param container  true if reading the entries of a container
+     */
+    JodaBeanBinReader(final JodaBeanSer settings, final boolean container) {
         this.settings = settings;
+        this.container = container;
+        this.rootProjection = null;
+        this.sessionTypes = null;
+        this.sessionTypeSet = null;
     }
 
     //-----------------------------------------------------------------------
@@ -92,7 +224,45 @@ public class JodaBeanBinReader extends MsgPack {
      * @return the bean, not null
      */
     public <T> T read(final byte[] input, Class<T> rootType) {
-        return read(new ByteArrayInputStream(input), rootType);
+        return read(ByteBuffer.wrap(input), rootType);
+    }
+
+    /**
+     * Reads and parses to a bean.
+     * 
+     * @param input  the input buffer, not null
+     * @return the bean, not null
+     */
+    public Bean read(final ByteBuffer input) {
+        return read(input, Bean.class);
+    }
+
+    /**
+     * Reads and parses to a bean.
+     * <p>
+     * The data is read from the current position of the buffer, which may be a
+     * heap buffer, a direct buffer or a {@code MappedByteBuffer}.
+     * The bytes are parsed in place, without being copied to an intermediate array.
+     * When this method returns, the position of the buffer has been advanced to
+     * the end of the message, allowing a sequence of messages to be read.
+     * 
+     * @param <T>  the root type
+     * @param input  the input buffer, not null
+     * @param rootType  the root type, not null
+     * @return the bean, not null
+     */
+    public <T> T read(final ByteBuffer input, Class<T> rootType) {
+        ByteBufferInput bufferInput = new ByteBufferInput(input);
+        setInput(bufferInput);
+        try {
+            T result = parseRoot(rootType);
+            input.position(bufferInput.index());
+            return result;
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
     }
 
     /**
@@ -114,11 +284,8 @@ public class JodaBeanBinReader extends MsgPack {
      * @return the bean, not null
      */
     public <T> T read(final InputStream input, Class<T> rootType) {
-        if (input instanceof DataInputStream) {
-            this.input = (DataInputStream) input;
-        } else {
-            this.input = new DataInputStream(input);
-        }
+        InputStream markable = (input.markSupported() ? input : new BufferedInputStream(input));
+        setInput(markable instanceof DataInputStream ? (DataInputStream) markable : new DataInputStream(markable));
         try {
             try {
                 return parseRoot(rootType);
@@ -132,6 +299,226 @@ public class JodaBeanBinReader extends MsgPack {
         }
     }
 
+    /**
+     * Creates a lazy view of the bean, decoding properties on demand.
+     * 
+     * @param input  the input bytes, not null
+     * @return the view, not null
+     */
+    public JodaBeanBinView view(final byte[] input) {
+        return view(ByteBuffer.wrap(input), Bean.class);
+    }
+
+    /**
+     * Creates a lazy view of the bean, decoding properties on demand.
+     * <p>
+     * The data is read from the current position of the buffer, which may be a
+     * heap buffer, a direct buffer or a {@code MappedByteBuffer}.
+     * The state of the buffer is not altered.
+     * The properties of the root bean are located when this method is called,
+     * but their values are only decoded when requested from the view.
+     * 
+     * @param input  the input buffer, not null
+     * @param rootType  the root type, not null
+     * @return the view, not null
+     */
+    public JodaBeanBinView view(final ByteBuffer input, final Class<?> rootType) {
+        return new JodaBeanBinView(settings, input, rootType);
+    }
+
+    /**
+     * Sets the input to read from.
+     * 
+     * @param <S>  the type of the input
+     * @param input  the input, which must support mark and reset, not null
+     */
+    <S extends InputStream & DataInput> void setInput(S input) {
+        this.input = input;
+        this.markableInput = input;
+    }
+
+    /**
+     * Reads an entry in a container from the current input.
+     * <p>
+     * The known types are retained from the previous entry.
+     * 
+     * @param <T>  the root type
+     * @param rootType  the root type, not null
+     * @return the bean, not null
+     * @throws Exception if an error occurs
+     */
+    <T> T readEntry(Class<T> rootType) throws Exception {
+        return parseRoot(rootType);
+    }
+
+    /**
+     * Gets the known types, used as the dictionary of a container.
+     * 
+     * @return the known types, not null
+     */
+    Map<String, Class<?>> getKnownTypes() {
+        return knownTypes;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Starts reading a view of the root bean, leaving the input at the first property.
+     * 
+     * @param input  the input, not null
+     * @param declaredType  the declared root type, not null
+     * @return the state of the view, not null
+     * @throws Exception if an error occurs
+     */
+    ViewRoot startView(final ByteBufferInput input, final Class<?> declaredType) throws Exception {
+        setInput(input);
+        parseHeader();
+        int mapSize = acceptMap(input.readByte());
+        Class<?> beanType = declaredType;
+        BeanSchema schema = null;
+        if (mapSize > 0) {
+            input.mark(8);
+            int keyByte = input.readByte();
+            if (keyByte == EXT_8) {
+                int size = input.readUnsignedByte();
+                if (input.readByte() == JODA_TYPE_BEAN) {
+                    beanType = decodeBeanType(decodeSessionType(acceptStringBytes(size)), declaredType, true);
+                    if (input.readByte() != NIL) {
+                        throw new IllegalArgumentException("Invalid binary data: Expected null after bean type");
+                    }
+                    mapSize--;
+                } else {
+                    input.reset();
+                }
+            } else if ((keyByte == FIX_EXT_1 || keyByte == FIX_EXT_2 || keyByte == FIX_EXT_4) && input.readByte() == JODA_TYPE_SCHEMA) {
+                int size = (keyByte == FIX_EXT_1 ? 1 : (keyByte == FIX_EXT_2 ? 2 : 4));
+                schema = resolveSchema(parseSchema(size), declaredType, true);
+                beanType = schema.type;
+                mapSize--;
+            } else {
+                input.reset();
+            }
+        }
+        if (Bean.class.isAssignableFrom(beanType) == false || beanType == Bean.class) {
+            throw new IllegalArgumentException("Root type is not a Joda-Bean: " + beanType.getName());
+        }
+        if (schema != null) {
+            return new ViewRoot(beanType, schema.deser, schema.metaBean, schema, mapSize);
+        }
+        SerDeserializerHandle handle = settings.getDeserializers().findHandle(beanType);
+        return new ViewRoot(beanType, handle.getDeserializer(), handle.getMetaBean(), null, mapSize);
+    }
+
+    /**
+     * Reads the name of the next property of the root bean of a view.
+     * 
+     * @param root  the state of the view, not null
+     * @return the property name, not null
+     * @throws Exception if an error occurs
+     */
+    String readViewPropertyName(ViewRoot root) throws Exception {
+        if (root.schema == null) {
+            return readString(input.readByte());
+        }
+        int index = acceptInteger(input.readByte());
+        if (index < 0 || index >= root.schema.names.length) {
+            throw new IllegalArgumentException("Invalid binary data: Property index " + index + " not in schema");
+        }
+        return root.schema.names[index];
+    }
+
+    /**
+     * Skips the value of a property of the root bean of a view.
+     * <p>
+     * The schemas and references used by the value are recorded, allowing the view
+     * to determine which earlier properties must be decoded before this one.
+     * 
+     * @param schemaUses  the set to add the identifier of each schema used to, not null
+     * @param referenceUses  the set to add the identifier of each reference used to, not null
+     * @throws Exception if an error occurs
+     */
+    void skipViewProperty(BitSet schemaUses, BitSet referenceUses) throws Exception {
+        viewSchemaUses = schemaUses;
+        viewReferenceUses = referenceUses;
+        try {
+            skipObject();
+        } finally {
+            viewSchemaUses = null;
+            viewReferenceUses = null;
+        }
+    }
+
+    /**
+     * Gets the number of schemas read so far.
+     * 
+     * @return the number of schemas
+     */
+    int schemaCount() {
+        return schemas.size();
+    }
+
+    /**
+     * Gets the number of references read so far.
+     * 
+     * @return the number of references
+     */
+    int referenceCount() {
+        return references.size();
+    }
+
+    /**
+     * Ends the indexing of a view, retaining the schemas and references defined by the message.
+     * <p>
+     * The schemas and references defined within a property are placeholders until
+     * that property is decoded, whereupon they are replaced by the decoded versions.
+     */
+    void endViewIndex() {
+        viewSchemas = new ArrayList<BeanSchema>(schemas);
+        viewReferences = new ArrayList<Object>(references);
+    }
+
+    /**
+     * Parses the value of a property of the root bean of a view.
+     * <p>
+     * The schemas and references defined before the property are made available,
+     * and those defined by the property replace the placeholders retained by the view.
+     * The caller must decode the properties that this property depends on first.
+     * 
+     * @param root  the state of the view, not null
+     * @param metaProp  the meta-property, null to skip the value
+     * @param schemaStart  the number of schemas defined before the property
+     * @param referenceStart  the number of references defined before the property
+     * @param schemaEnd  the number of schemas defined after the property
+     * @param referenceEnd  the number of references defined after the property
+     * @return the value, null if skipped
+     * @throws Exception if an error occurs
+     */
+    Object parseViewProperty(
+            ViewRoot root, MetaProperty<?> metaProp,
+            int schemaStart, int referenceStart, int schemaEnd, int referenceEnd) throws Exception {
+
+        schemas.clear();
+        schemas.addAll(viewSchemas.subList(0, schemaStart));
+        references.clear();
+        references.addAll(viewReferences.subList(0, referenceStart));
+        Object value = null;
+        if (metaProp == null) {
+            skipObject();
+        } else {
+            value = parseObject(SerOptional.extractType(metaProp, root.type), metaProp, root.type, null, false);
+            value = SerOptional.wrapValue(metaProp, root.type, value);
+        }
+        if (schemas.size() != schemaEnd || references.size() != referenceEnd) {
+            throw new IllegalArgumentException("Invalid binary data: Property defined a different number of schemas or references when parsed");
+        }
+        for (int i = schemaStart; i < schemaEnd; i++) {
+            viewSchemas.set(i, schemas.get(i));
+        }
+        for (int i = referenceStart; i < referenceEnd; i++) {
+            viewReferences.set(i, references.get(i));
+        }
+        return value;
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Parses the root bean.
@@ -141,6 +528,14 @@ public class JodaBeanBinReader extends MsgPack {
      * @throws Exception if an error occurs
      */
     private <T> T parseRoot(final Class<T> declaredType) throws Exception {
+        parseHeader();
+        projection = rootProjection;
+        // parse
+        Object parsed = parseObject(declaredType, null, null, null, true);
+        return declaredType.cast(parsed);
+    }
+
+    private void parseHeader() throws Exception {
         // root array
         int typeByte = input.readByte();
         if (typeByte != MIN_FIX_ARRAY + 2) {
@@ -148,28 +543,34 @@ public class JodaBeanBinReader extends MsgPack {
         }
         // version
         typeByte = input.readByte();
-        if (typeByte != 1) {
-            throw new IllegalArgumentException("Invalid binary data: Expected version 1, but was: 0x" + toHex(typeByte));
+        if (typeByte < 1 || typeByte > 3) {
+            throw new IllegalArgumentException("Invalid binary data: Expected version 1, 2 or 3, but was: 0x" + toHex(typeByte));
         }
-        // parse
-        Object parsed = parseObject(declaredType, null, null, null, true);
-        return declaredType.cast(parsed);
+        version = typeByte;
+        schemas.clear();
+        references.clear();
     }
 
     private Object parseBean(int propertyCount, Class<?> beanType) throws Exception {
         String propName = "";
         try {
-            SerDeserializer deser = settings.getDeserializers().findDeserializer(beanType);
-            MetaBean metaBean = deser.findMetaBean(beanType);
-            BeanBuilder<?> builder = deser.createBuilder(beanType, metaBean);
+            SerDeserializerHandle handle = settings.getDeserializers().findHandle(beanType);
+            SerDeserializer deser = handle.getDeserializer();
+            MetaBean metaBean = handle.getMetaBean();
+            BeanBuilder<?> builder = handle.createBuilder();
             for (int i = 0; i < propertyCount; i++) {
                 // property name
-                propName = acceptString(input.readByte());
+                propName = readString(input.readByte());
                 MetaProperty<?> metaProp = deser.findMetaProperty(beanType, metaBean, propName);
                 if (metaProp == null) {
-                    MsgPackInput.skipObject(input);
+                    skipObject();
+                } else if (isExcluded(metaProp)) {
+                    skipObject();
                 } else {
+                    SerProjection parent = projection;
+                    projection = childProjection(metaProp);
                     Object value = parseObject(SerOptional.extractType(metaProp, beanType), metaProp, beanType, null, false);
+                    projection = parent;
                     deser.setValue(builder, metaProp, SerOptional.wrapValue(metaProp, beanType, value));
                 }
                 propName = "";
@@ -180,13 +581,142 @@ public class JodaBeanBinReader extends MsgPack {
         }
     }
 
+    private Object parseIndexedBean(int propertyCount, BeanSchema schema) throws Exception {
+        String propName = "";
+        try {
+            BeanBuilder<?> builder = schema.deser.createBuilder(schema.type, schema.metaBean);
+            for (int i = 0; i < propertyCount; i++) {
+                // property index
+                int index = acceptInteger(input.readByte());
+                if (index < 0 || index >= schema.names.length) {
+                    throw new IllegalArgumentException("Invalid binary data: Property index " + index + " not in schema");
+                }
+                propName = schema.names[index];
+                MetaProperty<?> metaProp = schema.findMetaProperty(index);
+                if (metaProp == null) {
+                    skipObject();
+                } else if (isExcluded(metaProp)) {
+                    skipObject();
+                } else {
+                    SerProjection parent = projection;
+                    projection = childProjection(metaProp);
+                    Object value = parseObject(SerOptional.extractType(metaProp, schema.type), metaProp, schema.type, null, false);
+                    projection = parent;
+                    schema.deser.setValue(builder, metaProp, SerOptional.wrapValue(metaProp, schema.type, value));
+                }
+                propName = "";
+            }
+            Object bean = schema.deser.build(schema.type, builder);
+            if (schema.referenceable) {
+                references.add(bean);
+            }
+            return bean;
+        } catch (Exception ex) {
+            throw new RuntimeException("Error parsing bean: " + schema.type.getName() + "::" + propName + ", " + ex.getMessage(), ex);
+        }
+    }
+
+    private BeanSchema parseSchema(int extSize) throws Exception {
+        int id = acceptExtensionInt(extSize);
+        int typeByte = input.readByte();
+        if (typeByte == NIL) {
+            if (id < 0 || id >= schemas.size()) {
+                throw new IllegalArgumentException("Invalid binary data: Schema " + id + " has not been defined");
+            }
+            if (viewSchemaUses != null) {
+                viewSchemaUses.set(id);
+            }
+            return schemas.get(id);
+        }
+        if (id != schemas.size()) {
+            throw new IllegalArgumentException("Invalid binary data: Expected definition of schema " + schemas.size() + ", but was: " + id);
+        }
+        int size = acceptArray(typeByte);
+        int headerSize = (version == 3 ? 2 : 1);
+        if (size < headerSize) {
+            throw new IllegalArgumentException("Invalid binary data: Schema must contain the type");
+        }
+        typeByte = input.readByte();
+        String typeStr = (typeByte == NIL ? null : decodeSessionType(readString(typeByte)));
+        boolean referenceable = false;
+        if (version == 3) {
+            typeByte = input.readByte();
+            if (typeByte != TRUE && typeByte != FALSE) {
+                throw new IllegalArgumentException("Invalid binary data: Expected boolean, but was: 0x" + toHex(typeByte));
+            }
+            referenceable = (typeByte == TRUE);
+        }
+        String[] names = new String[size - headerSize];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = readString(input.readByte());
+        }
+        BeanSchema schema = new BeanSchema(typeStr, names, referenceable);
+        schemas.add(schema);
+        return schema;
+    }
+
+    private BeanSchema resolveSchema(BeanSchema schema, Class<?> declaredType, boolean rootType) throws Exception {
+        if (schema.type == null) {
+            // only the schema of a root bean written without its type has no type
+            Class<?> beanType = declaredType;
+            if (schema.typeStr != null) {
+                beanType = decodeBeanType(schema.typeStr, declaredType, rootType);
+            } else if (rootType == false) {
+                throw new IllegalArgumentException("Invalid binary data: Schema does not define the bean type");
+            }
+            schema.resolve(settings.getDeserializers().findHandle(beanType));
+        } else if (declaredType.isAssignableFrom(schema.type) == false) {
+            throw new IllegalArgumentException("Specified type is incompatible with declared type: " + declaredType.getName() + " and " + schema.type.getName());
+        }
+        return schema;
+    }
+
+    // decodes a type name in session mode, where a number refers to a type name numbered earlier
+    private String decodeSessionType(String typeStr) {
+        if (sessionTypes == null) {
+            return typeStr;
+        }
+        if (typeStr.length() > 0 && Character.isDigit(typeStr.charAt(0))) {
+            int number;
+            try {
+                number = Integer.parseInt(typeStr);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid binary data: Invalid session type number: " + typeStr);
+            }
+            if (number >= sessionTypes.size()) {
+                throw new IllegalArgumentException("Invalid binary data: Session type " + number + " has not been defined");
+            }
+            return sessionTypes.get(number);
+        }
+        if (sessionTypeSet.add(typeStr)) {
+            sessionTypes.add(typeStr);
+        }
+        return typeStr;
+    }
+
+    private Class<?> decodeBeanType(String typeStr, Class<?> declaredType, boolean rootType) throws Exception {
+        Class<?> effectiveType = SerTypeMapper.decodeType(typeStr, settings, basePackage, knownTypes);
+        if (rootType) {
+            if (Bean.class.isAssignableFrom(effectiveType) == false) {
+                throw new IllegalArgumentException("Root type is not a Joda-Bean: " + effectiveType.getName());
+            }
+            if (container == false && sessionTypes == null) {
+                basePackage = effectiveType.getPackage().getName() + ".";
+            }
+        }
+        if (declaredType.isAssignableFrom(effectiveType) == false) {
+            throw new IllegalArgumentException("Specified type is incompatible with declared type: " + declaredType.getName() + " and " + effectiveType.getName());
+        }
+        return effectiveType;
+    }
+
     private Object parseObject(Class<?> declaredType, MetaProperty<?> metaProp, Class<?> beanType, SerIterable parentIterable, boolean rootType) throws Exception {
         // establish type
         Class<?> effectiveType = declaredType;
         String metaType = null;
         int typeByte = input.readByte();
         if (isMap(typeByte)) {
-            input.mark(8);
+            markableInput.mark(8);
             int mapSize = acceptMap(typeByte);
             if (mapSize > 0) {
                 int typeByteTemp = input.readByte();
@@ -194,17 +724,8 @@ public class JodaBeanBinReader extends MsgPack {
                     int size = input.readUnsignedByte();
                     typeByteTemp = input.readByte();
                     if (typeByteTemp == JODA_TYPE_BEAN) {
-                        String typeStr = acceptStringBytes(size);
-                        effectiveType = SerTypeMapper.decodeType(typeStr, settings, basePackage, knownTypes);
-                        if (rootType) {
-                            if (Bean.class.isAssignableFrom(effectiveType) == false) {
-                                throw new IllegalArgumentException("Root type is not a Joda-Bean: " + effectiveType.getName());
-                            }
-                            basePackage = effectiveType.getPackage().getName() + ".";
-                        }
-                        if (declaredType.isAssignableFrom(effectiveType) == false) {
-                            throw new IllegalArgumentException("Specified type is incompatible with declared type: " + declaredType.getName() + " and " + effectiveType.getName());
-                        }
+                        String typeStr = decodeSessionType(acceptStringBytes(size));
+                        effectiveType = decodeBeanType(typeStr, declaredType, rootType);
                         if (input.readByte() != NIL) {
                             throw new IllegalArgumentException("Invalid binary data: Expected null after bean type");
                         }
@@ -213,7 +734,7 @@ public class JodaBeanBinReader extends MsgPack {
                         if (mapSize != 1) {
                             throw new IllegalArgumentException("Invalid binary data: Expected map size 1, but was: " + mapSize);
                         }
-                        String typeStr = acceptStringBytes(size);
+                        String typeStr = decodeSessionType(acceptStringBytes(size));
                         effectiveType = SerTypeMapper.decodeType(typeStr, settings, basePackage, knownTypes);
                         if (declaredType.isAssignableFrom(effectiveType) == false) {
                             throw new IllegalArgumentException("Specified type is incompatible with declared type: " + declaredType.getName() + " and " + effectiveType.getName());
@@ -226,19 +747,36 @@ public class JodaBeanBinReader extends MsgPack {
                         metaType = acceptStringBytes(size);
                         typeByte = input.readByte();
                     } else {
-                        input.reset();
+                        markableInput.reset();
+                    }
+                } else if (typeByteTemp == FIX_EXT_1 || typeByteTemp == FIX_EXT_2 || typeByteTemp == FIX_EXT_4) {
+                    if (input.readByte() == JODA_TYPE_SCHEMA) {
+                        int size = (typeByteTemp == FIX_EXT_1 ? 1 : (typeByteTemp == FIX_EXT_2 ? 2 : 4));
+                        return parseIndexedBean(mapSize - 1, resolveSchema(parseSchema(size), declaredType, rootType));
+                    } else {
+                        markableInput.reset();
                     }
                 } else {
-                    input.reset();
+                    markableInput.reset();
                 }
             } else {
-                input.reset();
+                markableInput.reset();
             }
         }
         // parse based on type
         if (typeByte == NIL) {
             return null;
         }
+        if (version == 3 && isReference(typeByte)) {
+            Object referenced = acceptReference(typeByte);
+            if (referenced instanceof String) {
+                return convertString((String) referenced, effectiveType);
+            }
+            if (effectiveType.isInstance(referenced) == false) {
+                throw new IllegalArgumentException("Specified type is incompatible with declared type: " + effectiveType.getName() + " and " + referenced.getClass().getName());
+            }
+            return referenced;
+        }
         if (Bean.class.isAssignableFrom(effectiveType)) {
             if (isMap(typeByte)) {
                 int mapSize = acceptMap(typeByte);
@@ -352,11 +890,7 @@ public class JodaBeanBinReader extends MsgPack {
 
     private Object parseSimple(int typeByte, Class<?> type) throws Exception {
         if (isString(typeByte)) {
-            String text = acceptString(typeByte);
-            if (type == String.class || type == Object.class) {
-                return text;
-            }
-            return settings.getConverter().convertFromString(type, text);
+            return convertString(readString(typeByte), type);
         }
         if (isIntegral(typeByte)) {
             long value = acceptLong(typeByte);
@@ -395,12 +929,181 @@ public class JodaBeanBinReader extends MsgPack {
             case BIN_16:
             case BIN_32:
                 return acceptBinary(typeByte);
+            case EXT_8:
+            case EXT_16:
+            case EXT_32:
+                return acceptPrimitiveArray(typeByte, type);
         }
         throw new IllegalArgumentException("Invalid binary data: Expected " + type.getName() + ", but was: 0x" + toHex(typeByte));
     }
 
+    private Object convertString(String text, Class<?> type) {
+        if (type == String.class || type == Object.class) {
+            return text;
+        }
+        return settings.getConverter().convertFromString(type, text);
+    }
+
+    // checks if the property is outside the projection, using the name of the resolved property
+    // the name in the data may be an alias
+    private boolean isExcluded(MetaProperty<?> metaProp) {
+        return projection != null && projection.includes(metaProp.name()) == false;
+    }
+
+    // gets the projection of the value of the property
+    private SerProjection childProjection(MetaProperty<?> metaProp) {
+        return projection != null ? projection.child(metaProp.name()) : null;
+    }
+
+    // skips an object, retaining any types, schemas and references that it defines
+    private void skipObject() throws Exception {
+        int typeByte = input.readByte();
+        if (isMap(typeByte)) {
+            int mapSize = acceptMap(typeByte);
+            if (mapSize > 0) {
+                markableInput.mark(8);
+                int keyByte = input.readByte();
+                if (keyByte == EXT_8) {
+                    int size = input.readUnsignedByte();
+                    int extType = input.readByte();
+                    if (extType == JODA_TYPE_BEAN || extType == JODA_TYPE_DATA) {
+                        registerType(decodeSessionType(acceptStringBytes(size)));
+                        skipObject();
+                        for (int i = 1; i < mapSize; i++) {
+                            skipObject();
+                            skipObject();
+                        }
+                        return;
+                    }
+                } else if (version > 1 && (keyByte == FIX_EXT_1 || keyByte == FIX_EXT_2 || keyByte == FIX_EXT_4)) {
+                    if (input.readByte() == JODA_TYPE_SCHEMA) {
+                        BeanSchema schema = parseSchema(keyByte == FIX_EXT_1 ? 1 : (keyByte == FIX_EXT_2 ? 2 : 4));
+                        if (schema.referenceable && viewSchemaUses == null && resolveSkippedSchema(schema)) {
+                            // the bean may be referenced later in the message, so it is parsed
+                            SerProjection parent = projection;
+                            projection = null;
+                            parseIndexedBean(mapSize - 1, schema);
+                            projection = parent;
+                            return;
+                        }
+                        if (schema.type == null && schema.typeStr != null) {
+                            registerType(schema.typeStr);
+                        }
+                        for (int i = 1; i < mapSize; i++) {
+                            skipObject();
+                            skipObject();
+                        }
+                        if (schema.referenceable) {
+                            references.add(UNPARSED);
+                        }
+                        return;
+                    }
+                }
+                markableInput.reset();
+            }
+            for (int i = 0; i < mapSize; i++) {
+                skipObject();
+                skipObject();
+            }
+        } else if (isArray(typeByte)) {
+            int arraySize = acceptArray(typeByte);
+            for (int i = 0; i < arraySize; i++) {
+                skipObject();
+            }
+        } else if (version == 3 && isString(typeByte)) {
+            readString(typeByte);
+        } else if (version == 3 && isReference(typeByte)) {
+            int size = (typeByte == FIX_EXT_1 ? 1 : (typeByte == FIX_EXT_2 ? 2 : 4));
+            int extType = input.readByte();
+            int id = acceptExtensionInt(size);
+            if (extType == JODA_TYPE_REF && viewReferenceUses != null) {
+                viewReferenceUses.set(id);
+            }
+        } else {
+            MsgPackInput.skipObject(input, typeByte);
+        }
+    }
+
+    // resolves the schema of a bean being skipped, returning false if the type is not available
+    private boolean resolveSkippedSchema(BeanSchema schema) throws Exception {
+        if (schema.type == null) {
+            if (schema.typeStr == null) {
+                return false;
+            }
+            try {
+                resolveSchema(schema, Object.class, false);
+            } catch (ClassNotFoundException ex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // registers the type name, so that later abbreviations of it can be decoded
+    private void registerType(String typeStr) {
+        try {
+            SerTypeMapper.decodeType(typeStr, settings, basePackage, knownTypes);
+        } catch (ClassNotFoundException ex) {
+            // ignore, as the type is not needed unless it is used again
+        }
+    }
+
     //-----------------------------------------------------------------------
-    private int acceptMap(int typeByte) throws IOException {
+    // reads a string, which may be a reference to an earlier string in the referencing format
+    private String readString(int typeByte) throws IOException {
+        if (version == 3) {
+            if (isReference(typeByte)) {
+                Object referenced = acceptReference(typeByte);
+                if (referenced instanceof String == false) {
+                    throw new IllegalArgumentException("Invalid binary data: Expected reference to string, but was: " + referenced.getClass().getName());
+                }
+                return (String) referenced;
+            }
+            String str = acceptString(typeByte);
+            if (str.length() >= JodaBeanBinWriter.MIN_REFERENCE_LENGTH) {
+                references.add(str);
+            }
+            return str;
+        }
+        return acceptString(typeByte);
+    }
+
+    private static boolean isReference(int typeByte) {
+        return typeByte == FIX_EXT_1 || typeByte == FIX_EXT_2 || typeByte == FIX_EXT_4;
+    }
+
+    private Object acceptReference(int typeByte) throws IOException {
+        int size = (typeByte == FIX_EXT_1 ? 1 : (typeByte == FIX_EXT_2 ? 2 : 4));
+        int extType = input.readByte();
+        if (extType != JODA_TYPE_REF) {
+            throw new IllegalArgumentException("Invalid binary data: Expected reference, but was ext type: " + extType);
+        }
+        int id = acceptExtensionInt(size);
+        if (id < 0 || id >= references.size()) {
+            throw new IllegalArgumentException("Invalid binary data: Reference " + id + " has not been defined");
+        }
+        if (viewReferenceUses != null) {
+            viewReferenceUses.set(id);
+        }
+        Object referenced = references.get(id);
+        if (referenced == UNPARSED) {
+            throw new IllegalArgumentException("Invalid binary data: Reference " + id + " is to a bean of a type that could not be found");
+        }
+        return referenced;
+    }
+
+    private int acceptExtensionInt(int size) throws IOException {
+        if (size == 1) {
+            return input.readUnsignedByte();
+        } else if (size == 2) {
+            return input.readUnsignedShort();
+        } else {
+            return input.readInt();
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    int acceptMap(int typeByte) throws IOException {
         int size;
         if (typeByte >= MIN_FIX_MAP && typeByte <= MAX_FIX_MAP) {
             size = (typeByte - MIN_FIX_MAP);
@@ -417,7 +1120,7 @@ public class JodaBeanBinReader extends MsgPack {
         return size;
     }
 
-    private int acceptArray(int typeByte) throws IOException {
+    int acceptArray(int typeByte) throws IOException {
         int size;
         if (typeByte >= MIN_FIX_ARRAY && typeByte <= MAX_FIX_ARRAY) {
             size = (typeByte - MIN_FIX_ARRAY);
@@ -434,7 +1137,7 @@ public class JodaBeanBinReader extends MsgPack {
         return size;
     }
 
-    private String acceptString(int typeByte) throws IOException {
+    String acceptString(int typeByte) throws IOException {
         int size;
         if (typeByte >= MIN_FIX_STR && typeByte <= MAX_FIX_STR) {
             size = (typeByte - MIN_FIX_STR);
@@ -454,6 +1157,9 @@ public class JodaBeanBinReader extends MsgPack {
     }
 
     private String acceptStringBytes(int size) throws IOException {
+        if (input instanceof ByteBufferInput) {
+            return ((ByteBufferInput) input).readUtf8(size);
+        }
         byte[] bytes = new byte[size];
         input.readFully(bytes);
         // inline common ASCII case for much better performance
@@ -488,6 +1194,89 @@ public class JodaBeanBinReader extends MsgPack {
         return bytes;
     }
 
+    private Object acceptPrimitiveArray(int typeByte, Class<?> type) throws IOException {
+        int size;
+        if (typeByte == EXT_8) {
+            size = input.readUnsignedByte();
+        } else if (typeByte == EXT_16) {
+            size = input.readUnsignedShort();
+        } else {
+            size = input.readInt();
+            if (size < 0) {
+                throw new IllegalArgumentException("Invalid binary data: Array too large");
+            }
+        }
+        int extType = input.readByte();
+        if (extType != JODA_TYPE_ARRAY || size < 1) {
+            throw new IllegalArgumentException("Invalid binary data: Expected primitive array, but was ext type: " + extType);
+        }
+        char descriptor = (char) input.readUnsignedByte();
+        int elementSize = primitiveSize(descriptor);
+        if ((size - 1) % elementSize != 0) {
+            throw new IllegalArgumentException("Invalid binary data: Primitive array has invalid size: " + size);
+        }
+        int length = (size - 1) / elementSize;
+        ByteBuffer data;
+        if (input instanceof ByteBufferInput) {
+            data = ((ByteBufferInput) input).readSlice(size - 1);
+        } else {
+            byte[] bytes = new byte[size - 1];
+            input.readFully(bytes);
+            data = ByteBuffer.wrap(bytes);
+        }
+        Object array;
+        switch (descriptor) {
+            case 'D': {
+                double[] values = new double[length];
+                data.asDoubleBuffer().get(values);
+                array = values;
+                break;
+            }
+            case 'F': {
+                float[] values = new float[length];
+                data.asFloatBuffer().get(values);
+                array = values;
+                break;
+            }
+            case 'J': {
+                long[] values = new long[length];
+                data.asLongBuffer().get(values);
+                array = values;
+                break;
+            }
+            case 'I': {
+                int[] values = new int[length];
+                data.asIntBuffer().get(values);
+                array = values;
+                break;
+            }
+            case 'S': {
+                short[] values = new short[length];
+                data.asShortBuffer().get(values);
+                array = values;
+                break;
+            }
+            case 'C': {
+                char[] values = new char[length];
+                data.asCharBuffer().get(values);
+                array = values;
+                break;
+            }
+            default: {
+                boolean[] values = new boolean[length];
+                for (int i = 0; i < length; i++) {
+                    values[i] = data.get(i) != 0;
+                }
+                array = values;
+                break;
+            }
+        }
+        if (type.isInstance(array) == false) {
+            throw new IllegalArgumentException("Invalid binary data: Expected " + type.getName() + ", but was: " + array.getClass().getName());
+        }
+        return array;
+    }
+
     private int acceptInteger(int typeByte) throws IOException {
         if (typeByte >= MIN_FIX_INT && typeByte <= MAX_FIX_INT) {
             return typeByte;
@@ -528,7 +1317,7 @@ public class JodaBeanBinReader extends MsgPack {
         throw new IllegalArgumentException("Invalid binary data: Expected int, but was: 0x" + toHex(typeByte));
     }
 
-    private long acceptLong(int typeByte) throws IOException {
+    long acceptLong(int typeByte) throws IOException {
         if (typeByte >= MIN_FIX_INT && typeByte <= MAX_FIX_INT) {
             return typeByte;
         }
@@ -560,4 +1349,100 @@ public class JodaBeanBinReader extends MsgPack {
         throw new IllegalArgumentException("Invalid binary data: Expected long, but was: 0x" + toHex(typeByte));
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * The state of the root bean of a view.
+     */
+    static final class ViewRoot {
+        /**
+         * The bean type.
+         */
+        final Class<?> type;
+        /**
+         * The deserializer.
+         */
+        final SerDeserializer deser;
+        /**
+         * The meta-bean.
+         */
+        final MetaBean metaBean;
+        /**
+         * The schema, null if not using the indexed format.
+         */
+        private final BeanSchema schema;
+        /**
+         * The number of properties.
+         */
+        final int propertyCount;
+
+        ViewRoot(Class<?> type, SerDeserializer deser, MetaBean metaBean, BeanSchema schema, int propertyCount) {
+            this.type = type;
+            this.deser = deser;
+            this.metaBean = metaBean;
+            this.schema = schema;
+            this.propertyCount = propertyCount;
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The schema of a bean type, used by the indexed format.
+     */
+    private static final class BeanSchema {
+        /**
+         * The encoded bean type, null if the root type was not written.
+         */
+        private final String typeStr;
+        /**
+         * The property names.
+         */
+        private final String[] names;
+        /**
+         * Whether beans of this type are referenced, used by the referencing format.
+         */
+        private final boolean referenceable;
+        /**
+         * The bean type, null until resolved.
+         */
+        private Class<?> type;
+        /**
+         * The deserializer, null until resolved.
+         */
+        private SerDeserializer deser;
+        /**
+         * The meta-bean, null until resolved.
+         */
+        private MetaBean metaBean;
+        /**
+         * The meta-properties, resolved when first needed.
+         */
+        private final MetaProperty<?>[] properties;
+        /**
+         * Whether each meta-property has been resolved.
+         */
+        private final boolean[] resolved;
+
+        BeanSchema(String typeStr, String[] names, boolean referenceable) {
+            this.typeStr = typeStr;
+            this.names = names;
+            this.referenceable = referenceable;
+            this.properties = new MetaProperty<?>[names.length];
+            this.resolved = new boolean[names.length];
+        }
+
+        void resolve(SerDeserializerHandle handle) {
+            this.type = handle.getType();
+            this.deser = handle.getDeserializer();
+            this.metaBean = handle.getMetaBean();
+        }
+
+        MetaProperty<?> findMetaProperty(int index) {
+            if (resolved[index] == false) {
+                properties[index] = deser.findMetaProperty(type, metaBean, names[index]);
+                resolved[index] = true;
+            }
+            return properties[index];
+        }
+    }
+
 }
@@ -0,0 +1,192 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A dictionary of type names, shared in advance by a binary writer and reader in session mode.
+ * <p>
+ * In session mode, the type names written by {@link JodaBeanBinWriter} are numbered in the order
+ * they are first written, and each subsequent use is written as the number instead of the name.
+ * The numbering continues across all the messages written in the session.
+ * A dictionary allows common types to be numbered before the session starts,
+ * so that their names are never written.
+ * The writer and reader must use the same dictionary.
+ * <p>
+ * The dictionary can be loaded from a resource on the classpath.
+ * The resource is a UTF-8 text file with one type name per line.
+ * Blank lines and lines starting with '#' are ignored.
+ * <p>
+ * This class is immutable and thread-safe.
+ *
+ * @author Stephen Colebourne
+ */
+public final class JodaBeanBinTypeDictionary {
+
+    /**
+     * An empty dictionary, where all type names are numbered as they are first written.
+     */
+    public static final JodaBeanBinTypeDictionary EMPTY = new JodaBeanBinTypeDictionary(Collections.<String>emptyList());
+
+    /**
+     * The type names, in order.
+     */
+    private final List<String> typeNames;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains a dictionary of the specified types.
+     * <p>
+     * Each type is named using the full class name.
+     *
+     * @param types  the types, in order, not null
+     * @return the dictionary, not null
+     */
+    public static JodaBeanBinTypeDictionary of(Class<?>... types) {
+        if (types == null) {
+            throw new NullPointerException("types");
+        }
+        List<String> typeNames = new ArrayList<String>(types.length);
+        for (Class<?> type : types) {
+            if (type == null) {
+                throw new NullPointerException("type");
+            }
+            typeNames.add(type.getName());
+        }
+        return of(typeNames);
+    }
+
+    /**
+     * Obtains a dictionary of the specified type names.
+     *
+     * @param typeNames  the type names, in order, not null
+     * @return the dictionary, not null
+     * @throws IllegalArgumentException if a type name is empty, starts with a digit or is repeated
+     */
+    public static JodaBeanBinTypeDictionary of(List<String> typeNames) {
+        if (typeNames == null) {
+            throw new NullPointerException("typeNames");
+        }
+        Set<String> seen = new HashSet<String>();
+        for (String typeName : typeNames) {
+            if (typeName == null) {
+                throw new NullPointerException("typeName");
+            }
+            if (typeName.length() == 0 || Character.isDigit(typeName.charAt(0))) {
+                throw new IllegalArgumentException("Invalid type name in dictionary: " + typeName);
+            }
+            if (seen.add(typeName) == false) {
+                throw new IllegalArgumentException("Duplicate type name in dictionary: " + typeName);
+            }
+        }
+        return new JodaBeanBinTypeDictionary(Collections.unmodifiableList(new ArrayList<String>(typeNames)));
+    }
+
+    /**
+     * Loads a dictionary from a resource on the classpath.
+     * <p>
+     * The resource is located using the context class loader, or the class loader
+     * of this class if there is no context class loader.
+     *
+     * @param resourceName  the name of the resource, not null
+     * @return the dictionary, not null
+     * @throws IllegalArgumentException if the resource cannot be found or is invalid
+     */
+    public static JodaBeanBinTypeDictionary load(String resourceName) {
+        if (resourceName == null) {
+            throw new NullPointerException("resourceName");
+        }
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = JodaBeanBinTypeDictionary.class.getClassLoader();
+        }
+        URL url = loader.getResource(resourceName);
+        if (url == null) {
+            throw new IllegalArgumentException("Type dictionary not found: " + resourceName);
+        }
+        try {
+            InputStream in = url.openStream();
+            try {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+                List<String> typeNames = new ArrayList<String>();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.length() > 0 && line.startsWith("#") == false) {
+                        typeNames.add(line);
+                    }
+                }
+                return of(typeNames);
+            } finally {
+                in.close();
+            }
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Unable to load type dictionary: " + resourceName, ex);
+        }
+    }
+
+    /**
+     * Restricted constructor.
+     *
+     * @param typeNames  the type names, not null
+     */
+    private JodaBeanBinTypeDictionary(List<String> typeNames) {
+        this.typeNames = typeNames;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the type names, in the order that they are numbered.
+     *
+     * @return the type names, not null
+     */
+    public List<String> getTypeNames() {
+        return typeNames;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj instanceof JodaBeanBinTypeDictionary) {
+            return typeNames.equals(((JodaBeanBinTypeDictionary) obj).typeNames);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return typeNames.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "JodaBeanBinTypeDictionary" + typeNames;
+    }
+
+}
@@ -0,0 +1,292 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.joda.beans.Bean;
+import org.joda.beans.MetaBean;
+import org.joda.beans.MetaProperty;
+import org.joda.beans.ser.JodaBeanSer;
+
+/**
+ * Provides a lazy view of a Joda-Bean in binary format, decoding properties on demand.
+ * <p>
+ * When the view is created, the properties of the root bean are located by skipping
+ * over their values, without creating any objects for them.
+ * The value of a property is only decoded when it is requested, and is then cached.
+ * This allows one or two properties to be queried, for example to route or filter
+ * messages, without the cost of building the whole bean.
+ * <p>
+ * The view reads directly from the buffer, which must not be altered while the view is in use.
+ * All binary formats are supported. In the indexed and referencing formats, a property
+ * may depend on a schema or reference defined by an earlier property. The properties that
+ * define the schemas and references used by each property are recorded when the view
+ * is created, and are decoded first, in the order of the data.
+ * <p>
+ * This class contains mutable state and cannot be used from multiple threads.
+ *
+ * @author Stephen Colebourne
+ */
+public final class JodaBeanBinView {
+
+    /**
+     * The settings.
+     */
+    private final JodaBeanSer settings;
+    /**
+     * The reader, used to decode each property.
+     */
+    private final JodaBeanBinReader reader;
+    /**
+     * The input.
+     */
+    private final ByteBufferInput input;
+    /**
+     * The original buffer.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The state of the root bean.
+     */
+    private final JodaBeanBinReader.ViewRoot root;
+    /**
+     * The property names, in the order of the data.
+     */
+    private final String[] names;
+    /**
+     * The index in the buffer of the value of each property.
+     */
+    private final int[] offsets;
+    /**
+     * The number of schemas defined before each property, and in total.
+     */
+    private final int[] schemaCounts;
+    /**
+     * The number of references defined before each property, and in total.
+     */
+    private final int[] referenceCounts;
+    /**
+     * The indices of the earlier properties that each property depends on, in ascending order.
+     */
+    private final int[][] dependencies;
+    /**
+     * The decoded values.
+     */
+    private final Object[] values;
+    /**
+     * Whether each value has been decoded.
+     */
+    private final boolean[] decoded;
+
+    /**
+     * Creates an instance, locating each property of the root bean.
+     *
+     * @param settings  the settings, not null
+     * @param buffer  the buffer, read from the position to the limit, not null
+     * @param rootType  the root type, not null
+     */
+    JodaBeanBinView(final JodaBeanSer settings, final ByteBuffer buffer, final Class<?> rootType) {
+        if (settings == null) {
+            throw new NullPointerException("settings");
+        }
+        if (buffer == null) {
+            throw new NullPointerException("buffer");
+        }
+        if (rootType == null) {
+            throw new NullPointerException("rootType");
+        }
+        this.settings = settings;
+        this.buffer = buffer;
+        this.reader = new JodaBeanBinReader(settings);
+        this.input = new ByteBufferInput(buffer);
+        try {
+            this.root = reader.startView(input, rootType);
+            int size = root.propertyCount;
+            this.names = new String[size];
+            this.offsets = new int[size];
+            this.schemaCounts = new int[size + 1];
+            this.referenceCounts = new int[size + 1];
+            this.dependencies = new int[size][];
+            BitSet schemaUses = new BitSet();
+            BitSet referenceUses = new BitSet();
+            for (int i = 0; i < size; i++) {
+                names[i] = reader.readViewPropertyName(root);
+                offsets[i] = input.index();
+                schemaCounts[i] = reader.schemaCount();
+                referenceCounts[i] = reader.referenceCount();
+                schemaUses.clear();
+                referenceUses.clear();
+                reader.skipViewProperty(schemaUses, referenceUses);
+                dependencies[i] = findDependencies(i, schemaUses, referenceUses);
+            }
+            schemaCounts[size] = reader.schemaCount();
+            referenceCounts[size] = reader.referenceCount();
+            reader.endViewIndex();
+            this.values = new Object[size];
+            this.decoded = new boolean[size];
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the type of the root bean.
+     *
+     * @return the bean type, not null
+     */
+    public Class<?> beanType() {
+        return root.type;
+    }
+
+    /**
+     * Gets the meta-bean of the root bean.
+     *
+     * @return the meta-bean, not null
+     */
+    public MetaBean metaBean() {
+        return root.metaBean;
+    }
+
+    /**
+     * Gets the names of the properties present in the data.
+     * <p>
+     * Properties with a null value are not written, and are thus not included.
+     *
+     * @return the property names, not null
+     */
+    public Set<String> propertyNames() {
+        return Collections.unmodifiableSet(new LinkedHashSet<String>(Arrays.asList(names)));
+    }
+
+    /**
+     * Checks if the property is present in the data.
+     *
+     * @param propertyName  the property name, not null
+     * @return true if the property is present
+     */
+    public boolean contains(String propertyName) {
+        return indexOf(propertyName) >= 0;
+    }
+
+    /**
+     * Gets the value of a property, decoding it if necessary.
+     *
+     * @param propertyName  the property name, not null
+     * @return the value, null if not present in the data
+     */
+    public Object get(String propertyName) {
+        int index = indexOf(propertyName);
+        return (index < 0 ? null : decode(index));
+    }
+
+    /**
+     * Gets the value of a property, decoding it if necessary.
+     *
+     * @param <R>  the property type
+     * @param metaProperty  the meta-property, not null
+     * @return the value, null if not present in the data
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R get(MetaProperty<R> metaProperty) {
+        return (R) get(metaProperty.name());
+    }
+
+    /**
+     * Decodes the whole bean.
+     * <p>
+     * This is equivalent to reading the bean using {@link JodaBeanBinReader}.
+     *
+     * @return the bean, not null
+     */
+    public Bean build() {
+        return (Bean) new JodaBeanBinReader(settings).read(buffer.duplicate(), root.type);
+    }
+
+    //-----------------------------------------------------------------------
+    private int indexOf(String propertyName) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(propertyName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // finds the earlier properties that define the schemas and references used by a property
+    private int[] findDependencies(int index, BitSet schemaUses, BitSet referenceUses) {
+        BitSet found = new BitSet();
+        for (int id = schemaUses.nextSetBit(0); id >= 0 && id < schemaCounts[index]; id = schemaUses.nextSetBit(id + 1)) {
+            addDefiner(found, schemaCounts, index, id);
+        }
+        for (int id = referenceUses.nextSetBit(0); id >= 0 && id < referenceCounts[index]; id = referenceUses.nextSetBit(id + 1)) {
+            addDefiner(found, referenceCounts, index, id);
+        }
+        int[] result = new int[found.cardinality()];
+        int pos = 0;
+        for (int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1)) {
+            result[pos++] = i;
+        }
+        return result;
+    }
+
+    // adds the property that defined the identifier, if not defined before the first property
+    private static void addDefiner(BitSet found, int[] counts, int index, int id) {
+        for (int i = index - 1; i >= 0; i--) {
+            if (counts[i] <= id) {
+                found.set(i);
+                return;
+            }
+        }
+    }
+
+    private Object decode(int index) {
+        if (decoded[index]) {
+            return values[index];
+        }
+        for (int dependency : dependencies[index]) {
+            decode(dependency);
+        }
+        try {
+            input.index(offsets[index]);
+            MetaProperty<?> metaProp = root.deser.findMetaProperty(root.type, root.metaBean, names[index]);
+            values[index] = reader.parseViewProperty(
+                    root, metaProp,
+                    schemaCounts[index], referenceCounts[index], schemaCounts[index + 1], referenceCounts[index + 1]);
+            decoded[index] = true;
+            return values[index];
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public String toString() {
+        return "JodaBeanBinView[" + root.type.getName() + "]";
+    }
+
+}
@@ -15,25 +15,30 @@
  */
 package org.joda.beans.ser.bin;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import org.joda.beans.Bean;
+import org.joda.beans.DynamicBean;
+import org.joda.beans.ImmutableBean;
 import org.joda.beans.MetaProperty;
 import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerBeanPlan;
 import org.joda.beans.ser.SerCategory;
 import org.joda.beans.ser.SerIterator;
-import org.joda.beans.ser.SerOptional;
 import org.joda.beans.ser.SerTypeMapper;
 
 /**
  * Provides the ability for a Joda-Bean to be written to a binary format.
  * <p>
  * This class contains mutable state and cannot be used from multiple threads.
- * A new instance must be created for each message.
+ * An instance may be reused for many messages, as the state is reset at the
+ * start of each message. Reuse, together with writing to a {@code ByteBuffer}
+ * or to the pooled buffer, avoids creating garbage for each message.
  * <p>
  * The binary format is based on MessagePack v2.0.
  * Each bean is output as a map using the property name.
@@ -60,6 +65,34 @@ import org.joda.beans.ser.SerTypeMapper;
  * <p>
  * Type names are shortened by the package of the root type if possible.
  * Certain basic types are also handled, such as String, Integer, File and URI.
+ * <p>
+ * In the {@linkplain JodaBeanBinFormat#INDEXED indexed format}, version 2, the property
+ * names are not written for each bean. Instead, the first key of each bean map is an 'ext'
+ * of type 36, where the data is the schema number, unique within the message.
+ * The first time a schema is used, the value is an array holding the bean type, or nil
+ * for a root bean written without its type, followed by the names of the serializable
+ * properties of the bean.
+ * Otherwise, the value is nil. The remaining keys of the bean map are then the index of
+ * the property in the schema. Dynamic beans, which do not have a fixed set of
+ * properties, are written as in the standard format.
+ * In addition, arrays of primitives other than byte are written as an 'ext' of type 38
+ * using 'ext8', 'ext16' or 'ext32', where the data is the JVM descriptor character of
+ * the primitive type followed by the packed big-endian values.
+ * <p>
+ * The {@linkplain JodaBeanBinFormat#REFERENCING referencing format}, version 3, extends
+ * the indexed format. Each schema definition array has an additional boolean after the
+ * bean type, true if the bean is immutable. Each immutable bean and each string of at least
+ * four characters, including property names and type names, is assigned a reference number,
+ * counting from zero in the order that the bean or string ends within the message.
+ * When a bean or string equal to one already written occurs again, an 'ext' of type 37
+ * is written instead, where the data is the reference number.
+ * <p>
+ * In session mode, enabled by passing a {@link JodaBeanBinTypeDictionary}, the writer and
+ * reader retain a numbering of the type names across all the messages of a session.
+ * The type names in the dictionary are numbered first, then each other type name is numbered
+ * when it is first written. Once numbered, a type is written as the decimal number instead
+ * of the name. The base package is not used. The messages must be read in the order that
+ * they are written by a reader using the same dictionary.
  *
  * @author Stephen Colebourne
  */
@@ -69,6 +102,24 @@ public class JodaBeanBinWriter {
     // the bean data is much more friendly for dynamic languages using
     // a standalone MessagePack parser
 
+    /**
+     * The initial size of the pooled buffer.
+     */
+    private static final int POOLED_BUFFER_SIZE = 1024;
+    /**
+     * The minimum length of a string that is referenced in the referencing format.
+     */
+    static final int MIN_REFERENCE_LENGTH = 4;
+    /**
+     * The pool of reusable buffers, one per thread.
+     */
+    private static final ThreadLocal<ReusableByteArrayOutputStream> POOL = new ThreadLocal<ReusableByteArrayOutputStream>() {
+        @Override
+        protected ReusableByteArrayOutputStream initialValue() {
+            return new ReusableByteArrayOutputStream(POOLED_BUFFER_SIZE);
+        }
+    };
+
     /**
      * The settings to use.
      */
@@ -77,6 +128,11 @@ public class JodaBeanBinWriter {
      * The output stream.
      */
     private MsgPackOutput output;
+    /**
+     * The output reused for each message, lazily created.
+     * It only refers to the target of a message while that message is being written.
+     */
+    private MsgPackOutput reusableOutput;
     /**
      * The base package including the trailing dot.
      */
@@ -85,14 +141,98 @@ public class JodaBeanBinWriter {
      * The known types.
      */
     private Map<Class<?>, String> knownTypes = new HashMap<Class<?>, String>();
+    /**
+     * The schemas of each bean type, used by the indexed format.
+     */
+    private Map<Class<?>, BeanSchema> schemas = new HashMap<Class<?>, BeanSchema>();
+    /**
+     * The reference number of each bean, keyed by identity, used by the referencing format.
+     * Keying by identity avoids hashing and comparing the whole tree of each immutable bean.
+     */
+    private Map<Object, Integer> beanReferences = new IdentityHashMap<Object, Integer>();
+    /**
+     * The reference number of each string, keyed by equality, used by the referencing format.
+     */
+    private Map<String, Integer> stringReferences = new HashMap<String, Integer>();
+    /**
+     * The number of references defined, used by the referencing format.
+     */
+    private int referenceCount;
+    /**
+     * The format to write.
+     */
+    private final JodaBeanBinFormat format;
+    /**
+     * Whether the writer is writing the entries of a container.
+     * The base package is not used and the known types are shared by all entries.
+     */
+    private final boolean container;
+    /**
+     * The number of each type name written in the session, null if not in session mode.
+     */
+    private final Map<String, String> sessionTypes;
 
     /**
-     * Creates an instance.
+     * Creates an instance using the standard format.
      * 
      * @param settings  the settings to use, not null
      */
     public JodaBeanBinWriter(final JodaBeanSer settings) {
+        this(settings, JodaBeanBinFormat.STANDARD);
+    }
+
+    /**
+     * Creates an instance.
+     * 
+     * @param settings  the settings to use, not null
+     * @param format  the format to write, not null
+     */
+    public JodaBeanBinWriter(final JodaBeanSer settings, final JodaBeanBinFormat format) {
+        this(settings, format, false);
+    }
+
+    /**
+     * Creates an instance.
+     * 
+     * @param settings  the settings to use, not null
+     * @param format  the format to write, not null
+     * @param container  true if writing the entries of a container
+     */
+    JodaBeanBinWriter(final JodaBeanSer settings, final JodaBeanBinFormat format, final boolean container) {
+        if (format == null) {
+            throw new NullPointerException("format");
+        }
+        this.settings = settings;
+        this.format = format;
+        this.container = container;
+        this.sessionTypes = null;
+    }
+
+    /**
+     * Creates an instance in session mode.
+     * <p>
+     * The numbering of type names is retained across all the messages written,
+     * and is not cleared by {@link #reset()}. If writing a message fails, the
+     * session must be abandoned, as the reader can no longer follow the numbering.
+     * 
+     * @param settings  the settings to use, not null
+     * @param format  the format to write, not null
+     * @param dictionary  the dictionary of types shared with the reader, not null
+     */
+    public JodaBeanBinWriter(final JodaBeanSer settings, final JodaBeanBinFormat format, final JodaBeanBinTypeDictionary dictionary) {
+        if (format == null) {
+            throw new NullPointerException("format");
+        }
+        if (dictionary == null) {
+            throw new NullPointerException("dictionary");
+        }
         this.settings = settings;
+        this.format = format;
+        this.container = false;
+        this.sessionTypes = new HashMap<String, String>();
+        for (String typeName : dictionary.getTypeNames()) {
+            sessionTypes.put(typeName, Integer.toString(sessionTypes.size()));
+        }
     }
 
     //-----------------------------------------------------------------------
@@ -110,19 +250,136 @@ public class JodaBeanBinWriter {
 
     /**
      * Writes the bean to an array of bytes.
+     * <p>
+     * The bean is written to the pooled buffer of the current thread and then copied.
      * 
      * @param bean  the bean to output, not null
      * @param rootType  true to output the root type
      * @return the binary data, not null
      */
     public byte[] write(final Bean bean, final boolean rootType) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
+        ReusableByteArrayOutputStream pooled = POOL.get();
+        if (pooled.acquire() == false) {
+            // pooled buffer already in use by this thread
+            ReusableByteArrayOutputStream baos = new ReusableByteArrayOutputStream(POOLED_BUFFER_SIZE);
+            writePooled(bean, rootType, baos);
+            return baos.toByteArray();
+        }
+        try {
+            writePooled(bean, rootType, pooled);
+            return pooled.toByteArray();
+        } finally {
+            pooled.release();
+        }
+    }
+
+    /**
+     * Writes the bean to a reusable buffer owned by the current thread.
+     * <p>
+     * The type of the bean will be set in the message.
+     * 
+     * @param bean  the bean to output, not null
+     * @return the binary data, valid until the next write to the pooled buffer by this thread, not null
+     */
+    public ByteBuffer writeToBuffer(final Bean bean) {
+        return writeToBuffer(bean, true);
+    }
+
+    /**
+     * Writes the bean to a reusable buffer owned by the current thread.
+     * <p>
+     * The returned buffer has position zero and limit equal to the size of the message.
+     * It is a view of the pooled array, thus no bytes are copied and no garbage is created
+     * once the pooled array has grown to the size of a typical message.
+     * The content is only valid until the next write to the pooled buffer by this thread,
+     * which includes calls to {@link #write(Bean, boolean)}.
+     * 
+     * @param bean  the bean to output, not null
+     * @param rootType  true to output the root type
+     * @return the binary data, valid until the next write to the pooled buffer by this thread, not null
+     */
+    public ByteBuffer writeToBuffer(final Bean bean, final boolean rootType) {
+        ReusableByteArrayOutputStream pooled = POOL.get();
+        if (pooled.acquire() == false) {
+            throw new IllegalStateException("Pooled buffer is already in use by this thread");
+        }
         try {
-            write(bean, rootType, baos);
+            writePooled(bean, rootType, pooled);
+            return pooled.view();
+        } finally {
+            pooled.release();
+        }
+    }
+
+    // writes to a reusable stream
+    private void writePooled(final Bean bean, final boolean rootType, ReusableByteArrayOutputStream stream) {
+        if (bean == null) {
+            throw new NullPointerException("bean");
+        }
+        reset();
+        output = reusableOutput();
+        output.setStream(stream);
+        try {
+            writeRoot(bean, rootType);
+            output.flush();
         } catch (IOException ex) {
             throw new IllegalStateException(ex);
+        } finally {
+            output.setStream(null);
+            output = null;
+        }
+    }
+
+    /**
+     * Writes the bean to the {@code ByteBuffer}.
+     * <p>
+     * The type of the bean will be set in the message.
+     * 
+     * @param bean  the bean to output, not null
+     * @param buffer  the buffer to write to, not null
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public void write(final Bean bean, ByteBuffer buffer) {
+        write(bean, true, buffer);
+    }
+
+    /**
+     * Writes the bean to the {@code ByteBuffer}.
+     * <p>
+     * The data is written starting at the current position of the buffer, which
+     * may be a heap or direct buffer. When this method returns, the position
+     * has been advanced to the end of the message.
+     * If the buffer has insufficient space, the position is restored to the
+     * original value and {@code BufferOverflowException} is thrown.
+     * 
+     * @param bean  the bean to output, not null
+     * @param rootType  true to output the root type
+     * @param buffer  the buffer to write to, not null
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public void write(final Bean bean, final boolean rootType, ByteBuffer buffer) {
+        if (bean == null) {
+            throw new NullPointerException("bean");
+        }
+        if (buffer == null) {
+            throw new NullPointerException("buffer");
+        }
+        reset();
+        int start = buffer.position();
+        output = reusableOutput();
+        output.setTarget(buffer);
+        try {
+            writeRoot(bean, rootType);
+            output.flush();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        } catch (RuntimeException ex) {
+            buffer.position(start);
+            throw ex;
+        } finally {
+            output.setTarget(null);
+            output = null;
         }
-        return baos.toByteArray();
     }
 
     /**
@@ -151,36 +408,97 @@ public class JodaBeanBinWriter {
         if (output == null) {
             throw new NullPointerException("output");
         }
-        this.output = new MsgPackOutput(output);
-        writeRoot(bean, rootType);
+        reset();
+        this.output = reusableOutput();
+        this.output.setStream(output);
+        try {
+            writeRoot(bean, rootType);
+            this.output.flush();
+        } finally {
+            this.output.setStream(null);
+            this.output = null;
+        }
+    }
+
+    // gets the output reused for each message
+    private MsgPackOutput reusableOutput() {
+        if (reusableOutput == null) {
+            reusableOutput = new MsgPackOutput();
+        }
+        return reusableOutput;
+    }
+
+    /**
+     * Resets the state of the writer.
+     * <p>
+     * This clears the state retained from the previous message, such as the known types.
+     * It is called automatically at the start of each message.
+     */
+    public void reset() {
+        basePackage = null;
+        knownTypes.clear();
+        schemas.clear();
+        beanReferences.clear();
+        stringReferences.clear();
+        referenceCount = 0;
+    }
+
+    /**
+     * Writes the bean as an entry in a container.
+     * <p>
+     * The known types are retained from the previous entry.
+     * 
+     * @param bean  the bean to output, not null
+     * @param output  the output, not null
+     * @throws IOException if an error occurs
+     */
+    void writeEntry(final Bean bean, final MsgPackOutput output) throws IOException {
+        schemas.clear();
+        beanReferences.clear();
+        stringReferences.clear();
+        referenceCount = 0;
+        this.output = output;
+        try {
+            writeRoot(bean, true);
+        } finally {
+            this.output = null;
+        }
+    }
+
+    /**
+     * Gets the known types, used as the dictionary of a container.
+     * 
+     * @return the known types, not null
+     */
+    Map<Class<?>, String> getKnownTypes() {
+        return knownTypes;
     }
 
     //-----------------------------------------------------------------------
     private void writeRoot(final Bean bean, final boolean rootType) throws IOException {
         output.writeArrayHeader(2);
-        output.writeInt(1);  // version 1
+        output.writeInt(format.version());
         writeBean(bean, bean.getClass(), rootType ? RootType.ROOT_WITH_TYPE : RootType.ROOT_WITHOUT_TYPE);
     }
 
     private void writeBean(final Bean bean, final Class<?> declaredType, RootType rootTypeFlag) throws IOException {
-        int count = bean.metaBean().metaPropertyCount();
-        MetaProperty<?>[] props = new MetaProperty<?>[count];
-        Object[] values = new Object[count];
+        if (format != JodaBeanBinFormat.STANDARD && bean instanceof DynamicBean == false) {
+            writeIndexedBean(bean, declaredType, rootTypeFlag);
+            return;
+        }
+        SerBeanPlan plan = SerBeanPlan.of(bean);
+        int[] indices = new int[plan.size()];
+        Object[] values = new Object[plan.size()];
         int size = 0;
-        for (MetaProperty<?> prop : bean.metaBean().metaPropertyIterable()) {
-            if (prop.style().isSerializable()) {
-                Object value = SerOptional.extractValue(prop, bean);
-                if (value != null) {
-                    props[size] = prop;
-                    values[size++] = value;
-                }
+        for (int i = 0; i < plan.size(); i++) {
+            Object value = plan.getValue(i, bean);
+            if (value != null) {
+                indices[size] = i;
+                values[size++] = value;
             }
         }
-        if (rootTypeFlag == RootType.ROOT_WITH_TYPE || (rootTypeFlag == RootType.NOT_ROOT && bean.getClass() != declaredType)) {
-            String typeStr = SerTypeMapper.encodeType(bean.getClass(), settings, basePackage, knownTypes);
-            if (rootTypeFlag == RootType.ROOT_WITH_TYPE) {
-                basePackage = bean.getClass().getPackage().getName() + ".";
-            }
+        if (isTypeRequired(bean, declaredType, rootTypeFlag)) {
+            String typeStr = encodeBeanType(bean, rootTypeFlag);
             output.writeMapHeader(size + 1);
             output.writeExtensionString(MsgPack.JODA_TYPE_BEAN, typeStr);
             output.writeNil();
@@ -188,23 +506,108 @@ public class JodaBeanBinWriter {
             output.writeMapHeader(size);
         }
         for (int i = 0; i < size; i++) {
-            MetaProperty<?> prop = props[i];
-            Object value = values[i];
-            output.writeString(prop.name());
-            Class<?> propType = SerOptional.extractType(prop, bean.getClass());
-            if (value instanceof Bean) {
-                if (settings.getConverter().isConvertible(value.getClass())) {
-                    writeSimple(propType, value);
-                } else {
-                    writeBean((Bean) value, propType, RootType.NOT_ROOT);
-                }
+            MetaProperty<?> prop = plan.getProperty(indices[i]);
+            writeString(prop.name());
+            writeProperty(bean, prop, plan.getPropertyType(indices[i]), values[i]);
+        }
+    }
+
+    private void writeIndexedBean(final Bean bean, final Class<?> declaredType, RootType rootTypeFlag) throws IOException {
+        if (format == JodaBeanBinFormat.REFERENCING && bean instanceof ImmutableBean) {
+            Integer reference = beanReferences.get(bean);
+            if (reference != null) {
+                output.writeExtensionInt(MsgPack.JODA_TYPE_REF, reference);
+                return;
+            }
+        }
+        SerBeanPlan plan = SerBeanPlan.of(bean);
+        BeanSchema schema = schemas.get(bean.getClass());
+        boolean define = (schema == null);
+        if (define) {
+            schema = new BeanSchema(schemas.size(), plan, format == JodaBeanBinFormat.REFERENCING && bean instanceof ImmutableBean);
+            schemas.put(bean.getClass(), schema);
+        }
+        MetaProperty<?>[] props = schema.properties;
+        Object[] values = new Object[props.length];
+        int size = 0;
+        for (int i = 0; i < props.length; i++) {
+            Object value = plan.getValue(i, bean);
+            if (value != null) {
+                values[i] = value;
+                size++;
+            }
+        }
+        output.writeMapHeader(size + 1);
+        output.writeExtensionInt(MsgPack.JODA_TYPE_SCHEMA, schema.id);
+        if (define) {
+            boolean referencing = (format == JodaBeanBinFormat.REFERENCING);
+            output.writeArrayHeader(props.length + (referencing ? 2 : 1));
+            // the type is written even if not required by this use, as the schema
+            // may be used again where it is required, after this use has been skipped
+            if (rootTypeFlag == RootType.ROOT_WITHOUT_TYPE) {
+                output.writeNil();
             } else {
-                SerIterator itemIterator = settings.getIteratorFactory().create(value, prop, bean.getClass());
-                if (itemIterator != null) {
-                    writeElements(itemIterator);
-                } else {
-                    writeSimple(propType, value);
-                }
+                writeString(encodeBeanType(bean, rootTypeFlag));
+            }
+            if (referencing) {
+                output.writeBoolean(schema.referenceable);
+            }
+            for (MetaProperty<?> prop : props) {
+                writeString(prop.name());
+            }
+        } else {
+            output.writeNil();
+        }
+        for (int i = 0; i < props.length; i++) {
+            if (values[i] != null) {
+                output.writeInt(i);
+                writeProperty(bean, props[i], plan.getPropertyType(i), values[i]);
+            }
+        }
+        if (schema.referenceable) {
+            beanReferences.put(bean, referenceCount++);
+        }
+    }
+
+    private boolean isTypeRequired(final Bean bean, final Class<?> declaredType, RootType rootTypeFlag) {
+        return rootTypeFlag == RootType.ROOT_WITH_TYPE || (rootTypeFlag == RootType.NOT_ROOT && bean.getClass() != declaredType);
+    }
+
+    private String encodeBeanType(final Bean bean, RootType rootTypeFlag) {
+        String typeStr = encodeType(bean.getClass());
+        if (rootTypeFlag == RootType.ROOT_WITH_TYPE && container == false && sessionTypes == null) {
+            basePackage = bean.getClass().getPackage().getName() + ".";
+        }
+        return typeStr;
+    }
+
+    // encodes the type, using the number of the type name in session mode
+    private String encodeType(final Class<?> type) {
+        if (sessionTypes == null) {
+            return SerTypeMapper.encodeType(type, settings, basePackage, knownTypes);
+        }
+        String typeStr = SerTypeMapper.encodeType(type, settings, null, null);
+        String number = sessionTypes.get(typeStr);
+        if (number != null) {
+            return number;
+        }
+        sessionTypes.put(typeStr, Integer.toString(sessionTypes.size()));
+        return typeStr;
+    }
+
+    private void writeProperty(final Bean bean, final MetaProperty<?> prop, final Class<?> propType, final Object value) throws IOException {
+        if (value instanceof Bean) {
+            if (settings.getConverter().isConvertible(value.getClass())) {
+                writeSimple(propType, value);
+            } else {
+                writeBean((Bean) value, propType, RootType.NOT_ROOT);
+            }
+        } else {
+            SerIterator itemIterator = settings.getIteratorFactory().create(value, prop, bean.getClass());
+            if (itemIterator != null) {
+                writeElements(itemIterator);
+            } else {
+                writeSimple(propType, value);
             }
         }
     }
@@ -340,7 +743,7 @@ public class JodaBeanBinWriter {
         if (declaredType == Object.class) {
             if (realType != String.class) {
                 effectiveType = settings.getConverter().findTypedConverter(realType).getEffectiveType();
-                String typeStr = SerTypeMapper.encodeType(effectiveType, settings, basePackage, knownTypes);
+                String typeStr = encodeType(effectiveType);
                 output.writeMapHeader(1);
                 output.writeExtensionString(MsgPack.JODA_TYPE_DATA, typeStr);
             } else {
@@ -348,7 +751,7 @@ public class JodaBeanBinWriter {
             }
         } else if (settings.getConverter().isConvertible(declaredType) == false) {
             effectiveType = settings.getConverter().findTypedConverter(realType).getEffectiveType();
-            String typeStr = SerTypeMapper.encodeType(effectiveType, settings, basePackage, knownTypes);
+            String typeStr = encodeType(effectiveType);
             output.writeMapHeader(1);
             output.writeExtensionString(MsgPack.JODA_TYPE_DATA, typeStr);
         }
@@ -366,6 +769,9 @@ public class JodaBeanBinWriter {
         } else if (realType == byte[].class) {
             output.writeBytes((byte[]) value);
             return;
+        } else if (format != JodaBeanBinFormat.STANDARD && realType.isArray() && realType.getComponentType().isPrimitive()) {
+            output.writeExtensionPrimitiveArray(MsgPack.JODA_TYPE_ARRAY, value);
+            return;
         }
         
         // write as a string
@@ -374,12 +780,53 @@ public class JodaBeanBinWriter {
             if (converted == null) {
                 throw new IllegalArgumentException("Unable to write because converter returned a null string: " + value);
             }
-            output.writeString(converted);
+            writeString(converted);
         } catch (RuntimeException ex) {
             throw new IllegalArgumentException("Unable to convert type " + effectiveType.getName() + " declared as " + declaredType.getName(), ex);
         }
     }
 
+    // writes a string, or a reference to an equal string in the referencing format
+    private void writeString(final String value) throws IOException {
+        if (format == JodaBeanBinFormat.REFERENCING && value.length() >= MIN_REFERENCE_LENGTH) {
+            Integer reference = stringReferences.get(value);
+            if (reference != null) {
+                output.writeExtensionInt(MsgPack.JODA_TYPE_REF, reference);
+                return;
+            }
+            stringReferences.put(value, referenceCount++);
+        }
+        output.writeString(value);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The schema of a bean type, used by the indexed format.
+     */
+    private static final class BeanSchema {
+        /**
+         * The schema number.
+         */
+        private final int id;
+        /**
+         * The serializable properties.
+         */
+        private final MetaProperty<?>[] properties;
+        /**
+         * Whether beans of this type are referenced, used by the referencing format.
+         */
+        private final boolean referenceable;
+
+        BeanSchema(int id, SerBeanPlan plan, boolean referenceable) {
+            this.id = id;
+            this.referenceable = referenceable;
+            this.properties = new MetaProperty<?>[plan.size()];
+            for (int i = 0; i < properties.length; i++) {
+                properties[i] = plan.getProperty(i);
+            }
+        }
+    }
+
     //-----------------------------------------------------------------------
     static enum RootType {
         ROOT_WITH_TYPE,
@@ -201,6 +201,22 @@ abstract class MsgPack {
      * Extension type code for a Joda-Bean meta-type.
      */
     static final int JODA_TYPE_META = 34;
+    /**
+     * Extension type code for a Joda-Bean container marker.
+     */
+    static final int JODA_TYPE_CONTAINER = 35;
+    /**
+     * Extension type code for a Joda-Bean bean schema, used by the indexed format.
+     */
+    static final int JODA_TYPE_SCHEMA = 36;
+    /**
+     * Extension type code for a Joda-Bean back-reference, used by the referencing format.
+     */
+    static final int JODA_TYPE_REF = 37;
+    /**
+     * Extension type code for a Joda-Bean packed primitive array.
+     */
+    static final int JODA_TYPE_ARRAY = 38;
 
     //-----------------------------------------------------------------------
     /**
@@ -231,4 +247,53 @@ abstract class MsgPack {
                 typeByte == SINT_8 || typeByte == SINT_16 || typeByte == SINT_32 || typeByte == SINT_64;
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the JVM descriptor character of a primitive type that can be packed.
+     * 
+     * @param type  the primitive type, not byte or void, not null
+     * @return the descriptor character
+     */
+    static char primitiveDescriptor(Class<?> type) {
+        if (type == double.class) {
+            return 'D';
+        } else if (type == float.class) {
+            return 'F';
+        } else if (type == long.class) {
+            return 'J';
+        } else if (type == int.class) {
+            return 'I';
+        } else if (type == short.class) {
+            return 'S';
+        } else if (type == char.class) {
+            return 'C';
+        } else if (type == boolean.class) {
+            return 'Z';
+        }
+        throw new IllegalArgumentException("Unable to pack primitive type: " + type.getName());
+    }
+
+    /**
+     * Gets the size in bytes of a packed primitive.
+     * 
+     * @param descriptor  the JVM descriptor character
+     * @return the size in bytes
+     */
+    static int primitiveSize(char descriptor) {
+        switch (descriptor) {
+            case 'D':
+            case 'J':
+                return 8;
+            case 'F':
+            case 'I':
+                return 4;
+            case 'S':
+            case 'C':
+                return 2;
+            case 'Z':
+                return 1;
+        }
+        throw new IllegalArgumentException("Invalid binary data: Unknown primitive type: " + descriptor);
+    }
+
 }
@@ -16,9 +16,13 @@
 package org.joda.beans.ser.bin;
 
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
 import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Receives and processes MsgPack data.
@@ -30,7 +34,7 @@ abstract class MsgPackInput extends MsgPack {
     /**
      * The stream to read.
      */
-    private final DataInputStream input;
+    private final DataInput input;
 
     /**
      * Creates an instance.
@@ -59,6 +63,24 @@ abstract class MsgPackInput extends MsgPack {
         this.input = stream;
     }
 
+    /**
+     * Creates an instance.
+     * 
+     * @param buffer  the buffer to read from, not null
+     */
+    public MsgPackInput(ByteBuffer buffer) {
+        this.input = new ByteBufferInput(buffer);
+    }
+
+    /**
+     * Creates an instance.
+     * 
+     * @param input  the input to read from, not null
+     */
+    MsgPackInput(DataInput input) {
+        this.input = input;
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Reads all the data in the stream, closing the stream.
@@ -66,19 +88,29 @@ abstract class MsgPackInput extends MsgPack {
     protected void readAll() {
         try {
             try {
-                int b = input.read();
+                int b = readNext();
                 while (b >= 0) {
                     readObject(b);
-                    b = input.read();
+                    b = readNext();
                 }
             } finally {
-                input.close();
+                if (input instanceof Closeable) {
+                    ((Closeable) input).close();
+                }
             }
         } catch (IOException ex) {
             throw new IllegalStateException(ex);
         }
     }
 
+    private int readNext() throws IOException {
+        try {
+            return input.readUnsignedByte();
+        } catch (EOFException ex) {
+            return -1;
+        }
+    }
+
     //-----------------------------------------------------------------------
     protected void readObject(int unsigned) throws IOException {
         handleObjectStart();
@@ -347,12 +379,23 @@ abstract class MsgPackInput extends MsgPack {
      * @param input  the input stream, not null
      * @throws IOException if an error occurs
      */
-    public static void skipObject(DataInputStream input) throws IOException {
+    public static void skipObject(DataInput input) throws IOException {
         new Skipper(input).skip(input.readByte());
     }
 
+    /**
+     * Skips over the input data to the end of the current object.
+     * 
+     * @param input  the input, not null
+     * @param typeByte  the type byte of the object, already read
+     * @throws IOException if an error occurs
+     */
+    static void skipObject(DataInput input, int typeByte) throws IOException {
+        new Skipper(input).skip(typeByte);
+    }
+
     private static class Skipper extends MsgPackInput {
-        public Skipper(DataInputStream input) {
+        public Skipper(DataInput input) {
             super(input);
         }
         void skip(int typeByte) throws IOException {
@@ -15,291 +15,709 @@
  */
 package org.joda.beans.ser.bin;
 
-import java.io.DataOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 
 /**
  * Outputter for MsgPack data.
+ * <p>
+ * This is a low-level writer of MessagePack v2.0 data.
+ * The data is encoded into an internal byte array, which is written to the
+ * underlying stream in bulk when full, and when flushed or closed.
+ * As such, the underlying stream does not need to be buffered.
+ * <p>
+ * An instance created within this package may instead write to a {@code ByteBuffer}.
+ * If the buffer is backed by an accessible array, the data is encoded directly into
+ * that array, only using the internal byte array for the last few bytes before the limit.
+ * <p>
+ * This class contains mutable state and cannot be used from multiple threads.
+ * No synchronization is performed. The caller must call {@link #flush()} or
+ * {@link #close()} once the data has been written.
  *
  * @author Stephen Colebourne
  */
-final class MsgPackOutput extends MsgPack {
+public final class MsgPackOutput extends MsgPack implements Flushable, Closeable {
 
     /**
-     * The stream to write to.
+     * The default size of the internal buffer.
      */
-    private final DataOutputStream output;
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    /**
+     * The minimum size of the internal buffer.
+     */
+    private static final int MIN_BUFFER_SIZE = 16;
 
     /**
-     * Creates an instance.
-     * 
+     * The stream to write to, null if writing to a {@code ByteBuffer}.
+     */
+    private OutputStream stream;
+    /**
+     * The {@code ByteBuffer} to write to, null if writing to a stream.
+     */
+    private ByteBuffer target;
+    /**
+     * The internal buffer.
+     */
+    private final byte[] internal;
+    /**
+     * The array being encoded into, either the internal buffer or the array of the target.
+     */
+    private byte[] buffer;
+    /**
+     * The index in the array of the first byte not yet written to the stream or target.
+     */
+    private int start;
+    /**
+     * The index in the array after the last byte encoded.
+     */
+    private int count;
+    /**
+     * The index in the array of the end of the available space.
+     */
+    private int limit;
+    /**
+     * The number of bytes written to the stream or target, excluding those in the array.
+     */
+    private long flushed;
+    /**
+     * The view of the array, used to encode primitive arrays, lazily created.
+     */
+    private ByteBuffer view;
+
+    /**
+     * Creates an instance with the default buffer size.
+     *
      * @param stream  the stream to write to, not null
      */
-    MsgPackOutput(OutputStream stream) {
-        this.output = new DataOutputStream(stream);
+    public MsgPackOutput(OutputStream stream) {
+        this(stream, DEFAULT_BUFFER_SIZE);
     }
 
     /**
      * Creates an instance.
-     * 
+     *
      * @param stream  the stream to write to, not null
+     * @param bufferSize  the size of the internal buffer, at least 16
+     */
+    public MsgPackOutput(OutputStream stream, int bufferSize) {
+        if (stream == null) {
+            throw new NullPointerException("stream");
+        }
+        if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Buffer size must be at least " + MIN_BUFFER_SIZE);
+        }
+        this.stream = stream;
+        this.internal = new byte[bufferSize];
+        this.buffer = internal;
+        this.limit = bufferSize;
+    }
+
+    /**
+     * Creates an instance with the default buffer size that has nothing to write to.
+     * <p>
+     * The stream or target must be set before writing.
+     */
+    MsgPackOutput() {
+        this.internal = new byte[DEFAULT_BUFFER_SIZE];
+        this.buffer = internal;
+        this.limit = DEFAULT_BUFFER_SIZE;
+    }
+
+    /**
+     * Sets the stream to write to, allowing the instance to be reused.
+     * <p>
+     * Any data not yet written is discarded.
+     *
+     * @param stream  the stream, null to release the previous stream or target
      */
-    MsgPackOutput(DataOutputStream stream) {
-        this.output = stream;
+    void setStream(OutputStream stream) {
+        this.stream = stream;
+        this.target = null;
+        useInternal();
+    }
+
+    /**
+     * Sets the {@code ByteBuffer} to write to, allowing the instance to be reused.
+     * <p>
+     * The data is written from the position of the buffer, which is advanced when flushed.
+     * If the buffer has insufficient space, {@code BufferOverflowException} is thrown.
+     * Any data not yet written is discarded.
+     *
+     * @param target  the buffer, null to release the previous stream or target
+     */
+    void setTarget(ByteBuffer target) {
+        this.stream = null;
+        this.target = target;
+        if (target != null && target.hasArray()) {
+            // encode directly into the array of the buffer
+            buffer = target.array();
+            start = target.arrayOffset() + target.position();
+            count = start;
+            limit = target.arrayOffset() + target.limit();
+        } else {
+            useInternal();
+        }
+    }
+
+    // switches to encoding into the internal buffer
+    private void useInternal() {
+        buffer = internal;
+        start = 0;
+        count = 0;
+        limit = internal.length;
     }
 
     //-----------------------------------------------------------------------
     /**
      * Writes a MessagePack nil.
-     * 
+     *
      * @throws IOException if an error occurs
      */
-    void writeNil() throws IOException {
-        output.writeByte(NIL);
+    public void writeNil() throws IOException {
+        writeRawByte(NIL);
     }
 
     /**
      * Writes a MessagePack boolean.
-     * 
+     *
      * @param value  the value
      * @throws IOException if an error occurs
      */
-    void writeBoolean(boolean value) throws IOException {
-        if (value) {
-            output.writeByte(TRUE);
-        } else {
-            output.writeByte(FALSE);
-        }
+    public void writeBoolean(boolean value) throws IOException {
+        writeRawByte(value ? TRUE : FALSE);
     }
 
     /**
      * Writes a MessagePack int.
-     * 
+     *
      * @param value  the value
      * @throws IOException if an error occurs
      */
-    void writeInt(int value) throws IOException {
+    public void writeInt(int value) throws IOException {
+        ensure(5);
         if (value < MIN_FIX_INT) {
             // large negative
             if (value >= Byte.MIN_VALUE) {
-                output.writeByte(SINT_8);
-                output.writeByte((byte) value);
+                putByte(SINT_8);
+                putByte(value);
             } else if (value >= Short.MIN_VALUE) {
-                output.writeByte(SINT_16);
-                output.writeShort((short) value);
+                putByte(SINT_16);
+                putShort(value);
             } else {
-                output.writeByte(SINT_32);
-                output.writeInt(value);
+                putByte(SINT_32);
+                putInt(value);
             }
         } else if (value < MAX_FIX_INT) {
             // in range -64 to 127
-            output.writeByte(value);
+            putByte(value);
         } else {
             // large positive
             if (value < 0xFF) {
-                output.writeByte(UINT_8);
-                output.writeByte((byte) value);
+                putByte(UINT_8);
+                putByte(value);
             } else if (value < 0xFFFF) {
-                output.writeByte(UINT_16);
-                output.writeShort((short) value);
+                putByte(UINT_16);
+                putShort(value);
             } else {
-                output.writeByte(UINT_32);
-                output.writeInt(value);
+                putByte(UINT_32);
+                putInt(value);
             }
         }
     }
 
     /**
      * Writes a MessagePack long.
-     * 
+     *
      * @param value  the value
      * @throws IOException if an error occurs
      */
-    void writeLong(long value) throws IOException {
+    public void writeLong(long value) throws IOException {
+        ensure(9);
         if (value < MIN_FIX_INT) {
             // large negative
             if (value >= Byte.MIN_VALUE) {
-                output.writeByte(SINT_8);
-                output.writeByte((byte) value);
+                putByte(SINT_8);
+                putByte((int) value);
             } else if (value >= Short.MIN_VALUE) {
-                output.writeByte(SINT_16);
-                output.writeShort((short) value);
+                putByte(SINT_16);
+                putShort((int) value);
             } else if (value >= Integer.MIN_VALUE) {
-                output.writeByte(SINT_32);
-                output.writeInt((int) value);
+                putByte(SINT_32);
+                putInt((int) value);
             } else {
-                output.writeByte(SINT_64);
-                output.writeLong(value);
+                putByte(SINT_64);
+                putLong(value);
             }
         } else if (value < MAX_FIX_INT) {
             // in range -64 to 127
-            output.writeByte((byte) value);
+            putByte((int) value);
         } else {
             // large positive
             if (value < 0xFF) {
-                output.writeByte(UINT_8);
-                output.writeByte((byte) value);
+                putByte(UINT_8);
+                putByte((int) value);
             } else if (value < 0xFFFF) {
-                output.writeByte(UINT_16);
-                output.writeShort((short) value);
+                putByte(UINT_16);
+                putShort((int) value);
             } else if (value < 0xFFFFFFFFL) {
-                output.writeByte(UINT_32);
-                output.writeInt((int) value);
+                putByte(UINT_32);
+                putInt((int) value);
             } else {
-                output.writeByte(UINT_64);
-                output.writeLong(value);
+                putByte(UINT_64);
+                putLong(value);
             }
         }
     }
 
     /**
      * Writes a MessagePack float.
-     * 
+     *
      * @param value  the value
      * @throws IOException if an error occurs
      */
-    void writeFloat(float value) throws IOException {
-        output.writeByte(FLOAT_32);
-        output.writeFloat(value);
+    public void writeFloat(float value) throws IOException {
+        ensure(5);
+        putByte(FLOAT_32);
+        putInt(Float.floatToIntBits(value));
     }
 
     /**
      * Writes a MessagePack double.
-     * 
+     *
      * @param value  the value
      * @throws IOException if an error occurs
      */
-    void writeDouble(double value) throws IOException {
-        output.writeByte(FLOAT_64);
-        output.writeDouble(value);
+    public void writeDouble(double value) throws IOException {
+        ensure(9);
+        putByte(FLOAT_64);
+        putLong(Double.doubleToLongBits(value));
     }
 
     /**
      * Writes a MessagePack byte block.
-     * 
+     *
      * @param bytes  the bytes, not null
      * @throws IOException if an error occurs
      */
-    void writeBytes(byte[] bytes) throws IOException {
+    public void writeBytes(byte[] bytes) throws IOException {
         int size = bytes.length;
+        ensure(5);
         if (size < 256) {
-            output.writeByte(BIN_8);
-            output.writeByte(size);
+            putByte(BIN_8);
+            putByte(size);
         } else if (size < 65536) {
-            output.writeByte(BIN_16);
-            output.writeShort(size);
+            putByte(BIN_16);
+            putShort(size);
         } else {
-            output.writeByte(BIN_32);
-            output.writeInt(size);
+            putByte(BIN_32);
+            putInt(size);
         }
-        output.write(bytes);
+        writeRawBytes(bytes, 0, size);
     }
 
     /**
      * Writes a MessagePack string.
-     * 
+     * <p>
+     * The common ASCII case is encoded directly into the internal buffer.
+     *
      * @param value  the value
      * @throws IOException if an error occurs
      */
-    void writeString(String value) throws IOException {
-        byte[] bytes = toUTF8(value);
-        int size = bytes.length;
+    public void writeString(String value) throws IOException {
+        final int length = value.length();
+        if (length + 5 > limit - count && length + 5 <= internal.length) {
+            flushBuffer();
+        }
+        if (length + 5 <= limit - count) {
+            // inline common ASCII case for much better performance
+            int index = count + (length < 32 ? 1 : (length < 256 ? 2 : (length < 65536 ? 3 : 5)));
+            boolean ascii = true;
+            for (int i = 0; i < length; i++) {
+                char ch = value.charAt(i);
+                if (ch >= 128) {
+                    ascii = false;
+                    break;
+                }
+                buffer[index + i] = (byte) ch;
+            }
+            if (ascii) {
+                putStringHeader(length);
+                count += length;
+                return;
+            }
+        }
+        byte[] bytes = value.getBytes(UTF_8);
+        ensure(5);
+        putStringHeader(bytes.length);
+        writeRawBytes(bytes, 0, bytes.length);
+    }
+
+    // writes the string header, space must have been ensured
+    private void putStringHeader(int size) {
         if (size < 32) {
-            output.writeByte(MIN_FIX_STR + size);
+            putByte(MIN_FIX_STR + size);
         } else if (size < 256) {
-            output.writeByte(STR_8);
-            output.writeByte(size);
+            putByte(STR_8);
+            putByte(size);
         } else if (size < 65536) {
-            output.writeByte(STR_16);
-            output.writeShort(size);
+            putByte(STR_16);
+            putShort(size);
         } else {
-            output.writeByte(STR_32);
-            output.writeInt(size);
-        }
-        output.write(bytes);
-    }
-
-    private byte[] toUTF8(String value) {
-        // inline common ASCII case for much better performance
-        final int size = value.length();
-        byte[] bytes = new byte[size];
-        for (int i = 0; i < size; i++) {
-            char ch = value.charAt(i);
-            if (ch < 128) {
-                bytes[i] = (byte) ch;
-            } else {
-                return value.getBytes(UTF_8);
-            }
+            putByte(STR_32);
+            putInt(size);
         }
-        return bytes;
     }
 
     /**
      * Writes a MessagePack array header.
-     * 
+     *
      * @param size  the size
      * @throws IOException if an error occurs
      */
-    void writeArrayHeader(int size) throws IOException {
+    public void writeArrayHeader(int size) throws IOException {
+        ensure(5);
         if (size < 16) {
-            output.writeByte(MIN_FIX_ARRAY + size);
+            putByte(MIN_FIX_ARRAY + size);
         } else if (size < 65536) {
-            output.writeByte(ARRAY_16);
-            output.writeShort(size);
+            putByte(ARRAY_16);
+            putShort(size);
         } else {
-            output.writeByte(ARRAY_32);
-            output.writeInt(size);
+            putByte(ARRAY_32);
+            putInt(size);
         }
     }
 
     /**
      * Writes a MessagePack map header.
-     * 
+     *
      * @param size  the size
      * @throws IOException if an error occurs
      */
-    void writeMapHeader(int size) throws IOException {
+    public void writeMapHeader(int size) throws IOException {
+        ensure(5);
         if (size < 16) {
-            output.writeByte(MIN_FIX_MAP + size);
+            putByte(MIN_FIX_MAP + size);
         } else if (size < 65536) {
-            output.writeByte(MAP_16);
-            output.writeShort(size);
+            putByte(MAP_16);
+            putShort(size);
+        } else {
+            putByte(MAP_32);
+            putInt(size);
+        }
+    }
+
+    /**
+     * Writes a MessagePack extension.
+     * <p>
+     * The smallest encoding is used, FIX_EXT_n where the size matches, otherwise EXT_8, EXT_16 or EXT_32.
+     *
+     * @param extensionType  the type
+     * @param data  the data, not null
+     * @throws IOException if an error occurs
+     */
+    public void writeExtension(int extensionType, byte[] data) throws IOException {
+        int size = data.length;
+        ensure(6);
+        switch (size) {
+            case 1:
+                putByte(FIX_EXT_1);
+                break;
+            case 2:
+                putByte(FIX_EXT_2);
+                break;
+            case 4:
+                putByte(FIX_EXT_4);
+                break;
+            case 8:
+                putByte(FIX_EXT_8);
+                break;
+            case 16:
+                putByte(FIX_EXT_16);
+                break;
+            default:
+                putExtensionHeader(size);
+                break;
+        }
+        putByte(extensionType);
+        writeRawBytes(data, 0, size);
+    }
+
+    // writes the header of a variable size extension, excluding the type, space must have been ensured
+    private void putExtensionHeader(int size) {
+        if (size < 256) {
+            putByte(EXT_8);
+            putByte(size);
+        } else if (size < 65536) {
+            putByte(EXT_16);
+            putShort(size);
+        } else {
+            putByte(EXT_32);
+            putInt(size);
+        }
+    }
+
+    /**
+     * Writes an extension byte using FIX_EXT_1.
+     *
+     * @param extensionType  the type
+     * @param value  the value to write as the data
+     * @throws IOException if an error occurs
+     */
+    public void writeExtensionByte(int extensionType, int value) throws IOException {
+        ensure(3);
+        putByte(FIX_EXT_1);
+        putByte(extensionType);
+        putByte(value);
+    }
+
+    /**
+     * Writes an extension non-negative int using FIX_EXT_1, FIX_EXT_2 or FIX_EXT_4.
+     *
+     * @param extensionType  the type
+     * @param value  the value to write as the data, not negative
+     * @throws IOException if an error occurs
+     */
+    public void writeExtensionInt(int extensionType, int value) throws IOException {
+        ensure(6);
+        if (value < 256) {
+            putByte(FIX_EXT_1);
+            putByte(extensionType);
+            putByte(value);
+        } else if (value < 65536) {
+            putByte(FIX_EXT_2);
+            putByte(extensionType);
+            putShort(value);
         } else {
-            output.writeByte(MAP_32);
-            output.writeInt(size);
+            putByte(FIX_EXT_4);
+            putByte(extensionType);
+            putInt(value);
         }
     }
 
     /**
-     * Writes an extension string using FIX_EXT_1.
-     * 
+     * Writes an extension long using FIX_EXT_8.
+     *
      * @param extensionType  the type
      * @param value  the value to write as the data
      * @throws IOException if an error occurs
      */
-    void writeExtensionByte(int extensionType, int value) throws IOException {
-        output.write(FIX_EXT_1);
-        output.write(extensionType);
-        output.write(value);
+    public void writeExtensionLong(int extensionType, long value) throws IOException {
+        ensure(10);
+        putByte(FIX_EXT_8);
+        putByte(extensionType);
+        putLong(value);
+    }
+
+    /**
+     * Writes an extension holding a primitive array using EXT_8, EXT_16 or EXT_32.
+     * <p>
+     * The data is the JVM descriptor character of the primitive type, such as 'D' for double,
+     * followed by the packed big-endian values. Booleans are written as one byte each.
+     * The values are encoded in bulk directly into the internal buffer, without boxing.
+     *
+     * @param extensionType  the type
+     * @param array  the primitive array, not a byte array, not null
+     * @throws IOException if an error occurs
+     */
+    public void writeExtensionPrimitiveArray(int extensionType, Object array) throws IOException {
+        Class<?> componentType = array.getClass().getComponentType();
+        if (componentType == null || componentType.isPrimitive() == false) {
+            throw new IllegalArgumentException("Expected primitive array, but was: " + array.getClass().getName());
+        }
+        char descriptor = primitiveDescriptor(componentType);
+        int elementSize = primitiveSize(descriptor);
+        int length = Array.getLength(array);
+        long dataSize = 1 + (long) length * elementSize;
+        if (dataSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Array too large");
+        }
+        ensure(7);
+        putExtensionHeader((int) dataSize);
+        putByte(extensionType);
+        putByte(descriptor);
+        if (descriptor == 'Z') {
+            for (boolean value : (boolean[]) array) {
+                writeRawByte(value ? 1 : 0);
+            }
+            return;
+        }
+        int offset = 0;
+        while (offset < length) {
+            int space = (limit - count) / elementSize;
+            if (space == 0) {
+                flushBuffer();
+                continue;
+            }
+            int chunk = Math.min(space, length - offset);
+            if (view == null || view.array() != buffer) {
+                view = ByteBuffer.wrap(buffer);
+            }
+            view.clear();
+            view.position(count);
+            switch (descriptor) {
+                case 'D':
+                    view.asDoubleBuffer().put((double[]) array, offset, chunk);
+                    break;
+                case 'F':
+                    view.asFloatBuffer().put((float[]) array, offset, chunk);
+                    break;
+                case 'J':
+                    view.asLongBuffer().put((long[]) array, offset, chunk);
+                    break;
+                case 'I':
+                    view.asIntBuffer().put((int[]) array, offset, chunk);
+                    break;
+                case 'S':
+                    view.asShortBuffer().put((short[]) array, offset, chunk);
+                    break;
+                default:
+                    view.asCharBuffer().put((char[]) array, offset, chunk);
+                    break;
+            }
+            count += chunk * elementSize;
+            offset += chunk;
+        }
     }
 
     /**
      * Writes an extension string using EXT_8.
-     * 
+     *
      * @param extensionType  the type
      * @param str  the string to write as the data
      * @throws IOException if an error occurs
      */
-    void writeExtensionString(int extensionType, String str) throws IOException {
+    public void writeExtensionString(int extensionType, String str) throws IOException {
         byte[] bytes = str.getBytes(UTF_8);
-        if (bytes.length > 256) {
+        if (bytes.length > 255) {
             throw new IllegalArgumentException("String too long");
         }
-        output.write(EXT_8);
-        output.write(bytes.length);
-        output.write(extensionType);
-        output.write(bytes);
+        ensure(3);
+        putByte(EXT_8);
+        putByte(bytes.length);
+        putByte(extensionType);
+        writeRawBytes(bytes, 0, bytes.length);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the number of bytes written, including those in the internal buffer.
+     *
+     * @return the number of bytes written
+     */
+    public long size() {
+        return flushed + count - start;
+    }
+
+    /**
+     * Flushes the internal buffer and the underlying stream.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        if (buffer != internal) {
+            // encoding directly into the target, so only the position needs updating
+            target.position(count - target.arrayOffset());
+            flushed += count - start;
+            start = count;
+        } else {
+            flushBuffer();
+        }
+        if (stream != null) {
+            stream.flush();
+        }
+    }
+
+    /**
+     * Flushes the internal buffer and closes the underlying stream.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    // writes the array to the stream or target, making space available
+    private void flushBuffer() throws IOException {
+        if (buffer != internal) {
+            // the target array is full, so update the position and encode the rest internally
+            // the target then throws BufferOverflowException if the rest does not fit
+            target.position(count - target.arrayOffset());
+            flushed += count - start;
+            useInternal();
+        } else if (count > 0) {
+            writeDirect(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    // writes bytes directly to the stream or target, bypassing the array
+    private void writeDirect(byte[] bytes, int offset, int length) throws IOException {
+        if (stream != null) {
+            stream.write(bytes, offset, length);
+        } else {
+            target.put(bytes, offset, length);
+        }
+        flushed += length;
+    }
+
+    // ensures the array has space, size must not exceed the internal buffer size
+    private void ensure(int size) throws IOException {
+        if (size > limit - count) {
+            flushBuffer();
+        }
+    }
+
+    private void writeRawByte(int value) throws IOException {
+        if (count == limit) {
+            flushBuffer();
+        }
+        buffer[count++] = (byte) value;
+    }
+
+    private void writeRawBytes(byte[] bytes, int offset, int length) throws IOException {
+        if (length > limit - count) {
+            flushBuffer();
+            if (length >= limit) {
+                writeDirect(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+
+    private void putByte(int value) {
+        buffer[count++] = (byte) value;
+    }
+
+    private void putShort(int value) {
+        buffer[count++] = (byte) (value >>> 8);
+        buffer[count++] = (byte) value;
+    }
+
+    private void putInt(int value) {
+        buffer[count++] = (byte) (value >>> 24);
+        buffer[count++] = (byte) (value >>> 16);
+        buffer[count++] = (byte) (value >>> 8);
+        buffer[count++] = (byte) value;
+    }
+
+    private void putLong(long value) {
+        putInt((int) (value >>> 32));
+        putInt((int) value);
     }
 
 }
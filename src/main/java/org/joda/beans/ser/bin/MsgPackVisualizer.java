@@ -18,6 +18,7 @@ package org.joda.beans.ser.bin;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Allows MsgPack data to be visualized.
@@ -58,6 +59,15 @@ public final class MsgPackVisualizer extends MsgPackInput {
         super(stream);
     }
 
+    /**
+     * Creates an instance.
+     * 
+     * @param buffer  the buffer to read from, not null
+     */
+    public MsgPackVisualizer(ByteBuffer buffer) {
+        super(buffer);
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Visualizes the data in the stream.
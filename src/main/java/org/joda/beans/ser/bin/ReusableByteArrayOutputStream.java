@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A growable byte array output stream that is intended to be reused.
+ * <p>
+ * The internal array is retained across calls to {@link #reset()}, thus once
+ * the buffer has grown to the size of a typical message no further allocation occurs.
+ * An array that has grown beyond {@link #MAX_RETAINED_SIZE} is discarded on release,
+ * so that one unusually large message does not pin memory for the lifetime of the thread.
+ * The content can be viewed as a {@code ByteBuffer} without copying.
+ *
+ * @author Stephen Colebourne
+ */
+final class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+
+    /**
+     * The maximum size of array retained when the stream is released.
+     */
+    static final int MAX_RETAINED_SIZE = 64 * 1024;
+
+    /**
+     * The initial size of the array.
+     */
+    private final int initialSize;
+    /**
+     * The cached view of the array.
+     */
+    private ByteBuffer view;
+    /**
+     * Whether the stream is currently in use.
+     */
+    private boolean inUse;
+
+    /**
+     * Creates an instance.
+     *
+     * @param initialSize  the initial size of the array
+     */
+    ReusableByteArrayOutputStream(int initialSize) {
+        super(initialSize);
+        this.initialSize = initialSize;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Acquires the stream for use, resetting the content.
+     *
+     * @return true if acquired, false if already in use
+     */
+    boolean acquire() {
+        if (inUse) {
+            return false;
+        }
+        inUse = true;
+        reset();
+        return true;
+    }
+
+    /**
+     * Releases the stream after use.
+     * <p>
+     * If the array has grown beyond the maximum retained size it is replaced.
+     * Any view previously returned remains valid, as it refers to the old array.
+     */
+    void release() {
+        inUse = false;
+        if (buf.length > MAX_RETAINED_SIZE) {
+            buf = new byte[initialSize];
+            count = 0;
+            view = null;
+        }
+    }
+
+    /**
+     * Gets the size of the internal array.
+     *
+     * @return the capacity
+     */
+    int capacity() {
+        return buf.length;
+    }
+
+    /**
+     * Gets a view of the written bytes.
+     * <p>
+     * The view is only valid until the stream is next written to.
+     *
+     * @return the buffer view, position zero and limit the size, not null
+     */
+    ByteBuffer view() {
+        if (view == null || view.array() != buf) {
+            view = ByteBuffer.wrap(buf);
+        }
+        view.clear();
+        view.limit(count);
+        return view;
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.json;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerBeanConsumer;
+
+/**
+ * Provides the ability to read Joda-Beans from JSON incrementally, as the data arrives.
+ * <p>
+ * This is a push-style reader, suitable for non-blocking network code.
+ * Chunks of UTF-8 bytes are fed to the reader as they are received.
+ * Each time the data for a bean is complete, the bean is parsed and passed to the consumer.
+ * No method ever blocks waiting for data, and the state of a partially received bean
+ * is retained between chunks.
+ * <p>
+ * The data is a sequence of JSON objects, each of which is a bean, optionally separated
+ * by whitespace. This includes the output of
+ * {@link JodaBeanJsonWriter#writeLines(java.util.Iterator, Appendable) writeLines}.
+ * The structure of each object is tracked as the bytes are fed, without parsing.
+ * Only the bytes of an incomplete bean are retained, and a bean that is wholly
+ * within one chunk is parsed directly from that chunk.
+ * <p>
+ * This class contains mutable state and cannot be used from multiple threads.
+ *
+ * @param <T>  the root type of each bean
+ * @author Stephen Colebourne
+ */
+public class JodaBeanJsonFeedReader<T> {
+
+    /**
+     * Settings.
+     */
+    private final JodaBeanSer settings;
+    /**
+     * The root type of each bean.
+     */
+    private final Class<T> rootType;
+    /**
+     * The consumer of the beans.
+     */
+    private final SerBeanConsumer<? super T> consumer;
+    /**
+     * The retained bytes of the incomplete bean.
+     */
+    private byte[] buffer = new byte[256];
+    /**
+     * The number of retained bytes.
+     */
+    private int count;
+    /**
+     * The depth of nesting of objects and arrays, zero between beans.
+     */
+    private int depth;
+    /**
+     * Whether the scan is within a string.
+     */
+    private boolean inString;
+    /**
+     * Whether the previous byte of a string was a backslash.
+     */
+    private boolean escape;
+
+    /**
+     * Creates an instance.
+     *
+     * @param settings  the settings, not null
+     * @param rootType  the root type of each bean, not null
+     * @param consumer  the consumer of each bean that is read, not null
+     */
+    public JodaBeanJsonFeedReader(JodaBeanSer settings, Class<T> rootType, SerBeanConsumer<? super T> consumer) {
+        JodaBeanUtils.notNull(settings, "settings");
+        JodaBeanUtils.notNull(rootType, "rootType");
+        JodaBeanUtils.notNull(consumer, "consumer");
+        this.settings = settings;
+        this.rootType = rootType;
+        this.consumer = consumer;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Feeds a chunk of UTF-8 bytes to the reader.
+     * <p>
+     * Each bean completed by the chunk is parsed and passed to the consumer before this method returns.
+     *
+     * @param bytes  the bytes, not null
+     * @throws IllegalArgumentException if the data is invalid
+     */
+    public void feed(byte[] bytes) {
+        JodaBeanUtils.notNull(bytes, "bytes");
+        feed(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Feeds a chunk of UTF-8 bytes to the reader.
+     * <p>
+     * Each bean completed by the chunk is parsed and passed to the consumer before this method returns.
+     * The bytes are not retained once this method returns.
+     *
+     * @param bytes  the bytes, not null
+     * @param offset  the offset of the first byte
+     * @param length  the number of bytes
+     * @throws IllegalArgumentException if the data is invalid
+     */
+    public void feed(byte[] bytes, int offset, int length) {
+        JodaBeanUtils.notNull(bytes, "bytes");
+        int end = offset + length;
+        int index = offset;
+        while (index < end) {
+            int start = index;
+            if (depth == 0) {
+                // between beans, find the start of the next bean
+                byte next = bytes[index];
+                if (next == ' ' || next == '\t' || next == '\n' || next == '\r') {
+                    index++;
+                    continue;
+                }
+                if (next != '{') {
+                    throw new IllegalArgumentException("Invalid JSON data: Expected JSON object but found '" + (char) (next & 0xFF) + "'");
+                }
+            }
+            index = scan(bytes, index, end);
+            if (depth == 0) {
+                // bean complete, reset the state before parsing so that an error does not corrupt it
+                if (count == 0) {
+                    parse(bytes, start, index - start);
+                } else {
+                    append(bytes, start, index - start);
+                    int size = count;
+                    count = 0;
+                    parse(buffer, 0, size);
+                }
+            } else {
+                append(bytes, start, index - start);
+            }
+        }
+    }
+
+    /**
+     * Feeds a chunk of UTF-8 bytes to the reader.
+     * <p>
+     * Each bean completed by the chunk is parsed and passed to the consumer before this method returns.
+     * The bytes from the position to the limit are fed, and the position is advanced to the limit.
+     *
+     * @param bytes  the bytes, not null
+     * @throws IllegalArgumentException if the data is invalid
+     */
+    public void feed(ByteBuffer bytes) {
+        JodaBeanUtils.notNull(bytes, "bytes");
+        if (bytes.hasArray()) {
+            int offset = bytes.arrayOffset() + bytes.position();
+            int length = bytes.remaining();
+            bytes.position(bytes.limit());
+            feed(bytes.array(), offset, length);
+        } else {
+            byte[] array = new byte[bytes.remaining()];
+            bytes.get(array);
+            feed(array, 0, array.length);
+        }
+    }
+
+    /**
+     * Checks that the data fed is complete, with no partially received bean.
+     * <p>
+     * This is called when the input has ended.
+     *
+     * @throws IllegalArgumentException if a bean has been partially received
+     */
+    public void finish() {
+        if (depth > 0) {
+            throw new IllegalArgumentException("Invalid JSON data: End of file");
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    // scans the bytes of a bean, returning the index after the last byte of the bean, or the end
+    private int scan(byte[] bytes, int index, int end) {
+        for (int i = index; i < end; i++) {
+            byte next = bytes[i];
+            if (inString) {
+                if (escape) {
+                    escape = false;
+                } else if (next == '\\') {
+                    escape = true;
+                } else if (next == '"') {
+                    inString = false;
+                }
+            } else if (next == '"') {
+                inString = true;
+            } else if (next == '{' || next == '[') {
+                depth++;
+            } else if (next == '}' || next == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+        }
+        return end;
+    }
+
+    // retains bytes of an incomplete bean
+    private void append(byte[] bytes, int offset, int length) {
+        if (count + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + length));
+        }
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+
+    // parses a complete bean
+    private void parse(byte[] bytes, int offset, int length) {
+        T bean = new JodaBeanJsonReader(settings).read(new Utf8Reader(bytes, offset, length), rootType);
+        consumer.accept(bean);
+    }
+
+}
@@ -20,10 +20,16 @@ import static org.joda.beans.ser.json.JodaBeanJsonWriter.META;
 import static org.joda.beans.ser.json.JodaBeanJsonWriter.TYPE;
 import static org.joda.beans.ser.json.JodaBeanJsonWriter.VALUE;
 
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import org.joda.beans.Bean;
 import org.joda.beans.BeanBuilder;
@@ -33,9 +39,12 @@ import org.joda.beans.MetaProperty;
 import org.joda.beans.ser.JodaBeanSer;
 import org.joda.beans.ser.SerCategory;
 import org.joda.beans.ser.SerDeserializer;
+import org.joda.beans.ser.SerDeserializerHandle;
 import org.joda.beans.ser.SerIterable;
 import org.joda.beans.ser.SerIteratorFactory;
 import org.joda.beans.ser.SerOptional;
+import org.joda.beans.ser.SerProjection;
+import org.joda.beans.ser.SerPropertyTable;
 import org.joda.beans.ser.SerTypeMapper;
 
 /**
@@ -43,6 +52,11 @@ import org.joda.beans.ser.SerTypeMapper;
  * <p>
  * The JSON format is defined by {@link JodaBeanJsonWriter}.
  * <p>
+ * A {@link SerProjection} may be specified to only read a subset of the properties.
+ * Properties outside the projection are skipped without being parsed.
+ * <p>
+ * JSON in bytes is decoded directly from UTF-8, without a {@code CharsetDecoder}.
+ * <p>
  * This class contains mutable state and cannot be used from multiple threads.
  * A new instance must be created for each message.
  */
@@ -64,6 +78,18 @@ public class JodaBeanJsonReader {
      * The known types.
      */
     private Map<String, Class<?>> knownTypes = new HashMap<String, Class<?>>();
+    /**
+     * The projection to apply to the root bean, null to read all properties.
+     */
+    private final SerProjection rootProjection;
+    /**
+     * The projection to apply to the bean being parsed, null to read all properties.
+     */
+    private SerProjection projection;
+    /**
+     * The reused list of type names found in skipped data.
+     */
+    private final List<String> skippedTypes = new ArrayList<String>();
 
     /**
      * Creates an instance.
@@ -73,6 +99,20 @@ public class JodaBeanJsonReader {
     public JodaBeanJsonReader(final JodaBeanSer settings) {
         JodaBeanUtils.notNull(settings, "settings");
         this.settings = settings;
+        this.rootProjection = null;
+    }
+
+    /**
+     * Creates an instance that reads a subset of the properties.
+     * 
+     * @param settings  the settings, not null
+     * @param projection  the projection defining the properties to read, not null
+     */
+    public JodaBeanJsonReader(final JodaBeanSer settings, final SerProjection projection) {
+        JodaBeanUtils.notNull(settings, "settings");
+        JodaBeanUtils.notNull(projection, "projection");
+        this.settings = settings;
+        this.rootProjection = projection;
     }
 
     //-----------------------------------------------------------------------
@@ -130,6 +170,245 @@ public class JodaBeanJsonReader {
         }
     }
 
+    /**
+     * Reads and parses UTF-8 bytes to a bean.
+     * 
+     * @param input  the input bytes, not null
+     * @return the bean, not null
+     */
+    public Bean read(byte[] input) {
+        return read(input, Bean.class);
+    }
+
+    /**
+     * Reads and parses UTF-8 bytes to a bean.
+     * 
+     * @param <T>  the root type
+     * @param input  the input bytes, not null
+     * @param rootType  the root type, not null
+     * @return the bean, not null
+     */
+    public <T> T read(byte[] input, Class<T> rootType) {
+        JodaBeanUtils.notNull(input, "input");
+        return read(new Utf8Reader(input, 0, input.length), rootType);
+    }
+
+    /**
+     * Reads and parses UTF-8 bytes to a bean.
+     * <p>
+     * The data is read from the position to the limit of the buffer.
+     * A heap buffer is decoded in place. When this method returns,
+     * the position of the buffer has been advanced to the limit.
+     * 
+     * @param <T>  the root type
+     * @param input  the input buffer, not null
+     * @param rootType  the root type, not null
+     * @return the bean, not null
+     */
+    public <T> T read(ByteBuffer input, Class<T> rootType) {
+        JodaBeanUtils.notNull(input, "input");
+        return read(new Utf8Reader(input), rootType);
+    }
+
+    /**
+     * Reads and parses a UTF-8 stream to a bean.
+     * <p>
+     * The stream is not closed.
+     * 
+     * @param input  the input stream, not null
+     * @return the bean, not null
+     */
+    public Bean read(InputStream input) {
+        return read(input, Bean.class);
+    }
+
+    /**
+     * Reads and parses a UTF-8 stream to a bean.
+     * <p>
+     * The stream is not closed.
+     * 
+     * @param <T>  the root type
+     * @param input  the input stream, not null
+     * @param rootType  the root type, not null
+     * @return the bean, not null
+     */
+    public <T> T read(InputStream input, Class<T> rootType) {
+        JodaBeanUtils.notNull(input, "input");
+        return read(new Utf8Reader(input), rootType);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Reads and parses a JSON array of beans, returning a lazy iterator.
+     * <p>
+     * Each bean is parsed when it is requested from the iterator, thus only one bean
+     * is held in memory at a time. Each element of the array is parsed independently,
+     * as written by {@link JodaBeanJsonWriter#writeArray(Iterator, Appendable)}.
+     * <p>
+     * The reader is not closed. This instance must not be used for any other purpose
+     * until the iterator has been fully read. The iterator throws an unchecked exception
+     * if the input is invalid.
+     * 
+     * @param <T>  the root type of each bean
+     * @param input  the input reader, not null
+     * @param rootType  the root type of each bean, not null
+     * @return the lazy iterator of beans, not null
+     */
+    public <T> Iterator<T> readArray(Reader input, Class<T> rootType) {
+        JodaBeanUtils.notNull(input, "input");
+        JodaBeanUtils.notNull(rootType, "rootType");
+        this.input = new JsonInput(input);
+        return new BeanIterator<T>(rootType, true);
+    }
+
+    /**
+     * Reads and parses a UTF-8 stream containing a JSON array of beans, returning a lazy iterator.
+     * <p>
+     * See {@link #readArray(Reader, Class)}. The stream is not closed.
+     * 
+     * @param <T>  the root type of each bean
+     * @param input  the input stream, not null
+     * @param rootType  the root type of each bean, not null
+     * @return the lazy iterator of beans, not null
+     */
+    public <T> Iterator<T> readArray(InputStream input, Class<T> rootType) {
+        JodaBeanUtils.notNull(input, "input");
+        return readArray(new Utf8Reader(input), rootType);
+    }
+
+    /**
+     * Reads and parses newline-delimited JSON, also known as JSON Lines, returning a lazy iterator.
+     * <p>
+     * The input consists of a sequence of JSON objects, one bean per line.
+     * Each bean is parsed when it is requested from the iterator, thus only one bean
+     * is held in memory at a time. Each bean is parsed independently,
+     * as written by {@link JodaBeanJsonWriter#writeLines(Iterator, Appendable)}.
+     * <p>
+     * The reader is not closed. This instance must not be used for any other purpose
+     * until the iterator has been fully read. The iterator throws an unchecked exception
+     * if the input is invalid.
+     * 
+     * @param <T>  the root type of each bean
+     * @param input  the input reader, not null
+     * @param rootType  the root type of each bean, not null
+     * @return the lazy iterator of beans, not null
+     */
+    public <T> Iterator<T> readLines(Reader input, Class<T> rootType) {
+        JodaBeanUtils.notNull(input, "input");
+        JodaBeanUtils.notNull(rootType, "rootType");
+        this.input = new JsonInput(input);
+        return new BeanIterator<T>(rootType, false);
+    }
+
+    /**
+     * Reads and parses a UTF-8 stream of newline-delimited JSON, returning a lazy iterator.
+     * <p>
+     * See {@link #readLines(Reader, Class)}. The stream is not closed.
+     * 
+     * @param <T>  the root type of each bean
+     * @param input  the input stream, not null
+     * @param rootType  the root type of each bean, not null
+     * @return the lazy iterator of beans, not null
+     */
+    public <T> Iterator<T> readLines(InputStream input, Class<T> rootType) {
+        JodaBeanUtils.notNull(input, "input");
+        return readLines(new Utf8Reader(input), rootType);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Iterator that parses one bean at a time from a stream of beans.
+     */
+    private final class BeanIterator<T> implements Iterator<T> {
+        /**
+         * The root type of each bean.
+         */
+        private final Class<T> rootType;
+        /**
+         * True if the beans are in a JSON array, false if a sequence of objects.
+         */
+        private final boolean array;
+        /**
+         * Whether the start of the stream has been read.
+         */
+        private boolean started;
+        /**
+         * Whether the end of the stream has been read.
+         */
+        private boolean ended;
+        /**
+         * The event starting the next bean, null if not yet read or at the end.
+         */
+        private JsonEvent next;
+
+        BeanIterator(Class<T> rootType, boolean array) {
+            this.rootType = rootType;
+            this.array = array;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = readNext();
+                } catch (RuntimeException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+            return next != null;
+        }
+
+        // reads the event starting the next bean, null at the end
+        private JsonEvent readNext() throws Exception {
+            if (ended) {
+                return null;
+            }
+            if (array) {
+                JsonEvent event;
+                if (started) {
+                    event = input.acceptArraySeparator();
+                } else {
+                    started = true;
+                    input.acceptEvent(JsonEvent.ARRAY);
+                    event = input.readEvent();
+                }
+                if (event != JsonEvent.ARRAY_END) {
+                    return input.ensureEvent(event, JsonEvent.OBJECT);
+                }
+            } else if (input.hasMoreData()) {
+                return input.acceptEvent(JsonEvent.OBJECT);
+            }
+            ended = true;
+            return null;
+        }
+
+        @Override
+        public T next() {
+            if (hasNext() == false) {
+                throw new NoSuchElementException();
+            }
+            JsonEvent event = next;
+            next = null;
+            try {
+                basePackage = null;
+                knownTypes.clear();
+                projection = rootProjection;
+                return rootType.cast(parseObject(event, rootType, null, null, null, true));
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Parses the root bean.
@@ -139,6 +418,7 @@ public class JodaBeanJsonReader {
      * @throws Exception if an error occurs
      */
     private <T> T parseRoot(Class<T> declaredType) throws Exception {
+        projection = rootProjection;
         Object parsed = parseObject(input.acceptEvent(JsonEvent.OBJECT), declaredType, null, null, null, true);
         return declaredType.cast(parsed);
     }
@@ -147,18 +427,28 @@ public class JodaBeanJsonReader {
     private Object parseBean(JsonEvent event, Class<?> beanType) throws Exception {
         String propName = "";
         try {
-            SerDeserializer deser = settings.getDeserializers().findDeserializer(beanType);
-            MetaBean metaBean = deser.findMetaBean(beanType);
-            BeanBuilder<?> builder = deser.createBuilder(beanType, metaBean);
+            SerDeserializerHandle handle = settings.getDeserializers().findHandle(beanType);
+            SerDeserializer deser = handle.getDeserializer();
+            MetaBean metaBean = handle.getMetaBean();
+            BeanBuilder<?> builder = handle.createBuilder();
+            SerPropertyTable table = SerPropertyTable.of(deser, metaBean);
             while (event != JsonEvent.OBJECT_END) {
-                // property name
-                propName = input.acceptObjectKey(event);
-                MetaProperty<?> metaProp = deser.findMetaProperty(beanType, metaBean, propName);
-                if (metaProp == null) {
-                    input.skipData();
+                // property name, matched directly if possible
+                MetaProperty<?> metaProp = (table != null ? input.acceptObjectKey(event, table) : null);
+                if (metaProp != null) {
+                    propName = metaProp.name();
+                } else {
+                    propName = input.acceptObjectKey(event);
+                    metaProp = deser.findMetaProperty(beanType, metaBean, propName);
+                }
+                if (metaProp == null || (projection != null && projection.includes(metaProp.name()) == false)) {
+                    skipData(input.readEvent());
                 } else {
+                    SerProjection parent = projection;
+                    projection = (parent != null ? parent.child(metaProp.name()) : null);
                     Object value = parseObject(input.readEvent(),
                             SerOptional.extractType(metaProp, beanType), metaProp, beanType, null, false);
+                    projection = parent;
                     deser.setValue(builder, metaProp, SerOptional.wrapValue(metaProp, beanType, value));
                 }
                 propName = "";
@@ -171,6 +461,19 @@ public class JodaBeanJsonReader {
         }
     }
 
+    // skips a value, registering any types so that later abbreviations of them can be decoded
+    private void skipData(JsonEvent event) throws Exception {
+        skippedTypes.clear();
+        input.skipValue(event, skippedTypes);
+        for (String typeStr : skippedTypes) {
+            try {
+                SerTypeMapper.decodeType(typeStr, settings, basePackage, knownTypes);
+            } catch (ClassNotFoundException ex) {
+                // ignore, as the type is not needed unless it is used again
+            }
+        }
+    }
+
     // parse object, event passed in
     private Object parseObject(
             JsonEvent event,
@@ -16,24 +16,33 @@
 package org.joda.beans.ser.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.joda.beans.Bean;
+import org.joda.beans.DynamicBean;
 import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.MetaBean;
 import org.joda.beans.MetaProperty;
 import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerBeanPlan;
 import org.joda.beans.ser.SerCategory;
 import org.joda.beans.ser.SerIterator;
-import org.joda.beans.ser.SerOptional;
 import org.joda.beans.ser.SerTypeMapper;
+import org.joda.beans.ser.Utf8Appendable;
+import org.joda.beans.ser.WriterAppendable;
 import org.joda.convert.StringConverter;
 
 /**
  * Provides the ability for a Joda-Bean to be written to JSON.
  * <p>
  * This class contains mutable state and cannot be used from multiple threads.
- * A new instance must be created for each message.
+ * An instance may be reused for many messages, reusing its buffers.
  * <p>
  * The JSON format is kept relatively natural, however some meta-data is added.
  * This has the unfortunate effect of adding an additional object structure to
@@ -62,6 +71,10 @@ import org.joda.convert.StringConverter;
  * <p>
  * Type names are shortened by the package of the root type if possible.
  * Certain basic types are also handled, such as String, Integer, File and URI.
+ * <p>
+ * When writing to an {@code OutputStream} using the {@code writeUtf8} methods, the JSON is encoded directly to UTF-8.
+ * The encoded form of the property names of each meta-bean is cached,
+ * so that the names are only encoded once.
  */
 public class JodaBeanJsonWriter {
 
@@ -81,6 +94,30 @@ public class JodaBeanJsonWriter {
      * JSON value attribute.
      */
     static final String VALUE = "value";
+    /**
+     * JSON bean type attribute, encoded in UTF-8.
+     */
+    private static final byte[] BEAN_UTF8 = JsonOutput.encodeKey(BEAN);
+    /**
+     * JSON simple type attribute, encoded in UTF-8.
+     */
+    private static final byte[] TYPE_UTF8 = JsonOutput.encodeKey(TYPE);
+    /**
+     * JSON meta-type attribute, encoded in UTF-8.
+     */
+    private static final byte[] META_UTF8 = JsonOutput.encodeKey(META);
+    /**
+     * JSON value attribute, encoded in UTF-8.
+     */
+    private static final byte[] VALUE_UTF8 = JsonOutput.encodeKey(VALUE);
+    /**
+     * The serializable property names of each meta-bean encoded in UTF-8, in the order of the meta-properties.
+     */
+    private static final ConcurrentMap<MetaBean, byte[][]> ENCODED_NAMES = new ConcurrentHashMap<MetaBean, byte[][]>();
+    /**
+     * The default size of the buffer used when writing to a stream or writer.
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
 
     /**
      * The settings to use.
@@ -98,6 +135,18 @@ public class JodaBeanJsonWriter {
      * The known types.
      */
     private Map<Class<?>, String> knownTypes = new HashMap<Class<?>, String>();
+    /**
+     * The size of the buffer used when writing to a stream or writer.
+     */
+    private final int bufferSize;
+    /**
+     * The buffer used when writing to a stream, null until used.
+     */
+    private byte[] byteBuffer;
+    /**
+     * The buffer used when writing to a writer, null until used.
+     */
+    private char[] charBuffer;
 
     /**
      * Creates an instance.
@@ -105,8 +154,27 @@ public class JodaBeanJsonWriter {
      * @param settings  the settings to use, not null
      */
     public JodaBeanJsonWriter(final JodaBeanSer settings) {
+        this(settings, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an instance specifying the size of the buffer.
+     * <p>
+     * When writing to an {@code OutputStream} or {@code Writer}, the output is held in a buffer
+     * of this size, which is written to the target each time it fills.
+     * This bounds the memory used, however large the bean, and allows the target to receive
+     * the start of the output before the whole bean is written.
+     * 
+     * @param settings  the settings to use, not null
+     * @param bufferSize  the size of the buffer, in bytes or characters, at least 16
+     */
+    public JodaBeanJsonWriter(final JodaBeanSer settings, final int bufferSize) {
         JodaBeanUtils.notNull(settings, "settings");
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("Buffer size must be at least 16: " + bufferSize);
+        }
         this.settings = settings;
+        this.bufferSize = bufferSize;
     }
 
     //-----------------------------------------------------------------------
@@ -162,10 +230,190 @@ public class JodaBeanJsonWriter {
         JodaBeanUtils.notNull(bean, "bean");
         JodaBeanUtils.notNull(output, "output");
         this.output = new JsonOutput(output, settings.getIndent(), settings.getNewLine());
+        basePackage = null;
+        knownTypes.clear();
         writeBean(bean, bean.getClass(), rootType ? RootType.ROOT_WITH_TYPE : RootType.ROOT_WITHOUT_TYPE);
         output.append(settings.getNewLine());
     }
 
+    /**
+     * Writes the bean to the {@code OutputStream} in UTF-8.
+     * <p>
+     * The type of the bean will be set in the message.
+     * The JSON is encoded directly to bytes, without creating a {@code String}.
+     * The bytes are written in chunks, using a fixed-size buffer.
+     * The stream is flushed but not closed.
+     * 
+     * @param bean  the bean to output, not null
+     * @param output  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    public void writeUtf8(Bean bean, OutputStream output) throws IOException {
+        writeUtf8(bean, true, output);
+    }
+
+    /**
+     * Writes the bean to the {@code OutputStream} in UTF-8 specifying whether to include the type at the root.
+     * <p>
+     * The JSON is encoded directly to bytes, without creating a {@code String}.
+     * The bytes are written in chunks, using a fixed-size buffer.
+     * The stream is flushed but not closed.
+     * 
+     * @param bean  the bean to output, not null
+     * @param rootType  true to output the root type
+     * @param output  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    public void writeUtf8(Bean bean, boolean rootType, OutputStream output) throws IOException {
+        JodaBeanUtils.notNull(output, "output");
+        Utf8Appendable appendable = new Utf8Appendable(output, byteBuffer());
+        write(bean, rootType, appendable);
+        appendable.flush();
+    }
+
+    /**
+     * Writes the bean to the {@code Writer}.
+     * <p>
+     * The type of the bean will be set in the message.
+     * The characters are written in chunks, using a fixed-size buffer.
+     * The writer is flushed but not closed.
+     * 
+     * @param bean  the bean to output, not null
+     * @param output  the output writer, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(Bean bean, Writer output) throws IOException {
+        write(bean, true, output);
+    }
+
+    /**
+     * Writes the bean to the {@code Writer} specifying whether to include the type at the root.
+     * <p>
+     * The characters are written in chunks, using a fixed-size buffer.
+     * The writer is flushed but not closed.
+     * 
+     * @param bean  the bean to output, not null
+     * @param rootType  true to output the root type
+     * @param output  the output writer, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(Bean bean, boolean rootType, Writer output) throws IOException {
+        JodaBeanUtils.notNull(output, "output");
+        WriterAppendable appendable = new WriterAppendable(output, charBuffer());
+        write(bean, rootType, appendable);
+        appendable.flush();
+    }
+
+    // the buffer to use when writing to a stream
+    private byte[] byteBuffer() {
+        if (byteBuffer == null) {
+            byteBuffer = new byte[bufferSize];
+        }
+        return byteBuffer;
+    }
+
+    // the buffer to use when writing to a writer
+    private char[] charBuffer() {
+        if (charBuffer == null) {
+            charBuffer = new char[bufferSize];
+        }
+        return charBuffer;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Writes the beans to the {@code Appendable} as a JSON array.
+     * <p>
+     * Each bean is written as it is obtained from the iterator, thus the beans
+     * do not need to be held in memory. Each bean is written independently with
+     * the type set, as though it were a separate message.
+     * The array can be read lazily using {@link JodaBeanJsonReader#readArray(java.io.Reader, Class)}.
+     * 
+     * @param beans  the beans to output, not null
+     * @param output  the output appendable, not null
+     * @throws IOException if an error occurs
+     */
+    public void writeArray(Iterator<? extends Bean> beans, Appendable output) throws IOException {
+        JodaBeanUtils.notNull(beans, "beans");
+        JodaBeanUtils.notNull(output, "output");
+        this.output = new JsonOutput(output, settings.getIndent(), settings.getNewLine());
+        this.output.writeArrayStart();
+        while (beans.hasNext()) {
+            Bean bean = beans.next();
+            JodaBeanUtils.notNull(bean, "bean");
+            this.output.writeArrayItemStart();
+            writeStreamedBean(bean);
+        }
+        this.output.writeArrayEnd();
+        output.append(settings.getNewLine());
+    }
+
+    /**
+     * Writes the beans to the {@code OutputStream} in UTF-8 as a JSON array.
+     * <p>
+     * See {@link #writeArray(Iterator, Appendable)}.
+     * The stream is flushed but not closed.
+     * 
+     * @param beans  the beans to output, not null
+     * @param output  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    public void writeArrayUtf8(Iterator<? extends Bean> beans, OutputStream output) throws IOException {
+        JodaBeanUtils.notNull(output, "output");
+        Utf8Appendable appendable = new Utf8Appendable(output, byteBuffer());
+        writeArray(beans, appendable);
+        appendable.flush();
+    }
+
+    /**
+     * Writes the beans to the {@code Appendable} as newline-delimited JSON, also known as JSON Lines.
+     * <p>
+     * Each bean is written on a single line in compact format, whatever the settings.
+     * Each bean is written as it is obtained from the iterator, thus the beans
+     * do not need to be held in memory. Each bean is written independently with
+     * the type set, as though it were a separate message.
+     * The beans can be read lazily using {@link JodaBeanJsonReader#readLines(java.io.Reader, Class)}.
+     * 
+     * @param beans  the beans to output, not null
+     * @param output  the output appendable, not null
+     * @throws IOException if an error occurs
+     */
+    public void writeLines(Iterator<? extends Bean> beans, Appendable output) throws IOException {
+        JodaBeanUtils.notNull(beans, "beans");
+        JodaBeanUtils.notNull(output, "output");
+        this.output = new JsonOutput(output);
+        while (beans.hasNext()) {
+            Bean bean = beans.next();
+            JodaBeanUtils.notNull(bean, "bean");
+            writeStreamedBean(bean);
+            output.append('\n');
+        }
+    }
+
+    /**
+     * Writes the beans to the {@code OutputStream} in UTF-8 as newline-delimited JSON.
+     * <p>
+     * See {@link #writeLines(Iterator, Appendable)}.
+     * The stream is flushed but not closed.
+     * 
+     * @param beans  the beans to output, not null
+     * @param output  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    public void writeLinesUtf8(Iterator<? extends Bean> beans, OutputStream output) throws IOException {
+        JodaBeanUtils.notNull(output, "output");
+        Utf8Appendable appendable = new Utf8Appendable(output, byteBuffer());
+        writeLines(beans, appendable);
+        appendable.flush();
+    }
+
+    // write one of a stream of beans, independently of the others
+    private void writeStreamedBean(Bean bean) throws IOException {
+        basePackage = null;
+        knownTypes.clear();
+        writeBean(bean, bean.getClass(), RootType.ROOT_WITH_TYPE);
+    }
+
     //-----------------------------------------------------------------------
     // write a bean as a JSON object
     private void writeBean(Bean bean, Class<?> declaredType, RootType rootTypeFlag) throws IOException {
@@ -176,28 +424,34 @@ public class JodaBeanJsonWriter {
             if (rootTypeFlag == RootType.ROOT_WITH_TYPE) {
                 basePackage = bean.getClass().getPackage().getName() + ".";
             }
-            output.writeObjectKeyValue(BEAN, typeStr);
+            output.writeObjectKey(BEAN, BEAN_UTF8);
+            output.writeString(typeStr);
         }
         // property information
-        for (MetaProperty<?> prop : bean.metaBean().metaPropertyIterable()) {
-            if (prop.style().isSerializable()) {
-                Object value = SerOptional.extractValue(prop, bean);
-                if (value != null) {
+        SerBeanPlan plan = SerBeanPlan.of(bean);
+        byte[][] encodedNames = (output.isUtf8() && bean instanceof DynamicBean == false ? encodedNames(bean.metaBean(), plan) : null);
+        for (int i = 0; i < plan.size(); i++) {
+            Object value = plan.getValue(i, bean);
+            if (value != null) {
+                MetaProperty<?> prop = plan.getProperty(i);
+                if (encodedNames != null) {
+                    output.writeObjectKey(prop.name(), encodedNames[i]);
+                } else {
                     output.writeObjectKey(prop.name());
-                    Class<?> propType = SerOptional.extractType(prop, bean.getClass());
-                    if (value instanceof Bean) {
-                        if (settings.getConverter().isConvertible(value.getClass())) {
-                            writeSimple(propType, value);
-                        } else {
-                            writeBean((Bean) value, propType, RootType.NOT_ROOT);
-                        }
+                }
+                Class<?> propType = plan.getPropertyType(i);
+                if (value instanceof Bean) {
+                    if (settings.getConverter().isConvertible(value.getClass())) {
+                        writeSimple(propType, value);
+                    } else {
+                        writeBean((Bean) value, propType, RootType.NOT_ROOT);
+                    }
+                } else {
+                    SerIterator itemIterator = settings.getIteratorFactory().create(value, prop, bean.getClass());
+                    if (itemIterator != null) {
+                        writeElements(itemIterator);
                     } else {
-                        SerIterator itemIterator = settings.getIteratorFactory().create(value, prop, bean.getClass());
-                        if (itemIterator != null) {
-                            writeElements(itemIterator);
-                        } else {
-                            writeSimple(propType, value);
-                        }
+                        writeSimple(propType, value);
                     }
                 }
             }
@@ -205,13 +459,27 @@ public class JodaBeanJsonWriter {
         output.writeObjectEnd();
     }
 
+    // gets the encoded names of the serializable properties of the meta-bean, in the order of the plan, caching the result
+    private static byte[][] encodedNames(MetaBean metaBean, SerBeanPlan plan) {
+        byte[][] encoded = ENCODED_NAMES.get(metaBean);
+        if (encoded == null) {
+            encoded = new byte[plan.size()][];
+            for (int i = 0; i < plan.size(); i++) {
+                encoded[i] = JsonOutput.encodeKey(plan.getProperty(i).name());
+            }
+            ENCODED_NAMES.putIfAbsent(metaBean, encoded);
+        }
+        return encoded;
+    }
+
     //-----------------------------------------------------------------------
     // write a collection
     private void writeElements(SerIterator itemIterator) throws IOException {
         if (itemIterator.metaTypeRequired()) {
             output.writeObjectStart();
-            output.writeObjectKeyValue(META, itemIterator.metaTypeName());
-            output.writeObjectKey(VALUE);
+            output.writeObjectKey(META, META_UTF8);
+            output.writeString(itemIterator.metaTypeName());
+            output.writeObjectKey(VALUE, VALUE_UTF8);
         }
         if (itemIterator.category() == SerCategory.MAP) {
             writeMap(itemIterator);
@@ -393,8 +661,9 @@ public class JodaBeanJsonWriter {
                 effectiveType = settings.getConverter().findTypedConverter(realType).getEffectiveType();
                 String typeStr = SerTypeMapper.encodeType(effectiveType, settings, basePackage, knownTypes);
                 output.writeObjectStart();
-                output.writeObjectKeyValue(TYPE, typeStr);
-                output.writeObjectKey(VALUE);
+                output.writeObjectKey(TYPE, TYPE_UTF8);
+                output.writeString(typeStr);
+                output.writeObjectKey(VALUE, VALUE_UTF8);
                 requiresClose = true;
             } else {
                 effectiveType = realType;
@@ -403,8 +672,9 @@ public class JodaBeanJsonWriter {
             effectiveType = settings.getConverter().findTypedConverter(realType).getEffectiveType();
             String typeStr = SerTypeMapper.encodeType(effectiveType, settings, basePackage, knownTypes);
             output.writeObjectStart();
-            output.writeObjectKeyValue(TYPE, typeStr);
-            output.writeObjectKey(VALUE);
+            output.writeObjectKey(TYPE, TYPE_UTF8);
+            output.writeString(typeStr);
+            output.writeObjectKey(VALUE, VALUE_UTF8);
             requiresClose = true;
         }
         
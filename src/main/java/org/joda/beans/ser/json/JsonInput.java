@@ -17,12 +17,40 @@ package org.joda.beans.ser.json;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.List;
+
+import org.joda.beans.MetaProperty;
+import org.joda.beans.ser.SerPropertyTable;
 
 /**
  * Reader of JSON data.
+ * <p>
+ * The input is read in blocks into an internal buffer, which is scanned directly.
+ * Object keys are cached, so that a key that occurs repeatedly, such as a property name,
+ * is only converted to a {@code String} once.
+ * Numbers are parsed from their digits where the result is exact, without creating a {@code String}.
  */
 final class JsonInput {
 
+    /**
+     * The size of the block read from the input.
+     */
+    private static final int BLOCK_SIZE = 8192;
+    /**
+     * The number of entries in the object key cache, a power of two.
+     */
+    private static final int KEY_CACHE_SIZE = 256;
+    /**
+     * The maximum length of an object key that is cached.
+     */
+    private static final int KEY_CACHE_MAX_LENGTH = 64;
+    /**
+     * The powers of ten that are exactly representable as a double.
+     */
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
     /** encoding JSON */
     private static final String[] REPLACE = new String[128];
     static {
@@ -43,6 +71,22 @@ final class JsonInput {
      * The reader.
      */
     private final Reader input;
+    /**
+     * The block of characters read from the input.
+     */
+    private final char[] block = new char[BLOCK_SIZE];
+    /**
+     * The position of the next character in the block.
+     */
+    private int pos;
+    /**
+     * The number of valid characters in the block.
+     */
+    private int limit;
+    /**
+     * The cache of object keys, indexed by hash.
+     */
+    private final String[] keyCache = new String[KEY_CACHE_SIZE];
     /**
      * The reused string buffer.
      */
@@ -56,9 +100,9 @@ final class JsonInput {
      */
     private double floating;
     /**
-     * The previously read character.
+     * The previously read character, -1 if none.
      */
-    private Character cachedNext;
+    private int cachedNext = -1;
     /**
      * The previously read object key.
      */
@@ -129,6 +173,17 @@ final class JsonInput {
         cachedNext = ch;
     }
 
+    // skips a string, opening quote already consumed
+    private void skipString() throws IOException {
+        char next = readNext();
+        while (next != '"') {
+            if (next == '\\') {
+                readNext();
+            }
+            next = readNext();
+        }
+    }
+
     // store peeked value for later use
     void pushBackObjectKey(String objectKey) throws IOException {
         cachedObjectKey = objectKey;
@@ -152,6 +207,39 @@ final class JsonInput {
         return parseObjectKey();
     }
 
+    // expect object key and match it directly against the table of properties
+    // if not matched, null is returned and the key is retained for parseObjectKey()
+    MetaProperty<?> acceptObjectKey(JsonEvent event, SerPropertyTable table) throws IOException {
+        ensureEvent(event, JsonEvent.STRING);
+        if (cachedObjectKey != null) {
+            MetaProperty<?> metaProp = table.find(cachedObjectKey);
+            if (metaProp != null) {
+                cachedObjectKey = null;
+            }
+            return metaProp;
+        }
+        if (cachedNext < 0) {
+            // fast path, key wholly within the block without escapes
+            for (int i = pos; i < limit; i++) {
+                char ch = block[i];
+                if (ch == '"') {
+                    MetaProperty<?> metaProp = table.find(block, pos, i - pos);
+                    if (metaProp != null) {
+                        pos = i + 1;
+                        acceptEvent(JsonEvent.COLON);
+                        return metaProp;
+                    }
+                    break;
+                }
+                if (ch == '\\') {
+                    break;
+                }
+            }
+        }
+        cachedObjectKey = parseObjectKey();
+        return null;
+    }
+
     // opening quite already consumed
     String parseObjectKey() throws IOException {
         if (cachedObjectKey != null) {
@@ -159,11 +247,50 @@ final class JsonInput {
             cachedObjectKey = null;
             return key;
         }
-        String str = parseString();
+        String str = parseKey();
         acceptEvent(JsonEvent.COLON);
         return str;
     }
 
+    // parses a key, using the cache to avoid creating a string if possible
+    private String parseKey() throws IOException {
+        if (cachedNext < 0) {
+            // fast path, key wholly within the block without escapes
+            int start = pos;
+            int hash = 0;
+            for (int i = start; i < limit && i - start <= KEY_CACHE_MAX_LENGTH; i++) {
+                char ch = block[i];
+                if (ch == '"') {
+                    pos = i + 1;
+                    return cachedKey(start, i - start, hash);
+                }
+                if (ch == '\\') {
+                    break;
+                }
+                hash = 31 * hash + ch;
+            }
+        }
+        return parseString();
+    }
+
+    // finds the key in the cache, adding it if necessary
+    private String cachedKey(int start, int length, int hash) {
+        int index = (hash ^ (hash >>> 16)) & (KEY_CACHE_SIZE - 1);
+        String cached = keyCache[index];
+        if (cached != null && cached.length() == length) {
+            int i = 0;
+            while (i < length && cached.charAt(i) == block[start + i]) {
+                i++;
+            }
+            if (i == length) {
+                return cached;
+            }
+        }
+        String key = new String(block, start, length);
+        keyCache[index] = key;
+        return key;
+    }
+
     //-----------------------------------------------------------------------
     // expect string and parse it
     String acceptString() throws IOException {
@@ -173,6 +300,20 @@ final class JsonInput {
 
     // opening quite already consumed
     String parseString() throws IOException {
+        if (cachedNext < 0) {
+            // fast path, string wholly within the block without escapes
+            for (int i = pos; i < limit; i++) {
+                char ch = block[i];
+                if (ch == '"') {
+                    String str = new String(block, pos, i - pos);
+                    pos = i + 1;
+                    return str;
+                }
+                if (ch == '\\') {
+                    break;
+                }
+            }
+        }
         buf.setLength(0);
         char next = readNext();
         while (next != '"') {
@@ -264,13 +405,20 @@ final class JsonInput {
         if (last < '0' || last > '9') {
             throw new IllegalArgumentException("Invalid JSON data: Expected number but found invalid last char '" + last + "'");
         }
+        if (first == '0') {
+            if (buf.length() == 1) {
+                integral = 0;
+                return JsonEvent.NUMBER_INTEGRAL;
+            } else if (buf.charAt(1) != '.') {
+                throw new IllegalArgumentException("Invalid JSON data: Expected number but found zero at start");
+            }
+        }
+        JsonEvent event = parseNumber();
+        if (event != null) {
+            return event;
+        }
         String str = buf.toString();
-        if (str.equals("0")) {
-            integral = 0;
-            return JsonEvent.NUMBER_INTEGRAL;
-        } else if (str.startsWith("0") && str.charAt(1) != '.') {
-            throw new IllegalArgumentException("Invalid JSON data: Expected number but found zero at start");
-        } else if (str.contains(".") || str.contains("e") || str.contains("E")) {
+        if (str.contains(".") || str.contains("e") || str.contains("E")) {
             floating = Double.parseDouble(str);
             return JsonEvent.NUMBER_FLOATING;
         } else {
@@ -279,6 +427,81 @@ final class JsonInput {
         }
     }
 
+    // parses the number in the buffer from its digits, returning null if it cannot be parsed exactly
+    // a floating value is exact if the digits fit in a double and the power of ten is exact
+    private JsonEvent parseNumber() {
+        int length = buf.length();
+        int index = (buf.charAt(0) == '-' ? 1 : 0);
+        long mantissa = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean isFloating = false;
+        // integer part
+        int start = index;
+        char ch;
+        while (index < length && (ch = buf.charAt(index)) >= '0' && ch <= '9') {
+            mantissa = mantissa * 10 + (ch - '0');
+            significant += (mantissa != 0 ? 1 : 0);
+            index++;
+        }
+        if (index == start || significant > 18) {
+            return null;
+        }
+        // fraction
+        if (index < length && buf.charAt(index) == '.') {
+            isFloating = true;
+            start = ++index;
+            while (index < length && (ch = buf.charAt(index)) >= '0' && ch <= '9' && significant <= 18) {
+                mantissa = mantissa * 10 + (ch - '0');
+                significant += (mantissa != 0 ? 1 : 0);
+                scale++;
+                index++;
+            }
+            if (index == start) {
+                return null;
+            }
+        }
+        // exponent
+        if (index < length && ((ch = buf.charAt(index)) == 'e' || ch == 'E')) {
+            isFloating = true;
+            index++;
+            boolean negativeExponent = false;
+            if (index < length && ((ch = buf.charAt(index)) == '+' || ch == '-')) {
+                negativeExponent = (ch == '-');
+                index++;
+            }
+            start = index;
+            int exponent = 0;
+            while (index < length && (ch = buf.charAt(index)) >= '0' && ch <= '9' && exponent < 1000) {
+                exponent = exponent * 10 + (ch - '0');
+                index++;
+            }
+            if (index == start) {
+                return null;
+            }
+            scale += (negativeExponent ? exponent : -exponent);
+        }
+        if (index != length) {
+            return null;
+        }
+        boolean negative = (buf.charAt(0) == '-');
+        if (isFloating == false) {
+            integral = (negative ? -mantissa : mantissa);
+            return JsonEvent.NUMBER_INTEGRAL;
+        }
+        if (significant > 15 || scale > 22 || scale < -22) {
+            return null;
+        }
+        double value = (double) mantissa;
+        if (scale > 0) {
+            value = value / POW10[scale];
+        } else if (scale < 0) {
+            value = value * POW10[-scale];
+        }
+        floating = (negative ? -value : value);
+        return JsonEvent.NUMBER_FLOATING;
+    }
+
     //-----------------------------------------------------------------------
     private JsonEvent acceptNull() throws IOException {
         acceptChar('u');
@@ -311,23 +534,60 @@ final class JsonInput {
 
     //-----------------------------------------------------------------------
     private char readNext() throws IOException {
-        if (cachedNext != null) {
-            char next = cachedNext.charValue();
-            cachedNext = null;
+        if (cachedNext >= 0) {
+            char next = (char) cachedNext;
+            cachedNext = -1;
             return next;
         }
-        int next = input.read();
-        if (next == -1) {
+        if (pos == limit) {
+            fill();
+        }
+        return block[pos++];
+    }
+
+    // reads the next block from the input
+    private void fill() throws IOException {
+        if (fillOrEnd() == false) {
             throw new IllegalArgumentException("Invalid JSON data: End of file");
         }
-        return (char) next;
+    }
+
+    // reads the next block from the input, returning false at the end of the input
+    private boolean fillOrEnd() throws IOException {
+        int count = input.read(block, 0, BLOCK_SIZE);
+        while (count == 0) {
+            count = input.read(block, 0, BLOCK_SIZE);
+        }
+        if (count < 0) {
+            return false;
+        }
+        pos = 0;
+        limit = count;
+        return true;
+    }
+
+    // skips whitespace, returning false if the end of the input has been reached
+    boolean hasMoreData() throws IOException {
+        if (cachedNext >= 0) {
+            return true;
+        }
+        while (true) {
+            if (pos == limit && fillOrEnd() == false) {
+                return false;
+            }
+            char next = block[pos];
+            if (next != ' ' && next != '\t' && next != '\n' && next != '\r') {
+                return true;
+            }
+            pos++;
+        }
     }
 
     void skipData() throws IOException {
         skipData(readEvent());
     }
 
-    private void skipData(JsonEvent event) throws IOException {
+    void skipData(JsonEvent event) throws IOException {
         switch (event) {
             case OBJECT:
                 event = readEvent();
@@ -345,7 +605,7 @@ final class JsonInput {
                 }
                 break;
             case STRING:
-                parseString();
+                skipString();
                 break;
             case NULL:
             case TRUE:
@@ -358,6 +618,83 @@ final class JsonInput {
         }
     }
 
+    /**
+     * Skips a value without tokenizing it, collecting the types it declares.
+     * <p>
+     * Objects and arrays are skipped by scanning the characters, tracking only the depth
+     * of nesting and whether the scan is within a string. Numbers and keys are not parsed.
+     * As such, the structure of the skipped value is not validated.
+     * <p>
+     * The value of each '@bean' or '@type' key is added to the list, in the order found,
+     * allowing the caller to register types that are abbreviated later in the input.
+     *
+     * @param event  the first event of the value, not null
+     * @param typeNames  the list to add the declared type names to, not null
+     * @throws IOException if an error occurs
+     */
+    void skipValue(JsonEvent event, List<String> typeNames) throws IOException {
+        if (event != JsonEvent.OBJECT && event != JsonEvent.ARRAY) {
+            skipData(event);
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            char next = readNext();
+            switch (next) {
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    break;
+                case '"':
+                    skipStringCollectingType(typeNames);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    // skips a string, opening quote already consumed, collecting the value if the string is a type key
+    private void skipStringCollectingType(List<String> typeNames) throws IOException {
+        char next = readNext();
+        if (next != '@') {
+            // not a type key, the common case
+            while (next != '"') {
+                if (next == '\\') {
+                    readNext();
+                }
+                next = readNext();
+            }
+            return;
+        }
+        pushBack(next);
+        String str = parseString();
+        if (str.equals(JodaBeanJsonWriter.BEAN) || str.equals(JodaBeanJsonWriter.TYPE)) {
+            next = readNextNonWhitespace();
+            if (next == ':') {
+                next = readNextNonWhitespace();
+                if (next == '"') {
+                    typeNames.add(parseString());
+                    return;
+                }
+            }
+            pushBack(next);
+        }
+    }
+
+    // reads the next character that is not whitespace
+    private char readNextNonWhitespace() throws IOException {
+        char next = readNext();
+        while (next == ' ' || next == '\t' || next == '\n' || next == '\r') {
+            next = readNext();
+        }
+        return next;
+    }
+
     //-----------------------------------------------------------------------
     // accepts a comma or object end
     JsonEvent acceptObjectSeparator() throws IOException {
@@ -16,8 +16,11 @@
 package org.joda.beans.ser.json;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.BitSet;
 
+import org.joda.beans.ser.Utf8Appendable;
+
 /**
  * Outputter for JSON data.
  */
@@ -39,10 +42,23 @@ final class JsonOutput {
         REPLACE[127] = "\\u007f";
     }
 
+    /**
+     * The UTF-8 encoding.
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    /**
+     * The powers of ten used to write decimals directly.
+     */
+    private static final double[] POW10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8};
+
     /**
      * The appender to write to.
      */
     private final Appendable output;
+    /**
+     * The appender to write to, if it encodes UTF-8 directly, otherwise null.
+     */
+    private final Utf8Appendable utf8Output;
     /**
      * The indent amount.
      */
@@ -63,6 +79,10 @@ final class JsonOutput {
      * The comma state.
      */
     private BitSet commaState = new BitSet(64);
+    /**
+     * The reused buffer for the digits of a number.
+     */
+    private final char[] digits = new char[24];
 
     /**
      * Creates an instance that outputs in compact format.
@@ -82,10 +102,35 @@ final class JsonOutput {
      */
     JsonOutput(Appendable output, String indent, String newLine) {
         this.output = output;
+        this.utf8Output = (output instanceof Utf8Appendable ? (Utf8Appendable) output : null);
         this.indent = indent;
         this.newLine = newLine;
     }
 
+    /**
+     * Encodes an object key as a JSON string in UTF-8, including the quotes.
+     * 
+     * @param key  the key to encode, not null
+     * @return the encoded key, not null
+     */
+    static byte[] encodeKey(String key) {
+        StringBuilder buf = new StringBuilder(key.length() + 2);
+        try {
+            new JsonOutput(buf).writeString(key);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return buf.toString().getBytes(UTF_8);
+    }
+
+    /**
+     * Checks if the output is encoded directly to UTF-8, allowing encoded keys to be used.
+     * 
+     * @return true if writing UTF-8 bytes
+     */
+    boolean isUtf8() {
+        return utf8Output != null;
+    }
     //-----------------------------------------------------------------------
     /**
      * Writes a JSON null.
@@ -121,18 +166,33 @@ final class JsonOutput {
         if ((value & 0xfffffff8) == 0) {
             output.append((char) (value + 48));
         } else {
-            output.append(Integer.toString(value));
+            writeLong(value);
         }
     }
 
     /**
      * Writes a JSON long.
+     * <p>
+     * The digits are written directly, without creating a {@code String}.
      * 
      * @param value  the value
      * @throws IOException if an error occurs
      */
     void writeLong(long value) throws IOException {
-        output.append(Long.toString(value));
+        if (value == Long.MIN_VALUE) {
+            output.append(Long.toString(value));
+            return;
+        }
+        int pos = digits.length;
+        long remaining = Math.abs(value);
+        do {
+            digits[--pos] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            digits[--pos] = '-';
+        }
+        writeDigits(pos);
     }
 
     /**
@@ -155,6 +215,12 @@ final class JsonOutput {
      * Writes a JSON double.
      * <p>
      * This outputs the values of NaN, and Infinity as strings.
+     * <p>
+     * A value whose magnitude is at least 0.001 and less than 10,000,000 is written directly,
+     * without creating a {@code String}, if a decimal with at most 8 decimal places
+     * parses back to the same value. The fewest decimal places that do so are used.
+     * Zero is also written directly.
+     * All other values are written using {@link Double#toString(double)}.
      * 
      * @param value  the value
      * @throws IOException if an error occurs
@@ -162,11 +228,56 @@ final class JsonOutput {
     void writeDouble(double value) throws IOException {
         if (Double.isNaN(value) || Double.isInfinite(value)) {
             output.append('"').append(Double.toString(value)).append('"');
-        } else {
+        } else if (writeDecimal(value) == false) {
             output.append(Double.toString(value));
         }
     }
 
+    // writes a double in plain decimal form, returning false if it cannot be written directly
+    // this handles the range written in plain form by Double.toString() with up to 8 decimal places
+    private boolean writeDecimal(double value) throws IOException {
+        if (value == 0) {
+            output.append(1 / value < 0 ? "-0.0" : "0.0");
+            return true;
+        }
+        double abs = Math.abs(value);
+        if (abs < 1e-3 || abs >= 1e7) {
+            return false;
+        }
+        for (int scale = 0; scale < POW10.length; scale++) {
+            // the division is exact to the nearest double, so equality means the decimal parses to the value
+            long mantissa = (long) Math.rint(abs * POW10[scale]);
+            if (mantissa / POW10[scale] == abs) {
+                int pos = digits.length;
+                for (int i = 0; i < scale; i++) {
+                    digits[--pos] = (char) ('0' + mantissa % 10);
+                    mantissa /= 10;
+                }
+                if (scale == 0) {
+                    digits[--pos] = '0';
+                }
+                digits[--pos] = '.';
+                do {
+                    digits[--pos] = (char) ('0' + mantissa % 10);
+                    mantissa /= 10;
+                } while (mantissa != 0);
+                if (value < 0) {
+                    digits[--pos] = '-';
+                }
+                writeDigits(pos);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // writes the digits from the position to the end of the buffer
+    private void writeDigits(int pos) throws IOException {
+        for (int i = pos; i < digits.length; i++) {
+            output.append(digits[i]);
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Writes a JSON string.
@@ -256,6 +367,29 @@ final class JsonOutput {
      * @throws IOException if an error occurs
      */
     void writeObjectKey(String key) throws IOException {
+        writeObjectKeyStart();
+        writeString(key);
+        writeObjectKeyEnd();
+    }
+
+    /**
+     * Writes a JSON object key, using the pre-encoded form if writing UTF-8.
+     * 
+     * @param key  the item key
+     * @param encodedKey  the key encoded by {@link #encodeKey(String)}
+     * @throws IOException if an error occurs
+     */
+    void writeObjectKey(String key, byte[] encodedKey) throws IOException {
+        writeObjectKeyStart();
+        if (utf8Output != null) {
+            utf8Output.appendEncoded(encodedKey);
+        } else {
+            writeString(key);
+        }
+        writeObjectKeyEnd();
+    }
+
+    private void writeObjectKeyStart() throws IOException {
         if (commaState.get(commaDepth)) {
             output.append(',');
         } else {
@@ -263,7 +397,9 @@ final class JsonOutput {
         }
         output.append(newLine);
         output.append(currentIndent);
-        writeString(key);
+    }
+
+    private void writeObjectKeyEnd() throws IOException {
         output.append(':');
         if (newLine.length() > 0) {
             output.append(' ');
@@ -0,0 +1,232 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+/**
+ * Reader that decodes UTF-8 bytes directly.
+ * <p>
+ * The bytes are decoded straight into the array of the caller, with a fast path
+ * for ASCII, avoiding the overhead of a {@code CharsetDecoder}.
+ * Malformed input is decoded as the replacement character U+FFFD.
+ */
+final class Utf8Reader extends Reader {
+
+    /**
+     * The size of the buffer used when reading from a stream.
+     */
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * The replacement character.
+     */
+    private static final char REPLACEMENT = '\ufffd';
+
+    /**
+     * The input stream, null if reading from a buffer.
+     */
+    private final InputStream stream;
+    /**
+     * The input buffer, null if reading from a stream or array.
+     */
+    private final ByteBuffer source;
+    /**
+     * The bytes being decoded.
+     */
+    private final byte[] bytes;
+    /**
+     * The position of the next byte.
+     */
+    private int pos;
+    /**
+     * The limit of the valid bytes.
+     */
+    private int limit;
+    /**
+     * The low surrogate awaiting output, zero if none.
+     */
+    private char lowSurrogate;
+
+    /**
+     * Creates an instance reading from an array.
+     *
+     * @param input  the input bytes, not null
+     * @param offset  the offset of the first byte
+     * @param length  the number of bytes
+     */
+    Utf8Reader(byte[] input, int offset, int length) {
+        this.stream = null;
+        this.source = null;
+        this.bytes = input;
+        this.pos = offset;
+        this.limit = offset + length;
+    }
+
+    /**
+     * Creates an instance reading from a stream.
+     *
+     * @param input  the input stream, not null
+     */
+    Utf8Reader(InputStream input) {
+        this.stream = input;
+        this.source = null;
+        this.bytes = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Creates an instance reading from the position to the limit of a buffer.
+     * <p>
+     * A heap buffer is read in place. Otherwise, the bytes are copied in blocks.
+     * The position of the buffer is advanced as it is read.
+     *
+     * @param input  the input buffer, not null
+     */
+    Utf8Reader(ByteBuffer input) {
+        this.stream = null;
+        if (input.hasArray()) {
+            this.source = null;
+            this.bytes = input.array();
+            this.pos = input.arrayOffset() + input.position();
+            this.limit = input.arrayOffset() + input.limit();
+            input.position(input.limit());
+        } else {
+            this.source = input;
+            this.bytes = new byte[BUFFER_SIZE];
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int out = off;
+        int end = off + len;
+        if (lowSurrogate != 0) {
+            cbuf[out++] = lowSurrogate;
+            lowSurrogate = 0;
+        }
+        while (out < end) {
+            if (pos == limit && fill(0) == false) {
+                break;
+            }
+            // fast path for ASCII
+            int max = Math.min(limit - pos, end - out);
+            int i = 0;
+            while (i < max && bytes[pos + i] >= 0) {
+                cbuf[out + i] = (char) bytes[pos + i];
+                i++;
+            }
+            pos += i;
+            out += i;
+            if (out < end && pos < limit) {
+                out = decode(cbuf, out, end);
+            }
+        }
+        int count = out - off;
+        return (count == 0 ? -1 : count);
+    }
+
+    // decodes a multi-byte sequence at the current position, returning the new output position
+    private int decode(char[] cbuf, int out, int end) throws IOException {
+        int b = bytes[pos] & 0xFF;
+        int size;
+        int codePoint;
+        if (b >= 0xC2 && b <= 0xDF) {
+            size = 2;
+            codePoint = b & 0x1F;
+        } else if (b >= 0xE0 && b <= 0xEF) {
+            size = 3;
+            codePoint = b & 0x0F;
+        } else if (b >= 0xF0 && b <= 0xF4) {
+            size = 4;
+            codePoint = b & 0x07;
+        } else {
+            pos++;
+            cbuf[out++] = REPLACEMENT;
+            return out;
+        }
+        if (limit - pos < size && fill(size) == false && limit - pos < size) {
+            // truncated sequence at the end of the input
+            pos = limit;
+            cbuf[out++] = REPLACEMENT;
+            return out;
+        }
+        for (int i = 1; i < size; i++) {
+            int next = bytes[pos + i] & 0xFF;
+            if ((next & 0xC0) != 0x80) {
+                pos += i;
+                cbuf[out++] = REPLACEMENT;
+                return out;
+            }
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+        pos += size;
+        if ((size == 3 && (codePoint < 0x800 || (codePoint >= 0xD800 && codePoint <= 0xDFFF))) ||
+                (size == 4 && (codePoint < 0x10000 || codePoint > 0x10FFFF))) {
+            cbuf[out++] = REPLACEMENT;
+        } else if (size == 4) {
+            cbuf[out++] = (char) (0xD800 + ((codePoint - 0x10000) >>> 10));
+            char low = (char) (0xDC00 + (codePoint & 0x3FF));
+            if (out < end) {
+                cbuf[out++] = low;
+            } else {
+                lowSurrogate = low;
+            }
+        } else {
+            cbuf[out++] = (char) codePoint;
+        }
+        return out;
+    }
+
+    // reads more bytes, retaining the unread bytes, returning true if at least the required number are available
+    private boolean fill(int required) throws IOException {
+        if (stream == null && source == null) {
+            return false;
+        }
+        int remaining = limit - pos;
+        System.arraycopy(bytes, pos, bytes, 0, remaining);
+        pos = 0;
+        limit = remaining;
+        while (limit < Math.max(required, 1)) {
+            int count;
+            if (stream != null) {
+                count = stream.read(bytes, limit, bytes.length - limit);
+            } else {
+                count = Math.min(source.remaining(), bytes.length - limit);
+                source.get(bytes, limit, count);
+                count = (count == 0 ? -1 : count);
+            }
+            if (count < 0) {
+                return false;
+            }
+            limit += count;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+}
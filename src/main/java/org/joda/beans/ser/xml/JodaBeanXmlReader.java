@@ -15,43 +15,50 @@
  */
 package org.joda.beans.ser.xml;
 
-import static org.joda.beans.ser.xml.JodaBeanXml.BEAN_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.COLS_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.COL_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.COUNT_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.ENTRY_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.ITEM_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.KEY_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.METATYPE_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.NULL_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.ROWS_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.ROW_QNAME;
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.END_DOCUMENT;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+import static org.joda.beans.ser.xml.JodaBeanXml.BEAN;
+import static org.joda.beans.ser.xml.JodaBeanXml.COL;
+import static org.joda.beans.ser.xml.JodaBeanXml.COLS;
+import static org.joda.beans.ser.xml.JodaBeanXml.COUNT;
+import static org.joda.beans.ser.xml.JodaBeanXml.ENTRY;
+import static org.joda.beans.ser.xml.JodaBeanXml.ITEM;
+import static org.joda.beans.ser.xml.JodaBeanXml.KEY;
+import static org.joda.beans.ser.xml.JodaBeanXml.METATYPE;
+import static org.joda.beans.ser.xml.JodaBeanXml.NULL;
+import static org.joda.beans.ser.xml.JodaBeanXml.ROW;
+import static org.joda.beans.ser.xml.JodaBeanXml.ROWS;
 import static org.joda.beans.ser.xml.JodaBeanXml.TYPE;
-import static org.joda.beans.ser.xml.JodaBeanXml.TYPE_QNAME;
 
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 
 import org.joda.beans.Bean;
 import org.joda.beans.BeanBuilder;
+import org.joda.beans.JodaBeanUtils;
 import org.joda.beans.MetaBean;
 import org.joda.beans.MetaProperty;
 import org.joda.beans.ser.JodaBeanSer;
 import org.joda.beans.ser.SerCategory;
 import org.joda.beans.ser.SerDeserializer;
+import org.joda.beans.ser.SerDeserializerHandle;
 import org.joda.beans.ser.SerIterable;
 import org.joda.beans.ser.SerIteratorFactory;
 import org.joda.beans.ser.SerOptional;
+import org.joda.beans.ser.SerProjection;
+import org.joda.beans.ser.SerPropertyTable;
 import org.joda.beans.ser.SerTypeMapper;
 
 /**
@@ -59,6 +66,9 @@ import org.joda.beans.ser.SerTypeMapper;
  * <p>
  * The XML format is defined by {@link JodaBeanXmlWriter}.
  * <p>
+ * A {@link SerProjection} may be specified to only read a subset of the properties.
+ * Properties outside the projection are skipped without being parsed.
+ * <p>
  * This class contains mutable state and cannot be used from multiple threads.
  * A new instance must be created for each message.
  *
@@ -66,6 +76,22 @@ import org.joda.beans.ser.SerTypeMapper;
  */
 public class JodaBeanXmlReader {
 
+    /**
+     * The factory, one per thread as factories are not guaranteed to be thread-safe.
+     * <p>
+     * DTDs and external entities are not supported, so no entities can be expanded,
+     * and the cumulative expansion limit of JDK-8028111 cannot be reached.
+     */
+    private static final ThreadLocal<XMLInputFactory> FACTORY = new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+            XMLInputFactory factory = XMLInputFactory.newFactory();
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            return factory;
+        }
+    };
+
     /**
      * Settings.
      */
@@ -73,7 +99,7 @@ public class JodaBeanXmlReader {
     /**
      * The reader.
      */
-    private XMLEventReader reader;
+    private XMLStreamReader reader;
     /**
      * The base package including the trailing dot.
      */
@@ -82,6 +108,14 @@ public class JodaBeanXmlReader {
      * The known types.
      */
     private Map<String, Class<?>> knownTypes = new HashMap<String, Class<?>>();
+    /**
+     * The projection to apply to the root bean, null to read all properties.
+     */
+    private final SerProjection rootProjection;
+    /**
+     * The projection to apply to the bean being parsed, null to read all properties.
+     */
+    private SerProjection projection;
 
     /**
      * Creates an instance.
@@ -90,6 +124,21 @@ public class JodaBeanXmlReader {
      */
     public JodaBeanXmlReader(final JodaBeanSer settings) {
         this.settings = settings;
+        this.rootProjection = null;
+    }
+
+    /**
+     * Creates an instance that reads a subset of the properties.
+     * 
+     * @param settings  the settings, not null
+     * @param projection  the projection defining the properties to read, not null
+     */
+    public JodaBeanXmlReader(final JodaBeanSer settings, final SerProjection projection) {
+        if (projection == null) {
+            throw new NullPointerException("projection");
+        }
+        this.settings = settings;
+        this.rootProjection = projection;
     }
 
     //-----------------------------------------------------------------------
@@ -136,7 +185,7 @@ public class JodaBeanXmlReader {
     public <T> T read(final InputStream input, Class<T> rootType) {
         try {
             try {
-                reader = factory().createXMLEventReader(input);
+                reader = FACTORY.get().createXMLStreamReader(input);
                 return read(rootType);
             } finally {
                 reader.close();
@@ -169,7 +218,7 @@ public class JodaBeanXmlReader {
     public <T> T read(final Reader input, Class<T> rootType) {
         try {
             try {
-                reader = factory().createXMLEventReader(input);
+                reader = FACTORY.get().createXMLStreamReader(input);
                 return read(rootType);
             } finally {
                 reader.close();
@@ -181,18 +230,135 @@ public class JodaBeanXmlReader {
         }
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * Reads and parses a document containing many beans, returning a lazy iterator.
+     * <p>
+     * The root element of the document is a wrapper of any name, containing a sequence
+     * of 'bean' elements, each of which is in the format written by {@link JodaBeanXmlWriter}.
+     * Each bean is parsed when it is requested from the iterator, thus only one bean
+     * is held in memory at a time, and each is parsed independently.
+     * <p>
+     * The reader is not closed. This instance must not be used for any other purpose
+     * until the iterator has been fully read. The iterator throws an unchecked exception
+     * if the input is invalid.
+     * 
+     * @param <T>  the root type of each bean
+     * @param input  the input reader, not null
+     * @param rootType  the root type of each bean, not null
+     * @return the lazy iterator of beans, not null
+     */
+    public <T> Iterator<T> readChildren(final Reader input, Class<T> rootType) {
+        JodaBeanUtils.notNull(input, "input");
+        JodaBeanUtils.notNull(rootType, "rootType");
+        try {
+            reader = FACTORY.get().createXMLStreamReader(input);
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+        return new BeanIterator<T>(rootType);
+    }
+
     /**
-     * Creates the factory.
+     * Reads and parses a stream containing many beans, returning a lazy iterator.
      * <p>
-     * Recreated each time to avoid JDK-8028111.
+     * See {@link #readChildren(Reader, Class)}. The stream is not closed.
      * 
-     * @return the factory, not null
+     * @param <T>  the root type of each bean
+     * @param input  the input stream, not null
+     * @param rootType  the root type of each bean, not null
+     * @return the lazy iterator of beans, not null
      */
-    private XMLInputFactory factory() {
-        XMLInputFactory factory = XMLInputFactory.newFactory();
-        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
-        return factory;
+    public <T> Iterator<T> readChildren(final InputStream input, Class<T> rootType) {
+        JodaBeanUtils.notNull(input, "input");
+        JodaBeanUtils.notNull(rootType, "rootType");
+        try {
+            reader = FACTORY.get().createXMLStreamReader(input);
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+        return new BeanIterator<T>(rootType);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Iterator that parses one bean at a time from the children of the root element.
+     */
+    private final class BeanIterator<T> implements Iterator<T> {
+        /**
+         * The root type of each bean.
+         */
+        private final Class<T> rootType;
+        /**
+         * Whether the root element has been read.
+         */
+        private boolean started;
+        /**
+         * Whether the end of the root element has been read.
+         */
+        private boolean ended;
+        /**
+         * Whether the reader is at the start element of the next bean.
+         */
+        private boolean atNext;
+
+        BeanIterator(Class<T> rootType) {
+            this.rootType = rootType;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (atNext == false && ended == false) {
+                try {
+                    atNext = advanceToChild();
+                } catch (RuntimeException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+            return atNext;
+        }
+
+        // advances to the start element of the next bean, returning false at the end of the root element
+        private boolean advanceToChild() throws Exception {
+            if (started == false) {
+                started = true;
+                advanceToStartElement();
+            }
+            int event = nextEvent("child ");
+            while (event != START_ELEMENT) {
+                if (event == END_ELEMENT) {
+                    ended = true;
+                    reader.close();
+                    return false;
+                }
+                event = nextEvent("child ");
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (hasNext() == false) {
+                throw new NoSuchElementException();
+            }
+            atNext = false;
+            try {
+                basePackage = null;
+                knownTypes.clear();
+                return parseRoot(rootType);
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
     }
 
     //-----------------------------------------------------------------------
@@ -204,17 +370,29 @@ public class JodaBeanXmlReader {
      * @throws Exception if an error occurs
      */
     private <T> T read(final Class<T> rootType) throws Exception {
-        StartElement start = advanceToStartElement();
-        if (start.getName().equals(BEAN_QNAME) == false) {
-            throw new IllegalArgumentException("Expected root element 'bean' but found '" + start.getName() + "'");
+        advanceToStartElement();
+        return parseRoot(rootType);
+    }
+
+    /**
+     * Parses a bean at the root level, where the type is decoded without a base package.
+     * <p>
+     * The reader must be at the start element of the bean.
+     * 
+     * @param rootType  the root type, not null
+     * @return the bean, not null
+     * @throws Exception if an error occurs
+     */
+    private <T> T parseRoot(final Class<T> rootType) throws Exception {
+        if (isElement(BEAN) == false) {
+            throw new IllegalArgumentException("Expected root element 'bean' but found '" + reader.getName() + "'");
         }
-        Attribute attr = start.getAttributeByName(TYPE_QNAME);
-        if (attr == null && rootType == Bean.class) {
+        String typeStr = reader.getAttributeValue(null, TYPE);
+        if (typeStr == null && rootType == Bean.class) {
             throw new IllegalArgumentException("Root element attribute must specify '" + TYPE + "'");
         }
         Class<?> effectiveType = rootType;
-        if (attr != null) {
-            String typeStr = attr.getValue();
+        if (typeStr != null) {
             effectiveType = SerTypeMapper.decodeType(typeStr, settings, null, knownTypes);
             if (rootType.isAssignableFrom(effectiveType) == false) {
                 throw new IllegalArgumentException("Specified root type is incompatible with XML root type: " + rootType.getName() + " and " + effectiveType.getName());
@@ -224,6 +402,7 @@ public class JodaBeanXmlReader {
             throw new IllegalArgumentException("Root type is not a Joda-Bean: " + effectiveType.getName());
         }
         basePackage = effectiveType.getPackage().getName() + ".";
+        projection = rootProjection;
         Object parsed = parseBean(effectiveType);
         return rootType.cast(parsed);
     }
@@ -239,19 +418,19 @@ public class JodaBeanXmlReader {
     private Object parseBean(final Class<?> beanType) throws Exception {
         String propName = "";
         try {
-            XMLEvent event = null;
+            int event = 0;
             // handle case where whole bean is Joda-Convert string
             if (settings.getConverter().isConvertible(beanType)) {
                 StringBuilder buf = new StringBuilder();
                 while (reader.hasNext()) {
                     event = nextEvent(">btxt ");
-                    if (event.isCharacters()) {
-                        buf.append(event.asCharacters().getData());
-                    } else if (event.isEndElement()) {
+                    if (isCharacters(event)) {
+                        buf.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    } else if (event == END_ELEMENT) {
                         return settings.getConverter().convertFromString(beanType, buf.toString());
-                    } else if (event.isStartElement()) {
+                    } else if (event == START_ELEMENT) {
                         break;  // not serialized via Joda-Convert
-                    } else if (event.isEndDocument()) {
+                    } else if (event == END_DOCUMENT) {
                         throw new IllegalArgumentException("Unexpected end of document");
                     }
                 }
@@ -259,51 +438,60 @@ public class JodaBeanXmlReader {
                 event = nextEvent(">bean ");
             }
             // handle structured bean
-            SerDeserializer deser = settings.getDeserializers().findDeserializer(beanType);
-            MetaBean metaBean = deser.findMetaBean(beanType);
-            BeanBuilder<?> builder = deser.createBuilder(beanType, metaBean);
+            SerDeserializerHandle handle = settings.getDeserializers().findHandle(beanType);
+            SerDeserializer deser = handle.getDeserializer();
+            MetaBean metaBean = handle.getMetaBean();
+            BeanBuilder<?> builder = handle.createBuilder();
+            SerPropertyTable table = SerPropertyTable.of(deser, metaBean);
             // handle beans with structure
-            while (event.isEndElement() == false) {
-                if (event.isStartElement()) {
-                    StartElement start = event.asStartElement();
-                    propName = start.getName().getLocalPart();
-                    MetaProperty<?> metaProp = deser.findMetaProperty(beanType, metaBean, propName);
+            while (event != END_ELEMENT) {
+                if (event == START_ELEMENT) {
+                    propName = reader.getLocalName();
+                    MetaProperty<?> metaProp = (table != null ? table.find(propName) : null);
                     if (metaProp == null) {
+                        metaProp = deser.findMetaProperty(beanType, metaBean, propName);
+                    }
+                    if (metaProp == null || (projection != null && projection.includes(metaProp.name()) == false)) {
+                        registerType();
                         int depth = 0;
                         event = nextEvent(" skip ");
-                        while (event.isEndElement() == false || depth > 0) {
-                            if (event.isStartElement()) {
+                        while (event != END_ELEMENT || depth > 0) {
+                            if (event == START_ELEMENT) {
+                                registerType();
                                 depth++;
-                            } else if (event.isEndElement()) {
+                            } else if (event == END_ELEMENT) {
                                 depth--;
                             }
                             event = nextEvent(" skip ");
                         }
                         // skip elements
                     } else {
-                        Class<?> childType = parseTypeAttribute(start, SerOptional.extractType(metaProp, beanType));
+                        SerProjection parent = projection;
+                        projection = (parent != null ? parent.child(metaProp.name()) : null);
+                        Class<?> childType = parseTypeAttribute(SerOptional.extractType(metaProp, beanType));
                         Object value;
                         if (Bean.class.isAssignableFrom(childType)) {
                             value = parseBean(childType);
                         } else {
                             SerIterable iterable = SerIteratorFactory.INSTANCE.createIterable(metaProp, beanType);
                             if (iterable != null) {
-                                value = parseIterable(start, iterable);
+                                value = parseIterable(iterable);
                             } else {
                                 // metatype
-                                Attribute metaTypeAttr = start.getAttributeByName(METATYPE_QNAME);
-                                if (metaTypeAttr != null) {
-                                    iterable = SerIteratorFactory.INSTANCE.createIterable(metaTypeAttr.getValue(), settings, knownTypes);
+                                String metaTypeStr = reader.getAttributeValue(null, METATYPE);
+                                if (metaTypeStr != null) {
+                                    iterable = SerIteratorFactory.INSTANCE.createIterable(metaTypeStr, settings, knownTypes);
                                     if (iterable == null) {
                                         throw new IllegalArgumentException("Invalid metaType");
                                     }
-                                    value = parseIterable(start, iterable);
+                                    value = parseIterable(iterable);
                                 } else {
                                     String text = advanceAndParseText();
                                     value = settings.getConverter().convertFromString(childType, text);
                                 }
                             }
                         }
+                        projection = parent;
                         deser.setValue(builder, metaProp, SerOptional.wrapValue(metaProp, beanType, value));
                     }
                     propName = "";
@@ -316,83 +504,93 @@ public class JodaBeanXmlReader {
         }
     }
 
+    // registers the type of a skipped element, so that later abbreviations of it can be decoded
+    // reader must be at StartElement
+    private void registerType() {
+        String typeStr = reader.getAttributeValue(null, TYPE);
+        if (typeStr != null) {
+            try {
+                SerTypeMapper.decodeType(typeStr, settings, basePackage, knownTypes);
+            } catch (ClassNotFoundException ex) {
+                // ignore, as the type is not needed unless it is used again
+            }
+        }
+    }
+
     /**
      * Parses to a collection wrapper.
+     * <p>
+     * The reader must be at the start element of the collection.
      * 
      * @param iterable  the iterable builder, not null
      * @return the iterable, not null
      */
-    private Object parseIterable(final StartElement iterableEvent, final SerIterable iterable) throws Exception {
-        Attribute rowsAttr = iterableEvent.getAttributeByName(ROWS_QNAME);
-        Attribute columnsAttr = iterableEvent.getAttributeByName(COLS_QNAME);
-        if (rowsAttr != null && columnsAttr != null) {
-            iterable.dimensions(new int[] {Integer.parseInt(rowsAttr.getValue()), Integer.parseInt(columnsAttr.getValue())});
+    private Object parseIterable(final SerIterable iterable) throws Exception {
+        String rowsStr = reader.getAttributeValue(null, ROWS);
+        String columnsStr = reader.getAttributeValue(null, COLS);
+        if (rowsStr != null && columnsStr != null) {
+            iterable.dimensions(new int[] {Integer.parseInt(rowsStr), Integer.parseInt(columnsStr)});
         }
-        XMLEvent event = nextEvent(">iter ");
-        while (event.isEndElement() == false) {
-            if (event.isStartElement()) {
-                StartElement start = event.asStartElement();
-                QName expectedType = iterable.category() == SerCategory.MAP ? ENTRY_QNAME : ITEM_QNAME;
-                if (start.getName().equals(expectedType) == false) {
-                    throw new IllegalArgumentException("Expected '" + expectedType.getLocalPart() + "' but found '" + start.getName() + "'");
+        int event = nextEvent(">iter ");
+        while (event != END_ELEMENT) {
+            if (event == START_ELEMENT) {
+                String expectedType = iterable.category() == SerCategory.MAP ? ENTRY : ITEM;
+                if (isElement(expectedType) == false) {
+                    throw new IllegalArgumentException("Expected '" + expectedType + "' but found '" + reader.getName() + "'");
                 }
                 int count = 1;
                 Object key = null;
                 Object column = null;
                 Object value = null;
                 if (iterable.category() == SerCategory.COUNTED) {
-                    Attribute countAttr = start.getAttributeByName(COUNT_QNAME);
-                    if (countAttr != null) {
-                        count = Integer.parseInt(countAttr.getValue());
+                    String countStr = reader.getAttributeValue(null, COUNT);
+                    if (countStr != null) {
+                        count = Integer.parseInt(countStr);
                     }
-                    value = parseValue(iterable, start);
+                    value = parseValue(iterable);
                     
                 } else if (iterable.category() == SerCategory.TABLE || iterable.category() == SerCategory.GRID) {
-                    Attribute rowAttr = start.getAttributeByName(ROW_QNAME);
-                    Attribute colAttr = start.getAttributeByName(COL_QNAME);
-                    if (rowAttr == null || colAttr == null) {
+                    String rowStr = reader.getAttributeValue(null, ROW);
+                    String colStr = reader.getAttributeValue(null, COL);
+                    if (rowStr == null || colStr == null) {
                         throw new IllegalArgumentException("Unable to read table as row/col attribute missing");
                     }
-                    String rowStr = rowAttr.getValue();
                     if (iterable.keyType() != null) {
                         key = settings.getConverter().convertFromString(iterable.keyType(), rowStr);
                     } else {
                         key = rowStr;
                     }
-                    String colStr = colAttr.getValue();
                     if (iterable.columnType() != null) {
                         column = settings.getConverter().convertFromString(iterable.columnType(), colStr);
                     } else {
                         column = colStr;
                     }
-                    value = parseValue(iterable, start);
+                    value = parseValue(iterable);
                     
                 } else if (iterable.category() == SerCategory.MAP) {
-                    Attribute keyAttr = start.getAttributeByName(KEY_QNAME);
-                    if (keyAttr != null) {
+                    String keyStr = reader.getAttributeValue(null, KEY);
+                    if (keyStr != null) {
                         // item is value with a key attribute
-                        String keyStr = keyAttr.getValue();
                         if (iterable.keyType() != null) {
                             key = settings.getConverter().convertFromString(iterable.keyType(), keyStr);
                         } else {
                             key = keyStr;
                         }
-                        value = parseValue(iterable, start);
+                        value = parseValue(iterable);
                         
                     } else {
                         // two items nested in this entry
                         event = nextEvent(">>map ");
                         int loop = 0;
-                        while (event.isEndElement() == false) {
-                            if (event.isStartElement()) {
-                                start = event.asStartElement();
-                                if (start.getName().equals(ITEM_QNAME) == false) {
-                                    throw new IllegalArgumentException("Expected 'item' but found '" + start.getName() + "'");
+                        while (event != END_ELEMENT) {
+                            if (event == START_ELEMENT) {
+                                if (isElement(ITEM) == false) {
+                                    throw new IllegalArgumentException("Expected 'item' but found '" + reader.getName() + "'");
                                 }
                                 if (key == null) {
-                                    key = parseKey(iterable, start);
+                                    key = parseKey(iterable);
                                 } else {
-                                    value = parseValue(iterable, start);
+                                    value = parseValue(iterable);
                                 }
                                 loop++;
                             }
@@ -404,7 +602,7 @@ public class JodaBeanXmlReader {
                     }                    
                     
                 } else {  // COLLECTION
-                    value = parseValue(iterable, start);
+                    value = parseValue(iterable);
                 }
                 iterable.add(key, column, value, count);
             }
@@ -413,9 +611,10 @@ public class JodaBeanXmlReader {
         return iterable.build();
     }
 
-    private Object parseKey(final SerIterable iterable, StartElement start) throws Exception {
+    // reader must be at StartElement
+    private Object parseKey(final SerIterable iterable) throws Exception {
         // type
-        Class<?> childType = parseTypeAttribute(start, iterable.keyType());
+        Class<?> childType = parseTypeAttribute(iterable.keyType());
         if (Bean.class.isAssignableFrom(childType) || settings.getConverter().isConvertible(childType)) {
             return parseBean(childType);
         } else {
@@ -423,35 +622,36 @@ public class JodaBeanXmlReader {
         }
     }
 
-    private Object parseValue(final SerIterable iterable, StartElement start) throws Exception {
+    // reader must be at StartElement
+    private Object parseValue(final SerIterable iterable) throws Exception {
         // null
         Object value;
-        Attribute nullAttr = start.getAttributeByName(NULL_QNAME);
-        if (nullAttr != null) {
-            if (nullAttr.getValue().equals("true") == false) {
+        String nullStr = reader.getAttributeValue(null, NULL);
+        if (nullStr != null) {
+            if (nullStr.equals("true") == false) {
                 throw new IllegalArgumentException("Unexpected value for null attribute");
             }
             advanceAndParseText();  // move to end tag and ignore any text
             value = null;
         } else {
             // type
-            Class<?> childType = parseTypeAttribute(start, iterable.valueType());
+            Class<?> childType = parseTypeAttribute(iterable.valueType());
             if (Bean.class.isAssignableFrom(childType)) {
                 value = parseBean(childType);
             } else {
                 // try deep generic parameters
                 SerIterable childIterable = SerIteratorFactory.INSTANCE.createIterable(iterable);
                 if (childIterable != null) {
-                    value = parseIterable(start, childIterable);
+                    value = parseIterable(childIterable);
                 } else {
                     // metatype
-                    Attribute metaTypeAttr = start.getAttributeByName(METATYPE_QNAME);
-                    if (metaTypeAttr != null) {
-                        childIterable = SerIteratorFactory.INSTANCE.createIterable(metaTypeAttr.getValue(), settings, knownTypes);
+                    String metaTypeStr = reader.getAttributeValue(null, METATYPE);
+                    if (metaTypeStr != null) {
+                        childIterable = SerIteratorFactory.INSTANCE.createIterable(metaTypeStr, settings, knownTypes);
                         if (childIterable == null) {
                             throw new IllegalArgumentException("Invalid metaType");
                         }
-                        value = parseIterable(start, childIterable);
+                        value = parseIterable(childIterable);
                     } else {
                         String text = advanceAndParseText();
                         value = settings.getConverter().convertFromString(childType, text);
@@ -463,21 +663,27 @@ public class JodaBeanXmlReader {
     }
 
     //-----------------------------------------------------------------------
-    private Class<?> parseTypeAttribute(final StartElement start, final Class<?> defaultType) throws ClassNotFoundException {
-        Attribute typeAttr = start.getAttributeByName(TYPE_QNAME);
-        if (typeAttr == null) {
+    // reader must be at StartElement
+    private Class<?> parseTypeAttribute(final Class<?> defaultType) throws ClassNotFoundException {
+        String childTypeStr = reader.getAttributeValue(null, TYPE);
+        if (childTypeStr == null) {
             return (defaultType == Object.class ? String.class : defaultType);
         }
-        String childTypeStr = typeAttr.getValue();
         return SerTypeMapper.decodeType(childTypeStr, settings, basePackage, knownTypes);
     }
 
+    // reader must be at StartElement, checks the element has no namespace and the specified local name
+    private boolean isElement(String localName) {
+        String namespace = reader.getNamespaceURI();
+        return (namespace == null || namespace.length() == 0) && reader.getLocalName().equals(localName);
+    }
+
     // reader can be anywhere, but normally at StartDocument
-    private StartElement advanceToStartElement() throws Exception {
+    private void advanceToStartElement() throws Exception {
         while (reader.hasNext()) {
-            XMLEvent event = nextEvent("advnc ");
-            if (event.isStartElement()) {
-                return event.asStartElement();
+            int event = nextEvent("advnc ");
+            if (event == START_ELEMENT) {
+                return;
             }
         }
         throw new IllegalArgumentException("Unexpected end of document");
@@ -487,22 +693,27 @@ public class JodaBeanXmlReader {
     private String advanceAndParseText() throws Exception {
         StringBuilder buf = new StringBuilder();
         while (reader.hasNext()) {
-            XMLEvent event = nextEvent("text  ");
-            if (event.isCharacters()) {
-                buf.append(event.asCharacters().getData());
-            } else if (event.isEndElement()) {
+            int event = nextEvent("text  ");
+            if (isCharacters(event)) {
+                buf.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            } else if (event == END_ELEMENT) {
                 return buf.toString();
-            } else if (event.isStartElement()) {
+            } else if (event == START_ELEMENT) {
                 throw new IllegalArgumentException("Unexpected start tag");
             }
         }
         throw new IllegalArgumentException("Unexpected end of document");
     }
 
+    // checks if the event is text
+    private static boolean isCharacters(int event) {
+        return event == CHARACTERS || event == CDATA || event == SPACE;
+    }
+
     // provide for debugging
-    private XMLEvent nextEvent(String location) throws Exception {
-        XMLEvent event = reader.nextEvent();
-//        System.out.println(location + event.toString().replace('\n', ' ') + " " + event.getClass().getSimpleName());
+    private int nextEvent(String location) throws Exception {
+        int event = reader.next();
+//        System.out.println(location + event + " " + (reader.hasName() ? reader.getName() : ""));
         return event;
     }
 
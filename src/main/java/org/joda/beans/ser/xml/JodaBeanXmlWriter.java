@@ -28,23 +28,29 @@ import static org.joda.beans.ser.xml.JodaBeanXml.ROW;
 import static org.joda.beans.ser.xml.JodaBeanXml.ROWS;
 import static org.joda.beans.ser.xml.JodaBeanXml.TYPE;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.joda.beans.Bean;
 import org.joda.beans.MetaProperty;
 import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerBeanPlan;
 import org.joda.beans.ser.SerCategory;
 import org.joda.beans.ser.SerIterator;
-import org.joda.beans.ser.SerOptional;
 import org.joda.beans.ser.SerTypeMapper;
+import org.joda.beans.ser.Utf8Appendable;
+import org.joda.beans.ser.WriterAppendable;
 import org.joda.convert.StringConverter;
 
 /**
  * Provides the ability for a Joda-Bean to be written to XML.
  * <p>
  * This class contains mutable state and cannot be used from multiple threads.
- * A new instance must be created for each message.
+ * An instance may be reused to write multiple messages, one after another.
  * <p>
  * The XML consists of a root level 'bean' element with a 'type' attribute.
  * At each subsequent level, a bean is output using the property name.
@@ -62,11 +68,19 @@ import org.joda.convert.StringConverter;
  * <p>
  * Type names are shortened by the package of the root type if possible.
  * Certain basic types are also handled, such as String, Integer, File and URI.
+ * <p>
+ * The XML can be written to a {@code Writer} or {@code OutputStream}, in which case
+ * it is streamed through a fixed-size buffer rather than being held in memory.
  *
  * @author Stephen Colebourne
  */
 public class JodaBeanXmlWriter {
 
+    /**
+     * The default size of the buffer used when writing to a stream or writer.
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
     /**
      * The settings to use.
      */
@@ -75,6 +89,22 @@ public class JodaBeanXmlWriter {
      * The string builder.
      */
     private final StringBuilder builder;
+    /**
+     * The size of the buffer used when writing to a stream or writer.
+     */
+    private final int bufferSize;
+    /**
+     * The buffer used when writing to a stream, null until used.
+     */
+    private byte[] byteBuffer;
+    /**
+     * The buffer used when writing to a writer, null until used.
+     */
+    private char[] charBuffer;
+    /**
+     * The output being written to.
+     */
+    private Appendable output;
     /**
      * The root bean.
      */
@@ -87,6 +117,14 @@ public class JodaBeanXmlWriter {
      * The known types.
      */
     private Map<Class<?>, String> knownTypes = new HashMap<Class<?>, String>();
+    /**
+     * The reused builder of the attributes of the next element.
+     */
+    private final StringBuilder attrs = new StringBuilder(64);
+    /**
+     * The indents, indexed by level of nesting, created as needed.
+     */
+    private String[] indents = new String[8];
 
     /**
      * Creates an instance.
@@ -106,6 +144,25 @@ public class JodaBeanXmlWriter {
     public JodaBeanXmlWriter(final JodaBeanSer settings, final StringBuilder builder) {
         this.settings = settings;
         this.builder = builder;
+        this.bufferSize = DEFAULT_BUFFER_SIZE;
+    }
+
+    /**
+     * Creates an instance specifying the size of the buffer.
+     * <p>
+     * When writing to an {@code OutputStream} or {@code Writer}, the output is held in a buffer
+     * of this size, which is written to the target each time it fills.
+     * 
+     * @param settings  the settings to use, not null
+     * @param bufferSize  the size of the buffer, in characters for a writer or bytes for a stream, at least 16
+     */
+    public JodaBeanXmlWriter(final JodaBeanSer settings, final int bufferSize) {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("Buffer size must be at least 16: " + bufferSize);
+        }
+        this.settings = settings;
+        this.builder = new StringBuilder(1024);
+        this.bufferSize = bufferSize;
     }
 
     //-----------------------------------------------------------------------
@@ -123,13 +180,22 @@ public class JodaBeanXmlWriter {
 
     /**
      * Writes the bean to a string.
+     * <p>
+     * Each call writes to a new string, thus the builder passed to the constructor is not used.
+     * Use {@link #writeToBuilder(Bean, boolean)} to write to that builder.
      * 
      * @param bean  the bean to output, not null
      * @param rootType  true to output the root type
      * @return the XML, not null
      */
     public String write(final Bean bean, final boolean rootType) {
-        return writeToBuilder(bean, rootType).toString();
+        StringBuilder buf = new StringBuilder(1024);
+        try {
+            write(bean, rootType, buf);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return buf.toString();
     }
 
     /**
@@ -152,79 +218,229 @@ public class JodaBeanXmlWriter {
      * @return the builder, not null
      */
     public StringBuilder writeToBuilder(final Bean bean, final boolean rootType) {
+        try {
+            write(bean, rootType, builder);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return builder;
+    }
+
+    /**
+     * Writes the bean to the {@code Appendable}.
+     * <p>
+     * The type of the bean will be set in the message.
+     * 
+     * @param bean  the bean to output, not null
+     * @param output  the output appendable, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(final Bean bean, final Appendable output) throws IOException {
+        write(bean, true, output);
+    }
+
+    /**
+     * Writes the bean to the {@code Appendable} specifying whether to include the type at the root.
+     * 
+     * @param bean  the bean to output, not null
+     * @param rootType  true to output the root type
+     * @param output  the output appendable, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(final Bean bean, final boolean rootType, final Appendable output) throws IOException {
         if (bean == null) {
             throw new NullPointerException("bean");
         }
+        if (output == null) {
+            throw new NullPointerException("output");
+        }
+        this.output = output;
         this.rootBean = bean;
         this.basePackage = (rootType ? bean.getClass().getPackage().getName() + "." : null);
+        this.knownTypes.clear();
         
         String type = rootBean.getClass().getName();
         writeHeader();
-        builder.append('<').append(BEAN);
+        output.append('<').append(BEAN);
         if (rootType) {
-            appendAttribute(builder, TYPE, type);
+            attrs.setLength(0);
+            appendAttribute(attrs, TYPE, type);
+            output.append(attrs);
         }
-        builder.append('>').append(settings.getNewLine());
-        writeBean(rootBean, settings.getIndent());
-        builder.append('<').append('/').append(BEAN).append('>').append(settings.getNewLine());
-        return builder;
+        output.append('>').append(settings.getNewLine());
+        writeBean(rootBean, 1, false);
+        output.append('<').append('/').append(BEAN).append('>').append(settings.getNewLine());
     }
 
-    private void writeHeader() {
-        builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>").append(settings.getNewLine());
+    /**
+     * Writes the bean to the {@code Writer}.
+     * <p>
+     * The type of the bean will be set in the message.
+     * The characters are written in chunks, using a fixed-size buffer.
+     * The writer is flushed but not closed.
+     * 
+     * @param bean  the bean to output, not null
+     * @param output  the output writer, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(final Bean bean, final Writer output) throws IOException {
+        write(bean, true, output);
+    }
+
+    /**
+     * Writes the bean to the {@code Writer} specifying whether to include the type at the root.
+     * <p>
+     * The characters are written in chunks, using a fixed-size buffer.
+     * The writer is flushed but not closed.
+     * 
+     * @param bean  the bean to output, not null
+     * @param rootType  true to output the root type
+     * @param output  the output writer, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(final Bean bean, final boolean rootType, final Writer output) throws IOException {
+        if (output == null) {
+            throw new NullPointerException("output");
+        }
+        WriterAppendable appendable = new WriterAppendable(output, charBuffer());
+        write(bean, rootType, appendable);
+        appendable.flush();
+    }
+
+    /**
+     * Writes the bean to the {@code OutputStream} in UTF-8.
+     * <p>
+     * The type of the bean will be set in the message.
+     * The characters are written in chunks, using a fixed-size buffer.
+     * The stream is flushed but not closed.
+     * 
+     * @param bean  the bean to output, not null
+     * @param output  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(final Bean bean, final OutputStream output) throws IOException {
+        write(bean, true, output);
+    }
+
+    /**
+     * Writes the bean to the {@code OutputStream} in UTF-8 specifying whether to include the type at the root.
+     * <p>
+     * The XML is encoded directly to bytes, without creating a {@code String}.
+     * The bytes are written in chunks, using a fixed-size buffer.
+     * The stream is flushed but not closed.
+     * 
+     * @param bean  the bean to output, not null
+     * @param rootType  true to output the root type
+     * @param output  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(final Bean bean, final boolean rootType, final OutputStream output) throws IOException {
+        if (output == null) {
+            throw new NullPointerException("output");
+        }
+        Utf8Appendable appendable = new Utf8Appendable(output, byteBuffer());
+        write(bean, rootType, appendable);
+        appendable.flush();
+    }
+
+    // the buffer to use when writing to a stream
+    private byte[] byteBuffer() {
+        if (byteBuffer == null) {
+            byteBuffer = new byte[bufferSize];
+        }
+        return byteBuffer;
+    }
+
+    // the buffer to use when writing to a writer
+    private char[] charBuffer() {
+        if (charBuffer == null) {
+            charBuffer = new char[bufferSize];
+        }
+        return charBuffer;
+    }
+
+    private void writeHeader() throws IOException {
+        output.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>").append(settings.getNewLine());
+    }
+
+    // the indent for the level of nesting
+    private String indent(final int level) {
+        if (level >= indents.length) {
+            indents = Arrays.copyOf(indents, Math.max(indents.length * 2, level + 1));
+        }
+        String indent = indents[level];
+        if (indent == null) {
+            StringBuilder buf = new StringBuilder();
+            for (int i = 0; i < level; i++) {
+                buf.append(settings.getIndent());
+            }
+            indent = buf.toString();
+            indents[level] = indent;
+        }
+        return indent;
+    }
+
+    // the reused attributes builder, cleared ready for the next element
+    private StringBuilder attrs() {
+        attrs.setLength(0);
+        return attrs;
     }
 
     //-----------------------------------------------------------------------
-    private boolean writeBean(final Bean bean, final String currentIndent) {
-        boolean output = false;
-        for (MetaProperty<?> prop : bean.metaBean().metaPropertyIterable()) {
-            if (prop.style().isSerializable()) {
-                output = true;
-                Object value = SerOptional.extractValue(prop, bean);
-                if (value != null) {
-                    String propName = prop.name();
-                    Class<?> propType = SerOptional.extractType(prop, bean.getClass());
-                    if (value instanceof Bean) {
-                        if (settings.getConverter().isConvertible(value.getClass())) {
-                            writeSimple(currentIndent, propName, new StringBuilder(), propType, value);
-                        } else {
-                            writeBean(currentIndent, propName, new StringBuilder(), propType, (Bean) value);
-                        }
+    // writes the properties of the bean, closing the start tag before the first property if it is open
+    private boolean writeBean(final Bean bean, final int level, final boolean startTagOpen) throws IOException {
+        SerBeanPlan plan = SerBeanPlan.of(bean);
+        if (plan.size() == 0) {
+            return false;
+        }
+        if (startTagOpen) {
+            output.append('>').append(settings.getNewLine());
+        }
+        for (int i = 0; i < plan.size(); i++) {
+            Object value = plan.getValue(i, bean);
+            if (value != null) {
+                MetaProperty<?> prop = plan.getProperty(i);
+                String propName = prop.name();
+                Class<?> propType = plan.getPropertyType(i);
+                if (value instanceof Bean) {
+                    if (settings.getConverter().isConvertible(value.getClass())) {
+                        writeSimple(level, propName, attrs(), propType, value);
                     } else {
-                        SerIterator itemIterator = settings.getIteratorFactory().create(value, prop, bean.getClass());
-                        if (itemIterator != null) {
-                            writeElements(currentIndent, propName, new StringBuilder(), itemIterator);
-                        } else {
-                            writeSimple(currentIndent, propName, new StringBuilder(), propType, value);
-                        }
+                        writeBean(level, propName, attrs(), propType, (Bean) value);
+                    }
+                } else {
+                    SerIterator itemIterator = settings.getIteratorFactory().create(value, prop, bean.getClass());
+                    if (itemIterator != null) {
+                        writeElements(level, propName, attrs(), itemIterator);
+                    } else {
+                        writeSimple(level, propName, attrs(), propType, value);
                     }
                 }
             }
         }
-        return output;
+        return true;
     }
 
     //-----------------------------------------------------------------------
-    private void writeBean(final String currentIndent, final String tagName, final StringBuilder attrs, final Class<?> propType, final Bean value) {
+    private void writeBean(final int level, final String tagName, final StringBuilder attrs, final Class<?> propType, final Bean value) throws IOException {
         if (value == null) {
             throw new IllegalArgumentException("Bean cannot be null");
         }
-        builder.append(currentIndent).append('<').append(tagName).append(attrs);
         if (value.getClass() != propType) {
             String typeStr = SerTypeMapper.encodeType(value.getClass(), settings, basePackage, knownTypes);
-            appendAttribute(builder, TYPE, typeStr);
+            appendAttribute(attrs, TYPE, typeStr);
         }
-        int insertPoint = builder.length();
-        builder.append('>').append(settings.getNewLine());
-        if (writeBean(value, currentIndent + settings.getIndent())) {
-            builder.append(currentIndent).append('<').append('/').append(tagName).append('>').append(settings.getNewLine());
+        String currentIndent = indent(level);
+        output.append(currentIndent).append('<').append(tagName).append(attrs);
+        if (writeBean(value, level + 1, true)) {
+            output.append(currentIndent).append('<').append('/').append(tagName).append('>').append(settings.getNewLine());
         } else {
-            builder.insert(insertPoint, '/');
+            output.append('/').append('>').append(settings.getNewLine());
         }
     }
 
     //-----------------------------------------------------------------------
-    private void writeElements(final String currentIndent, final String tagName, final StringBuilder attrs, final SerIterator itemIterator) {
+    private void writeElements(final int level, final String tagName, final StringBuilder attrs, final SerIterator itemIterator) throws IOException {
         if (itemIterator.metaTypeRequired()) {
             appendAttribute(attrs, METATYPE, itemIterator.metaTypeName());
         }
@@ -232,16 +448,17 @@ public class JodaBeanXmlWriter {
             appendAttribute(attrs, ROWS, Integer.toString(itemIterator.dimensionSize(0)));
             appendAttribute(attrs, COLS, Integer.toString(itemIterator.dimensionSize(1)));
         }
+        String currentIndent = indent(level);
         if (itemIterator.size() == 0) {
-            builder.append(currentIndent).append('<').append(tagName).append(attrs).append('/').append('>').append(settings.getNewLine());
+            output.append(currentIndent).append('<').append(tagName).append(attrs).append('/').append('>').append(settings.getNewLine());
         } else {
-            builder.append(currentIndent).append('<').append(tagName).append(attrs).append('>').append(settings.getNewLine());
-            writeElements(currentIndent + settings.getIndent(), itemIterator);
-            builder.append(currentIndent).append('<').append('/').append(tagName).append('>').append(settings.getNewLine());
+            output.append(currentIndent).append('<').append(tagName).append(attrs).append('>').append(settings.getNewLine());
+            writeElements(level + 1, itemIterator);
+            output.append(currentIndent).append('<').append('/').append(tagName).append('>').append(settings.getNewLine());
         }
     }
 
-    private void writeElements(final String currentIndent, final SerIterator itemIterator) {
+    private void writeElements(final int level, final SerIterator itemIterator) throws IOException {
         // find converter once for performance, and before checking if key is bean
         StringConverter<Object> keyConverter = null;
         StringConverter<Object> rowConverter = null;
@@ -267,89 +484,91 @@ public class JodaBeanXmlWriter {
             }
         }
         // output each item
+        String currentIndent = indent(level);
         while (itemIterator.hasNext()) {
             itemIterator.next();
-            StringBuilder attr = new StringBuilder(32);
+            StringBuilder attr = attrs();
             if (keyConverter != null) {
-                String keyStr = convertToString(keyConverter, itemIterator.key(), "map key");
-                appendAttribute(attr, KEY, keyStr);
+                appendConvertedAttribute(attr, KEY, keyConverter, itemIterator.key(), "map key");
             }
             if (rowConverter != null) {
-                String rowStr = convertToString(rowConverter, itemIterator.key(), "table row");
-                appendAttribute(attr, ROW, rowStr);
-                String colStr = convertToString(columnConverter, itemIterator.column(), "table column");
-                appendAttribute(attr, COL, colStr);
+                appendConvertedAttribute(attr, ROW, rowConverter, itemIterator.key(), "table row");
+                appendConvertedAttribute(attr, COL, columnConverter, itemIterator.column(), "table column");
             }
             if (itemIterator.count() != 1) {
                 appendAttribute(attr, COUNT, Integer.toString(itemIterator.count()));
             }
             if (keyBean) {
                 Object key = itemIterator.key();
-                builder.append(currentIndent).append('<').append(ENTRY).append(attr).append('>').append(settings.getNewLine());
-                writeKeyElement(currentIndent + settings.getIndent(), key, itemIterator);
-                writeValueElement(currentIndent + settings.getIndent(), ITEM, new StringBuilder(), itemIterator);
-                builder.append(currentIndent).append('<').append('/').append(ENTRY).append('>').append(settings.getNewLine());
+                output.append(currentIndent).append('<').append(ENTRY).append(attr).append('>').append(settings.getNewLine());
+                writeKeyElement(level + 1, key, itemIterator);
+                writeValueElement(level + 1, ITEM, attrs(), itemIterator);
+                output.append(currentIndent).append('<').append('/').append(ENTRY).append('>').append(settings.getNewLine());
             } else {
                 String tagName = itemIterator.category() == SerCategory.MAP ? ENTRY : ITEM;
-                writeValueElement(currentIndent, tagName, attr, itemIterator);
+                writeValueElement(level, tagName, attr, itemIterator);
             }
         }
     }
 
-    private String convertToString(StringConverter<Object> converter, Object obj, String description) {
+    private void appendConvertedAttribute(
+            final StringBuilder attrs, final String attrName,
+            final StringConverter<Object> converter, final Object obj, final String description) {
         if (obj == null) {
             throw new IllegalArgumentException("Unable to write " + description + " as it cannot be null: " + obj);
         }
-        String str = encodeAttribute(converter.convertToString(obj));
+        String str = converter.convertToString(obj);
         if (str == null) {
             throw new IllegalArgumentException("Unable to write " + description + " as it cannot be a null string: " + obj);
         }
-        return str;
+        attrs.append(' ').append(attrName).append('=').append('\"');
+        appendEncodedAttribute(attrs, str);
+        attrs.append('\"');
     }
 
-    private void writeKeyElement(final String currentIndent, Object key, final SerIterator itemIterator) {
+    private void writeKeyElement(final int level, Object key, final SerIterator itemIterator) throws IOException {
         if (key == null) {
             throw new IllegalArgumentException("Unable to write map key as it cannot be null: " + key);
         }
         // if key type is known and convertible use short key format
         if (settings.getConverter().isConvertible(itemIterator.keyType())) {
-            writeSimple(currentIndent, ITEM, new StringBuilder(), Object.class, key);
+            writeSimple(level, ITEM, attrs(), Object.class, key);
         } else if (key instanceof Bean) {
-            writeBean(currentIndent, ITEM, new StringBuilder(), itemIterator.keyType(), (Bean) key);
+            writeBean(level, ITEM, attrs(), itemIterator.keyType(), (Bean) key);
         } else {
             // this case covers where the key type is not known, such as an Object meta-property
             try {
-                writeSimple(currentIndent, ITEM, new StringBuilder(), Object.class, key);
+                writeSimple(level, ITEM, attrs(), Object.class, key);
             } catch (RuntimeException ex) {
                 throw new IllegalArgumentException("Unable to write map as declared key type is neither a bean nor a simple type: " + itemIterator.keyType().getName(), ex);
             }
         }
     }
 
-    private void writeValueElement(final String currentIndent, final String tagName, final StringBuilder attrs, final SerIterator itemIterator) {
+    private void writeValueElement(final int level, final String tagName, final StringBuilder attrs, final SerIterator itemIterator) throws IOException {
         Object value = itemIterator.value();
         Class<?> valueType = itemIterator.valueType();
         if (value == null) {
             appendAttribute(attrs, NULL, "true");
-            builder.append(currentIndent).append('<').append(tagName).append(attrs).append("/>").append(settings.getNewLine());
+            output.append(indent(level)).append('<').append(tagName).append(attrs).append("/>").append(settings.getNewLine());
         } else if (value instanceof Bean) {
             if (settings.getConverter().isConvertible(value.getClass())) {
-                writeSimple(currentIndent, tagName, attrs, valueType, value);
+                writeSimple(level, tagName, attrs, valueType, value);
             } else {
-                writeBean(currentIndent, tagName, attrs, valueType, (Bean) value);
+                writeBean(level, tagName, attrs, valueType, (Bean) value);
             }
         } else {
             SerIterator childIterator = settings.getIteratorFactory().createChild(value, itemIterator);
             if (childIterator != null) {
-                writeElements(currentIndent, tagName, attrs, childIterator);
+                writeElements(level, tagName, attrs, childIterator);
             } else {
-                writeSimple(currentIndent, tagName, attrs, valueType, value);
+                writeSimple(level, tagName, attrs, valueType, value);
             }
         }
     }
 
     //-----------------------------------------------------------------------
-    private void writeSimple(final String currentIndent, final String tagName, final StringBuilder attrs, final Class<?> declaredType, final Object value) {
+    private void writeSimple(final int level, final String tagName, final StringBuilder attrs, final Class<?> declaredType, final Object value) throws IOException {
         Class<?> effectiveType;
         if (declaredType == Object.class) {
             Class<?> realType = value.getClass();
@@ -367,46 +586,53 @@ public class JodaBeanXmlWriter {
         } else {
             effectiveType = declaredType;
         }
+        String converted;
         try {
-            String converted = settings.getConverter().convertToString(effectiveType, value);
+            converted = settings.getConverter().convertToString(effectiveType, value);
             if (converted == null) {
                 throw new IllegalArgumentException("Unable to write because converter returned a null string: " + value);
             }
-            builder.append(currentIndent).append('<').append(tagName).append(attrs).append('>');
-            appendEncoded(converted);
-            builder.append('<').append('/').append(tagName).append('>').append(settings.getNewLine());
+            validateText(converted);
         } catch (RuntimeException ex) {
             throw new IllegalArgumentException("Unable to convert type " + effectiveType.getName() + " declared as " + declaredType.getName(), ex);
         }
+        output.append(indent(level)).append('<').append(tagName).append(attrs).append('>');
+        appendEncoded(converted);
+        output.append('<').append('/').append(tagName).append('>').append(settings.getNewLine());
     }
 
-    private StringBuilder appendEncoded(final String text) {
+    // checks the text can be written, before any of the element is output
+    private void validateText(final String text) {
         for (int i = 0; i < text.length(); i++) {
             char ch = text.charAt(i);
-            switch (ch) {
+            if (ch < 32 && ch != '\t' && ch != '\n' && ch != '\r') {
+                throw new IllegalArgumentException("Invalid character for XML: " + ((int) ch));
+            }
+        }
+    }
+
+    // appends the text, writing each run of characters that need no encoding in one call
+    private void appendEncoded(final String text) throws IOException {
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            String replacement;
+            switch (text.charAt(i)) {
                 case '&':
-                    builder.append("&amp;");
+                    replacement = "&amp;";
                     break;
                 case '<':
-                    builder.append("&lt;");
+                    replacement = "&lt;";
                     break;
                 case '>':
-                    builder.append("&gt;");
-                    break;
-                case '\t':
-                case '\n':
-                case '\r':
-                    builder.append(ch);
+                    replacement = "&gt;";
                     break;
                 default:
-                    if ((int) ch < 32) {
-                        throw new IllegalArgumentException("Invalid character for XML: " + ((int) ch));
-                    }
-                    builder.append(ch);
-                    break;
+                    continue;
             }
+            output.append(text, start, i).append(replacement);
+            start = i + 1;
         }
-        return builder;
+        output.append(text, start, text.length());
     }
 
     //-----------------------------------------------------------------------
@@ -414,50 +640,43 @@ public class JodaBeanXmlWriter {
         return buf.append(' ').append(attrName).append('=').append('\"').append(encodedValue).append('\"');
     }
 
-    private String encodeAttribute(final String text) {
-        if (text == null) {
-            return null;
-        }
-        return appendEncodedAttribute(new StringBuilder(text.length() + 16), text).toString();
-    }
-
-    private StringBuilder appendEncodedAttribute(final StringBuilder builder, final String text) {
+    private StringBuilder appendEncodedAttribute(final StringBuilder buf, final String text) {
         for (int i = 0; i < text.length(); i++) {
             char ch = text.charAt(i);
             switch (ch) {
                 case '&':
-                    builder.append("&amp;");
+                    buf.append("&amp;");
                     break;
                 case '<':
-                    builder.append("&lt;");
+                    buf.append("&lt;");
                     break;
                 case '>':
-                    builder.append("&gt;");
+                    buf.append("&gt;");
                     break;
                 case '"':
-                    builder.append("&quot;");
+                    buf.append("&quot;");
                     break;
                 case '\'':
-                    builder.append("&apos;");
+                    buf.append("&apos;");
                     break;
                 case '\t':
-                    builder.append("&#09;");
+                    buf.append("&#09;");
                     break;
                 case '\n':
-                    builder.append("&#0A;");
+                    buf.append("&#0A;");
                     break;
                 case '\r':
-                    builder.append("&#0D;");
+                    buf.append("&#0D;");
                     break;
                 default:
                     if ((int) ch < 32) {
                         throw new IllegalArgumentException("Invalid character for XML: " + ((int) ch));
                     }
-                    builder.append(ch);
+                    buf.append(ch);
                     break;
             }
         }
-        return builder;
+        return buf;
     }
 
 }
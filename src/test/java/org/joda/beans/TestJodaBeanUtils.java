@@ -30,7 +30,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.joda.beans.gen.AbstractResult;
 import org.joda.beans.gen.Address;
+import org.joda.beans.gen.AddressResult;
+import org.joda.beans.gen.CompanyAddress;
+import org.joda.beans.gen.CompanyAddressResult;
 import org.joda.beans.gen.ImmAddress;
 import org.joda.beans.gen.ImmPerson;
 import org.joda.beans.gen.MetaBeanLoad;
@@ -480,6 +484,35 @@ public class TestJodaBeanUtils {
         assertEquals(JodaBeanUtils.collectionTypeTypes(test, Person.class), expected);
     }
 
+    public void test_collectionTypeTypes_repeated() {
+        MetaProperty<List<List<Address>>> test = Person.meta().addressesList();
+        
+        List<Class<?>> first = JodaBeanUtils.collectionTypeTypes(test, Person.class);
+        List<Class<?>> second = JodaBeanUtils.collectionTypeTypes(test, Person.class);
+        assertEquals(second, first);
+        assertEquals(JodaBeanUtils.collectionType(test, Person.class), List.class);
+        assertEquals(JodaBeanUtils.collectionTypeTypes(test, Person.class), first);
+    }
+
+    public void test_collectionType_sameProperty_differentTargets() {
+        MetaProperty<?> test = AbstractResult.meta().docs();
+        
+        assertEquals(JodaBeanUtils.collectionType(test, AddressResult.class), Address.class);
+        assertEquals(JodaBeanUtils.collectionType(test, CompanyAddressResult.class), CompanyAddress.class);
+        assertEquals(JodaBeanUtils.collectionType(test, AddressResult.class), Address.class);
+        assertEquals(JodaBeanUtils.collectionType(test, CompanyAddressResult.class), CompanyAddress.class);
+    }
+
+    public void test_collectionTypeTypes_modifiableCopy() {
+        MetaProperty<List<List<Address>>> test = Person.meta().addressesList();
+        
+        List<Class<?>> first = JodaBeanUtils.collectionTypeTypes(test, Person.class);
+        first.add(String.class);
+        List<Class<?>> expected = new ArrayList<Class<?>>();
+        expected.add(Address.class);
+        assertEquals(JodaBeanUtils.collectionTypeTypes(test, Person.class), expected);
+    }
+
     public void test_collectionTypeTypes_invalidNoGenerics() {
         MetaProperty<List<Address>> test = Person.meta().addressList();
         
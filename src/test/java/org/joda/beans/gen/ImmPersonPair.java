@@ -0,0 +1,373 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.gen;
+
+import org.joda.beans.BeanDefinition;
+import org.joda.beans.ImmutableBean;
+import org.joda.beans.PropertyDefinition;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.joda.beans.Bean;
+import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.MetaProperty;
+import org.joda.beans.Property;
+import org.joda.beans.impl.direct.DirectFieldsBeanBuilder;
+import org.joda.beans.impl.direct.DirectMetaBean;
+import org.joda.beans.impl.direct.DirectMetaProperty;
+import org.joda.beans.impl.direct.DirectMetaPropertyMap;
+
+/**
+ * Mock immutable bean with properties declared as a subtype and its supertype, used for testing.
+ * 
+ * @author Stephen Colebourne
+ */
+@BeanDefinition
+public final class ImmPersonPair implements ImmutableBean {
+
+    /**
+     * The person declared as the subtype.
+     */
+    @PropertyDefinition
+    private final ImmSubPersonNonFinal subPerson;
+    /**
+     * The person declared as the supertype.
+     */
+    @PropertyDefinition
+    private final ImmPersonNonFinal person;
+
+    //------------------------- AUTOGENERATED START -------------------------
+    ///CLOVER:OFF
+    /**
+     * The meta-bean for {@code ImmPersonPair}.
+     * @return the meta-bean, not null
+     */
+    public static ImmPersonPair.Meta meta() {
+        return ImmPersonPair.Meta.INSTANCE;
+    }
+
+    static {
+        JodaBeanUtils.registerMetaBean(ImmPersonPair.Meta.INSTANCE);
+    }
+
+    /**
+     * Returns a builder used to create an instance of the bean.
+     * @return the builder, not null
+     */
+    public static ImmPersonPair.Builder builder() {
+        return new ImmPersonPair.Builder();
+    }
+
+    private ImmPersonPair(
+            ImmSubPersonNonFinal subPerson,
+            ImmPersonNonFinal person) {
+        this.subPerson = subPerson;
+        this.person = person;
+    }
+
+    @Override
+    public ImmPersonPair.Meta metaBean() {
+        return ImmPersonPair.Meta.INSTANCE;
+    }
+
+    @Override
+    public <R> Property<R> property(String propertyName) {
+        return metaBean().<R>metaProperty(propertyName).createProperty(this);
+    }
+
+    @Override
+    public Set<String> propertyNames() {
+        return metaBean().metaPropertyMap().keySet();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the person declared as the subtype.
+     * @return the value of the property
+     */
+    public ImmSubPersonNonFinal getSubPerson() {
+        return subPerson;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the person declared as the supertype.
+     * @return the value of the property
+     */
+    public ImmPersonNonFinal getPerson() {
+        return person;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Returns a builder that allows this bean to be mutated.
+     * @return the mutable builder, not null
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj != null && obj.getClass() == this.getClass()) {
+            ImmPersonPair other = (ImmPersonPair) obj;
+            return JodaBeanUtils.equal(subPerson, other.subPerson) &&
+                    JodaBeanUtils.equal(person, other.person);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = getClass().hashCode();
+        hash = hash * 31 + JodaBeanUtils.hashCode(subPerson);
+        hash = hash * 31 + JodaBeanUtils.hashCode(person);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder(96);
+        buf.append("ImmPersonPair{");
+        buf.append("subPerson").append('=').append(subPerson).append(',').append(' ');
+        buf.append("person").append('=').append(JodaBeanUtils.toString(person));
+        buf.append('}');
+        return buf.toString();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The meta-bean for {@code ImmPersonPair}.
+     */
+    public static final class Meta extends DirectMetaBean {
+        /**
+         * The singleton instance of the meta-bean.
+         */
+        static final Meta INSTANCE = new Meta();
+
+        /**
+         * The meta-property for the {@code subPerson} property.
+         */
+        private final MetaProperty<ImmSubPersonNonFinal> subPerson = DirectMetaProperty.ofImmutable(
+                this, "subPerson", ImmPersonPair.class, ImmSubPersonNonFinal.class);
+        /**
+         * The meta-property for the {@code person} property.
+         */
+        private final MetaProperty<ImmPersonNonFinal> person = DirectMetaProperty.ofImmutable(
+                this, "person", ImmPersonPair.class, ImmPersonNonFinal.class);
+        /**
+         * The meta-properties.
+         */
+        private final Map<String, MetaProperty<?>> metaPropertyMap$ = new DirectMetaPropertyMap(
+                this, null,
+                "subPerson",
+                "person");
+
+        /**
+         * Restricted constructor.
+         */
+        private Meta() {
+        }
+
+        @Override
+        protected MetaProperty<?> metaPropertyGet(String propertyName) {
+            switch (propertyName.hashCode()) {
+                case -485321291:  // subPerson
+                    return subPerson;
+                case -991716523:  // person
+                    return person;
+            }
+            return super.metaPropertyGet(propertyName);
+        }
+
+        @Override
+        public ImmPersonPair.Builder builder() {
+            return new ImmPersonPair.Builder();
+        }
+
+        @Override
+        public Class<? extends ImmPersonPair> beanType() {
+            return ImmPersonPair.class;
+        }
+
+        @Override
+        public Map<String, MetaProperty<?>> metaPropertyMap() {
+            return metaPropertyMap$;
+        }
+
+        //-----------------------------------------------------------------------
+        /**
+         * The meta-property for the {@code subPerson} property.
+         * @return the meta-property, not null
+         */
+        public MetaProperty<ImmSubPersonNonFinal> subPerson() {
+            return subPerson;
+        }
+
+        /**
+         * The meta-property for the {@code person} property.
+         * @return the meta-property, not null
+         */
+        public MetaProperty<ImmPersonNonFinal> person() {
+            return person;
+        }
+
+        //-----------------------------------------------------------------------
+        @Override
+        protected Object propertyGet(Bean bean, String propertyName, boolean quiet) {
+            switch (propertyName.hashCode()) {
+                case -485321291:  // subPerson
+                    return ((ImmPersonPair) bean).getSubPerson();
+                case -991716523:  // person
+                    return ((ImmPersonPair) bean).getPerson();
+            }
+            return super.propertyGet(bean, propertyName, quiet);
+        }
+
+        @Override
+        protected void propertySet(Bean bean, String propertyName, Object newValue, boolean quiet) {
+            metaProperty(propertyName);
+            if (quiet) {
+                return;
+            }
+            throw new UnsupportedOperationException("Property cannot be written: " + propertyName);
+        }
+
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The bean-builder for {@code ImmPersonPair}.
+     */
+    public static final class Builder extends DirectFieldsBeanBuilder<ImmPersonPair> {
+
+        private ImmSubPersonNonFinal subPerson;
+        private ImmPersonNonFinal person;
+
+        /**
+         * Restricted constructor.
+         */
+        private Builder() {
+        }
+
+        /**
+         * Restricted copy constructor.
+         * @param beanToCopy  the bean to copy from, not null
+         */
+        private Builder(ImmPersonPair beanToCopy) {
+            this.subPerson = beanToCopy.getSubPerson();
+            this.person = beanToCopy.getPerson();
+        }
+
+        //-----------------------------------------------------------------------
+        @Override
+        public Object get(String propertyName) {
+            switch (propertyName.hashCode()) {
+                case -485321291:  // subPerson
+                    return subPerson;
+                case -991716523:  // person
+                    return person;
+                default:
+                    throw new NoSuchElementException("Unknown property: " + propertyName);
+            }
+        }
+
+        @Override
+        public Builder set(String propertyName, Object newValue) {
+            switch (propertyName.hashCode()) {
+                case -485321291:  // subPerson
+                    this.subPerson = (ImmSubPersonNonFinal) newValue;
+                    break;
+                case -991716523:  // person
+                    this.person = (ImmPersonNonFinal) newValue;
+                    break;
+                default:
+                    throw new NoSuchElementException("Unknown property: " + propertyName);
+            }
+            return this;
+        }
+
+        @Override
+        public Builder set(MetaProperty<?> property, Object value) {
+            super.set(property, value);
+            return this;
+        }
+
+        @Override
+        public Builder setString(String propertyName, String value) {
+            setString(meta().metaProperty(propertyName), value);
+            return this;
+        }
+
+        @Override
+        public Builder setString(MetaProperty<?> property, String value) {
+            super.setString(property, value);
+            return this;
+        }
+
+        @Override
+        public Builder setAll(Map<String, ? extends Object> propertyValueMap) {
+            super.setAll(propertyValueMap);
+            return this;
+        }
+
+        @Override
+        public ImmPersonPair build() {
+            return new ImmPersonPair(
+                    subPerson,
+                    person);
+        }
+
+        //-----------------------------------------------------------------------
+        /**
+         * Sets the person declared as the subtype.
+         * @param subPerson  the new value
+         * @return this, for chaining, not null
+         */
+        public Builder subPerson(ImmSubPersonNonFinal subPerson) {
+            this.subPerson = subPerson;
+            return this;
+        }
+
+        /**
+         * Sets the person declared as the supertype.
+         * @param person  the new value
+         * @return this, for chaining, not null
+         */
+        public Builder person(ImmPersonNonFinal person) {
+            this.person = person;
+            return this;
+        }
+
+        //-----------------------------------------------------------------------
+        @Override
+        public String toString() {
+            StringBuilder buf = new StringBuilder(96);
+            buf.append("ImmPersonPair.Builder{");
+            buf.append("subPerson").append('=').append(JodaBeanUtils.toString(subPerson)).append(',').append(' ');
+            buf.append("person").append('=').append(JodaBeanUtils.toString(person));
+            buf.append('}');
+            return buf.toString();
+        }
+
+    }
+
+    ///CLOVER:ON
+    //-------------------------- AUTOGENERATED END --------------------------
+}
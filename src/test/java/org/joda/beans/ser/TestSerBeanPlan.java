@@ -0,0 +1,100 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.beans.MetaProperty;
+import org.joda.beans.gen.ImmOptional;
+import org.joda.beans.gen.ImmPersonNonFinal;
+import org.joda.beans.impl.flexi.FlexiBean;
+import org.testng.annotations.Test;
+
+/**
+ * Test SerBeanPlan.
+ */
+@Test
+public class TestSerBeanPlan {
+
+    public void test_properties_serializableOnly() {
+        ImmPersonNonFinal bean = ImmPersonNonFinal.builder().forename("A").surname("B").build();
+        SerBeanPlan test = SerBeanPlan.of(bean);
+        List<MetaProperty<?>> expected = new ArrayList<MetaProperty<?>>();
+        for (MetaProperty<?> metaProp : bean.metaBean().metaPropertyIterable()) {
+            if (metaProp.style().isSerializable()) {
+                expected.add(metaProp);
+            }
+        }
+        assertEquals(test.size(), expected.size());
+        for (int i = 0; i < test.size(); i++) {
+            assertSame(test.getProperty(i), expected.get(i));
+            assertEquals(test.getPropertyType(i), expected.get(i).propertyType());
+            assertEquals(test.isOptional(i), false);
+            assertEquals(test.getValue(i, bean), expected.get(i).get(bean));
+        }
+        assertEquals(bean.metaBean().metaPropertyExists("age"), true);
+        assertEquals(test.toString().contains("age"), false);
+    }
+
+    public void test_properties_optional() {
+        ImmOptional bean = SerTestHelper.testImmOptional();
+        SerBeanPlan test = SerBeanPlan.of(bean);
+        int optString = indexOf(test, "optString");
+        assertEquals(test.getPropertyType(optString), String.class);
+        assertEquals(test.isOptional(optString), true);
+        assertEquals(test.getValue(optString, bean), "A");
+        int optStringEmpty = indexOf(test, "optStringEmpty");
+        assertEquals(test.isOptional(optStringEmpty), true);
+        assertEquals(test.getValue(optStringEmpty, bean), null);
+        int optStringGetter = indexOf(test, "optStringGetter");
+        assertEquals(test.isOptional(optStringGetter), false);
+        assertEquals(test.getPropertyType(optStringGetter), String.class);
+    }
+
+    public void test_of_cached() {
+        ImmOptional bean = SerTestHelper.testImmOptional();
+        assertSame(SerBeanPlan.of(bean), SerBeanPlan.of(bean));
+    }
+
+    public void test_of_dynamicNotCached() {
+        FlexiBean bean1 = new FlexiBean();
+        bean1.set("a", "A");
+        FlexiBean bean2 = new FlexiBean();
+        bean2.set("b", "B");
+        bean2.set("c", "C");
+        SerBeanPlan plan1 = SerBeanPlan.of(bean1);
+        SerBeanPlan plan2 = SerBeanPlan.of(bean2);
+        assertNotSame(plan1, plan2);
+        assertEquals(plan1.size(), 1);
+        assertEquals(plan2.size(), 2);
+        assertEquals(plan2.getValue(1, bean2), "C");
+    }
+
+    private static int indexOf(SerBeanPlan plan, String name) {
+        for (int i = 0; i < plan.size(); i++) {
+            if (plan.getProperty(i).name().equals(name)) {
+                return i;
+            }
+        }
+        throw new AssertionError(name);
+    }
+
+}
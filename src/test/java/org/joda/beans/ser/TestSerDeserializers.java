@@ -0,0 +1,175 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import org.joda.beans.Bean;
+import org.joda.beans.ImmutableBean;
+import org.joda.beans.MetaBean;
+import org.joda.beans.gen.Address;
+import org.joda.beans.gen.CompanyAddress;
+import org.joda.beans.gen.ImmAddress;
+import org.joda.beans.gen.SimplePerson;
+import org.joda.beans.impl.direct.DirectBean;
+import org.joda.beans.impl.flexi.FlexiBean;
+import org.joda.beans.ser.xml.MockRenameDeserializer;
+import org.joda.beans.ser.xml.MockSemanticChangeDeserializer;
+import org.testng.annotations.Test;
+
+/**
+ * Test SerDeserializers.
+ */
+@Test
+public class TestSerDeserializers {
+
+    public void test_findDeserializer_notRegistered() {
+        SerDeserializers test = new SerDeserializers();
+        assertSame(test.findDeserializer(Address.class), DefaultDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(String.class), DefaultDeserializer.INSTANCE);
+    }
+
+    public void test_findDeserializer_exact() {
+        SerDeserializers test = new SerDeserializers();
+        test.register(Address.class, MockRenameDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(Address.class), MockRenameDeserializer.INSTANCE);
+    }
+
+    public void test_findDeserializer_exactNotAppliedToSubtypes() {
+        SerDeserializers test = new SerDeserializers();
+        test.register(Address.class, MockRenameDeserializer.INSTANCE);
+        test.register(Bean.class, MockRenameDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(CompanyAddress.class), DefaultDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(ImmAddress.class), DefaultDeserializer.INSTANCE);
+    }
+
+    public void test_findDeserializer_hierarchySuperclass() {
+        SerDeserializers test = new SerDeserializers();
+        test.registerHierarchy(DirectBean.class, MockRenameDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(Address.class), MockRenameDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(CompanyAddress.class), MockRenameDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(ImmAddress.class), DefaultDeserializer.INSTANCE);
+    }
+
+    public void test_findDeserializer_hierarchyInterface() {
+        SerDeserializers test = new SerDeserializers();
+        test.registerHierarchy(ImmutableBean.class, MockRenameDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(ImmAddress.class), MockRenameDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(Address.class), DefaultDeserializer.INSTANCE);
+    }
+
+    public void test_findDeserializer_hierarchySuperinterface() {
+        SerDeserializers test = new SerDeserializers();
+        test.registerHierarchy(Bean.class, MockRenameDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(ImmAddress.class), MockRenameDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(CompanyAddress.class), MockRenameDeserializer.INSTANCE);
+    }
+
+    public void test_findDeserializer_hierarchyNearestWins() {
+        SerDeserializers test = new SerDeserializers();
+        test.registerHierarchy(Bean.class, MockSemanticChangeDeserializer.INSTANCE);
+        test.registerHierarchy(Address.class, MockRenameDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(CompanyAddress.class), MockRenameDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(ImmAddress.class), MockSemanticChangeDeserializer.INSTANCE);
+    }
+
+    public void test_findDeserializer_exactBeatsHierarchy() {
+        SerDeserializers test = new SerDeserializers();
+        test.registerHierarchy(Address.class, MockRenameDeserializer.INSTANCE);
+        test.register(CompanyAddress.class, MockSemanticChangeDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(CompanyAddress.class), MockSemanticChangeDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(Address.class), MockRenameDeserializer.INSTANCE);
+    }
+
+    public void test_findDeserializer_registerHierarchyAfterLookup() {
+        SerDeserializers test = new SerDeserializers();
+        test.registerHierarchy(Bean.class, MockSemanticChangeDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(CompanyAddress.class), MockSemanticChangeDeserializer.INSTANCE);
+        test.registerHierarchy(Address.class, MockRenameDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(CompanyAddress.class), MockRenameDeserializer.INSTANCE);
+        test.unregisterHierarchy(Address.class);
+        assertSame(test.findDeserializer(CompanyAddress.class), MockSemanticChangeDeserializer.INSTANCE);
+    }
+
+    public void test_findDeserializer_mapChangedAfterLookup() {
+        SerDeserializers test = new SerDeserializers();
+        test.getDeserializers().put(Address.class, MockRenameDeserializer.INSTANCE);
+        assertSame(test.findDeserializer(Address.class), MockRenameDeserializer.INSTANCE);
+        test.getDeserializers().keySet().remove(Address.class);
+        assertSame(test.findDeserializer(Address.class), DefaultDeserializer.INSTANCE);
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_findHandle() {
+        SerDeserializers test = new SerDeserializers();
+        test.registerHierarchy(Address.class, MockRenameDeserializer.INSTANCE);
+        SerDeserializerHandle handle = test.findHandle(CompanyAddress.class);
+        assertEquals(handle.getType(), CompanyAddress.class);
+        assertSame(handle.getDeserializer(), MockRenameDeserializer.INSTANCE);
+        assertSame(handle.getMetaBean(), CompanyAddress.meta());
+        assertTrue(handle.createBuilder().build() instanceof CompanyAddress);
+        assertSame(test.findHandle(CompanyAddress.class), handle);
+    }
+
+    public void test_findHandle_dynamicBeanNotCached() {
+        SerDeserializers test = new SerDeserializers();
+        SerDeserializerHandle handle = test.findHandle(FlexiBean.class);
+        assertSame(handle.getDeserializer(), DefaultDeserializer.INSTANCE);
+        assertNotSame(test.findHandle(FlexiBean.class), handle);
+    }
+
+    public void test_findHandle_registerAfterLookup() {
+        SerDeserializers test = new SerDeserializers();
+        SerDeserializerHandle handle = test.findHandle(Address.class);
+        assertSame(handle.getDeserializer(), DefaultDeserializer.INSTANCE);
+        test.register(Address.class, MockRenameDeserializer.INSTANCE);
+        assertSame(test.findHandle(Address.class).getDeserializer(), MockRenameDeserializer.INSTANCE);
+        test.getDeserializers().keySet().remove(Address.class);
+        assertSame(test.findHandle(Address.class).getDeserializer(), DefaultDeserializer.INSTANCE);
+    }
+
+    public void test_findHandle_notBean() {
+        SerDeserializer deser = new DefaultDeserializer() {
+            @Override
+            public MetaBean findMetaBean(Class<?> beanType) {
+                return null;
+            }
+        };
+        SerDeserializers test = new SerDeserializers();
+        test.register(String.class, deser);
+        SerDeserializerHandle handle = test.findHandle(String.class);
+        assertSame(handle.getDeserializer(), deser);
+        assertNull(handle.getMetaBean());
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_read_interfaceRegistration() {
+        SerDeserializers desers = new SerDeserializers();
+        desers.registerHierarchy(Bean.class, MockRenameDeserializer.INSTANCE);
+        String xml = "<bean>" +
+                "<person type=\"org.joda.beans.gen.SimplePerson\"><firstName>John</firstName><surname>Smith</surname></person>" +
+                "</bean>";
+        FlexiBean parsed = JodaBeanSer.COMPACT.withDeserializers(desers).xmlReader().read(xml, FlexiBean.class);
+        SimplePerson person = (SimplePerson) parsed.get("person");
+        assertEquals(person.getForename(), "John");
+        assertEquals(person.getSurname(), "Smith");
+    }
+
+}
@@ -0,0 +1,219 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import org.joda.beans.Bean;
+import org.joda.beans.BeanQuery;
+import org.joda.beans.gen.Address;
+import org.joda.beans.gen.CompanyAddress;
+import org.joda.beans.gen.ImmAddress;
+import org.joda.beans.gen.ImmPerson;
+import org.joda.beans.gen.Person;
+import org.joda.beans.gen.SimpleName;
+import org.joda.beans.impl.flexi.FlexiBean;
+import org.joda.beans.query.ChainedBeanQuery;
+import org.joda.beans.ser.bin.JodaBeanBinFormat;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Test projection.
+ */
+@Test
+public class TestSerProjection {
+
+    @DataProvider(name = "formats")
+    Object[][] data_formats() {
+        return new Object[][] {
+            {JodaBeanBinFormat.STANDARD},
+            {JodaBeanBinFormat.INDEXED},
+            {JodaBeanBinFormat.REFERENCING},
+            {"json"},
+            {"xml"},
+        };
+    }
+
+    private static <T> T roundTrip(Object format, Bean bean, Class<T> type, SerProjection projection) {
+        JodaBeanSer settings = JodaBeanSer.COMPACT;
+        if (format.equals("json")) {
+            return settings.jsonReader(projection).read(settings.jsonWriter().write(bean), type);
+        } else if (format.equals("xml")) {
+            return settings.xmlReader(projection).read(settings.xmlWriter().write(bean), type);
+        } else {
+            return settings.binReader(projection).read(settings.binWriter((JodaBeanBinFormat) format).write(bean), type);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Test(dataProvider = "formats")
+    public void test_read_nested(Object format) {
+        SerProjection projection = SerProjection.of(
+                Address.meta().street(),
+                ChainedBeanQuery.of(Address.meta().owner(), Person.meta().surname()));
+        Address parsed = roundTrip(format, SerTestHelper.testAddress(), Address.class, projection);
+        assertEquals(parsed.getStreet(), "Big Road");
+        assertEquals(parsed.getNumber(), 0);
+        assertNull(parsed.getCity());
+        assertEquals(parsed.getOwner().getSurname(), "Colebourne");
+        assertNull(parsed.getOwner().getForename());
+        assertNull(parsed.getOwner().getMainAddress());
+        assertEquals(parsed.getOwner().getAddressList().size(), 0);
+        assertEquals(parsed.getOwner().getExtensions().size(), 0);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    @Test(dataProvider = "formats")
+    public void test_read_collectionElements(Object format) {
+        BeanQuery addressList = Person.meta().addressList();
+        SerProjection projection = SerProjection.of(
+                ChainedBeanQuery.of(Address.meta().owner(), addressList, Address.meta().city()));
+        Address parsed = roundTrip(format, SerTestHelper.testAddress(), Address.class, projection);
+        assertNull(parsed.getStreet());
+        assertEquals(parsed.getOwner().getAddressList().size(), 3);
+        assertEquals(parsed.getOwner().getAddressList().get(0).getCity(), "Bigton");
+        assertNull(parsed.getOwner().getAddressList().get(0).getStreet());
+        assertNull(parsed.getOwner().getAddressList().get(1));
+        assertEquals(parsed.getOwner().getAddressList().get(2).getClass(), CompanyAddress.class);
+        assertEquals(parsed.getOwner().getAddressList().get(2).getCity(), "London");
+        assertNull(((CompanyAddress) parsed.getOwner().getAddressList().get(2)).getCompanyName());
+        assertNull(parsed.getOwner().getMainAddress());
+    }
+
+    @Test(dataProvider = "formats")
+    public void test_read_wholeProperty(Object format) {
+        Address address = SerTestHelper.testAddress();
+        SerProjection projection = SerProjection.of(
+                ChainedBeanQuery.of(Address.meta().owner(), Person.meta().surname()),
+                Address.meta().owner());
+        Address parsed = roundTrip(format, address, Address.class, projection);
+        assertNull(parsed.getStreet());
+        assertEquals(parsed.getOwner().getForename(), "Etienne");
+        assertEquals(parsed.getOwner().getMainAddress().getStreet(), "Park Street");
+    }
+
+    @Test(dataProvider = "formats")
+    public void test_read_typeInSkippedProperty(Object format) {
+        // the first address names the type in full, the second uses the short form
+        FlexiBean bean = new FlexiBean();
+        Address address = new Address();
+        address.setStreet("Main Street");
+        bean.set("first", address);
+        bean.set("second", address);
+        SerProjection projection = SerProjection.of(bean.metaBean().metaProperty("second"));
+        FlexiBean parsed = roundTrip(format, bean, FlexiBean.class, projection);
+        assertFalse(parsed.contains("first"));
+        assertEquals(((Address) parsed.get("second")).getStreet(), "Main Street");
+    }
+
+    @Test(dataProvider = "formats")
+    public void test_read_excludedSchemaReusedAsObject(Object format) {
+        // the schema of Address is defined in an excluded property and reused where the declared type is Object
+        Address objectAddress = new Address();
+        objectAddress.setStreet("Main Street");
+        ImmAddress address = SerTestHelper.testImmAddress().toBuilder()
+                .objectInMap(ImmutableMap.<String, Object>of("k", objectAddress))
+                .build();
+        SerProjection projection = SerProjection.of(
+                ImmAddress.meta().street(),
+                ImmAddress.meta().city(),
+                ChainedBeanQuery.of(ImmAddress.meta().owner(), ImmPerson.meta().forename()),
+                ImmAddress.meta().objectInMap());
+        ImmAddress parsed = roundTrip(format, address, ImmAddress.class, projection);
+        assertEquals(parsed.getOwner().getForename(), "Etienne");
+        assertNull(parsed.getOwner().getAddressList());
+        assertEquals(((Address) parsed.getObjectInMap().get("k")).getStreet(), "Main Street");
+    }
+
+    @Test(dataProvider = "formats")
+    public void test_read_excludedBeanReferencedLater(Object format) {
+        // in the referencing format, the person is first written in the excluded property
+        ImmPerson person = ImmPerson.builder().forename("John").surname("Smith").build();
+        ImmAddress address = SerTestHelper.testImmAddress().toBuilder()
+                .object1(person)
+                .objectInMap(ImmutableMap.<String, Object>of("k", person))
+                .build();
+        SerProjection projection = SerProjection.of(
+                ImmAddress.meta().street(),
+                ImmAddress.meta().city(),
+                ImmAddress.meta().owner(),
+                ImmAddress.meta().objectInMap());
+        ImmAddress parsed = roundTrip(format, address, ImmAddress.class, projection);
+        assertNull(parsed.getObject1());
+        assertEquals(parsed.getObjectInMap().get("k"), person);
+    }
+
+    public void test_read_aliasedProperty_json() {
+        String json = "{\"@bean\":\"org.joda.beans.gen.SimpleName\"," +
+                "\"firstName\":\"A\",\"givenName\":\"B\",\"middleNames\":[\"C\"]}";
+        SerProjection projection = SerProjection.of(SimpleName.meta().forename(), SimpleName.meta().surname());
+        SimpleName parsed = JodaBeanSer.COMPACT.jsonReader(projection).read(json, SimpleName.class);
+        assertEquals(parsed.getForename(), "A");
+        assertEquals(parsed.getSurname(), "B");
+        assertNull(parsed.getMiddleNames());
+    }
+
+    public void test_read_aliasedProperty_xml() {
+        String xml = "<bean type=\"org.joda.beans.gen.SimpleName\">" +
+                "<firstName>A</firstName><givenName>B</givenName><middleNames><item>C</item></middleNames></bean>";
+        SerProjection projection = SerProjection.of(SimpleName.meta().forename(), SimpleName.meta().surname());
+        SimpleName parsed = JodaBeanSer.COMPACT.xmlReader(projection).read(xml, SimpleName.class);
+        assertEquals(parsed.getForename(), "A");
+        assertEquals(parsed.getSurname(), "B");
+        assertNull(parsed.getMiddleNames());
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_of() {
+        SerProjection test = SerProjection.of(
+                ChainedBeanQuery.of(Address.meta().owner(), Person.meta().surname()),
+                Address.meta().street(),
+                ChainedBeanQuery.of(Address.meta().owner(), Person.meta().forename()));
+        assertTrue(test.includes("street"));
+        assertTrue(test.includes("owner"));
+        assertFalse(test.includes("city"));
+        assertNull(test.child("street"));
+        assertTrue(test.child("owner").includes("surname"));
+        assertTrue(test.child("owner").includes("forename"));
+        assertFalse(test.child("owner").includes("mainAddress"));
+        assertEquals(test.toString(), "{owner{surname, forename}, street}");
+    }
+
+    public void test_of_wholePropertyWins() {
+        SerProjection test1 = SerProjection.of(
+                Address.meta().owner(),
+                ChainedBeanQuery.of(Address.meta().owner(), Person.meta().surname()));
+        SerProjection test2 = SerProjection.of(
+                ChainedBeanQuery.of(Address.meta().owner(), Person.meta().surname()),
+                Address.meta().owner());
+        assertNull(test1.child("owner"));
+        assertEquals(test1, test2);
+        assertEquals(test1.hashCode(), test2.hashCode());
+        assertEquals(test1.toString(), "{owner}");
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void test_of_null() {
+        SerProjection.of((BeanQuery<?>[]) null);
+    }
+
+}
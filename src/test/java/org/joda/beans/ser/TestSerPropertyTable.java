@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import org.joda.beans.MetaBean;
+import org.joda.beans.MetaProperty;
+import org.joda.beans.gen.ImmPerson;
+import org.joda.beans.gen.Person;
+import org.joda.beans.gen.SimpleName;
+import org.joda.beans.impl.flexi.FlexiBean;
+import org.testng.annotations.Test;
+
+/**
+ * Test SerPropertyTable.
+ */
+@Test
+public class TestSerPropertyTable {
+
+    public void test_find() {
+        MetaBean metaBean = ImmPerson.meta();
+        SerPropertyTable test = SerPropertyTable.of(DefaultDeserializer.INSTANCE, metaBean);
+        for (MetaProperty<?> metaProp : metaBean.metaPropertyIterable()) {
+            String name = metaProp.name();
+            assertSame(test.find(name), metaProp);
+            char[] chars = ("[\"" + name + "\"]").toCharArray();
+            assertSame(test.find(chars, 2, name.length()), metaProp);
+        }
+        assertNull(test.find("unknown"));
+        assertNull(test.find("surnam"));
+        assertNull(test.find(""));
+        assertNull(test.find("xsurname".toCharArray(), 0, 8));
+    }
+
+    public void test_find_aliasNotMatched() {
+        SerPropertyTable test = SerPropertyTable.of(DefaultDeserializer.INSTANCE, SimpleName.meta());
+        assertSame(test.find("forename"), SimpleName.meta().forename());
+        assertNull(test.find("firstName"));
+    }
+
+    public void test_of_cached() {
+        assertSame(
+                SerPropertyTable.of(DefaultDeserializer.INSTANCE, Person.meta()),
+                SerPropertyTable.of(DefaultDeserializer.INSTANCE, Person.meta()));
+    }
+
+    public void test_of_notAvailable() {
+        SerDeserializer deser = new DefaultDeserializer() {
+        };
+        assertNull(SerPropertyTable.of(deser, Person.meta()));
+        assertNull(SerPropertyTable.of(DefaultDeserializer.INSTANCE, null));
+        assertNull(SerPropertyTable.of(DefaultDeserializer.INSTANCE, new FlexiBean().metaBean()));
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.joda.beans.Bean;
+import org.joda.beans.gen.Address;
+import org.joda.beans.gen.Company;
+import org.joda.beans.gen.CompanyAddress;
+import org.joda.beans.gen.ImmAddress;
+import org.joda.beans.gen.PrimitiveBean;
+import org.joda.beans.ser.bin.JodaBeanBinFormat;
+import org.joda.beans.test.BeanAssert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Test type aliases.
+ */
+@Test
+public class TestSerTypeAliases {
+
+    private static final SerTypeAliases ALIASES = SerTypeAliases.EMPTY
+            .with(Address.class, "addr")
+            .with(CompanyAddress.class, "coAddr")
+            .with(Company.class, "co")
+            .with(ImmAddress.class, "immAddr")
+            .with(PrimitiveBean.class, "prim")
+            .with(Currency.class, "ccy");
+    private static final JodaBeanSer SETTINGS = JodaBeanSer.COMPACT.withTypeAliases(ALIASES);
+
+    @DataProvider(name = "beans")
+    Object[][] data_beans() {
+        return new Object[][] {
+            {SerTestHelper.testAddress()},
+            {SerTestHelper.testImmAddress()},
+        };
+    }
+
+    //-----------------------------------------------------------------------
+    @Test(dataProvider = "beans")
+    public void test_json(Bean bean) {
+        String json = SETTINGS.jsonWriter().write(bean);
+        assertFalse(json.contains("org.joda.beans.gen.Address\""));
+        assertFalse(json.contains("CompanyAddress\""));
+        assertFalse(json.contains("PrimitiveBean\""));
+        BeanAssert.assertBeanEquals(SETTINGS.jsonReader().read(json), bean);
+    }
+
+    public void test_json_aliasWritten() {
+        String json = SETTINGS.jsonWriter().write(SerTestHelper.testAddress());
+        assertTrue(json.startsWith("{\"@bean\":\"addr\","));
+        assertTrue(json.contains("\"@bean\":\"coAddr\""));
+        assertTrue(json.contains("\"@bean\":\"co\""));
+    }
+
+    @Test(dataProvider = "beans")
+    public void test_xml(Bean bean) {
+        String xml = SETTINGS.xmlWriter().write(bean);
+        assertFalse(xml.contains("CompanyAddress\""));
+        BeanAssert.assertBeanEquals(SETTINGS.xmlReader().read(xml), bean);
+    }
+
+    @Test(dataProvider = "beans")
+    public void test_bin(Bean bean) {
+        for (JodaBeanBinFormat format : JodaBeanBinFormat.values()) {
+            byte[] bytes = SETTINGS.binWriter(format).write(bean);
+            BeanAssert.assertBeanEquals(SETTINGS.binReader().read(bytes), bean);
+            assertTrue(bytes.length < JodaBeanSer.COMPACT.binWriter(format).write(bean).length);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_of() {
+        Map<Class<?>, String> map = new LinkedHashMap<Class<?>, String>();
+        map.put(Address.class, "addr");
+        map.put(Company.class, "co");
+        SerTypeAliases test = SerTypeAliases.of(map);
+        assertEquals(test.getAlias(Address.class), "addr");
+        assertEquals(test.getType("co"), Company.class);
+        assertNull(test.getAlias(Currency.class));
+        assertNull(test.getType("ccy"));
+        assertEquals(test.getAliases(), map);
+        assertEquals(test, SerTypeAliases.EMPTY.with(Address.class, "addr").with(Company.class, "co"));
+        assertEquals(test.hashCode(), SerTypeAliases.EMPTY.with(Address.class, "addr").with(Company.class, "co").hashCode());
+    }
+
+    @DataProvider(name = "badAliases")
+    Object[][] data_badAliases() {
+        return new Object[][] {
+            {""},
+            {"Addr"},
+            {"1addr"},
+            {"a.b"},
+            {"addr"},
+        };
+    }
+
+    @Test(dataProvider = "badAliases", expectedExceptions = IllegalArgumentException.class)
+    public void test_with_badAlias(String alias) {
+        SerTypeAliases.EMPTY.with(Address.class, "addr").with(Company.class, alias);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_with_duplicateType() {
+        SerTypeAliases.EMPTY.with(Address.class, "addr").with(Address.class, "other");
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+
+import org.joda.beans.Bean;
+import org.joda.beans.gen.Address;
+import org.joda.beans.gen.ImmAddress;
+import org.joda.beans.gen.ImmOptional;
+import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerTestHelper;
+import org.joda.beans.test.BeanAssert;
+import org.testng.annotations.Test;
+
+/**
+ * Test binary container.
+ */
+@Test
+public class TestBinContainer {
+
+    private static final Address ADDRESS = SerTestHelper.testAddress();
+    private static final ImmAddress IMM_ADDRESS = SerTestHelper.testImmAddress();
+    private static final ImmOptional IMM_OPTIONAL = SerTestHelper.testImmOptional();
+
+    private static byte[] writeContainer(Bean... beans) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        JodaBeanBinContainerWriter writer = new JodaBeanBinContainerWriter(JodaBeanSer.COMPACT, baos);
+        for (Bean bean : beans) {
+            writer.write(bean);
+        }
+        assertEquals(writer.size(), beans.length);
+        writer.close();
+        return baos.toByteArray();
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_iterate_stream() throws IOException {
+        byte[] bytes = writeContainer(ADDRESS, IMM_ADDRESS, IMM_OPTIONAL, ADDRESS);
+        JodaBeanBinContainerReader reader = new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, new ByteArrayInputStream(bytes));
+        Iterator<Bean> it = reader.iterator(Bean.class);
+        assertTrue(it.hasNext());
+        BeanAssert.assertBeanEquals(it.next(), ADDRESS);
+        BeanAssert.assertBeanEquals(it.next(), IMM_ADDRESS);
+        BeanAssert.assertBeanEquals(it.next(), IMM_OPTIONAL);
+        BeanAssert.assertBeanEquals(it.next(), ADDRESS);
+        assertFalse(it.hasNext());
+    }
+
+    public void test_iterate_buffer() throws IOException {
+        byte[] bytes = writeContainer(ADDRESS, IMM_ADDRESS);
+        JodaBeanBinContainerReader reader = new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, ByteBuffer.wrap(bytes));
+        Iterator<Bean> it = reader.iterator(Bean.class);
+        BeanAssert.assertBeanEquals(it.next(), ADDRESS);
+        BeanAssert.assertBeanEquals(it.next(), IMM_ADDRESS);
+        assertFalse(it.hasNext());
+    }
+
+    public void test_iterate_unfinished() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        JodaBeanBinContainerWriter writer = new JodaBeanBinContainerWriter(JodaBeanSer.COMPACT, baos);
+        writer.write(IMM_ADDRESS);
+        writer.write(IMM_ADDRESS);
+        writer.finish();
+        byte[] finished = baos.toByteArray();
+
+        JodaBeanBinContainerReader reader = new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, new ByteArrayInputStream(finished, 0, 3));
+        assertFalse(reader.iterator(ImmAddress.class).hasNext());
+    }
+
+    public void test_randomAccess() throws IOException {
+        byte[] bytes = writeContainer(ADDRESS, IMM_ADDRESS, IMM_OPTIONAL, IMM_ADDRESS);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 5);
+        buffer.position(5);
+        buffer.put(bytes);
+        buffer.position(5);
+        JodaBeanBinContainerReader reader = new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, buffer);
+        assertEquals(reader.size(), 4);
+        // later entries use the shared type names defined by earlier entries
+        BeanAssert.assertBeanEquals(reader.read(3, ImmAddress.class), IMM_ADDRESS);
+        BeanAssert.assertBeanEquals(reader.read(2, ImmOptional.class), IMM_OPTIONAL);
+        BeanAssert.assertBeanEquals(reader.read(0, Address.class), ADDRESS);
+        BeanAssert.assertBeanEquals(reader.read(1, Bean.class), IMM_ADDRESS);
+        assertEquals(buffer.position(), 5);
+    }
+
+    public void test_sharedTypeNames() throws IOException {
+        byte[] single = JodaBeanSer.COMPACT.binWriter().write(IMM_ADDRESS);
+        byte[] bytes = writeContainer(IMM_ADDRESS, IMM_ADDRESS, IMM_ADDRESS);
+        String str = new String(bytes, MsgPack.UTF_8);
+        String fullName = ImmAddress.class.getName();
+        // once in the first entry, once in the dictionary
+        assertEquals(str.indexOf(fullName, str.indexOf(fullName) + 1) > 0, true);
+        assertEquals(str.indexOf(fullName, str.indexOf(fullName, str.indexOf(fullName) + 1) + 1), -1);
+        // additional entries do not repeat the full type name
+        byte[] one = writeContainer(IMM_ADDRESS);
+        assertTrue(bytes.length - one.length < (single.length - fullName.length()) * 2);
+    }
+
+    public void test_empty() throws IOException {
+        byte[] bytes = writeContainer();
+        JodaBeanBinContainerReader reader = new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, ByteBuffer.wrap(bytes));
+        assertEquals(reader.size(), 0);
+        assertFalse(reader.iterator(Bean.class).hasNext());
+    }
+
+    //-----------------------------------------------------------------------
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void test_randomAccess_invalidIndex() throws IOException {
+        byte[] bytes = writeContainer(ADDRESS);
+        new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, ByteBuffer.wrap(bytes)).read(1, Bean.class);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void test_randomAccess_stream() throws IOException {
+        byte[] bytes = writeContainer(ADDRESS);
+        new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, new ByteArrayInputStream(bytes)).read(0, Bean.class);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_invalidHeader() {
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(ADDRESS);
+        new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, ByteBuffer.wrap(bytes));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void test_writeAfterFinish() throws IOException {
+        JodaBeanBinContainerWriter writer = new JodaBeanBinContainerWriter(JodaBeanSer.COMPACT, new ByteArrayOutputStream());
+        writer.finish();
+        writer.write(ADDRESS);
+    }
+
+}
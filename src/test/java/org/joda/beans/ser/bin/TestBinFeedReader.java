@@ -0,0 +1,148 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.beans.Bean;
+import org.joda.beans.gen.Address;
+import org.joda.beans.gen.PrimitiveBean;
+import org.joda.beans.impl.flexi.FlexiBean;
+import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerBeanConsumer;
+import org.joda.beans.ser.SerTestHelper;
+import org.joda.beans.test.BeanAssert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Test JodaBeanBinFeedReader.
+ */
+@Test
+public class TestBinFeedReader {
+
+    @DataProvider(name = "formats")
+    Object[][] data_formats() {
+        JodaBeanBinFormat[] formats = JodaBeanBinFormat.values();
+        int[] chunkSizes = {1, 2, 7, 100, Integer.MAX_VALUE};
+        Object[][] result = new Object[formats.length * chunkSizes.length][];
+        for (int i = 0; i < formats.length; i++) {
+            for (int j = 0; j < chunkSizes.length; j++) {
+                result[i * chunkSizes.length + j] = new Object[] {formats[i], chunkSizes[j]};
+            }
+        }
+        return result;
+    }
+
+    private static List<Bean> beans() {
+        PrimitiveBean primitives = new PrimitiveBean();
+        primitives.setValueLong(Long.MIN_VALUE);
+        primitives.setValueInt(70000);
+        primitives.setValueShort((short) -300);
+        primitives.setValueByte((byte) -100);
+        primitives.setValueDouble(1.5d);
+        primitives.setValueFloat(2.5f);
+        primitives.setValueChar('\u00e9');
+        primitives.setValueBoolean(true);
+        FlexiBean flexi = new FlexiBean();
+        flexi.set("text", new String(new char[70000]).replace('\0', 'x'));
+        return Arrays.<Bean>asList(
+                SerTestHelper.testAddress(), primitives, flexi, SerTestHelper.testImmAddress(), SerTestHelper.testImmOptional());
+    }
+
+    private static void feed(JodaBeanBinFeedReader<Bean> reader, byte[] bytes, int chunkSize) {
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            reader.feed(bytes, i, Math.min(chunkSize, bytes.length - i));
+        }
+        reader.finish();
+    }
+
+    private static final class Collector implements SerBeanConsumer<Bean> {
+        private final List<Bean> beans = new ArrayList<Bean>();
+        @Override
+        public void accept(Bean bean) {
+            beans.add(bean);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Test(dataProvider = "formats")
+    public void test_feed(JodaBeanBinFormat format, int chunkSize) throws Exception {
+        List<Bean> beans = beans();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for (Bean bean : beans) {
+            baos.write(JodaBeanSer.COMPACT.binWriter(format).write(bean));
+        }
+        Collector collector = new Collector();
+        feed(new JodaBeanBinFeedReader<Bean>(JodaBeanSer.COMPACT, Bean.class, collector), baos.toByteArray(), chunkSize);
+        assertEquals(collector.beans.size(), beans.size());
+        for (int i = 0; i < beans.size(); i++) {
+            BeanAssert.assertBeanEquals(collector.beans.get(i), beans.get(i));
+        }
+    }
+
+    @Test(dataProvider = "formats")
+    public void test_feed_session(JodaBeanBinFormat format, int chunkSize) throws Exception {
+        JodaBeanBinTypeDictionary dictionary = JodaBeanBinTypeDictionary.of(Address.class);
+        JodaBeanBinWriter writer = new JodaBeanBinWriter(JodaBeanSer.COMPACT, format, dictionary);
+        List<Bean> beans = beans();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for (Bean bean : beans) {
+            baos.write(writer.write(bean));
+            baos.write(writer.write(bean));
+        }
+        Collector collector = new Collector();
+        feed(new JodaBeanBinFeedReader<Bean>(JodaBeanSer.COMPACT, dictionary, Bean.class, collector), baos.toByteArray(), chunkSize);
+        assertEquals(collector.beans.size(), beans.size() * 2);
+        for (int i = 0; i < beans.size(); i++) {
+            BeanAssert.assertBeanEquals(collector.beans.get(i * 2), beans.get(i));
+            BeanAssert.assertBeanEquals(collector.beans.get(i * 2 + 1), beans.get(i));
+        }
+    }
+
+    public void test_feed_byteBuffer() {
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(SerTestHelper.testAddress());
+        Collector collector = new Collector();
+        JodaBeanBinFeedReader<Bean> reader = new JodaBeanBinFeedReader<Bean>(JodaBeanSer.COMPACT, Bean.class, collector);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        reader.feed(direct);
+        assertEquals(direct.remaining(), 0);
+        reader.feed(ByteBuffer.wrap(bytes));
+        assertEquals(collector.beans.size(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_finish_partial() {
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(SerTestHelper.testAddress());
+        JodaBeanBinFeedReader<Bean> reader = new JodaBeanBinFeedReader<Bean>(JodaBeanSer.COMPACT, Bean.class, new Collector());
+        reader.feed(bytes, 0, bytes.length - 1);
+        reader.finish();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_feed_invalid() {
+        JodaBeanBinFeedReader<Bean> reader = new JodaBeanBinFeedReader<Bean>(JodaBeanSer.COMPACT, Bean.class, new Collector());
+        reader.feed(new byte[] {(byte) 0xC1});
+    }
+
+}
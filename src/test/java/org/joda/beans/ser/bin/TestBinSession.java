@@ -0,0 +1,134 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.joda.beans.gen.Address;
+import org.joda.beans.gen.CompanyAddress;
+import org.joda.beans.gen.ImmAddress;
+import org.joda.beans.gen.Person;
+import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerTestHelper;
+import org.joda.beans.test.BeanAssert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Test binary session mode.
+ */
+@Test
+public class TestBinSession {
+
+    private static final Address ADDRESS = SerTestHelper.testAddress();
+    private static final ImmAddress IMM_ADDRESS = SerTestHelper.testImmAddress();
+
+    @DataProvider(name = "formats")
+    Object[][] data_formats() {
+        JodaBeanBinFormat[] formats = JodaBeanBinFormat.values();
+        Object[][] result = new Object[formats.length][];
+        for (int i = 0; i < formats.length; i++) {
+            result[i] = new Object[] {formats[i]};
+        }
+        return result;
+    }
+
+    private static boolean contains(byte[] bytes, String str) {
+        return new String(bytes, MsgPack.UTF_8).contains(str);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test(dataProvider = "formats")
+    public void test_readWrite(JodaBeanBinFormat format) {
+        JodaBeanBinWriter writer = new JodaBeanBinWriter(JodaBeanSer.COMPACT, format, JodaBeanBinTypeDictionary.EMPTY);
+        byte[] bytes1 = writer.write(ADDRESS);
+        byte[] bytes2 = writer.write(IMM_ADDRESS);
+        byte[] bytes3 = writer.write(ADDRESS);
+        assertTrue(contains(bytes1, "org.joda.beans.gen.Address"));
+        assertFalse(contains(bytes3, "org.joda.beans.gen.Address"));
+        assertTrue(bytes3.length < bytes1.length);
+
+        JodaBeanBinReader reader = new JodaBeanBinReader(JodaBeanSer.COMPACT, JodaBeanBinTypeDictionary.EMPTY);
+        BeanAssert.assertBeanEquals(reader.read(bytes1), ADDRESS);
+        BeanAssert.assertBeanEquals(reader.read(bytes2), IMM_ADDRESS);
+        BeanAssert.assertBeanEquals(reader.read(bytes3), ADDRESS);
+    }
+
+    @Test(dataProvider = "formats")
+    public void test_readWrite_buffer(JodaBeanBinFormat format) {
+        JodaBeanBinWriter writer = new JodaBeanBinWriter(JodaBeanSer.COMPACT, format, JodaBeanBinTypeDictionary.EMPTY);
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        writer.write(IMM_ADDRESS, buffer);
+        writer.write(ADDRESS, buffer);
+        writer.write(IMM_ADDRESS, buffer);
+        buffer.flip();
+
+        JodaBeanBinReader reader = new JodaBeanBinReader(JodaBeanSer.COMPACT, JodaBeanBinTypeDictionary.EMPTY);
+        BeanAssert.assertBeanEquals(reader.read(buffer, ImmAddress.class), IMM_ADDRESS);
+        BeanAssert.assertBeanEquals(reader.read(buffer, Address.class), ADDRESS);
+        BeanAssert.assertBeanEquals(reader.read(buffer, ImmAddress.class), IMM_ADDRESS);
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test(dataProvider = "formats")
+    public void test_readWrite_dictionary(JodaBeanBinFormat format) {
+        JodaBeanBinTypeDictionary dictionary = JodaBeanBinTypeDictionary.of(Address.class, Person.class, CompanyAddress.class);
+        JodaBeanBinWriter writer = new JodaBeanBinWriter(JodaBeanSer.COMPACT, format, dictionary);
+        byte[] bytes = writer.write(ADDRESS);
+        assertFalse(contains(bytes, "org.joda.beans.gen.Address"));
+        assertFalse(contains(bytes, "org.joda.beans.gen.CompanyAddress"));
+
+        JodaBeanBinReader reader = new JodaBeanBinReader(JodaBeanSer.COMPACT, dictionary);
+        BeanAssert.assertBeanEquals(reader.read(bytes), ADDRESS);
+    }
+
+    @Test(dataProvider = "formats", expectedExceptions = RuntimeException.class)
+    public void test_read_messageMissed(JodaBeanBinFormat format) {
+        JodaBeanBinWriter writer = new JodaBeanBinWriter(JodaBeanSer.COMPACT, format, JodaBeanBinTypeDictionary.EMPTY);
+        writer.write(ADDRESS);
+        byte[] bytes = writer.write(ADDRESS);
+        new JodaBeanBinReader(JodaBeanSer.COMPACT, JodaBeanBinTypeDictionary.EMPTY).read(bytes);
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_dictionary_load() {
+        JodaBeanBinTypeDictionary test = JodaBeanBinTypeDictionary.load("org/joda/beans/ser/bin/TestTypeDictionary.txt");
+        assertEquals(test, JodaBeanBinTypeDictionary.of(Address.class, Person.class, CompanyAddress.class));
+        assertEquals(test.getTypeNames(), Arrays.asList(
+                "org.joda.beans.gen.Address", "org.joda.beans.gen.Person", "org.joda.beans.gen.CompanyAddress"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_dictionary_load_notFound() {
+        JodaBeanBinTypeDictionary.load("org/joda/beans/ser/bin/Unknown.txt");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_dictionary_duplicate() {
+        JodaBeanBinTypeDictionary.of(Address.class, Address.class);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_dictionary_number() {
+        JodaBeanBinTypeDictionary.of(Arrays.asList("12"));
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.joda.beans.gen.Address;
+import org.joda.beans.gen.ImmAddress;
+import org.joda.beans.gen.ImmPersonPair;
+import org.joda.beans.gen.ImmSubPersonNonFinal;
+import org.joda.beans.gen.ImmTolerance;
+import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerTestHelper;
+import org.joda.beans.test.BeanAssert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Test binary view.
+ */
+@Test
+public class TestBinView {
+
+    private static final ImmAddress IMM_ADDRESS = SerTestHelper.testImmAddress();
+
+    @DataProvider(name = "formats")
+    Object[][] data_formats() {
+        JodaBeanBinFormat[] formats = JodaBeanBinFormat.values();
+        Object[][] result = new Object[formats.length][];
+        for (int i = 0; i < formats.length; i++) {
+            result[i] = new Object[] {formats[i]};
+        }
+        return result;
+    }
+
+    //-----------------------------------------------------------------------
+    @Test(dataProvider = "formats")
+    public void test_get(JodaBeanBinFormat format) {
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter(format).write(IMM_ADDRESS);
+        JodaBeanBinView view = JodaBeanSer.COMPACT.binReader().view(bytes);
+        assertEquals(view.beanType(), ImmAddress.class);
+        assertSame(view.metaBean(), ImmAddress.meta());
+        assertTrue(view.contains("street"));
+        assertTrue(view.propertyNames().contains("owner"));
+        assertEquals(view.get("street"), "Park Street");
+        assertEquals(view.get(ImmAddress.meta().number()), Integer.valueOf(185));
+        BeanAssert.assertBeanEquals(view.get(ImmAddress.meta().owner()), IMM_ADDRESS.getOwner());
+        // cached
+        assertSame(view.get("owner"), view.get("owner"));
+        BeanAssert.assertBeanEquals(view.build(), IMM_ADDRESS);
+    }
+
+    @Test(dataProvider = "formats")
+    public void test_get_dependsOnEarlierProperty(JodaBeanBinFormat format) {
+        // later properties use type names, schemas and references defined by earlier properties
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter(format).write(IMM_ADDRESS);
+        JodaBeanBinView view = JodaBeanSer.COMPACT.binReader().view(bytes);
+        assertEquals(view.get("beanBeanMap"), IMM_ADDRESS.getBeanBeanMap());
+        assertEquals(view.get("denseGrid"), IMM_ADDRESS.getDenseGrid());
+        assertEquals(view.get("compoundTable"), IMM_ADDRESS.getCompoundTable());
+        assertEquals(view.get("street"), "Park Street");
+    }
+
+    @Test(dataProvider = "formats")
+    public void test_get_schemaSharedBySubtypeAndSupertype(JodaBeanBinFormat format) {
+        // the schema is defined without a type by 'subPerson', declared as the subtype,
+        // and then used by 'person', declared as the supertype
+        ImmSubPersonNonFinal sub1 = (ImmSubPersonNonFinal) ImmSubPersonNonFinal.meta().builder()
+                .set("forename", "John").set("middleName", "K").set("surname", "Smith").build();
+        ImmSubPersonNonFinal sub2 = (ImmSubPersonNonFinal) ImmSubPersonNonFinal.meta().builder()
+                .set("forename", "Jane").set("surname", "Jones").build();
+        ImmPersonPair pair = ImmPersonPair.builder().subPerson(sub1).person(sub2).build();
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter(format).write(pair);
+        JodaBeanBinView view = JodaBeanSer.COMPACT.binReader().view(bytes);
+        // accessed out of order
+        BeanAssert.assertBeanEquals(view.get(ImmPersonPair.meta().person()), sub2);
+        BeanAssert.assertBeanEquals(view.get(ImmPersonPair.meta().subPerson()), sub1);
+        BeanAssert.assertBeanEquals(view.build(), pair);
+    }
+
+    public void test_get_absent() {
+        ImmTolerance bean = ImmTolerance.builder().value(1.5d).build();
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter(JodaBeanBinFormat.INDEXED).write(bean);
+        JodaBeanBinView view = JodaBeanSer.COMPACT.binReader().view(bytes);
+        assertEquals(view.get("value"), Double.valueOf(1.5d));
+        assertFalse(view.contains("array"));
+        assertNull(view.get("array"));
+        assertNull(view.get("unknown"));
+    }
+
+    public void test_buffer_dynamicBean() {
+        Address address = SerTestHelper.testAddress();
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(address);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 3);
+        buffer.position(3);
+        buffer.put(bytes);
+        buffer.position(3);
+        JodaBeanBinView view = JodaBeanSer.COMPACT.binReader().view(buffer, Address.class);
+        assertEquals(view.get("street"), address.getStreet());
+        BeanAssert.assertBeanEquals(view.get(Address.meta().owner()), address.getOwner());
+        assertEquals(buffer.position(), 3);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_rootTypeNotSpecified() {
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(IMM_ADDRESS, false);
+        JodaBeanSer.COMPACT.binReader().view(bytes);
+    }
+
+}
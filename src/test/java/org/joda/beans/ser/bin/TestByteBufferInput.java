@@ -0,0 +1,97 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Test ByteBufferInput.
+ */
+@Test
+public class TestByteBufferInput {
+
+    @DataProvider(name = "direct")
+    Object[][] data_direct() {
+        return new Object[][] {{false}, {true}};
+    }
+
+    private static ByteBuffer buffer(byte[] bytes, boolean direct) {
+        ByteBuffer buffer = (direct ? ByteBuffer.allocateDirect(bytes.length + 2) : ByteBuffer.allocate(bytes.length + 2));
+        buffer.position(2);
+        buffer.put(bytes);
+        buffer.position(2);
+        return buffer;
+    }
+
+    //-----------------------------------------------------------------------
+    @Test(dataProvider = "direct")
+    public void test_readFully(boolean direct) throws IOException {
+        ByteBufferInput test = new ByteBufferInput(buffer(new byte[] {1, 2, 3, 4, 5}, direct));
+        byte[] bytes = new byte[6];
+        test.readFully(bytes, 1, 4);
+        assertEquals(bytes, new byte[] {0, 1, 2, 3, 4, 0});
+        assertEquals(test.read(), 5);
+        assertEquals(test.read(), -1);
+    }
+
+    @Test(dataProvider = "direct", expectedExceptions = EOFException.class)
+    public void test_readFully_endOfBuffer(boolean direct) throws IOException {
+        ByteBufferInput test = new ByteBufferInput(buffer(new byte[] {1, 2}, direct));
+        test.readFully(new byte[3]);
+    }
+
+    @Test(dataProvider = "direct")
+    public void test_readUTF(boolean direct) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        out.writeUTF("Hello é€\u0000");
+        out.writeUTF("");
+        out.close();
+        ByteBufferInput test = new ByteBufferInput(buffer(baos.toByteArray(), direct));
+        assertEquals(test.readUTF(), "Hello é€\u0000");
+        assertEquals(test.readUTF(), "");
+        assertEquals(test.available(), 0);
+    }
+
+    @Test(dataProvider = "direct", expectedExceptions = EOFException.class)
+    public void test_readUTF_endOfBuffer(boolean direct) throws IOException {
+        ByteBufferInput test = new ByteBufferInput(buffer(new byte[] {0, 5, 'a', 'b'}, direct));
+        test.readUTF();
+    }
+
+    @Test(dataProvider = "direct")
+    public void test_readLine(boolean direct) throws IOException {
+        ByteBufferInput test = new ByteBufferInput(buffer("a\nbc\r\nd\re\n\nf".getBytes("ISO-8859-1"), direct));
+        assertEquals(test.readLine(), "a");
+        assertEquals(test.readLine(), "bc");
+        assertEquals(test.readLine(), "d");
+        assertEquals(test.readLine(), "e");
+        assertEquals(test.readLine(), "");
+        assertEquals(test.readLine(), "f");
+        assertNull(test.readLine());
+    }
+
+}
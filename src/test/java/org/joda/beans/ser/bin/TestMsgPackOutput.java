@@ -0,0 +1,208 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Test MsgPackOutput.
+ */
+@Test
+public class TestMsgPackOutput {
+
+    public void test_writeValues() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        out.writeByte(MsgPack.MIN_FIX_ARRAY + 9);
+        out.writeByte(MsgPack.NIL);
+        out.writeByte(MsgPack.TRUE);
+        out.writeByte(5);
+        out.writeByte(MsgPack.SINT_16);
+        out.writeShort(-1000);
+        out.writeByte(MsgPack.UINT_64);
+        out.writeLong(Long.MAX_VALUE);
+        out.writeByte(MsgPack.FLOAT_64);
+        out.writeDouble(1.5d);
+        out.writeByte(MsgPack.MIN_FIX_STR + 3);
+        out.writeBytes("abc");
+        out.writeByte(MsgPack.MIN_FIX_STR + 2);
+        out.write(new byte[] {(byte) 0xC3, (byte) 0xA9});
+        out.writeByte(MsgPack.EXT_8);
+        out.writeByte(3);
+        out.writeByte(7);
+        out.writeBytes("xyz");
+        out.close();
+        
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        MsgPackOutput output = new MsgPackOutput(actual);
+        output.writeArrayHeader(9);
+        output.writeNil();
+        output.writeBoolean(true);
+        output.writeInt(5);
+        output.writeInt(-1000);
+        output.writeLong(Long.MAX_VALUE);
+        output.writeDouble(1.5d);
+        output.writeString("abc");
+        output.writeString("é");
+        output.writeExtension(7, "xyz".getBytes(MsgPack.UTF_8));
+        assertEquals(actual.size(), 0);
+        assertEquals(output.size(), baos.size());
+        output.flush();
+        assertEquals(actual.toByteArray(), baos.toByteArray());
+    }
+
+    public void test_writeString_longerThanBuffer() throws IOException {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            buf.append("abcé");
+        }
+        String str = buf.toString();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        MsgPackOutput large = new MsgPackOutput(expected);
+        large.writeString(str);
+        large.writeString("ascii");
+        large.flush();
+        
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        MsgPackOutput small = new MsgPackOutput(actual, 16);
+        small.writeString(str);
+        small.writeString("ascii");
+        small.flush();
+        assertEquals(actual.toByteArray(), expected.toByteArray());
+        assertEquals(small.size(), actual.size());
+    }
+
+    public void test_bulkWrites() throws IOException {
+        final int[] writes = new int[1];
+        OutputStream counting = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(int b) {
+                writes[0]++;
+                super.write(b);
+            }
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                writes[0]++;
+                super.write(b, off, len);
+            }
+        };
+        MsgPackOutput output = new MsgPackOutput(counting);
+        for (int i = 0; i < 1000; i++) {
+            output.writeInt(i);
+        }
+        output.close();
+        assertEquals(writes[0], 1);
+    }
+
+    //-----------------------------------------------------------------------
+    @DataProvider(name = "buffers")
+    Object[][] data_buffers() {
+        return new Object[][] {
+            {"heap"},
+            {"slice"},
+            {"direct"},
+        };
+    }
+
+    private static ByteBuffer createBuffer(String kind, int size) {
+        if (kind.equals("heap")) {
+            return ByteBuffer.allocate(size + 3);
+        } else if (kind.equals("slice")) {
+            ByteBuffer outer = ByteBuffer.allocate(size + 10);
+            outer.position(7);
+            return outer.slice();
+        } else {
+            return ByteBuffer.allocateDirect(size + 3);
+        }
+    }
+
+    // writes data that crosses the end of the internal buffer and the limit of the target
+    private static void writeSample(MsgPackOutput output) throws IOException {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            buf.append("abcd");
+        }
+        output.writeArrayHeader(6);
+        output.writeString("abc");
+        output.writeString(buf.toString());
+        output.writeString("abcé");
+        output.writeExtensionPrimitiveArray(MsgPack.JODA_TYPE_ARRAY, new long[2000]);
+        output.writeInt(-1000);
+        output.writeString("end");
+        output.flush();
+    }
+
+    @Test(dataProvider = "buffers")
+    public void test_writeToByteBuffer(String kind) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeSample(new MsgPackOutput(baos));
+        byte[] expected = baos.toByteArray();
+        
+        // the buffer has exactly enough space after the position
+        ByteBuffer buffer = createBuffer(kind, expected.length);
+        buffer.position(3);
+        MsgPackOutput output = new MsgPackOutput();
+        output.setTarget(buffer);
+        writeSample(output);
+        assertEquals(output.size(), expected.length);
+        assertEquals(buffer.position(), expected.length + 3);
+        byte[] actual = new byte[expected.length];
+        buffer.position(3);
+        buffer.get(actual);
+        assertEquals(actual, expected);
+    }
+
+    @Test(dataProvider = "buffers", expectedExceptions = BufferOverflowException.class)
+    public void test_writeToByteBuffer_overflow(String kind) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeSample(new MsgPackOutput(baos));
+        
+        ByteBuffer buffer = createBuffer(kind, baos.size() - 1);
+        buffer.position(3);
+        MsgPackOutput output = new MsgPackOutput();
+        output.setTarget(buffer);
+        writeSample(output);
+    }
+
+    public void test_setStream_reuse() throws IOException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        writeSample(new MsgPackOutput(expected));
+        
+        MsgPackOutput output = new MsgPackOutput();
+        output.setTarget(ByteBuffer.allocate(expected.size()));
+        writeSample(output);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        output.setStream(actual);
+        writeSample(output);
+        assertEquals(actual.toByteArray(), expected.toByteArray());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_bufferTooSmall() {
+        new MsgPackOutput(new ByteArrayOutputStream(), 15);
+    }
+
+}
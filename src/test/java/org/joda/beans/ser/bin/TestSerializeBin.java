@@ -16,25 +16,52 @@
 package org.joda.beans.ser.bin;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Date;
 
 import org.joda.beans.Bean;
+import org.joda.beans.MetaBean;
+import org.joda.beans.MetaProperty;
 import org.joda.beans.gen.Address;
+import org.joda.beans.gen.ClonePerson;
 import org.joda.beans.gen.Company;
 import org.joda.beans.gen.ImmAddress;
 import org.joda.beans.gen.ImmOptional;
+import org.joda.beans.gen.ImmPerson;
+import org.joda.beans.gen.ImmTolerance;
 import org.joda.beans.gen.JodaConvertBean;
 import org.joda.beans.gen.JodaConvertWrapper;
 import org.joda.beans.gen.Person;
+import org.joda.beans.gen.SimpleName;
 import org.joda.beans.impl.flexi.FlexiBean;
+import org.joda.beans.ser.DefaultDeserializer;
 import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerDeserializers;
+import org.joda.beans.ser.SerProjection;
 import org.joda.beans.ser.SerTestHelper;
 import org.joda.beans.test.BeanAssert;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableMap;
+
 /**
  * Test property roundtrip using binary.
  */
@@ -72,6 +99,477 @@ public class TestSerializeBin {
         BeanAssert.assertBeanEquals(bean, optional);
     }
 
+    //-----------------------------------------------------------------------
+    public void test_writeAddress_indexed() {
+        Address address = SerTestHelper.testAddress();
+        byte[] bytes = JodaBeanSer.PRETTY.binWriter(JodaBeanBinFormat.INDEXED).write(address);
+        
+        Address bean = (Address) JodaBeanSer.PRETTY.binReader().read(bytes);
+        BeanAssert.assertBeanEquals(bean, address);
+    }
+
+    public void test_writeImmAddress_indexed() {
+        ImmAddress address = SerTestHelper.testImmAddress();
+        byte[] standard = JodaBeanSer.PRETTY.binWriter().write(address);
+        byte[] bytes = JodaBeanSer.PRETTY.binWriter(JodaBeanBinFormat.INDEXED).write(address);
+        assertTrue(bytes.length < standard.length);
+        
+        ImmAddress bean = (ImmAddress) JodaBeanSer.PRETTY.binReader().read(bytes);
+        BeanAssert.assertBeanEquals(bean, address);
+    }
+
+    public void test_writeImmOptional_indexed() {
+        ImmOptional optional = SerTestHelper.testImmOptional();
+        byte[] bytes = JodaBeanSer.PRETTY.binWriter(JodaBeanBinFormat.INDEXED).write(optional);
+        
+        ImmOptional bean = (ImmOptional) JodaBeanSer.PRETTY.binReader().read(bytes);
+        BeanAssert.assertBeanEquals(bean, optional);
+    }
+
+    public void test_readWriteJodaConvertWrapper_indexed() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        out.writeByte(MsgPack.MIN_FIX_ARRAY + 2);
+        out.writeByte(2);
+        out.writeByte(MsgPack.MIN_FIX_MAP + 3);
+        out.writeByte(MsgPack.FIX_EXT_1);
+        out.writeByte(MsgPack.JODA_TYPE_SCHEMA);
+        out.writeByte(0);
+        out.writeByte(MsgPack.MIN_FIX_ARRAY + 3);
+        out.writeByte(MsgPack.NIL);
+        out.writeByte(MsgPack.MIN_FIX_STR + 4);
+        out.writeBytes("bean");
+        out.writeByte(MsgPack.MIN_FIX_STR + 11);
+        out.writeBytes("description");
+        out.writeByte(0);
+        out.writeByte(MsgPack.MIN_FIX_STR + 7);
+        out.writeBytes("Hello:9");
+        out.writeByte(1);
+        out.writeByte(MsgPack.MIN_FIX_STR + 5);
+        out.writeBytes("Weird");
+        out.close();
+        byte[] expected = baos.toByteArray();
+        
+        JodaConvertWrapper wrapper = new JodaConvertWrapper();
+        JodaConvertBean bean = new JodaConvertBean("Hello:9");
+        wrapper.setBean(bean);
+        wrapper.setDescription("Weird");
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter(JodaBeanBinFormat.INDEXED).write(wrapper, false);
+        assertEquals(bytes, expected);
+        Bean parsed = JodaBeanSer.COMPACT.binReader().read(bytes, JodaConvertWrapper.class);
+        BeanAssert.assertBeanEquals(wrapper, parsed);
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void test_read_indexed_undefinedSchema() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        out.writeByte(MsgPack.MIN_FIX_ARRAY + 2);
+        out.writeByte(2);
+        out.writeByte(MsgPack.MIN_FIX_MAP + 1);
+        out.writeByte(MsgPack.FIX_EXT_1);
+        out.writeByte(MsgPack.JODA_TYPE_SCHEMA);
+        out.writeByte(0);
+        out.writeByte(MsgPack.NIL);
+        out.close();
+        JodaBeanSer.COMPACT.binReader().read(baos.toByteArray(), JodaConvertWrapper.class);
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_writeAddress_referencing() {
+        Address address = SerTestHelper.testAddress();
+        byte[] bytes = JodaBeanSer.PRETTY.binWriter(JodaBeanBinFormat.REFERENCING).write(address);
+        
+        Address bean = (Address) JodaBeanSer.PRETTY.binReader().read(bytes);
+        BeanAssert.assertBeanEquals(bean, address);
+    }
+
+    public void test_writeImmAddress_referencing() {
+        ImmAddress address = SerTestHelper.testImmAddress();
+        byte[] indexed = JodaBeanSer.PRETTY.binWriter(JodaBeanBinFormat.INDEXED).write(address);
+        byte[] bytes = JodaBeanSer.PRETTY.binWriter(JodaBeanBinFormat.REFERENCING).write(address);
+        assertTrue(bytes.length < indexed.length);
+        
+        ImmAddress bean = (ImmAddress) JodaBeanSer.PRETTY.binReader().read(bytes);
+        BeanAssert.assertBeanEquals(bean, address);
+        // repeated immutable beans and strings are read as the same instance
+        assertSame(bean.getDenseGrid().get(1, 1), bean.getSparseGrid().get(1, 1));
+        assertSame(bean.getDenseGrid().get(0, 0).getSurname(), bean.getOwner().getSurname());
+    }
+
+    public void test_write_referencing_byIdentity() {
+        ImmPerson person = ImmPerson.builder().forename("John").surname("Smith").build();
+        ImmPerson equalPerson = ImmPerson.builder().forename("John").surname("Smith").build();
+        FlexiBean bean = new FlexiBean();
+        bean.set("first", person);
+        bean.set("second", person);
+        bean.set("third", equalPerson);
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter(JodaBeanBinFormat.REFERENCING).write(bean);
+        
+        FlexiBean parsed = (FlexiBean) JodaBeanSer.COMPACT.binReader().read(bytes);
+        BeanAssert.assertBeanEquals(parsed, bean);
+        // the same instance is referenced, whereas an equal instance is written again
+        assertSame(parsed.get("second"), parsed.get("first"));
+        assertNotSame(parsed.get("third"), parsed.get("first"));
+    }
+
+    public void test_writeImmOptional_referencing() {
+        ImmOptional optional = SerTestHelper.testImmOptional();
+        byte[] bytes = JodaBeanSer.PRETTY.binWriter(JodaBeanBinFormat.REFERENCING).write(optional);
+        
+        ImmOptional bean = (ImmOptional) JodaBeanSer.PRETTY.binReader().read(bytes);
+        BeanAssert.assertBeanEquals(bean, optional);
+    }
+
+    public void test_read_referencing_unknownProperties() {
+        // the skipped properties define schemas and references used later in the message
+        SerDeserializers desers = new SerDeserializers();
+        desers.register(ImmPerson.class, new DefaultDeserializer() {
+            @Override
+            public MetaProperty<?> findMetaProperty(Class<?> beanType, MetaBean metaBean, String propertyName) {
+                if (propertyName.equals("surname") || propertyName.equals("addressList")) {
+                    return null;
+                }
+                return super.findMetaProperty(beanType, metaBean, propertyName);
+            }
+        });
+        ImmAddress address = SerTestHelper.testImmAddress();
+        for (JodaBeanBinFormat format : JodaBeanBinFormat.values()) {
+            byte[] bytes = JodaBeanSer.COMPACT.binWriter(format).write(address);
+            ImmAddress bean = JodaBeanSer.COMPACT.withDeserializers(desers).binReader().read(bytes, ImmAddress.class);
+            assertEquals(bean.getOwner().getForename(), "Etienne");
+            assertNull(bean.getOwner().getSurname());
+            assertEquals(bean.getDenseGrid().get(1, 1).getForename(), "Kylie");
+            assertEquals(bean.getObjectListInListInMap(), address.getObjectListInListInMap());
+        }
+    }
+
+    public void test_read_referencing_beanReferencedFromUnknownProperty() {
+        // the person is first written in the unknown property, then referenced by a known property
+        SerDeserializers desers = new SerDeserializers();
+        desers.register(ImmAddress.class, new DefaultDeserializer() {
+            @Override
+            public MetaProperty<?> findMetaProperty(Class<?> beanType, MetaBean metaBean, String propertyName) {
+                if (propertyName.equals("object1")) {
+                    return null;
+                }
+                return super.findMetaProperty(beanType, metaBean, propertyName);
+            }
+        });
+        ImmPerson person = ImmPerson.builder().forename("John").surname("Smith").build();
+        ImmAddress address = SerTestHelper.testImmAddress().toBuilder()
+                .object1(person)
+                .objectInMap(ImmutableMap.<String, Object>of("k", person))
+                .build();
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter(JodaBeanBinFormat.REFERENCING).write(address);
+        ImmAddress bean = JodaBeanSer.COMPACT.withDeserializers(desers).binReader().read(bytes, ImmAddress.class);
+        assertNull(bean.getObject1());
+        assertEquals(bean.getObjectInMap().get("k"), person);
+    }
+
+    public void test_read_skippedSchemaReusedAsObject() {
+        // the schema of Address is defined in a skipped property and reused where the declared type is Object
+        SerDeserializers desers = new SerDeserializers();
+        desers.register(ImmPerson.class, new DefaultDeserializer() {
+            @Override
+            public MetaProperty<?> findMetaProperty(Class<?> beanType, MetaBean metaBean, String propertyName) {
+                if (propertyName.equals("addressList")) {
+                    return null;
+                }
+                return super.findMetaProperty(beanType, metaBean, propertyName);
+            }
+        });
+        Address objectAddress = new Address();
+        objectAddress.setStreet("Main Street");
+        ImmAddress address = SerTestHelper.testImmAddress().toBuilder()
+                .objectInMap(ImmutableMap.<String, Object>of("k", objectAddress))
+                .build();
+        for (JodaBeanBinFormat format : JodaBeanBinFormat.values()) {
+            byte[] bytes = JodaBeanSer.COMPACT.binWriter(format).write(address);
+            ImmAddress bean = JodaBeanSer.COMPACT.withDeserializers(desers).binReader().read(bytes, ImmAddress.class);
+            assertNull(bean.getOwner().getAddressList());
+            assertEquals(((Address) bean.getObjectInMap().get("k")).getStreet(), "Main Street");
+        }
+    }
+
+    public void test_read_projection_aliasedProperty() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        MsgPackOutput output = new MsgPackOutput(baos);
+        output.writeArrayHeader(2);
+        output.writeInt(1);
+        output.writeMapHeader(4);
+        output.writeExtensionString(MsgPack.JODA_TYPE_BEAN, SimpleName.class.getName());
+        output.writeNil();
+        output.writeString("firstName");
+        output.writeString("A");
+        output.writeString("givenName");
+        output.writeString("B");
+        output.writeString("middleNames");
+        output.writeArrayHeader(1);
+        output.writeString("C");
+        output.close();
+        SerProjection projection = SerProjection.of(SimpleName.meta().forename(), SimpleName.meta().surname());
+        SimpleName parsed = JodaBeanSer.COMPACT.binReader(projection).read(baos.toByteArray(), SimpleName.class);
+        assertEquals(parsed.getForename(), "A");
+        assertEquals(parsed.getSurname(), "B");
+        assertNull(parsed.getMiddleNames());
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_readWrite_primitiveArray_packed() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        out.writeByte(MsgPack.MIN_FIX_ARRAY + 2);
+        out.writeByte(2);
+        out.writeByte(MsgPack.MIN_FIX_MAP + 3);
+        out.writeByte(MsgPack.FIX_EXT_1);
+        out.writeByte(MsgPack.JODA_TYPE_SCHEMA);
+        out.writeByte(0);
+        out.writeByte(MsgPack.MIN_FIX_ARRAY + 3);
+        out.writeByte(MsgPack.NIL);
+        out.writeByte(MsgPack.MIN_FIX_STR + 5);
+        out.writeBytes("value");
+        out.writeByte(MsgPack.MIN_FIX_STR + 5);
+        out.writeBytes("array");
+        out.writeByte(0);
+        out.writeByte(MsgPack.FLOAT_64);
+        out.writeDouble(0.5d);
+        out.writeByte(1);
+        out.writeByte(MsgPack.EXT_8);
+        out.writeByte(17);
+        out.writeByte(MsgPack.JODA_TYPE_ARRAY);
+        out.writeByte('D');
+        out.writeDouble(1.5d);
+        out.writeDouble(-2d);
+        out.close();
+        byte[] expected = baos.toByteArray();
+        
+        ImmTolerance bean = ImmTolerance.builder().value(0.5d).array(new double[] {1.5d, -2d}).build();
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter(JodaBeanBinFormat.INDEXED).write(bean, false);
+        assertEquals(bytes, expected);
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(bytes, ImmTolerance.class), bean);
+    }
+
+    public void test_readWrite_primitiveArray_large() {
+        double[] array = new double[10000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = i / 7d;
+        }
+        ImmTolerance bean = ImmTolerance.builder().array(array).build();
+        byte[] standard = JodaBeanSer.COMPACT.binWriter().write(bean);
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter(JodaBeanBinFormat.INDEXED).write(bean);
+        assertTrue(bytes.length < standard.length);
+        
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(bytes, ImmTolerance.class), bean);
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(new ByteArrayInputStream(bytes), ImmTolerance.class), bean);
+        // old data as strings can still be read
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(standard, ImmTolerance.class), bean);
+    }
+
+    public void test_readWrite_primitiveArray_int() {
+        ClonePerson bean = new ClonePerson();
+        bean.setSurname("Smith");
+        bean.setDateOfBirth(new Date(0));
+        bean.setAmounts(new int[] {1, -2, Integer.MAX_VALUE});
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter(JodaBeanBinFormat.REFERENCING).write(bean);
+        
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(bytes, ClonePerson.class), bean);
+    }
+
+    public void test_write_primitiveArray_allTypes() throws IOException {
+        assertPacked(new double[] {1d, 2.5d}, 'D', 16);
+        assertPacked(new float[] {1f, 2.5f}, 'F', 8);
+        assertPacked(new long[] {1L, Long.MAX_VALUE}, 'J', 16);
+        assertPacked(new int[] {1, -2}, 'I', 8);
+        assertPacked(new short[] {1, -2}, 'S', 4);
+        assertPacked(new char[] {'a', '\u1234'}, 'C', 4);
+        assertPacked(new boolean[] {true, false, true}, 'Z', 3);
+        assertPacked(new int[0], 'I', 0);
+        assertPacked(new long[5000], 'J', 40000);
+    }
+
+    private void assertPacked(Object array, char descriptor, int dataSize) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        MsgPackOutput output = new MsgPackOutput(baos, 64);
+        output.writeExtensionPrimitiveArray(MsgPack.JODA_TYPE_ARRAY, array);
+        output.flush();
+        byte[] bytes = baos.toByteArray();
+        int headerSize = (dataSize + 1 < 256 ? 3 : (dataSize + 1 < 65536 ? 4 : 6));
+        assertEquals(bytes.length, headerSize + 1 + dataSize);
+        assertEquals(bytes[headerSize - 1], MsgPack.JODA_TYPE_ARRAY);
+        assertEquals(bytes[headerSize], (byte) descriptor);
+        if (array instanceof int[] && dataSize > 0) {
+            assertEquals(ByteBuffer.wrap(bytes, headerSize + 1, 4).getInt(), ((int[]) array)[0]);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_write_heapByteBuffer() {
+        Address address = SerTestHelper.testAddress();
+        byte[] expected = JodaBeanSer.COMPACT.binWriter().write(address);
+        
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length + 10);
+        buffer.position(4);
+        JodaBeanSer.COMPACT.binWriter().write(address, buffer);
+        assertEquals(buffer.position(), expected.length + 4);
+        assertEquals(copy(buffer, 4, expected.length), expected);
+    }
+
+    public void test_write_directByteBuffer() {
+        ImmAddress address = SerTestHelper.testImmAddress();
+        byte[] expected = JodaBeanSer.COMPACT.binWriter().write(address);
+        
+        ByteBuffer buffer = ByteBuffer.allocateDirect(expected.length);
+        JodaBeanSer.COMPACT.binWriter().write(address, buffer);
+        assertEquals(buffer.position(), expected.length);
+        byte[] bytes = copy(buffer, 0, expected.length);
+        assertEquals(bytes, expected);
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(bytes), address);
+    }
+
+    public void test_write_byteBufferOverflow() {
+        Address address = SerTestHelper.testAddress();
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        buffer.position(2);
+        try {
+            JodaBeanSer.COMPACT.binWriter().write(address, buffer);
+            throw new AssertionError("Expected BufferOverflowException");
+        } catch (BufferOverflowException ex) {
+            assertEquals(buffer.position(), 2);
+        }
+    }
+
+    public void test_write_reuseWriter() {
+        JodaBeanBinWriter writer = JodaBeanSer.COMPACT.binWriter();
+        Address address = SerTestHelper.testAddress();
+        ImmAddress immAddress = SerTestHelper.testImmAddress();
+        byte[] expected1 = JodaBeanSer.COMPACT.binWriter().write(address);
+        byte[] expected2 = JodaBeanSer.COMPACT.binWriter().write(immAddress);
+        
+        ByteBuffer buffer = ByteBuffer.allocate(expected1.length + expected2.length);
+        writer.write(address, buffer);
+        writer.write(immAddress, buffer);
+        assertEquals(copy(buffer, 0, expected1.length), expected1);
+        assertEquals(copy(buffer, expected1.length, expected2.length), expected2);
+        assertEquals(writer.write(address), expected1);
+        assertEquals(writer.write(immAddress), expected2);
+    }
+
+    public void test_writeToBuffer() {
+        JodaBeanBinWriter writer = JodaBeanSer.COMPACT.binWriter();
+        Address address = SerTestHelper.testAddress();
+        byte[] expected = JodaBeanSer.COMPACT.binWriter().write(address);
+        
+        ByteBuffer buffer1 = writer.writeToBuffer(address);
+        assertEquals(buffer1.position(), 0);
+        assertEquals(copy(buffer1, 0, buffer1.limit()), expected);
+        ByteBuffer buffer2 = writer.writeToBuffer(address);
+        assertSame(buffer2, buffer1);
+        assertEquals(copy(buffer2, 0, buffer2.limit()), expected);
+    }
+
+    public void test_writeToBuffer_largeMessageNotRetained() {
+        JodaBeanBinWriter writer = JodaBeanSer.COMPACT.binWriter();
+        FlexiBean bean = new FlexiBean();
+        char[] chars = new char[ReusableByteArrayOutputStream.MAX_RETAINED_SIZE * 2];
+        Arrays.fill(chars, 'x');
+        bean.set("big", new String(chars));
+        byte[] expected = JodaBeanSer.COMPACT.binWriter().write(bean);
+        
+        ByteBuffer buffer = writer.writeToBuffer(bean);
+        assertEquals(copy(buffer, 0, buffer.limit()), expected);
+        Address address = SerTestHelper.testAddress();
+        ByteBuffer small = writer.writeToBuffer(address);
+        assertEquals(copy(small, 0, small.limit()), JodaBeanSer.COMPACT.binWriter().write(address));
+        // the view of the large message is unaffected by the later write
+        assertEquals(copy(buffer, 0, buffer.limit()), expected);
+    }
+
+    public void test_reusableStream_release() {
+        ReusableByteArrayOutputStream test = new ReusableByteArrayOutputStream(16);
+        assertTrue(test.acquire());
+        test.write(new byte[1000], 0, 1000);
+        test.release();
+        assertTrue(test.capacity() >= 1000);
+        assertTrue(test.acquire());
+        test.write(new byte[ReusableByteArrayOutputStream.MAX_RETAINED_SIZE + 1], 0, ReusableByteArrayOutputStream.MAX_RETAINED_SIZE + 1);
+        test.release();
+        assertEquals(test.capacity(), 16);
+        assertEquals(test.size(), 0);
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_read_heapByteBuffer() {
+        Address address = SerTestHelper.testAddress();
+        ImmAddress immAddress = SerTestHelper.testImmAddress();
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        buffer.position(3);
+        JodaBeanBinWriter writer = JodaBeanSer.COMPACT.binWriter();
+        writer.write(address, buffer);
+        writer.write(immAddress, buffer);
+        buffer.flip();
+        buffer.position(3);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(buffer, Address.class), address);
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(buffer, ImmAddress.class), immAddress);
+        assertEquals(buffer.remaining(), 0);
+    }
+
+    public void test_read_directByteBuffer() {
+        ImmOptional optional = SerTestHelper.testImmOptional();
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(optional);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(buffer), optional);
+        assertEquals(buffer.remaining(), 0);
+    }
+
+    public void test_read_mappedByteBuffer() throws IOException {
+        Address address = SerTestHelper.testAddress();
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(address);
+        File file = File.createTempFile("joda-beans", ".bin");
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                out.write(bytes);
+            } finally {
+                out.close();
+            }
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, bytes.length);
+                BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(buffer), address);
+            } finally {
+                raf.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void test_read_streamWithoutMarkSupport() {
+        Address address = SerTestHelper.testAddress();
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(address);
+        FilterInputStream in = new FilterInputStream(new ByteArrayInputStream(bytes)) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(in), address);
+    }
+
+    private static byte[] copy(ByteBuffer buffer, int start, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return bytes;
+    }
+
     //-----------------------------------------------------------------------
     public void test_readWrite_primitives() throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
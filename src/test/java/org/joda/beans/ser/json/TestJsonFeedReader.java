@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2001-2016 Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.json;
+
+import static org.testng.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.beans.Bean;
+import org.joda.beans.impl.flexi.FlexiBean;
+import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerBeanConsumer;
+import org.joda.beans.ser.SerTestHelper;
+import org.joda.beans.test.BeanAssert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Test JodaBeanJsonFeedReader.
+ */
+@Test
+public class TestJsonFeedReader {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @DataProvider(name = "chunkSizes")
+    Object[][] data_chunkSizes() {
+        return new Object[][] {
+            {1},
+            {2},
+            {7},
+            {100},
+            {Integer.MAX_VALUE},
+        };
+    }
+
+    private static List<Bean> beans() {
+        FlexiBean flexi = new FlexiBean();
+        flexi.set("tricky", "{[\"\\}]\u00e9\ud83d\ude00");
+        return Arrays.<Bean>asList(SerTestHelper.testAddress(), flexi, SerTestHelper.testImmOptional());
+    }
+
+    private static void feed(JodaBeanJsonFeedReader<Bean> reader, byte[] bytes, int chunkSize) {
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            reader.feed(bytes, i, Math.min(chunkSize, bytes.length - i));
+        }
+        reader.finish();
+    }
+
+    private static final class Collector implements SerBeanConsumer<Bean> {
+        private final List<Bean> beans = new ArrayList<Bean>();
+        @Override
+        public void accept(Bean bean) {
+            beans.add(bean);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Test(dataProvider = "chunkSizes")
+    public void test_feed_lines(int chunkSize) throws Exception {
+        List<Bean> beans = beans();
+        StringBuilder buf = new StringBuilder();
+        JodaBeanSer.COMPACT.jsonWriter().writeLines(beans.iterator(), buf);
+        Collector collector = new Collector();
+        feed(new JodaBeanJsonFeedReader<Bean>(JodaBeanSer.COMPACT, Bean.class, collector), buf.toString().getBytes(UTF_8), chunkSize);
+        assertEquals(collector.beans.size(), beans.size());
+        for (int i = 0; i < beans.size(); i++) {
+            BeanAssert.assertBeanEquals(collector.beans.get(i), beans.get(i));
+        }
+    }
+
+    @Test(dataProvider = "chunkSizes")
+    public void test_feed_pretty(int chunkSize) throws Exception {
+        List<Bean> beans = beans();
+        StringBuilder buf = new StringBuilder();
+        for (Bean bean : beans) {
+            buf.append(JodaBeanSer.PRETTY.jsonWriter().write(bean));
+        }
+        Collector collector = new Collector();
+        feed(new JodaBeanJsonFeedReader<Bean>(JodaBeanSer.PRETTY, Bean.class, collector), buf.toString().getBytes(UTF_8), chunkSize);
+        assertEquals(collector.beans.size(), beans.size());
+        for (int i = 0; i < beans.size(); i++) {
+            BeanAssert.assertBeanEquals(collector.beans.get(i), beans.get(i));
+        }
+    }
+
+    public void test_feed_byteBuffer() {
+        byte[] bytes = JodaBeanSer.COMPACT.jsonWriter().write(SerTestHelper.testAddress()).getBytes(UTF_8);
+        Collector collector = new Collector();
+        JodaBeanJsonFeedReader<Bean> reader = new JodaBeanJsonFeedReader<Bean>(JodaBeanSer.COMPACT, Bean.class, collector);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        reader.feed(direct);
+        assertEquals(direct.remaining(), 0);
+        reader.feed(ByteBuffer.wrap(bytes));
+        assertEquals(collector.beans.size(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_finish_partial() {
+        byte[] bytes = JodaBeanSer.COMPACT.jsonWriter().write(SerTestHelper.testAddress()).getBytes(UTF_8);
+        JodaBeanJsonFeedReader<Bean> reader = new JodaBeanJsonFeedReader<Bean>(JodaBeanSer.COMPACT, Bean.class, new Collector());
+        reader.feed(bytes, 0, bytes.length - 1);
+        reader.finish();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_feed_invalid() {
+        JodaBeanJsonFeedReader<Bean> reader = new JodaBeanJsonFeedReader<Bean>(JodaBeanSer.COMPACT, Bean.class, new Collector());
+        reader.feed(" [".getBytes(UTF_8));
+    }
+
+}
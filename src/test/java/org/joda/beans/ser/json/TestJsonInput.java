@@ -16,9 +16,16 @@
 package org.joda.beans.ser.json;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 
+import java.io.FilterReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -234,6 +241,41 @@ public class TestJsonInput {
         input.readEvent();
     }
 
+    public void test_parseNumberFloating_exact() throws IOException {
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            double value = Math.rint(random.nextGaussian() * 1e6) / Math.pow(10, random.nextInt(9));
+            if (i % 4 == 0) {
+                value = Double.longBitsToDouble(random.nextLong());
+            }
+            if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) < 1e-3 || Math.abs(value) >= 1e7) {
+                continue;
+            }
+            String text = Double.toString(value);
+            JsonInput input = new JsonInput(new StringReader(text + '}'));
+            assertEquals(input.readEvent(), JsonEvent.NUMBER_FLOATING);
+            assertEquals(Double.doubleToLongBits(input.parseNumberFloating()), Double.doubleToLongBits(value), text);
+        }
+    }
+
+    public void test_parseNumberFloating_exactExponent() throws IOException {
+        String[] texts = {"1.5e-22", "-2.25E22", "123456789012345e-5", "1234567890123456e3", "7e-300", "0.000000000000000000000001"};
+        for (String text : texts) {
+            JsonInput input = new JsonInput(new StringReader(text + '}'));
+            assertEquals(input.readEvent(), JsonEvent.NUMBER_FLOATING);
+            assertEquals(Double.doubleToLongBits(input.parseNumberFloating()), Double.doubleToLongBits(Double.parseDouble(text)), text);
+        }
+    }
+
+    public void test_parseNumberIntegral_long() throws IOException {
+        long[] values = {Long.MAX_VALUE, Long.MIN_VALUE, 999999999999999999L, -999999999999999999L};
+        for (long value : values) {
+            JsonInput input = new JsonInput(new StringReader(value + "}"));
+            assertEquals(input.readEvent(), JsonEvent.NUMBER_INTEGRAL);
+            assertEquals(input.parseNumberIntegral(), value);
+        }
+    }
+
     //-----------------------------------------------------------------------
     @DataProvider(name = "numberBad")
     Object[][] data_numberBad() {
@@ -317,6 +359,7 @@ public class TestJsonInput {
             {"false"},
             {"\"\""},
             {"\"text\""},
+            {"\"te\\\"xt\""},
             {"-1"},
             {"1"},
             {"1.0"},
@@ -343,4 +386,76 @@ public class TestJsonInput {
         input.skipData();
     }
 
+    @Test(dataProvider = "skip")
+    public void test_skipValue(String text) throws IOException {
+        JsonInput input = new JsonInput(new StringReader(text + ','));
+        List<String> types = new ArrayList<String>();
+        input.skipValue(input.readEvent(), types);
+        assertEquals(input.readEvent(), JsonEvent.COMMA);
+        assertEquals(types, new ArrayList<String>());
+    }
+
+    public void test_skipValue_brackets_in_strings() throws IOException {
+        JsonInput input = new JsonInput(new StringReader("{\"a]\":\"}{\\\"[\",\"b\":[\"]\\\\\"]},"));
+        List<String> types = new ArrayList<String>();
+        input.skipValue(input.readEvent(), types);
+        assertEquals(input.readEvent(), JsonEvent.COMMA);
+    }
+
+    public void test_skipValue_types() throws IOException {
+        JsonInput input = new JsonInput(new StringReader(
+                "{\"@bean\":\"com.foo.Bean\",\"@meta\":\"List\",\"a\":[{\"@type\" : \"com.foo.Type\",\"value\":\"@bean\"}]," +
+                "\"b\":\"@type\",\"@x\":1},"));
+        List<String> types = new ArrayList<String>();
+        input.skipValue(input.readEvent(), types);
+        assertEquals(input.readEvent(), JsonEvent.COMMA);
+        assertEquals(types, Arrays.asList("com.foo.Bean", "com.foo.Type"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_skipValue_endOfFile() throws IOException {
+        JsonInput input = new JsonInput(new StringReader("{\"a\":[1,2}"));
+        input.skipValue(input.readEvent(), new ArrayList<String>());
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_parseObjectKey_cached() throws IOException {
+        JsonInput input = new JsonInput(new StringReader("{\"name\":1,\"name\":2,\"na\\u006de\":3}"));
+        assertEquals(input.readEvent(), JsonEvent.OBJECT);
+        String key1 = input.acceptObjectKey(input.readEvent());
+        assertEquals(input.readEvent(), JsonEvent.NUMBER_INTEGRAL);
+        String key2 = input.acceptObjectKey(input.acceptObjectSeparator());
+        assertEquals(input.readEvent(), JsonEvent.NUMBER_INTEGRAL);
+        String key3 = input.acceptObjectKey(input.acceptObjectSeparator());
+        assertEquals(key1, "name");
+        assertSame(key2, key1);
+        assertEquals(key3, "name");
+    }
+
+    public void test_parseString_acrossBlocks() throws IOException {
+        char[] chars = new char[20000];
+        Arrays.fill(chars, 'x');
+        String text = new String(chars);
+        String json = "[\"" + text + "\",\"" + text + "\\n\",{\"" + text.substring(0, 8190) + "\":true}]";
+        JsonInput input = new JsonInput(new OneCharReader(new StringReader(json)));
+        assertEquals(input.readEvent(), JsonEvent.ARRAY);
+        assertEquals(input.acceptString(), text);
+        assertEquals(input.acceptArraySeparator(), JsonEvent.STRING);
+        assertEquals(input.parseString(), text + "\n");
+        assertEquals(input.acceptArraySeparator(), JsonEvent.OBJECT);
+        assertEquals(input.acceptObjectKey(input.readEvent()), text.substring(0, 8190));
+        assertEquals(input.readEvent(), JsonEvent.TRUE);
+    }
+
+    // reader returning one character at a time
+    static class OneCharReader extends FilterReader {
+        OneCharReader(Reader in) {
+            super(in);
+        }
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            return super.read(cbuf, off, Math.min(len, 1));
+        }
+    }
+
 }
@@ -18,6 +18,7 @@ package org.joda.beans.ser.json;
 import static org.testng.Assert.assertEquals;
 
 import java.io.IOException;
+import java.util.Random;
 
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
@@ -94,6 +95,8 @@ public class TestJsonOutput {
             {1234567, "1234567"},
             {-1, "-1"},
             {-1234567, "-1234567"},
+            {Long.MAX_VALUE, "9223372036854775807"},
+            {Long.MIN_VALUE, "-9223372036854775808"},
         };
     }
 
@@ -114,6 +117,14 @@ public class TestJsonOutput {
             {-1234567d, "-1234567.0"},
             {0.000001d, "1.0E-6"},
             {0.1234d, "0.1234"},
+            {-0d, "-0.0"},
+            {0.001d, "0.001"},
+            {0.0125d, "0.0125"},
+            {-100.25d, "-100.25"},
+            {9999999.5d, "9999999.5"},
+            {1e7d, "1.0E7"},
+            {0.1d + 0.2d, "0.30000000000000004"},
+            {12.123456789d, "12.123456789"},
             {Double.NaN, "\"NaN\""},
             {Double.POSITIVE_INFINITY, "\"Infinity\""},
             {Double.NEGATIVE_INFINITY, "\"-Infinity\""},
@@ -126,6 +137,20 @@ public class TestJsonOutput {
         assertEquals(buf.toString(), expected);
     }
 
+    public void test_writeDouble_matchesToString() throws IOException {
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            double value = Math.rint(random.nextGaussian() * 1e6) / Math.pow(10, random.nextInt(9));
+            if (i % 4 == 0) {
+                value = random.nextDouble() * Math.pow(10, random.nextInt(12) - 4);
+            }
+            buf.setLength(0);
+            outputCompact.writeDouble(value);
+            assertEquals(Double.doubleToLongBits(Double.parseDouble(buf.toString())), Double.doubleToLongBits(value));
+            assertEquals(buf.toString(), Double.toString(value));
+        }
+    }
+
     @DataProvider(name = "float")
     Object[][] data_float() {
         return new Object[][] {
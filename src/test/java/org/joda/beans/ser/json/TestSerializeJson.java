@@ -16,10 +16,21 @@
 package org.joda.beans.ser.json;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.joda.beans.Bean;
 import org.joda.beans.gen.Address;
@@ -33,9 +44,11 @@ import org.joda.beans.gen.JodaConvertBean;
 import org.joda.beans.gen.JodaConvertWrapper;
 import org.joda.beans.gen.Person;
 import org.joda.beans.gen.PrimitiveBean;
+import org.joda.beans.gen.SimpleName;
 import org.joda.beans.gen.SimplePerson;
 import org.joda.beans.impl.flexi.FlexiBean;
 import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerProjection;
 import org.joda.beans.ser.SerTestHelper;
 import org.joda.beans.test.BeanAssert;
 import org.testng.annotations.DataProvider;
@@ -79,6 +92,193 @@ public class TestSerializeJson {
         BeanAssert.assertBeanEquals(bean, optional);
     }
 
+    //-----------------------------------------------------------------------
+    public void test_writeBytes() throws IOException {
+        Charset utf8 = Charset.forName("UTF-8");
+        ImmAddress address = SerTestHelper.testImmAddress();
+        for (JodaBeanSer settings : new JodaBeanSer[] {JodaBeanSer.COMPACT, JodaBeanSer.PRETTY}) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            settings.jsonWriter().writeUtf8(address, baos);
+            byte[] bytes = baos.toByteArray();
+            assertEquals(new String(bytes, utf8), settings.jsonWriter().write(address));
+
+            BeanAssert.assertBeanEquals(settings.jsonReader().read(bytes), address);
+            BeanAssert.assertBeanEquals(settings.jsonReader().read(new ByteArrayInputStream(bytes)), address);
+            BeanAssert.assertBeanEquals(settings.jsonReader().read(ByteBuffer.wrap(bytes), ImmAddress.class), address);
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+            direct.put(bytes).flip();
+            BeanAssert.assertBeanEquals(settings.jsonReader().read(direct, ImmAddress.class), address);
+            assertEquals(direct.remaining(), 0);
+        }
+    }
+
+    public void test_write_chunked() throws IOException {
+        Address address = SerTestHelper.testAddress();
+        String expected = JodaBeanSer.PRETTY.jsonWriter().write(address);
+        final List<Integer> chunks = new ArrayList<Integer>();
+        StringWriter writer = new StringWriter() {
+            @Override
+            public void write(char[] cbuf, int off, int len) {
+                chunks.add(len);
+                super.write(cbuf, off, len);
+            }
+        };
+        JodaBeanJsonWriter test = new JodaBeanJsonWriter(JodaBeanSer.PRETTY, 64);
+        test.write(address, writer);
+        assertEquals(writer.toString(), expected);
+        assertEquals(chunks.size(), (expected.length() + 63) / 64);
+        assertEquals(chunks.get(0).intValue(), 64);
+
+        final List<Integer> byteChunks = new ArrayList<Integer>();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                byteChunks.add(len);
+                super.write(b, off, len);
+            }
+        };
+        test.writeUtf8(SerTestHelper.testAddress(), baos);
+        assertEquals(new String(baos.toByteArray(), Charset.forName("UTF-8")), expected);
+        assertEquals(byteChunks.size() > 1, true);
+        assertEquals(byteChunks.get(0).intValue() <= 64, true);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_write_bufferTooSmall() {
+        new JodaBeanJsonWriter(JodaBeanSer.COMPACT, 15);
+    }
+
+    public void test_writeBytes_unicode() throws IOException {
+        Charset utf8 = Charset.forName("UTF-8");
+        FlexiBean bean = new FlexiBean();
+        bean.set("ascii", "text");
+        bean.set("latin", "caf\u00e9");
+        bean.set("cjk", "\u65e5\u672c\u8a9e");
+        bean.set("emoji", "smile \ud83d\ude00 end");
+        bean.set("unpaired", "a\ud83db");
+        bean.set("escapes", "\"\\\n\u2028");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        JodaBeanSer.COMPACT.jsonWriter().writeUtf8(bean, baos);
+        byte[] bytes = baos.toByteArray();
+        String json = JodaBeanSer.COMPACT.jsonWriter().write(bean);
+        assertEquals(bytes, json.getBytes(utf8));
+
+        FlexiBean parsed = JodaBeanSer.COMPACT.jsonReader().read(bytes, FlexiBean.class);
+        assertEquals(parsed.get("latin"), "caf\u00e9");
+        assertEquals(parsed.get("cjk"), "\u65e5\u672c\u8a9e");
+        assertEquals(parsed.get("emoji"), "smile \ud83d\ude00 end");
+        assertEquals(parsed.get("unpaired"), "a?b");
+        assertEquals(parsed.get("escapes"), "\"\\\n\u2028");
+    }
+
+    public void test_readBytes_malformed() {
+        byte[] bytes = new byte[] {'{', '"', 'a', '"', ':', '"', (byte) 0xC3, '"', '}'};
+        FlexiBean parsed = JodaBeanSer.COMPACT.jsonReader().read(bytes, FlexiBean.class);
+        assertEquals(parsed.get("a"), "\ufffd");
+    }
+
+    //-----------------------------------------------------------------------
+    @DataProvider(name = "settings")
+    Object[][] data_settings() {
+        return new Object[][] {
+            {JodaBeanSer.COMPACT},
+            {JodaBeanSer.PRETTY},
+        };
+    }
+
+    @Test(dataProvider = "settings")
+    public void test_writeArray_readArray(JodaBeanSer settings) throws IOException {
+        List<Bean> beans = Arrays.<Bean>asList(
+                SerTestHelper.testAddress(), SerTestHelper.testImmAddress(), SerTestHelper.testAddress());
+        StringBuilder buf = new StringBuilder();
+        settings.jsonWriter().writeArray(beans.iterator(), buf);
+        String json = buf.toString();
+        assertEquals(json.charAt(0), '[');
+
+        Iterator<Bean> it = settings.jsonReader().readArray(new StringReader(json), Bean.class);
+        for (Bean bean : beans) {
+            assertEquals(it.hasNext(), true);
+            BeanAssert.assertBeanEquals(it.next(), bean);
+        }
+        assertEquals(it.hasNext(), false);
+        assertEquals(it.hasNext(), false);
+    }
+
+    @Test(dataProvider = "settings")
+    public void test_writeArray_readArray_bytes(JodaBeanSer settings) throws IOException {
+        List<Address> beans = Arrays.asList(SerTestHelper.testAddress(), SerTestHelper.testAddress());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        settings.jsonWriter().writeArrayUtf8(beans.iterator(), baos);
+
+        Iterator<Address> it = settings.jsonReader().readArray(new ByteArrayInputStream(baos.toByteArray()), Address.class);
+        BeanAssert.assertBeanEquals(it.next(), beans.get(0));
+        BeanAssert.assertBeanEquals(it.next(), beans.get(1));
+        assertEquals(it.hasNext(), false);
+    }
+
+    public void test_writeArray_readArray_empty() throws IOException {
+        StringBuilder buf = new StringBuilder();
+        JodaBeanSer.COMPACT.jsonWriter().writeArray(new ArrayList<Bean>().iterator(), buf);
+        assertEquals(buf.toString(), "[]");
+        Iterator<Bean> it = JodaBeanSer.COMPACT.jsonReader().readArray(new StringReader("  [ ] "), Bean.class);
+        assertEquals(it.hasNext(), false);
+    }
+
+    @Test(dataProvider = "settings")
+    public void test_writeLines_readLines(JodaBeanSer settings) throws IOException {
+        List<Bean> beans = Arrays.<Bean>asList(
+                SerTestHelper.testAddress(), SerTestHelper.testImmAddress(), SerTestHelper.testAddress());
+        StringBuilder buf = new StringBuilder();
+        settings.jsonWriter().writeLines(beans.iterator(), buf);
+        String[] lines = buf.toString().split("\n");
+        assertEquals(lines.length, 3);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(lines[i], JodaBeanSer.COMPACT.jsonWriter().write(beans.get(i)));
+        }
+
+        Iterator<Bean> it = settings.jsonReader().readLines(new StringReader(buf.toString()), Bean.class);
+        for (Bean bean : beans) {
+            BeanAssert.assertBeanEquals(it.next(), bean);
+        }
+        assertEquals(it.hasNext(), false);
+    }
+
+    public void test_writeLines_readLines_bytes() throws IOException {
+        List<Address> beans = Arrays.asList(SerTestHelper.testAddress(), SerTestHelper.testAddress());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        JodaBeanSer.COMPACT.jsonWriter().writeLinesUtf8(beans.iterator(), baos);
+
+        Iterator<Address> it = JodaBeanSer.COMPACT.jsonReader().readLines(new ByteArrayInputStream(baos.toByteArray()), Address.class);
+        BeanAssert.assertBeanEquals(it.next(), beans.get(0));
+        BeanAssert.assertBeanEquals(it.next(), beans.get(1));
+        assertEquals(it.hasNext(), false);
+    }
+
+    public void test_readLines_lazy() {
+        String json = JodaBeanSer.COMPACT.jsonWriter().write(SerTestHelper.testAddress()) + "\r\n\n{\"@bean\":";
+        Iterator<Address> it = JodaBeanSer.COMPACT.jsonReader().readLines(new StringReader(json), Address.class);
+        BeanAssert.assertBeanEquals(it.next(), SerTestHelper.testAddress());
+        assertEquals(it.hasNext(), true);
+        try {
+            it.next();
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test(expectedExceptions = NoSuchElementException.class)
+    public void test_readLines_noSuchElement() {
+        Iterator<Bean> it = JodaBeanSer.COMPACT.jsonReader().readLines(new StringReader(" \n"), Bean.class);
+        it.next();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_readArray_notArray() {
+        Iterator<Bean> it = JodaBeanSer.COMPACT.jsonReader().readArray(new StringReader("{}"), Bean.class);
+        it.hasNext();
+    }
+
     //-----------------------------------------------------------------------
     public void test_readWriteBeanEmptyChild_pretty() {
         FlexiBean bean = new FlexiBean();
@@ -300,6 +500,34 @@ public class TestSerializeJson {
     }
 
     //-----------------------------------------------------------------------
+    public void test_read_aliasedAndEscapedKeys() {
+        String json = "{\"@bean\":\"org.joda.beans.gen.SimpleName\"," +
+                "\"firstName\":\"A\",\"givenName\":\"B\",\"middle\\u004eames\":[\"C\"]}";
+        Bean parsed = JodaBeanSer.COMPACT.jsonReader().read(json);
+        SimpleName bean = new SimpleName();
+        bean.setForename("A");
+        bean.setSurname("B");
+        bean.setMiddleNames(new String[] {"C"});
+        BeanAssert.assertBeanEquals(bean, parsed);
+    }
+
+    public void test_read_firstKeyIsProperty() {
+        String json = "{\"number\":12,\"street\":\"Road\"}";
+        Address parsed = JodaBeanSer.COMPACT.jsonReader().read(json, Address.class);
+        assertEquals(parsed.getNumber(), 12);
+        assertEquals(parsed.getStreet(), "Road");
+    }
+
+    public void test_read_excludedPropertySkipped() {
+        String json = "{\"number\":12,\"owner\":{\"@type\":\"org.joda.beans.gen.Person\"," +
+                "\"surname\":\"}]\\\"\",\"addressList\":[{\"number\":1.5,\"city\":null}]},\"street\":\"Road\"}";
+        SerProjection projection = SerProjection.of(Address.meta().number(), Address.meta().street());
+        Address parsed = JodaBeanSer.COMPACT.jsonReader(projection).read(json, Address.class);
+        assertEquals(parsed.getNumber(), 12);
+        assertEquals(parsed.getStreet(), "Road");
+        assertEquals(parsed.getOwner(), null);
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void test_read_noTypeAttributeAtRoot() {
         JodaBeanSer.COMPACT.jsonReader().read("{}");
@@ -16,6 +16,19 @@
 package org.joda.beans.ser.xml;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.joda.beans.Bean;
 import org.joda.beans.gen.Address;
@@ -54,6 +67,68 @@ public class TestSerializeXml {
         BeanAssert.assertBeanEquals(bean, address);
     }
 
+    public void test_write_chunked() throws IOException {
+        Address address = SerTestHelper.testAddress();
+        String expected = JodaBeanSer.PRETTY.xmlWriter().write(address);
+        final List<Integer> chunks = new ArrayList<Integer>();
+        StringWriter writer = new StringWriter() {
+            @Override
+            public void write(char[] cbuf, int off, int len) {
+                chunks.add(len);
+                super.write(cbuf, off, len);
+            }
+        };
+        JodaBeanXmlWriter test = new JodaBeanXmlWriter(JodaBeanSer.PRETTY, 64);
+        test.write(address, writer);
+        assertEquals(writer.toString(), expected);
+        assertEquals(chunks.size(), (expected.length() + 63) / 64);
+        assertEquals(chunks.get(0).intValue(), 64);
+
+        // reuse
+        StringWriter writer2 = new StringWriter();
+        test.write(address, writer2);
+        assertEquals(writer2.toString(), expected);
+        assertEquals(test.write(address), expected);
+    }
+
+    public void test_write_constructorBuilder() {
+        Address address = SerTestHelper.testAddress();
+        String expected = JodaBeanSer.PRETTY.xmlWriter().write(address);
+        StringBuilder builder = new StringBuilder("prefix");
+        JodaBeanXmlWriter test = new JodaBeanXmlWriter(JodaBeanSer.PRETTY, builder);
+        assertEquals(test.write(address), expected);
+        assertEquals(builder.toString(), "prefix");
+        assertSame(test.writeToBuilder(address), builder);
+        assertEquals(builder.toString(), "prefix" + expected);
+    }
+
+    public void test_write_outputStream_unicode() throws IOException {
+        FlexiBean bean = new FlexiBean();
+        bean.set("latin", "caf\u00e9 & <b>");
+        bean.set("cjk", "\u65e5\u672c\u8a9e");
+        bean.set("emoji", "smile \ud83d\ude00 end");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new JodaBeanXmlWriter(JodaBeanSer.COMPACT, 16).write(bean, baos);
+        String xml = JodaBeanSer.COMPACT.xmlWriter().write(bean);
+        assertEquals(baos.toByteArray(), xml.getBytes(Charset.forName("UTF-8")));
+
+        FlexiBean parsed = JodaBeanSer.COMPACT.xmlReader().read(new ByteArrayInputStream(baos.toByteArray()), FlexiBean.class);
+        BeanAssert.assertBeanEquals(parsed, bean);
+    }
+
+    public void test_write_emptyBeans() {
+        FlexiBean bean = new FlexiBean();
+        bean.set("empty", ImmEmpty.builder().build());
+        String xml = JodaBeanSer.COMPACT.xmlWriter().write(bean);
+        assertEquals(xml.contains("<empty type=\"org.joda.beans.gen.ImmEmpty\"/>"), true);
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.xmlReader().read(xml, FlexiBean.class), bean);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_write_bufferTooSmall() {
+        new JodaBeanXmlWriter(JodaBeanSer.COMPACT, 15);
+    }
+
     public void test_writeImmAddress() {
         ImmAddress address = SerTestHelper.testImmAddress();
         String xml = JodaBeanSer.PRETTY.xmlWriter().write(address);
@@ -150,6 +225,39 @@ public class TestSerializeXml {
         BeanAssert.assertBeanEquals(bean, parsed);
     }
 
+    public void test_read_nonStandard_withCdataAndEntitiesInProperty() {
+        String xml = "<bean><element>T&amp;<![CDATA[<e>]]>&#115;t</element></bean>";
+        FlexiBean parsed = JodaBeanSer.COMPACT.xmlReader().read(xml, FlexiBean.class);
+        FlexiBean bean = new FlexiBean();
+        bean.set("element", "T&<e>st");
+        BeanAssert.assertBeanEquals(bean, parsed);
+    }
+
+    public void test_read_repeatedOnManyThreads() throws Exception {
+        final String xml = JodaBeanSer.COMPACT.xmlWriter().write(SerTestHelper.testAddress());
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 200; j++) {
+                            BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.xmlReader().read(xml), SerTestHelper.testAddress());
+                        }
+                    } catch (Throwable ex) {
+                        failures.add(ex);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(failures, new ArrayList<Throwable>());
+    }
+
     //-----------------------------------------------------------------------
     public void test_read_aliased() {
         String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><bean type=\"org.joda.beans.gen.SimpleName\">" +
@@ -173,6 +281,56 @@ public class TestSerializeXml {
         BeanAssert.assertBeanEquals(bean, mapped);
     }
 
+    //-----------------------------------------------------------------------
+    public void test_readChildren() {
+        Address address = SerTestHelper.testAddress();
+        ImmAddress immAddress = SerTestHelper.testImmAddress();
+        StringBuilder buf = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<feed>\n<!-- comment -->\n");
+        buf.append(stripHeader(JodaBeanSer.PRETTY.xmlWriter().write(address)));
+        buf.append(stripHeader(JodaBeanSer.PRETTY.xmlWriter().write(immAddress)));
+        buf.append(stripHeader(JodaBeanSer.COMPACT.xmlWriter().write(address)));
+        buf.append("</feed>\n");
+
+        Iterator<Bean> it = JodaBeanSer.COMPACT.xmlReader().readChildren(new StringReader(buf.toString()), Bean.class);
+        assertEquals(it.hasNext(), true);
+        BeanAssert.assertBeanEquals(it.next(), address);
+        BeanAssert.assertBeanEquals(it.next(), immAddress);
+        assertEquals(it.hasNext(), true);
+        BeanAssert.assertBeanEquals(it.next(), address);
+        assertEquals(it.hasNext(), false);
+        assertEquals(it.hasNext(), false);
+    }
+
+    public void test_readChildren_inputStream_rootType() {
+        String xml = "<beans><bean><number>1</number></bean><bean><number>2</number></bean></beans>";
+        Iterator<Address> it = JodaBeanSer.COMPACT.xmlReader().readChildren(
+                new ByteArrayInputStream(xml.getBytes(Charset.forName("UTF-8"))), Address.class);
+        assertEquals(it.next().getNumber(), 1);
+        assertEquals(it.next().getNumber(), 2);
+        assertEquals(it.hasNext(), false);
+    }
+
+    public void test_readChildren_empty() {
+        Iterator<Bean> it = JodaBeanSer.COMPACT.xmlReader().readChildren(new StringReader("<beans/>"), Bean.class);
+        assertEquals(it.hasNext(), false);
+    }
+
+    @Test(expectedExceptions = NoSuchElementException.class)
+    public void test_readChildren_noSuchElement() {
+        Iterator<Bean> it = JodaBeanSer.COMPACT.xmlReader().readChildren(new StringReader("<beans></beans>"), Bean.class);
+        it.next();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_readChildren_notBeanElement() {
+        Iterator<Bean> it = JodaBeanSer.COMPACT.xmlReader().readChildren(new StringReader("<beans><foo/></beans>"), Bean.class);
+        it.next();
+    }
+
+    private static String stripHeader(String xml) {
+        return xml.substring(xml.indexOf("?>") + 2);
+    }
+
     //-----------------------------------------------------------------------
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void test_read_noBeanElementAtRoot() {